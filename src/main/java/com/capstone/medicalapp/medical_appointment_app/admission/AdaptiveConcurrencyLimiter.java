@@ -0,0 +1,89 @@
+package com.capstone.medicalapp.medical_appointment_app.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// caps concurrent writes with a limit that follows write latency: while recent latency stays close to the
+// long-term average the limit creeps up, when writes start queueing on the database and get slower the limit
+// shrinks in proportion (a gradient limiter)
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double SHORT_WEIGHT = 0.2;
+    private static final double LONG_WEIGHT = 0.01;
+    private static final double CONGESTED_LONG_WEIGHT = 0.0005;
+    private static final double SMOOTHING = 0.2;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+
+    private volatile double limit;
+    private double shortRtt;
+    private double longRtt;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Concurrency limit bounds must satisfy 1 <= min <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    // takes a slot, false when the limit is reached
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= (int) limit) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // gives the slot back and feeds the latency of the finished write into the limit
+    public void release(long rttNanos) {
+        int inflightBefore = inflight.getAndDecrement();
+        onSample(rttNanos, inflightBefore);
+    }
+
+    private synchronized void onSample(long rttNanos, int inflightBefore) {
+        if (longRtt == 0) {
+            shortRtt = rttNanos;
+            longRtt = rttNanos;
+            return;
+        }
+        shortRtt += (rttNanos - shortRtt) * SHORT_WEIGHT;
+
+        // while writes are congested the baseline only drifts up slowly, so a sustained slowdown keeps the limit
+        // down instead of quickly becoming the new normal
+        boolean congested = shortRtt > longRtt * tolerance;
+        longRtt += (rttNanos - longRtt) * (congested ? CONGESTED_LONG_WEIGHT : LONG_WEIGHT);
+
+        // when load drops the long-term average would otherwise stay high and hide the next slowdown
+        if (longRtt > shortRtt * 2) {
+            longRtt *= 0.95;
+        }
+
+        // with most slots idle a fast write says nothing about how much more load the database can take
+        if (inflightBefore < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        newLimit = limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+}
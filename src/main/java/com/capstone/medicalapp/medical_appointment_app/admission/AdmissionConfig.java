@@ -0,0 +1,53 @@
+package com.capstone.medicalapp.medical_appointment_app.admission;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@EnableConfigurationProperties(AdmissionProperties.class)
+public class AdmissionConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private AdmissionProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Bean
+    public TokenBucketRateLimiter writeRateLimiter() {
+        return new TokenBucketRateLimiter(properties.getRatePerSecond(), properties.getBurst(), properties.getMaxClients());
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimiter writeConcurrencyLimiter() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties.getInitialLimit(),
+                properties.getMinLimit(), properties.getMaxLimit(), properties.getLatencyTolerance());
+        Gauge.builder("medapp.admission.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Concurrent writes currently allowed")
+                .register(meterRegistry);
+        Gauge.builder("medapp.admission.inflight", limiter, AdaptiveConcurrencyLimiter::getInflight)
+                .description("Writes currently running")
+                .register(meterRegistry);
+        return limiter;
+    }
+
+    // runs before the clinic interceptor so a rejected request does no work at all
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        registry.addInterceptor(new AdmissionInterceptor(writeRateLimiter(), writeConcurrencyLimiter(),
+                        properties.getClientHeader(), meterRegistry))
+                .addPathPatterns("/patients/**", "/appointments/**")
+                .order(Ordered.HIGHEST_PRECEDENCE);
+    }
+}
@@ -0,0 +1,93 @@
+package com.capstone.medicalapp.medical_appointment_app.admission;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// admission control for the patient/appointment write handlers: a per-client rate limit answers 429 and the
+// adaptive concurrency limit answers 503, both before the request touches the database. reads pass straight through
+public class AdmissionInterceptor implements HandlerInterceptor {
+
+    private static final String STARTED_AT = AdmissionInterceptor.class.getName() + ".startedAt";
+
+    private final TokenBucketRateLimiter rateLimiter;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final String clientHeader;
+    private final Counter rateRejections;
+    private final Counter concurrencyRejections;
+    private final Timer writeTimer;
+
+    public AdmissionInterceptor(TokenBucketRateLimiter rateLimiter, AdaptiveConcurrencyLimiter concurrencyLimiter,
+            String clientHeader, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.clientHeader = clientHeader;
+        this.rateRejections = meterRegistry.counter("medapp.admission.rejected", "reason", "rate");
+        this.concurrencyRejections = meterRegistry.counter("medapp.admission.rejected", "reason", "concurrency");
+        this.writeTimer = meterRegistry.timer("medapp.admission.writes");
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!isWrite(request)) {
+            return true;
+        }
+
+        long waitNanos = rateLimiter.tryAcquire(clientOf(request));
+        if (waitNanos > 0) {
+            rateRejections.increment();
+            response.setHeader("Retry-After", String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999))));
+            reject(response, 429, "Too many changes from this client, please slow down");
+            return false;
+        }
+
+        if (!concurrencyLimiter.tryAcquire()) {
+            concurrencyRejections.increment();
+            response.setHeader("Retry-After", "1");
+            reject(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "The system is busy, please try again in a moment");
+            return false;
+        }
+
+        request.setAttribute(STARTED_AT, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object startedAt = request.getAttribute(STARTED_AT);
+        if (startedAt != null) {
+            long elapsed = System.nanoTime() - (long) startedAt;
+            concurrencyLimiter.release(elapsed);
+            writeTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // a plain text answer instead of sendError, which would dispatch to the error page and render it for every refusal
+    private static void reject(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write(message);
+    }
+
+    // every POST changes data, and deletes are plain GET links
+    private static boolean isWrite(HttpServletRequest request) {
+        return "POST".equals(request.getMethod()) || request.getRequestURI().contains("/delete/");
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        if (!clientHeader.isBlank()) {
+            String client = request.getHeader(clientHeader);
+            if (client != null && !client.isBlank()) {
+                return client.trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,57 @@
+package com.capstone.medicalapp.medical_appointment_app.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// binds the medapp.admission.* settings for the write endpoints
+@ConfigurationProperties(prefix = "medapp.admission")
+public class AdmissionProperties {
+
+    private boolean enabled = true;
+
+    // sustained writes per second and burst size allowed for one client
+    private double ratePerSecond = 10;
+    private int burst = 20;
+
+    // header identifying a client, e.g. X-Client-ID behind a proxy, the remote address is used when blank. only set
+    // it when a trusted proxy sets the header and drops any value the client sent, otherwise a client picks its own id
+    private String clientHeader = "";
+
+    // most clients tracked at once, idle ones are forgotten and new clients beyond it share one bucket
+    private int maxClients = 10_000;
+
+    // bounds of the adaptive limit on concurrent writes, keep maxLimit below the connection pool size
+    // so reads always find a free connection
+    private int initialLimit = 4;
+    private int minLimit = 1;
+    private int maxLimit = 8;
+
+    // how much slower than the long-term average a write may get before the limit shrinks
+    private double latencyTolerance = 1.5;
+
+    public boolean isEnabled() {return enabled;}
+    public void setEnabled(boolean enabled) {this.enabled = enabled;}
+
+    public double getRatePerSecond() {return ratePerSecond;}
+    public void setRatePerSecond(double ratePerSecond) {this.ratePerSecond = ratePerSecond;}
+
+    public int getBurst() {return burst;}
+    public void setBurst(int burst) {this.burst = burst;}
+
+    public String getClientHeader() {return clientHeader;}
+    public void setClientHeader(String clientHeader) {this.clientHeader = clientHeader;}
+
+    public int getMaxClients() {return maxClients;}
+    public void setMaxClients(int maxClients) {this.maxClients = maxClients;}
+
+    public int getInitialLimit() {return initialLimit;}
+    public void setInitialLimit(int initialLimit) {this.initialLimit = initialLimit;}
+
+    public int getMinLimit() {return minLimit;}
+    public void setMinLimit(int minLimit) {this.minLimit = minLimit;}
+
+    public int getMaxLimit() {return maxLimit;}
+    public void setMaxLimit(int maxLimit) {this.maxLimit = maxLimit;}
+
+    public double getLatencyTolerance() {return latencyTolerance;}
+    public void setLatencyTolerance(double latencyTolerance) {this.latencyTolerance = latencyTolerance;}
+}
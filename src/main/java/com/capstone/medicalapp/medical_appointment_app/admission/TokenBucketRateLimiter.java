@@ -0,0 +1,91 @@
+package com.capstone.medicalapp.medical_appointment_app.admission;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+// one token bucket per client, a request takes a token and tokens come back at ratePerSecond up to burst. once
+// maxClients are tracked and none of them is idle, new clients share one overflow bucket until some are, so a
+// flood of new client ids never resets the limits of the clients already tracked
+public class TokenBucketRateLimiter {
+
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final double tokensPerNano;
+    private final int burst;
+    private final int maxClients;
+    private final LongSupplier clock;
+    private final Bucket overflow;
+    // a bucket needs this long to refill completely, looking for idle ones more often finds nothing new
+    private final long refillNanos;
+    private volatile long evictedAt;
+
+    public TokenBucketRateLimiter(double ratePerSecond, int burst, int maxClients) {
+        this(ratePerSecond, burst, maxClients, System::nanoTime);
+    }
+
+    public TokenBucketRateLimiter(double ratePerSecond, int burst, int maxClients, LongSupplier clock) {
+        if (ratePerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate limit needs a positive rate and a burst of at least 1");
+        }
+        this.tokensPerNano = ratePerSecond / 1e9;
+        this.burst = burst;
+        this.maxClients = maxClients;
+        this.clock = clock;
+        this.overflow = new Bucket(burst, clock.getAsLong());
+        this.refillNanos = (long) Math.ceil(burst / tokensPerNano);
+        this.evictedAt = clock.getAsLong() - refillNanos;
+    }
+
+    // 0 when the request may go ahead, otherwise how many nanoseconds until the client has a token again
+    public long tryAcquire(String client) {
+        long now = clock.getAsLong();
+        Bucket bucket = buckets.get(client);
+        if (bucket == null && buckets.size() >= maxClients && !evictIdle(now)) {
+            return overflow.tryTake(now);
+        }
+        return (bucket != null ? bucket : buckets.computeIfAbsent(client, c -> new Bucket(burst, now))).tryTake(now);
+    }
+
+    public int trackedClients() {
+        return buckets.size();
+    }
+
+    // buckets that have refilled completely carry no state worth keeping, true when that made room
+    private boolean evictIdle(long now) {
+        if (now - evictedAt >= refillNanos) {
+            evictedAt = now;
+            buckets.values().removeIf(bucket -> bucket.isFull(now));
+        }
+        return buckets.size() < maxClients;
+    }
+
+    private class Bucket {
+        private double tokens;
+        private long refilledAt;
+
+        Bucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.refilledAt = now;
+        }
+
+        synchronized long tryTake(long now) {
+            refill(now);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / tokensPerNano);
+        }
+
+        synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= burst;
+        }
+
+        private void refill(long now) {
+            if (now > refilledAt) {
+                tokens = Math.min(burst, tokens + (now - refilledAt) * tokensPerNano);
+                refilledAt = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.capstone.medicalapp.medical_appointment_app.analytics;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// binds the medapp.analytics.* settings
+@ConfigurationProperties(prefix = "medapp.analytics")
+public class AnalyticsProperties {
+
+    // a snapshot older than this is rebuilt in the background the next time someone asks for a report
+    private long refreshIntervalMs = 300_000;
+    // rows fetched per round trip while building a snapshot
+    private int fetchSize = 10_000;
+    // 0 uses the common fork/join pool
+    private int parallelism = 0;
+
+    public long getRefreshIntervalMs() {return refreshIntervalMs;}
+    public void setRefreshIntervalMs(long refreshIntervalMs) {this.refreshIntervalMs = refreshIntervalMs;}
+
+    public int getFetchSize() {return fetchSize;}
+    public void setFetchSize(int fetchSize) {this.fetchSize = fetchSize;}
+
+    public int getParallelism() {return parallelism;}
+    public void setParallelism(int parallelism) {this.parallelism = parallelism;}
+}
@@ -0,0 +1,196 @@
+package com.capstone.medicalapp.medical_appointment_app.analytics;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import com.capstone.medicalapp.medical_appointment_app.model.Appointment;
+import com.capstone.medicalapp.medical_appointment_app.model.AppointmentSeries;
+import com.capstone.medicalapp.medical_appointment_app.model.RecurrenceFrequency;
+import com.capstone.medicalapp.medical_appointment_app.sharding.ClinicContext;
+import com.capstone.medicalapp.medical_appointment_app.sharding.ShardRouter;
+
+// appointment reports for management, answered from a column snapshot of the clinic instead of group bys on the
+// booking database. a snapshot is one sequential read of the appointments table plus every series expanded into its
+// occurrences, it is rebuilt in the background once it is older than the refresh interval and reports keep using the
+// old one meanwhile
+@Service
+public class AnalyticsService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsService.class);
+
+    private static final String SELECT_APPOINTMENTS = "SELECT doctor_name, appointment_date, created_at, series_code FROM appointments WHERE clinic_code = ?";
+    private static final String SELECT_SERIES = "SELECT series_id, doctor_name, start_date, end_date, frequency, repeat_interval, created_at"
+            + " FROM appointment_series WHERE clinic_code = ?";
+    private static final String SELECT_SKIPS = "SELECT k.series_id, k.occurrence_date FROM appointment_series_skips k"
+            + " JOIN appointment_series s ON s.series_id = k.series_id WHERE s.clinic_code = ?";
+    private static final int MAX_MONTHS = 120;
+
+    @Autowired
+    private AnalyticsProperties properties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    private final ConcurrentHashMap<String, AppointmentColumns> snapshots = new ConcurrentHashMap<>();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    // one per clinic, so a slow build of one clinic never holds up another's. a lock rather than a monitor because
+    // background builds run on virtual threads, which a monitor would pin to their carrier for the whole query
+    private final ConcurrentHashMap<String, ReentrantLock> buildLocks = new ConcurrentHashMap<>();
+    private final ExecutorService refreshExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Object poolLock = new Object();
+    private volatile ForkJoinPool pool;
+
+    // the current clinic's snapshot, built on the spot the first time and refreshed in the background when stale
+    public AppointmentColumns snapshot() {
+        String clinicID = ClinicContext.current();
+        AppointmentColumns columns = snapshots.get(clinicID);
+        if (columns == null) {
+            ReentrantLock lock = buildLocks.computeIfAbsent(clinicID, id -> new ReentrantLock());
+            lock.lock();
+            try {
+                columns = snapshots.get(clinicID);
+                return columns != null ? columns : refresh();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        if (Duration.between(columns.builtAt(), LocalDateTime.now()).toMillis() > properties.getRefreshIntervalMs() && refreshing.add(clinicID)) {
+            refreshExecutor.submit(() -> {
+                try {
+                    shardRouter.inClinic(clinicID, this::refresh);
+                } catch (RuntimeException e) {
+                    log.warn("Analytics snapshot refresh of clinic {} failed", clinicID, e);
+                } finally {
+                    refreshing.remove(clinicID);
+                }
+            });
+        }
+        return columns;
+    }
+
+    // rebuilds the current clinic's snapshot now, one build per clinic at a time so refreshes never pile up on the database
+    public AppointmentColumns refresh() {
+        String clinicID = ClinicContext.current();
+        ReentrantLock lock = buildLocks.computeIfAbsent(clinicID, id -> new ReentrantLock());
+        lock.lock();
+        try {
+            return build(clinicID);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private AppointmentColumns build(String clinicID) {
+        long start = System.nanoTime();
+        AppointmentColumns previous = snapshots.get(clinicID);
+        AppointmentColumns.Builder builder = new AppointmentColumns.Builder(previous == null ? 1024 : previous.size());
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_APPOINTMENTS);
+            statement.setFetchSize(properties.getFetchSize());
+            statement.setString(1, clinicID);
+            return statement;
+        }, (RowCallbackHandler) rs -> builder.add(rs.getString(1), rs.getObject(2, LocalDate.class),
+                rs.getObject(3, LocalDateTime.class).toLocalDate(), rs.getString(4) != null));
+        addOccurrences(clinicID, builder);
+
+        AppointmentColumns columns = builder.build();
+        snapshots.put(clinicID, columns);
+        log.info("Analytics snapshot of clinic {}: {} appointments, {} doctors in {} ms", clinicID, columns.size(),
+                columns.doctorNames().size(), (System.nanoTime() - start) / 1_000_000);
+        return columns;
+    }
+
+    // a series occurrence counts as booked when the series was created, the ones moved to a stored appointment are
+    // skipped by their series and come with the appointments instead
+    private void addOccurrences(String clinicID, AppointmentColumns.Builder builder) {
+        Map<Long, Set<LocalDate>> skips = new HashMap<>();
+        jdbcTemplate.query(SELECT_SKIPS, (RowCallbackHandler) rs -> skips.computeIfAbsent(rs.getLong(1), id -> new HashSet<>())
+                .add(rs.getObject(2, LocalDate.class)), clinicID);
+        jdbcTemplate.query(SELECT_SERIES, (RowCallbackHandler) rs -> {
+            AppointmentSeries series = new AppointmentSeries(null, rs.getString(2), null, rs.getObject(3, LocalDate.class),
+                    rs.getObject(4, LocalDate.class), RecurrenceFrequency.valueOf(rs.getString(5)), rs.getInt(6));
+            series.setSkippedDates(skips.getOrDefault(rs.getLong(1), Set.of()));
+            LocalDate createdDate = rs.getObject(7, LocalDateTime.class).toLocalDate();
+            for (Appointment occurrence : series.occurrencesBetween(series.getStartDate(), series.getEndDate())) {
+                builder.add(series.getDoctorName(), occurrence.getAptDate(), createdDate, false);
+            }
+        }, clinicID);
+    }
+
+    public SnapshotInfo getSnapshotInfo(AppointmentColumns columns) {
+        return new SnapshotInfo(ClinicContext.current(), columns.size(), columns.doctorNames().size(), columns.sizeInBytes(), columns.builtAt());
+    }
+
+    // appointments per doctor and month of the appointment date, months without appointments are left out
+    public List<DoctorMonthCount> getAppointmentsPerDoctorAndMonth(YearMonth from, YearMonth to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new IllegalArgumentException("Month range must start on or before its end");
+        }
+        if (from.until(to, ChronoUnit.MONTHS) >= MAX_MONTHS) {
+            throw new IllegalArgumentException("Month range cannot exceed " + MAX_MONTHS + " months");
+        }
+        return AppointmentReports.perDoctorAndMonth(snapshot(), from, to, pool());
+    }
+
+    // days from booking to appointment for appointments dated in the range, for one doctor or all of them when
+    // doctorName is blank; a null bound leaves that side open
+    public LeadTimeReport getLeadTime(String doctorName, LocalDate from, LocalDate to) {
+        String doctor = doctorName == null || doctorName.isBlank() ? null : doctorName.trim();
+        return AppointmentReports.leadTime(snapshot(), doctor, from, to, pool());
+    }
+
+    // how the appointments dated in the range stand today; a null bound leaves that side open
+    public BookingFunnel getBookingFunnel(LocalDate from, LocalDate to) {
+        return AppointmentReports.bookingFunnel(snapshot(), from, to, LocalDate.now(), pool());
+    }
+
+    // the common pool unless a dedicated parallelism is configured
+    ForkJoinPool pool() {
+        if (properties.getParallelism() <= 0) {
+            return ForkJoinPool.commonPool();
+        }
+        if (pool == null) {
+            synchronized (poolLock) {
+                if (pool == null) {
+                    pool = new ForkJoinPool(properties.getParallelism());
+                }
+            }
+        }
+        return pool;
+    }
+
+    @Override
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.capstone.medicalapp.medical_appointment_app.analytics;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// read-only column snapshot of one clinic's appointments: dates as epoch days, doctor names as codes into a
+// dictionary, so a row costs 13 bytes and a scan touches no objects
+public final class AppointmentColumns {
+
+    public static final byte FROM_SERIES = 1;
+
+    private final int size;
+    private final int[] aptDays;
+    private final int[] createdDays;
+    private final int[] doctors;
+    private final byte[] flags;
+    private final List<String> doctorNames;
+    private final LocalDateTime builtAt;
+
+    private AppointmentColumns(Builder builder) {
+        this.size = builder.size;
+        this.aptDays = Arrays.copyOf(builder.aptDays, builder.size);
+        this.createdDays = Arrays.copyOf(builder.createdDays, builder.size);
+        this.doctors = Arrays.copyOf(builder.doctors, builder.size);
+        this.flags = Arrays.copyOf(builder.flags, builder.size);
+        this.doctorNames = List.copyOf(builder.doctorNames);
+        this.builtAt = LocalDateTime.now();
+    }
+
+    public int size() {return size;}
+    public int aptDay(int row) {return aptDays[row];}
+    public int createdDay(int row) {return createdDays[row];}
+    public int doctor(int row) {return doctors[row];}
+    public byte flags(int row) {return flags[row];}
+    public boolean fromSeries(int row) {return (flags[row] & FROM_SERIES) != 0;}
+    public List<String> doctorNames() {return doctorNames;}
+    public LocalDateTime builtAt() {return builtAt;}
+
+    // dictionary code of a doctor, -1 when no row has that doctor
+    public int doctorCode(String doctorName) {
+        return doctorNames.indexOf(doctorName);
+    }
+
+    // bytes held by the columns, not counting the dictionary
+    public long sizeInBytes() {
+        return (long) size * (Integer.BYTES * 3 + 1);
+    }
+
+    public static class Builder {
+
+        private int size;
+        private int[] aptDays;
+        private int[] createdDays;
+        private int[] doctors;
+        private byte[] flags;
+        private final List<String> doctorNames = new ArrayList<>();
+        private final Map<String, Integer> doctorCodes = new HashMap<>();
+
+        public Builder(int expectedRows) {
+            int capacity = Math.max(16, expectedRows);
+            aptDays = new int[capacity];
+            createdDays = new int[capacity];
+            doctors = new int[capacity];
+            flags = new byte[capacity];
+        }
+
+        public Builder add(String doctorName, LocalDate aptDate, LocalDate createdDate, boolean fromSeries) {
+            if (size == aptDays.length) {
+                int capacity = aptDays.length + (aptDays.length >> 1);
+                aptDays = Arrays.copyOf(aptDays, capacity);
+                createdDays = Arrays.copyOf(createdDays, capacity);
+                doctors = Arrays.copyOf(doctors, capacity);
+                flags = Arrays.copyOf(flags, capacity);
+            }
+            aptDays[size] = (int) aptDate.toEpochDay();
+            createdDays[size] = (int) createdDate.toEpochDay();
+            doctors[size] = doctorCodes.computeIfAbsent(doctorName, name -> {
+                doctorNames.add(name);
+                return doctorNames.size() - 1;
+            });
+            flags[size] = fromSeries ? FROM_SERIES : 0;
+            size++;
+            return this;
+        }
+
+        public AppointmentColumns build() {
+            return new AppointmentColumns(this);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.capstone.medicalapp.medical_appointment_app.analytics;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+// the reports behind the analytics endpoint, each one a single parallel pass over the snapshot's columns;
+// date bounds are inclusive and a null bound leaves that side open
+public final class AppointmentReports {
+
+    private AppointmentReports() {}
+
+    // appointments per doctor and month of the appointment date, months without any are left out
+    public static List<DoctorMonthCount> perDoctorAndMonth(AppointmentColumns columns, YearMonth from, YearMonth to, ForkJoinPool pool) {
+        int months = (int) from.until(to, ChronoUnit.MONTHS) + 1;
+        int fromDay = (int) from.atDay(1).toEpochDay();
+        // month index of every day in the range, so rows never build a date object
+        int[] monthOfDay = new int[(int) (to.atEndOfMonth().toEpochDay() - fromDay + 1)];
+        for (int month = 0, day = 0; month < months; month++) {
+            for (int length = from.plusMonths(month).lengthOfMonth(); length > 0; length--) {
+                monthOfDay[day++] = month;
+            }
+        }
+
+        long[] counts = ColumnScan.count(columns.size(), columns.doctorNames().size() * months, (bins, row) -> {
+            int day = columns.aptDay(row) - fromDay;
+            if (day >= 0 && day < monthOfDay.length) {
+                bins[columns.doctor(row) * months + monthOfDay[day]]++;
+            }
+        }, pool);
+
+        List<DoctorMonthCount> result = new ArrayList<>();
+        for (int doctor = 0; doctor < columns.doctorNames().size(); doctor++) {
+            for (int month = 0; month < months; month++) {
+                long count = counts[doctor * months + month];
+                if (count > 0) {
+                    result.add(new DoctorMonthCount(columns.doctorNames().get(doctor), from.plusMonths(month), count));
+                }
+            }
+        }
+        result.sort(Comparator.comparing(DoctorMonthCount::doctorName).thenComparing(DoctorMonthCount::month));
+        return result;
+    }
+
+    // days from booking to appointment, a null doctor means every doctor
+    public static LeadTimeReport leadTime(AppointmentColumns columns, String doctor, LocalDate from, LocalDate to, ForkJoinPool pool) {
+        int doctorCode = doctor == null ? -1 : columns.doctorCode(doctor);
+        if (doctor != null && doctorCode < 0) {
+            return leadTimeReport(doctor, new long[LeadTimeReport.MAX_DAYS + 2]);
+        }
+
+        int fromDay = from == null ? Integer.MIN_VALUE : (int) from.toEpochDay();
+        int toDay = to == null ? Integer.MAX_VALUE : (int) to.toEpochDay();
+        // one bin per day of lead time up to MAX_DAYS, the last bin holds the sum of all lead times
+        int sumBin = LeadTimeReport.MAX_DAYS + 1;
+        long[] histogram = ColumnScan.count(columns.size(), sumBin + 1, (bins, row) -> {
+            int day = columns.aptDay(row);
+            if (day >= fromDay && day <= toDay && (doctorCode < 0 || columns.doctor(row) == doctorCode)) {
+                int lead = Math.max(0, day - columns.createdDay(row));
+                bins[Math.min(lead, LeadTimeReport.MAX_DAYS)]++;
+                bins[sumBin] += lead;
+            }
+        }, pool);
+        return leadTimeReport(doctor, histogram);
+    }
+
+    private static LeadTimeReport leadTimeReport(String doctor, long[] histogram) {
+        int sumBin = LeadTimeReport.MAX_DAYS + 1;
+        long appointments = 0;
+        for (int i = 0; i < sumBin; i++) {
+            appointments += histogram[i];
+        }
+
+        List<LeadTimeReport.Bucket> buckets = List.of(
+                new LeadTimeReport.Bucket("same day", sum(histogram, 0, 0)),
+                new LeadTimeReport.Bucket("1 day", sum(histogram, 1, 1)),
+                new LeadTimeReport.Bucket("2-7 days", sum(histogram, 2, 7)),
+                new LeadTimeReport.Bucket("8-30 days", sum(histogram, 8, 30)),
+                new LeadTimeReport.Bucket("31-90 days", sum(histogram, 31, 90)),
+                new LeadTimeReport.Bucket("91+ days", sum(histogram, 91, LeadTimeReport.MAX_DAYS)));
+        double mean = appointments == 0 ? 0 : (double) histogram[sumBin] / appointments;
+        return new LeadTimeReport(doctor, appointments, mean, percentile(histogram, appointments, 0.5),
+                percentile(histogram, appointments, 0.9), buckets);
+    }
+
+    private static long sum(long[] histogram, int from, int to) {
+        long total = 0;
+        for (int i = from; i <= to; i++) {
+            total += histogram[i];
+        }
+        return total;
+    }
+
+    private static int percentile(long[] histogram, long appointments, double quantile) {
+        long rank = (long) Math.ceil(quantile * appointments);
+        long seen = 0;
+        for (int days = 0; days <= LeadTimeReport.MAX_DAYS; days++) {
+            seen += histogram[days];
+            if (seen >= rank && seen > 0) {
+                return days;
+            }
+        }
+        return 0;
+    }
+
+    // splits the appointments dated in the range at today
+    public static BookingFunnel bookingFunnel(AppointmentColumns columns, LocalDate from, LocalDate to, LocalDate today, ForkJoinPool pool) {
+        int fromDay = from == null ? Integer.MIN_VALUE : (int) from.toEpochDay();
+        int toDay = to == null ? Integer.MAX_VALUE : (int) to.toEpochDay();
+        int todayDay = (int) today.toEpochDay();
+
+        long[] counts = ColumnScan.count(columns.size(), 4, (bins, row) -> {
+            int day = columns.aptDay(row);
+            if (day >= fromDay && day <= toDay) {
+                bins[0]++;
+                // sign bit instead of a branch, the dates fall either side of today about at random
+                bins[1 + ((day - todayDay) >>> 31)]++;
+                bins[3] += columns.flags(row) & AppointmentColumns.FROM_SERIES;
+            }
+        }, pool);
+        return new BookingFunnel(counts[0], counts[1], counts[2], counts[3]);
+    }
+}
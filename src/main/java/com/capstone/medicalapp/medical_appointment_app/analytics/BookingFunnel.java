@@ -0,0 +1,5 @@
+package com.capstone.medicalapp.medical_appointment_app.analytics;
+
+// booked appointments split by what happened to them so far: still ahead, date already passed, or a series
+// occurrence someone had to move to its own appointment
+public record BookingFunnel(long booked, long upcoming, long past, long movedFromSeries) {}
@@ -0,0 +1,59 @@
+package com.capstone.medicalapp.medical_appointment_app.analytics;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// parallel counting over a column snapshot: the rows are split in halves on a fork/join pool, every leaf counts its
+// rows into a private long[] and the halves are summed on the way back, so no bin is ever shared between threads
+final class ColumnScan {
+
+    // rows one leaf counts on its own, small enough to spread a million rows over a few cores
+    static final int ROWS_PER_TASK = 1 << 15;
+
+    interface RowCounter {
+        // adds the row to whatever bins it belongs in, rows that match nothing are simply not counted
+        void count(long[] bins, int row);
+    }
+
+    private ColumnScan() {}
+
+    static long[] count(int rows, int bins, RowCounter counter, ForkJoinPool pool) {
+        return pool.invoke(new CountTask(0, rows, bins, counter));
+    }
+
+    private static class CountTask extends RecursiveTask<long[]> {
+
+        private final int from;
+        private final int to;
+        private final int bins;
+        private final RowCounter counter;
+
+        CountTask(int from, int to, int bins, RowCounter counter) {
+            this.from = from;
+            this.to = to;
+            this.bins = bins;
+            this.counter = counter;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= ROWS_PER_TASK) {
+                long[] counts = new long[bins];
+                for (int row = from; row < to; row++) {
+                    counter.count(counts, row);
+                }
+                return counts;
+            }
+
+            int middle = (from + to) >>> 1;
+            CountTask right = new CountTask(middle, to, bins, counter);
+            right.fork();
+            long[] counts = new CountTask(from, middle, bins, counter).compute();
+            long[] rightCounts = right.join();
+            for (int i = 0; i < bins; i++) {
+                counts[i] += rightCounts[i];
+            }
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.capstone.medicalapp.medical_appointment_app.analytics;
+
+import java.time.YearMonth;
+
+public record DoctorMonthCount(String doctorName, YearMonth month, long appointments) {}
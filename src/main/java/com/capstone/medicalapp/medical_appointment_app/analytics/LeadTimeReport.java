@@ -0,0 +1,11 @@
+package com.capstone.medicalapp.medical_appointment_app.analytics;
+
+import java.util.List;
+
+// days between booking and the appointment, percentiles are capped at MAX_DAYS
+public record LeadTimeReport(String doctorName, long appointments, double meanDays, int medianDays, int p90Days, List<Bucket> buckets) {
+
+    public static final int MAX_DAYS = 366;
+
+    public record Bucket(String label, long appointments) {}
+}
@@ -0,0 +1,5 @@
+package com.capstone.medicalapp.medical_appointment_app.analytics;
+
+import java.time.LocalDateTime;
+
+public record SnapshotInfo(String clinicID, int rows, int doctors, long sizeInBytes, LocalDateTime builtAt) {}
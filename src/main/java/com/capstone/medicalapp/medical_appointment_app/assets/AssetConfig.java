@@ -0,0 +1,37 @@
+package com.capstone.medicalapp.medical_appointment_app.assets;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.ResourceUrlEncodingFilter;
+
+// serves everything under static/ with a content hash in the url (e.g. styles-3f2a...css) so browsers can keep
+// it for a year without asking again, and picks the precompressed .br/.gz file next to an asset when the browser
+// accepts it. the plain url of an asset is revalidated on every use. links in templates must go through @{...} to
+// get the fingerprinted url
+@Configuration
+public class AssetConfig implements WebMvcConfigurer {
+
+    private static final long CACHE_DAYS = 365;
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        registry.addResourceHandler("/**")
+                .addResourceLocations("classpath:/static/")
+                .setCacheControl(CacheControl.noCache().cachePublic())
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new FingerprintResourceResolver(CacheControl.maxAge(CACHE_DAYS, TimeUnit.DAYS).cachePublic().immutable()));
+    }
+
+    // rewrites @{/styles.css} in templates to the fingerprinted url
+    @Bean
+    public ResourceUrlEncodingFilter resourceUrlEncodingFilter() {
+        return new ResourceUrlEncodingFilter();
+    }
+}
@@ -0,0 +1,75 @@
+package com.capstone.medicalapp.medical_appointment_app.assets;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.util.List;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.resource.HttpResource;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+// resolves content-hashed urls like VersionResourceResolver, and only an asset asked for by its hash gets the
+// cache policy for good. the same file under its plain url (/styles.css) can change with the next release, so it
+// keeps the handler's revalidating policy
+class FingerprintResourceResolver extends VersionResourceResolver {
+
+    private final CacheControl fingerprinted;
+
+    FingerprintResourceResolver(CacheControl fingerprinted) {
+        this.fingerprinted = fingerprinted;
+        addContentVersionStrategy("/**");
+    }
+
+    @Override
+    protected Resource resolveResourceInternal(HttpServletRequest request, String requestPath, List<? extends Resource> locations,
+            ResourceResolverChain chain) {
+        Resource resolved = super.resolveResourceInternal(request, requestPath, locations, chain);
+        // a plain url comes back as the file itself, a matching hash as an HttpResource carrying the etag
+        return resolved instanceof HttpResource versioned ? new Fingerprinted(resolved, versioned, fingerprinted) : resolved;
+    }
+
+    // the versioned resource with its headers plus the cache policy, the handler applies these after its own
+    private static final class Fingerprinted extends AbstractResource implements HttpResource {
+
+        private final Resource resource;
+        private final HttpResource versioned;
+        private final CacheControl cacheControl;
+
+        Fingerprinted(Resource resource, HttpResource versioned, CacheControl cacheControl) {
+            this.resource = resource;
+            this.versioned = versioned;
+            this.cacheControl = cacheControl;
+        }
+
+        @Override
+        public HttpHeaders getResponseHeaders() {
+            HttpHeaders headers = new HttpHeaders();
+            headers.putAll(versioned.getResponseHeaders());
+            headers.setCacheControl(cacheControl);
+            return headers;
+        }
+
+        @Override public boolean exists() {return resource.exists();}
+        @Override public boolean isReadable() {return resource.isReadable();}
+        @Override public boolean isOpen() {return resource.isOpen();}
+        @Override public boolean isFile() {return resource.isFile();}
+        @Override public URL getURL() throws IOException {return resource.getURL();}
+        @Override public URI getURI() throws IOException {return resource.getURI();}
+        @Override public File getFile() throws IOException {return resource.getFile();}
+        @Override public InputStream getInputStream() throws IOException {return resource.getInputStream();}
+        @Override public long contentLength() throws IOException {return resource.contentLength();}
+        @Override public long lastModified() throws IOException {return resource.lastModified();}
+        @Override public Resource createRelative(String relativePath) throws IOException {return resource.createRelative(relativePath);}
+        @Override public String getFilename() {return resource.getFilename();}
+        @Override public String getDescription() {return resource.getDescription();}
+    }
+}
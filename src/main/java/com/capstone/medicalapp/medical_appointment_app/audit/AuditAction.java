@@ -0,0 +1,8 @@
+package com.capstone.medicalapp.medical_appointment_app.audit;
+
+// kinds of change recorded in the audit log
+public enum AuditAction {
+    CREATE,
+    UPDATE,
+    DELETE
+}
@@ -0,0 +1,9 @@
+package com.capstone.medicalapp.medical_appointment_app.audit;
+
+// thrown to the writing request when the audit queue stays full, so the change is refused instead of going unaudited
+public class AuditBackpressureException extends IllegalStateException {
+
+    public AuditBackpressureException(String message) {
+        super(message);
+    }
+}
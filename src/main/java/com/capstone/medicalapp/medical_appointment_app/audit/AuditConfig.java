@@ -0,0 +1,25 @@
+package com.capstone.medicalapp.medical_appointment_app.audit;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@EnableConfigurationProperties(AuditProperties.class)
+public class AuditConfig {
+
+    @Bean
+    public AuditQueue auditQueue(AuditProperties properties, MeterRegistry meterRegistry) {
+        AuditQueue queue = new AuditQueue(properties.getQueueCapacity());
+        Gauge.builder("medapp.audit.queue.size", queue, AuditQueue::size)
+                .description("Audit events waiting for the writer")
+                .register(meterRegistry);
+        Gauge.builder("medapp.audit.queue.used", queue, AuditQueue::permitsUsed)
+                .description("Audit queue slots taken, including open transactions and batches being written")
+                .register(meterRegistry);
+        return queue;
+    }
+}
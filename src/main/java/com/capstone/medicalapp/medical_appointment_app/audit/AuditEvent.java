@@ -0,0 +1,6 @@
+package com.capstone.medicalapp.medical_appointment_app.audit;
+
+import java.time.LocalDateTime;
+
+// one change waiting in the audit queue
+public record AuditEvent(String entityType, String entityID, AuditAction action, String changedBy, String details, String clinicID, LocalDateTime changedAt) {}
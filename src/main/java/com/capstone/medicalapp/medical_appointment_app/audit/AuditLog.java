@@ -0,0 +1,254 @@
+package com.capstone.medicalapp.medical_appointment_app.audit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.capstone.medicalapp.medical_appointment_app.model.AuditEntry;
+import com.capstone.medicalapp.medical_appointment_app.repository.AuditEntryRepository;
+import com.capstone.medicalapp.medical_appointment_app.sharding.ClinicContext;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+
+// records who changed what without writing to the database on the request thread, events are queued after the
+// surrounding transaction commits and written in batches by AuditWriter
+@Service
+public class AuditLog {
+
+    public static final String USER_HEADER = "X-User-ID";
+
+    private static final int DETAILS_LENGTH = 1000;
+
+    @Autowired
+    private AuditQueue queue;
+
+    @Autowired
+    private AuditWriter writer;
+
+    @Autowired
+    private AuditProperties properties;
+
+    @Autowired
+    private AuditEntryRepository auditEntryRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Counter recordedCounter;
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    void registerMetrics() {
+        recordedCounter = meterRegistry.counter("medapp.audit.events", "result", "queued");
+        rejectedCounter = meterRegistry.counter("medapp.audit.events", "result", "rejected");
+    }
+
+    public void recordCreate(String entityType, String entityID, Map<String, Object> values) {
+        record(entityType, entityID, AuditAction.CREATE, currentActor(), describe(values));
+    }
+
+    // a create made on another thread on behalf of the given actor, see currentActor
+    public void recordCreate(String entityType, String entityID, Map<String, Object> values, String actor) {
+        record(entityType, entityID, AuditAction.CREATE, actor, describe(values));
+    }
+
+    // only the fields that actually changed are kept, nothing is recorded when nothing changed
+    public void recordUpdate(String entityType, String entityID, Map<String, Object> before, Map<String, Object> after) {
+        StringBuilder details = new StringBuilder();
+        for (Map.Entry<String, Object> field : after.entrySet()) {
+            Object old = before.get(field.getKey());
+            if (!Objects.equals(old, field.getValue())) {
+                if (details.length() > 0) {
+                    details.append("; ");
+                }
+                details.append(field.getKey()).append(": ").append(old).append(" -> ").append(field.getValue());
+            }
+        }
+
+        if (details.length() > 0) {
+            record(entityType, entityID, AuditAction.UPDATE, currentActor(), details.toString());
+        }
+    }
+
+    public void recordUpdate(String entityType, String entityID, String details) {
+        record(entityType, entityID, AuditAction.UPDATE, currentActor(), details);
+    }
+
+    public void recordDelete(String entityType, String entityID, Map<String, Object> values) {
+        record(entityType, entityID, AuditAction.DELETE, currentActor(), describe(values));
+    }
+
+    // history of one record in the current clinic, oldest first, including events the writer has not flushed yet
+    public List<AuditEntry> getHistory(String entityType, String entityID) {
+        List<AuditEntry> history = new ArrayList<>(auditEntryRepository.findByEntityTypeAndEntityIDOrderByChangedAtAscIdAsc(entityType, entityID));
+
+        String clinicID = ClinicContext.current();
+        for (AuditEvent event : queue.pending()) {
+            if (event.entityType().equals(entityType) && event.entityID().equals(entityID) && event.clinicID().equals(clinicID)) {
+                history.add(new AuditEntry(event.entityType(), event.entityID(), event.action().name(), event.changedBy(),
+                        event.details(), event.clinicID(), event.changedAt()));
+            }
+        }
+        return history;
+    }
+
+    // reserves room for the events of a bulk change before its first write, so a full queue refuses it before any
+    // row is locked rather than part way through. the events recorded afterwards in the transaction use these slots.
+    // a change with more events than the queue holds would wait for its own slots, it is refused at once
+    public void reserve(int events) {
+        if (events < 1 || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Pending pending = pending();
+        int permits = events - pending.unused();
+        if (permits > 0) {
+            checkFits(pending.reserved + permits);
+            reserve(permits, pending);
+            pending.reserved += permits;
+        }
+    }
+
+    // the slot is reserved now so a full queue fails the write, the event itself is only queued once the change commits
+    private void record(String entityType, String entityID, AuditAction action, String actor, String details) {
+        AuditEvent event = new AuditEvent(entityType, entityID, action, actor, truncate(details),
+                ClinicContext.current(), LocalDateTime.now());
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reserve(1, null);
+            publish(event);
+            return;
+        }
+        Pending pending = pending();
+        if (pending.unused() == 0) {
+            checkFits(pending.reserved + 1);
+            reserve(1, pending);
+            pending.reserved++;
+        }
+        pending.events.add(event);
+    }
+
+    // the events of the current transaction, a nested new transaction has its own
+    private Pending pending() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof Pending pending && pending.owner() == this) {
+                return pending;
+            }
+        }
+        Pending pending = new Pending();
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        return pending;
+    }
+
+    private void publish(AuditEvent event) {
+        recordedCounter.increment();
+        if (queue.publish(event) >= properties.getBatchSize()) {
+            writer.wakeUp();
+        }
+    }
+
+    private void checkFits(int events) {
+        if (events > queue.capacity()) {
+            rejectedCounter.increment();
+            throw new IllegalArgumentException("A change of " + events + " audited records cannot be written at once, the audit queue holds "
+                    + queue.capacity() + "; split the change");
+        }
+    }
+
+    // applies the overflow policy when the queue is full. a transaction waits block-timeout-ms at most in total,
+    // however many of its events have to wait, so a bulk write does not hold its connection for a timeout per row
+    private void reserve(int permits, Pending pending) {
+        if (queue.tryReserve(permits)) {
+            return;
+        }
+
+        if (properties.getOverflow() == AuditProperties.Overflow.BLOCK) {
+            long deadline;
+            if (pending == null) {
+                deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getBlockTimeoutMs());
+            } else {
+                if (pending.deadline == 0) {
+                    pending.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getBlockTimeoutMs());
+                }
+                deadline = pending.deadline;
+            }
+            writer.wakeUp();
+            while (System.nanoTime() < deadline) {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+                if (queue.tryReserve(permits)) {
+                    return;
+                }
+            }
+        }
+
+        rejectedCounter.increment();
+        throw new AuditBackpressureException("The audit log is falling behind, please try again in a moment");
+    }
+
+    // the X-User-ID header when a request sends one, otherwise the client address, or "system" outside a request
+    public String currentActor() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servletAttributes) {
+            HttpServletRequest request = servletAttributes.getRequest();
+            String user = request.getHeader(USER_HEADER);
+            return truncate(user != null && !user.isBlank() ? user.trim() : "web:" + request.getRemoteAddr(), 100);
+        }
+        return "system";
+    }
+
+    // slots held by one transaction and the events waiting for it to commit, the slots it did not use are given back
+    private final class Pending implements TransactionSynchronization {
+
+        private final List<AuditEvent> events = new ArrayList<>();
+        private int reserved;
+        // when the transaction's wait for room ends, 0 until it first has to wait
+        private long deadline;
+
+        AuditLog owner() {return AuditLog.this;}
+
+        int unused() {return reserved - events.size();}
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status == STATUS_COMMITTED) {
+                events.forEach(AuditLog.this::publish);
+                queue.release(unused());
+            } else {
+                queue.release(reserved);
+            }
+        }
+    }
+
+    private static String describe(Map<String, Object> values) {
+        StringBuilder details = new StringBuilder();
+        for (Map.Entry<String, Object> field : values.entrySet()) {
+            if (details.length() > 0) {
+                details.append("; ");
+            }
+            details.append(field.getKey()).append("=").append(field.getValue());
+        }
+        return details.toString();
+    }
+
+    private static String truncate(String value) {
+        return truncate(value, DETAILS_LENGTH);
+    }
+
+    private static String truncate(String value, int length) {
+        return value.length() > length ? value.substring(0, length) : value;
+    }
+}
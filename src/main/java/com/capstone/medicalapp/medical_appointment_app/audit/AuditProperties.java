@@ -0,0 +1,37 @@
+package com.capstone.medicalapp.medical_appointment_app.audit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// binds the medapp.audit.* settings
+@ConfigurationProperties(prefix = "medapp.audit")
+public class AuditProperties {
+
+    // what a write does when the queue is full
+    public enum Overflow {
+        // wait up to blockTimeoutMs for room, then refuse the write
+        BLOCK,
+        // refuse the write straight away
+        REJECT
+    }
+
+    private int queueCapacity = 10_000;
+    private int batchSize = 200;
+    private long flushIntervalMs = 200;
+    private Overflow overflow = Overflow.BLOCK;
+    private long blockTimeoutMs = 500;
+
+    public int getQueueCapacity() {return queueCapacity;}
+    public void setQueueCapacity(int queueCapacity) {this.queueCapacity = queueCapacity;}
+
+    public int getBatchSize() {return batchSize;}
+    public void setBatchSize(int batchSize) {this.batchSize = batchSize;}
+
+    public long getFlushIntervalMs() {return flushIntervalMs;}
+    public void setFlushIntervalMs(long flushIntervalMs) {this.flushIntervalMs = flushIntervalMs;}
+
+    public Overflow getOverflow() {return overflow;}
+    public void setOverflow(Overflow overflow) {this.overflow = overflow;}
+
+    public long getBlockTimeoutMs() {return blockTimeoutMs;}
+    public void setBlockTimeoutMs(long blockTimeoutMs) {this.blockTimeoutMs = blockTimeoutMs;}
+}
@@ -0,0 +1,81 @@
+package com.capstone.medicalapp.medical_appointment_app.audit;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// bounded multi-producer queue without locks: a CAS permit counter enforces the bound and a linked queue holds
+// the events. a permit is taken when a write starts and only given back once its event is written (or the write
+// rolls back), so events sitting in a batch that is being retried still count against the capacity
+public class AuditQueue {
+
+    private final ConcurrentLinkedQueue<AuditEvent> events = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger permitsUsed = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final int capacity;
+
+    public AuditQueue(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Audit queue capacity must be at least 1");
+        }
+        this.capacity = capacity;
+    }
+
+    // takes a permit, false when the queue is full
+    public boolean tryReserve() {
+        return tryReserve(1);
+    }
+
+    // takes all the permits or none, false when the queue has no room for all of them
+    public boolean tryReserve(int permits) {
+        while (true) {
+            int used = permitsUsed.get();
+            if (used > capacity - permits) {
+                return false;
+            }
+            if (permitsUsed.compareAndSet(used, used + permits)) {
+                return true;
+            }
+        }
+    }
+
+    // gives back permits for events that were written or will never be published
+    public void release(int permits) {
+        permitsUsed.addAndGet(-permits);
+    }
+
+    // adds an event whose permit was already reserved, returns the number of queued events
+    public int publish(AuditEvent event) {
+        events.offer(event);
+        return queued.incrementAndGet();
+    }
+
+    // moves up to max events into the batch, their permits stay taken until release
+    public int drainTo(List<AuditEvent> batch, int max) {
+        int drained = 0;
+        AuditEvent event;
+        while (drained < max && (event = events.poll()) != null) {
+            batch.add(event);
+            drained++;
+        }
+        queued.addAndGet(-drained);
+        return drained;
+    }
+
+    // weakly consistent view of events not yet handed to the writer
+    public Iterable<AuditEvent> pending() {
+        return events;
+    }
+
+    public int size() {
+        return queued.get();
+    }
+
+    public int permitsUsed() {
+        return permitsUsed.get();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,50 @@
+package com.capstone.medicalapp.medical_appointment_app.audit;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.capstone.medicalapp.medical_appointment_app.model.Appointment;
+import com.capstone.medicalapp.medical_appointment_app.model.AppointmentSeries;
+import com.capstone.medicalapp.medical_appointment_app.model.Patient;
+
+// the audited fields of each entity, in display order
+public final class AuditSnapshots {
+
+    public static final String PATIENT = "PATIENT";
+    public static final String APPOINTMENT = "APPOINTMENT";
+    public static final String SERIES = "SERIES";
+
+    private AuditSnapshots() {}
+
+    public static Map<String, Object> of(Patient patient) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("name", patient.getName());
+        values.put("phone", patient.getPhone());
+        values.put("email", patient.getEmail());
+        return values;
+    }
+
+    public static Map<String, Object> of(Appointment appointment) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("patientID", appointment.getPatientID());
+        values.put("doctorName", appointment.getDoctorName());
+        values.put("aptDate", appointment.getAptDate());
+        values.put("description", appointment.getDescription());
+        if (appointment.getSeriesID() != null) {
+            values.put("seriesID", appointment.getSeriesID());
+        }
+        return values;
+    }
+
+    public static Map<String, Object> of(AppointmentSeries series) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("patientID", series.getPatientID());
+        values.put("doctorName", series.getDoctorName());
+        values.put("description", series.getDescription());
+        values.put("startDate", series.getStartDate());
+        values.put("endDate", series.getEndDate());
+        values.put("frequency", series.getFrequency());
+        values.put("interval", series.getInterval());
+        return values;
+    }
+}
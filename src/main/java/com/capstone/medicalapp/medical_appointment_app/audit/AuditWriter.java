@@ -0,0 +1,165 @@
+package com.capstone.medicalapp.medical_appointment_app.audit;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.capstone.medicalapp.medical_appointment_app.sharding.ClinicContext;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// single background thread that drains the audit queue and writes it to audit_log in batched inserts
+@Component
+public class AuditWriter implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditWriter.class);
+
+    private static final String INSERT_SQL = "INSERT INTO audit_log (entity_type, entity_code, action, changed_by, details, clinic_code, changed_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final long RETRY_BACKOFF_MS = 1000;
+
+    @Autowired
+    private AuditQueue queue;
+
+    @Autowired
+    private AuditProperties properties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Counter writtenCounter;
+    private Counter failedCounter;
+    private volatile Thread thread;
+    private volatile boolean running;
+
+    @Override
+    public void start() {
+        writtenCounter = meterRegistry.counter("medapp.audit.events", "result", "written");
+        failedCounter = meterRegistry.counter("medapp.audit.flush.failures");
+        running = true;
+        thread = Thread.ofPlatform().name("audit-writer").daemon().start(this::run);
+    }
+
+    // drains until stopped, then writes whatever is left before exiting
+    private void run() {
+        List<AuditEvent> batch = new ArrayList<>(properties.getBatchSize());
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(properties.getFlushIntervalMs());
+
+        while (running || queue.size() > 0 || !batch.isEmpty()) {
+            queue.drainTo(batch, properties.getBatchSize() - batch.size());
+
+            if (!batch.isEmpty() && !write(batch)) {
+                if (!running) {
+                    log.error("Dropping {} audit events that could not be written during shutdown", batch.size());
+                    queue.release(batch.size());
+                    batch.clear();
+                } else {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(RETRY_BACKOFF_MS));
+                }
+                continue;
+            }
+
+            // wait for a full batch or the flush interval, producers unpark us when a batch is ready
+            if (running && queue.size() < properties.getBatchSize()) {
+                LockSupport.parkNanos(flushIntervalNanos);
+            }
+        }
+    }
+
+    // writes the batch one clinic at a time so each group goes to its shard, written events leave the batch
+    private boolean write(List<AuditEvent> batch) {
+        Map<String, List<AuditEvent>> byClinic = new LinkedHashMap<>();
+        for (AuditEvent event : batch) {
+            byClinic.computeIfAbsent(event.clinicID(), clinic -> new ArrayList<>()).add(event);
+        }
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Iterator<Map.Entry<String, List<AuditEvent>>> groups = byClinic.entrySet().iterator();
+        while (groups.hasNext()) {
+            Map.Entry<String, List<AuditEvent>> group = groups.next();
+            List<Object[]> rows = new ArrayList<>(group.getValue().size());
+            for (AuditEvent event : group.getValue()) {
+                rows.add(new Object[] {event.entityType(), event.entityID(), event.action().name(), event.changedBy(),
+                        event.details(), event.clinicID(), Timestamp.valueOf(event.changedAt())});
+            }
+
+            ClinicContext.set(group.getKey());
+            try {
+                transaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, rows));
+            } catch (RuntimeException e) {
+                failedCounter.increment();
+                log.warn("Could not write {} audit events for clinic {}, will retry", rows.size(), group.getKey(), e);
+                return false;
+            } finally {
+                ClinicContext.clear();
+            }
+
+            batch.removeAll(group.getValue());
+            queue.release(rows.size());
+            writtenCounter.increment(rows.size());
+            groups.remove();
+        }
+        return true;
+    }
+
+    // asks the writer to flush now instead of waiting for the interval
+    public void wakeUp() {
+        Thread current = thread;
+        if (current != null) {
+            LockSupport.unpark(current);
+        }
+    }
+
+    // waits until every reserved event has been written, mainly for tests and shutdown hooks
+    public boolean awaitDrained(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (queue.permitsUsed() > 0) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            wakeUp();
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        return true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread current = thread;
+        if (current != null) {
+            LockSupport.unpark(current);
+            try {
+                current.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,8 @@
+package com.capstone.medicalapp.medical_appointment_app.changefeed;
+
+import java.time.LocalDateTime;
+
+import com.capstone.medicalapp.medical_appointment_app.model.ChangeOperation;
+
+// one record to apply on the client, data is the record as it is now and null for a delete
+public record Change(long sequence, String entityType, String entityID, ChangeOperation operation, LocalDateTime changedAt, Object data) {}
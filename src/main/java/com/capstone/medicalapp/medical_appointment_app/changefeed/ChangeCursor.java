@@ -0,0 +1,26 @@
+package com.capstone.medicalapp.medical_appointment_app.changefeed;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// position in the change feed, the (commitNumber, sequence) of the last entry a client has seen. clients only
+// ever get it base64 encoded and hand it back unchanged
+public record ChangeCursor(long commitNumber, long sequence) {
+
+    // before the first entry
+    public static final ChangeCursor START = new ChangeCursor(0, 0);
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((commitNumber + "/" + sequence).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ChangeCursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int slash = value.lastIndexOf('/');
+            return new ChangeCursor(Long.parseLong(value.substring(0, slash)), Long.parseLong(value.substring(slash + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid sync cursor");
+        }
+    }
+}
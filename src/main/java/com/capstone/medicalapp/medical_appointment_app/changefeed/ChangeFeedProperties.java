@@ -0,0 +1,17 @@
+package com.capstone.medicalapp.medical_appointment_app.changefeed;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// binds the medapp.changefeed.* settings
+@ConfigurationProperties(prefix = "medapp.changefeed")
+public class ChangeFeedProperties {
+
+    private int defaultPageSize = 100;
+    private int maxPageSize = 1000;
+
+    public int getDefaultPageSize() {return defaultPageSize;}
+    public void setDefaultPageSize(int defaultPageSize) {this.defaultPageSize = defaultPageSize;}
+
+    public int getMaxPageSize() {return maxPageSize;}
+    public void setMaxPageSize(int maxPageSize) {this.maxPageSize = maxPageSize;}
+}
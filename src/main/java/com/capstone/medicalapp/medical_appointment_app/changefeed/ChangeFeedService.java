@@ -0,0 +1,230 @@
+package com.capstone.medicalapp.medical_appointment_app.changefeed;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.capstone.medicalapp.medical_appointment_app.audit.AuditSnapshots;
+import com.capstone.medicalapp.medical_appointment_app.model.Appointment;
+import com.capstone.medicalapp.medical_appointment_app.model.AppointmentSeries;
+import com.capstone.medicalapp.medical_appointment_app.model.ChangeLogEntry;
+import com.capstone.medicalapp.medical_appointment_app.model.ChangeOperation;
+import com.capstone.medicalapp.medical_appointment_app.model.Patient;
+import com.capstone.medicalapp.medical_appointment_app.readmodel.ReadModel;
+import com.capstone.medicalapp.medical_appointment_app.repository.AppointmentRepository;
+import com.capstone.medicalapp.medical_appointment_app.repository.AppointmentSeriesRepository;
+import com.capstone.medicalapp.medical_appointment_app.repository.ChangeLogRepository;
+import com.capstone.medicalapp.medical_appointment_app.repository.PatientRepository;
+import com.capstone.medicalapp.medical_appointment_app.sharding.ClinicContext;
+
+// incremental sync for offline clients: every write appends to change_log in its own transaction and a client
+// pages through the entries after its cursor, so a sync costs the number of changes rather than the data set.
+// just before a write commits it takes the clinic's next commit number from change_sequences and inserts its
+// entries under it. the row lock on the counter is held until the commit, so the clinic's writes commit in number
+// order and a reader only ever sees a gapless run of numbers: no entry can appear behind a cursor that already
+// went past it, whatever the clocks say and however long the transaction ran
+@Service
+@Transactional
+public class ChangeFeedService {
+
+    private static final String INSERT_ENTRY = "INSERT INTO change_log (entity_type, entity_code, operation, clinic_code, changed_at, commit_number)"
+            + " VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String NEXT_COMMIT = "UPDATE change_sequences SET last_commit = last_commit + 1 WHERE clinic_code = ?";
+    private static final String INSERT_SEQUENCE = "INSERT INTO change_sequences (clinic_code, last_commit) VALUES (?, 1)";
+    private static final String SELECT_COMMIT = "SELECT last_commit FROM change_sequences WHERE clinic_code = ?";
+
+    @Autowired
+    private ChangeFeedProperties properties;
+
+    @Autowired
+    private ChangeLogRepository changeLogRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private AppointmentSeriesRepository seriesRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // follows the feed, every recorded change is read back into it once the write commits
+    @Autowired
+    private ReadModel readModel;
+
+    // entityType is one of the AuditSnapshots types
+    public void recordUpsert(String entityType, String entityID) {
+        record(entityType, entityID, ChangeOperation.UPSERT);
+    }
+
+    public void recordDelete(String entityType, String entityID) {
+        record(entityType, entityID, ChangeOperation.DELETE);
+    }
+
+    // a bulk write records all its records at once
+    public void recordUpserts(String entityType, List<String> entityIDs) {
+        String clinicID = ClinicContext.current();
+        Pending pending = pending();
+        for (String entityID : entityIDs) {
+            pending.rows.add(new Object[] {entityType, entityID, ChangeOperation.UPSERT.name(), clinicID});
+        }
+        readModel.changed(entityType, entityIDs);
+    }
+
+    private void record(String entityType, String entityID, ChangeOperation operation) {
+        pending().rows.add(new Object[] {entityType, entityID, operation.name(), ClinicContext.current()});
+        readModel.changed(entityType, List.of(entityID));
+    }
+
+    // the entries of the current transaction, written by one batched insert when it is about to commit. it is kept
+    // as a synchronization rather than a bound resource so a nested new transaction gets its own
+    private Pending pending() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof Pending pending && pending.owner() == this) {
+                return pending;
+            }
+        }
+        Pending pending = new Pending();
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        return pending;
+    }
+
+    private void insert(List<Object[]> rows) {
+        // pending entity changes would otherwise be flushed by the commit, while the counter is locked
+        changeLogRepository.flush();
+        // a write normally stays in one clinic, several are numbered in a fixed order so two writes never wait on each other
+        Map<String, Long> commits = new TreeMap<>();
+        for (Object[] row : rows) {
+            commits.put((String) row[3], 0L);
+        }
+        for (Map.Entry<String, Long> commit : commits.entrySet()) {
+            commit.setValue(nextCommit(commit.getKey()));
+        }
+        Timestamp changedAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> numbered = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            numbered.add(new Object[] {row[0], row[1], row[2], row[3], changedAt, commits.get((String) row[3])});
+        }
+        jdbcTemplate.batchUpdate(INSERT_ENTRY, numbered);
+    }
+
+    // the clinic's next commit number, its row stays locked until this transaction ends
+    private long nextCommit(String clinicID) {
+        if (jdbcTemplate.update(NEXT_COMMIT, clinicID) == 0) {
+            // the clinic's first write, a concurrent one waits on the unique key and then counts on from the row it inserted
+            try {
+                jdbcTemplate.update(INSERT_SEQUENCE, clinicID);
+            } catch (DuplicateKeyException e) {
+                jdbcTemplate.update(NEXT_COMMIT, clinicID);
+            }
+        }
+        return jdbcTemplate.queryForObject(SELECT_COMMIT, Long.class, clinicID);
+    }
+
+    // a cursor for "now": take it before a full download, then follow the feed from it
+    @Transactional(readOnly = true)
+    public String getHeadCursor() {
+        List<Long> commits = jdbcTemplate.queryForList(SELECT_COMMIT, Long.class, ClinicContext.current());
+        return new ChangeCursor(commits.isEmpty() ? 0 : commits.get(0), Long.MAX_VALUE).encode();
+    }
+
+    // the changes after the cursor (from the beginning when blank), a record changed several times in the page
+    // comes once with its current data
+    @Transactional(readOnly = true)
+    public ChangePage getChanges(String cursor, Integer pageSize) {
+        int size = Math.min(pageSize == null || pageSize < 1 ? properties.getDefaultPageSize() : pageSize, properties.getMaxPageSize());
+        ChangeCursor from = cursor == null || cursor.isBlank() ? ChangeCursor.START : ChangeCursor.decode(cursor);
+
+        List<ChangeLogEntry> entries = changeLogRepository.findAfter(from.commitNumber(), from.sequence(), Limit.of(size + 1));
+        boolean hasMore = entries.size() > size;
+        if (hasMore) {
+            entries = entries.subList(0, size);
+        }
+        if (entries.isEmpty()) {
+            return new ChangePage(List.of(), from.encode(), false);
+        }
+
+        // last entry of every record, in the order of those last entries
+        Map<String, ChangeLogEntry> latest = new LinkedHashMap<>();
+        for (ChangeLogEntry entry : entries) {
+            String key = entry.getEntityType() + "/" + entry.getEntityID();
+            latest.remove(key);
+            latest.put(key, entry);
+        }
+
+        Map<String, Object> current = loadCurrent(latest.values());
+        List<Change> changes = new ArrayList<>(latest.size());
+        for (Map.Entry<String, ChangeLogEntry> item : latest.entrySet()) {
+            ChangeLogEntry entry = item.getValue();
+            Object data = current.get(item.getKey());
+            if (entry.getOperation() == ChangeOperation.UPSERT && data == null) {
+                // deleted since, its tombstone comes in a later page
+                continue;
+            }
+            changes.add(new Change(entry.getId(), entry.getEntityType(), entry.getEntityID(), entry.getOperation(), entry.getChangedAt(),
+                    entry.getOperation() == ChangeOperation.DELETE ? null : data));
+        }
+
+        ChangeLogEntry last = entries.get(entries.size() - 1);
+        return new ChangePage(changes, new ChangeCursor(last.getCommitNumber(), last.getId()).encode(), hasMore);
+    }
+
+    // current rows of the upserted records, one query per type
+    private Map<String, Object> loadCurrent(Iterable<ChangeLogEntry> entries) {
+        Map<String, Set<String>> ids = new HashMap<>();
+        for (ChangeLogEntry entry : entries) {
+            if (entry.getOperation() == ChangeOperation.UPSERT) {
+                ids.computeIfAbsent(entry.getEntityType(), type -> new HashSet<>()).add(entry.getEntityID());
+            }
+        }
+
+        Map<String, Object> current = new HashMap<>();
+        if (ids.containsKey(AuditSnapshots.PATIENT)) {
+            for (Patient patient : patientRepository.findByPatientIDIn(ids.get(AuditSnapshots.PATIENT))) {
+                current.put(AuditSnapshots.PATIENT + "/" + patient.getPatientID(), patient);
+            }
+        }
+        if (ids.containsKey(AuditSnapshots.APPOINTMENT)) {
+            for (Appointment appointment : appointmentRepository.findByAppointmentIDIn(ids.get(AuditSnapshots.APPOINTMENT))) {
+                current.put(AuditSnapshots.APPOINTMENT + "/" + appointment.getAppointmentID(), appointment);
+            }
+        }
+        if (ids.containsKey(AuditSnapshots.SERIES)) {
+            for (AppointmentSeries series : seriesRepository.findBySeriesIDIn(ids.get(AuditSnapshots.SERIES))) {
+                current.put(AuditSnapshots.SERIES + "/" + series.getSeriesID(), series);
+            }
+        }
+        return current;
+    }
+
+    private final class Pending implements TransactionSynchronization {
+
+        private final List<Object[]> rows = new ArrayList<>();
+
+        ChangeFeedService owner() {return ChangeFeedService.this;}
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            insert(rows);
+        }
+    }
+}
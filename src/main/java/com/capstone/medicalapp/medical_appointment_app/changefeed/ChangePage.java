@@ -0,0 +1,6 @@
+package com.capstone.medicalapp.medical_appointment_app.changefeed;
+
+import java.util.List;
+
+// cursor is where the next request continues, also when the page was empty
+public record ChangePage(List<Change> changes, String cursor, boolean hasMore) {}
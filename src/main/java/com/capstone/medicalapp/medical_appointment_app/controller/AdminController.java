@@ -0,0 +1,42 @@
+package com.capstone.medicalapp.medical_appointment_app.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentService;
+import com.capstone.medicalapp.medical_appointment_app.service.PatientService;
+import com.capstone.medicalapp.medical_appointment_app.sharding.ShardRouter;
+
+// read-only listings across every clinic, each shard is queried in parallel and the results merged
+@Controller
+@RequestMapping("/admin")
+public class AdminController {
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    // lists the patients of all clinics
+    @GetMapping("/patients")
+    public String listAllPatients(Model model) {
+        model.addAttribute("patients", shardRouter.fanOut(patientService::getPatientSummaries));
+        model.addAttribute("allClinics", true);
+        return "patients";
+    }
+
+    // lists the appointments of all clinics
+    @GetMapping("/appointments")
+    public String listAllAppointments(Model model) {
+        model.addAttribute("appointments", shardRouter.fanOut(appointmentService::getAppointmentRows));
+        model.addAttribute("allClinics", true);
+        return "appointments";
+    }
+}
@@ -0,0 +1,67 @@
+package com.capstone.medicalapp.medical_appointment_app.controller;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.capstone.medicalapp.medical_appointment_app.analytics.AnalyticsService;
+import com.capstone.medicalapp.medical_appointment_app.analytics.BookingFunnel;
+import com.capstone.medicalapp.medical_appointment_app.analytics.DoctorMonthCount;
+import com.capstone.medicalapp.medical_appointment_app.analytics.LeadTimeReport;
+import com.capstone.medicalapp.medical_appointment_app.analytics.SnapshotInfo;
+
+// appointment reports of the current clinic from its analytics snapshot, GET /api/analytics shows how old the
+// snapshot is and POST /api/analytics/refresh rebuilds it at once
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @GetMapping
+    public SnapshotInfo getSnapshot() {
+        return analyticsService.getSnapshotInfo(analyticsService.snapshot());
+    }
+
+    @PostMapping("/refresh")
+    public SnapshotInfo refresh() {
+        return analyticsService.getSnapshotInfo(analyticsService.refresh());
+    }
+
+    // months as yyyy-MM, the last twelve months and the coming twelve when not given
+    @GetMapping("/doctors-per-month")
+    public ResponseEntity<?> getAppointmentsPerDoctorAndMonth(@RequestParam(required = false) YearMonth from,
+            @RequestParam(required = false) YearMonth to) {
+        YearMonth now = YearMonth.now();
+        try {
+            List<DoctorMonthCount> counts = analyticsService.getAppointmentsPerDoctorAndMonth(
+                    from != null ? from : now.minusMonths(11), to != null ? to : now.plusMonths(12));
+            return ResponseEntity.ok(counts);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/lead-time")
+    public LeadTimeReport getLeadTime(@RequestParam(required = false) String doctor,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return analyticsService.getLeadTime(doctor, from, to);
+    }
+
+    @GetMapping("/funnel")
+    public BookingFunnel getBookingFunnel(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return analyticsService.getBookingFunnel(from, to);
+    }
+}
@@ -1,6 +1,16 @@
 package com.capstone.medicalapp.medical_appointment_app.controller;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -9,11 +19,20 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import com.capstone.medicalapp.medical_appointment_app.groupcommit.AppointmentCommitter;
 import com.capstone.medicalapp.medical_appointment_app.model.Appointment;
+import com.capstone.medicalapp.medical_appointment_app.model.AppointmentSeries;
+import com.capstone.medicalapp.medical_appointment_app.model.RecurrenceFrequency;
+import com.capstone.medicalapp.medical_appointment_app.push.AppointmentBroadcaster;
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentSeriesService;
 import com.capstone.medicalapp.medical_appointment_app.service.AppointmentService;
 import com.capstone.medicalapp.medical_appointment_app.service.PatientService;
+import com.capstone.medicalapp.medical_appointment_app.viewcache.DataSet;
+import com.capstone.medicalapp.medical_appointment_app.viewcache.FragmentCache;
 
 import jakarta.validation.Valid;
 
@@ -26,19 +45,67 @@ public class AppointmentController {
     @Autowired
     private PatientService patientService;
 
-    // list out all appointments
+    @Autowired
+    private AppointmentCommitter appointmentCommitter;
+
+    @Autowired
+    private AppointmentSeriesService seriesService;
+
+    @Autowired
+    private FragmentCache fragmentCache;
+
+    @Autowired
+    private AppointmentBroadcaster broadcaster;
+
+    // list out all appointments, the tables are re-rendered only after an appointment, series or patient changed
     @GetMapping
     public String listAppointments(Model model) {
-        model.addAttribute("appointments", appointmentService.getAllAppointments());
-        model.addAttribute("patients", patientService.getAllPatients());
+        model.addAttribute("appointmentTables", fragmentCache.get("fragments/appointment-tables", "tables",
+                () -> Map.of("appointments", appointmentService.getAppointmentRows(),
+                        "series", seriesService.getSeriesRows()),
+                DataSet.APPOINTMENTS, DataSet.PATIENTS));
         return "appointments";
     }
 
+    // week or month calendar of appointment counts per doctor, weeks run monday to sunday
+    @GetMapping("/calendar")
+    public String showCalendar(@RequestParam(defaultValue = "month") String view,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) String doctor, Model model) {
+        boolean week = "week".equals(view);
+        LocalDate day = date != null ? date : LocalDate.now();
+        LocalDate from = week ? day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                : day.withDayOfMonth(1).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        LocalDate to = week ? from.plusDays(6)
+                : day.with(TemporalAdjusters.lastDayOfMonth()).with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
+
+        List<List<LocalDate>> weeks = new ArrayList<>();
+        for (LocalDate start = from; !start.isAfter(to); start = start.plusWeeks(1)) {
+            weeks.add(start.datesUntil(start.plusDays(7)).toList());
+        }
+
+        model.addAttribute("view", week ? "week" : "month");
+        model.addAttribute("date", day);
+        model.addAttribute("month", YearMonth.from(day));
+        model.addAttribute("doctor", doctor);
+        model.addAttribute("weeks", weeks);
+        model.addAttribute("counts", appointmentService.getCalendarCounts(from, to, doctor));
+        model.addAttribute("previous", week ? day.minusWeeks(1) : day.minusMonths(1));
+        model.addAttribute("next", week ? day.plusWeeks(1) : day.plusMonths(1));
+        return "calendar";
+    }
+
+    // event stream of appointment changes for open list pages, see static/appointments-live.js
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents() {
+        return broadcaster.subscribe();
+    }
+
     // shows form to add a new appointment
     @GetMapping("/new")
     public String showAddForm(Model model) {
         model.addAttribute("appointment", new Appointment());
-        model.addAttribute("patients", patientService.getAllPatients());
+        model.addAttribute("patientOptions", patientOptions(null));
         return "add-appointment";
     }
 
@@ -46,12 +113,12 @@ public class AppointmentController {
     @PostMapping
     public String addAppointment(@Valid @ModelAttribute Appointment appointment, BindingResult bindingResult, Model model, RedirectAttributes redirectAttributes) {
         if (bindingResult.hasErrors()) {
-            model.addAttribute("patients", patientService.getAllPatients());
+            model.addAttribute("patientOptions", patientOptions(appointment.getPatientID()));
             return "add-appointment";
         }
         
         try {
-            Appointment addedAppointment = appointmentService.addAppointment(appointment);
+            Appointment addedAppointment = appointmentCommitter.add(appointment);
             redirectAttributes.addFlashAttribute("successMessage", 
                 "Appointment for " + addedAppointment.getAptDate() + " has been successfully added with ID: " + addedAppointment.getAppointmentID());
         } catch (IllegalArgumentException e) {
@@ -70,7 +137,7 @@ public class AppointmentController {
         
         if (appointment.isPresent()) {
             model.addAttribute("appointment", appointment.get());
-            model.addAttribute("patients", patientService.getAllPatients());
+            model.addAttribute("patientOptions", patientOptions(appointment.get().getPatientID()));
             model.addAttribute("isEdit", true);
             return "add-appointment"; // Reuse the same form
         } else {
@@ -83,7 +150,7 @@ public class AppointmentController {
     @PostMapping("/update/{appointmentID}")
     public String updateAppointment(@PathVariable String appointmentID, @Valid @ModelAttribute Appointment appointment, BindingResult bindingResult, Model model, RedirectAttributes redirectAttributes) {
         if (bindingResult.hasErrors()) {
-            model.addAttribute("patients", patientService.getAllPatients());
+            model.addAttribute("patientOptions", patientOptions(appointment.getPatientID()));
             model.addAttribute("isEdit", true);
             return "add-appointment";
         }
@@ -122,5 +189,61 @@ public class AppointmentController {
 
         return "redirect:/appointments";
     }
-    
+
+    // shows form to add a recurring series
+    @GetMapping("/series/new")
+    public String showAddSeriesForm(Model model) {
+        model.addAttribute("series", new AppointmentSeries());
+        model.addAttribute("patientOptions", patientOptions(null));
+        model.addAttribute("frequencies", RecurrenceFrequency.values());
+        return "add-series";
+    }
+
+    // saves a recurring series, its occurrences are not stored individually
+    @PostMapping("/series")
+    public String addSeries(@Valid @ModelAttribute("series") AppointmentSeries series, BindingResult bindingResult, Model model, RedirectAttributes redirectAttributes) {
+        if (bindingResult.hasErrors()) {
+            model.addAttribute("patientOptions", patientOptions(series.getPatientID()));
+            model.addAttribute("frequencies", RecurrenceFrequency.values());
+            return "add-series";
+        }
+
+        try {
+            AppointmentSeries addedSeries = seriesService.addSeries(series);
+            redirectAttributes.addFlashAttribute("successMessage",
+                "Recurring series starting " + addedSeries.getStartDate() + " has been successfully added with ID: " + addedSeries.getSeriesID());
+        } catch (IllegalArgumentException e) {
+            redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("errorMessage", "An unexpected error occurred while creating the series.");
+        }
+
+        return "redirect:/appointments";
+    }
+
+    // deletes a recurring series and all of its future occurrences
+    @GetMapping("/series/delete/{seriesID}")
+    public String deleteSeries(@PathVariable String seriesID, RedirectAttributes redirectAttributes) {
+        try {
+            if (seriesService.deleteSeries(seriesID)) {
+                redirectAttributes.addFlashAttribute("successMessage", "Series with ID: " + seriesID + " has been deleted successfully");
+            } else {
+                redirectAttributes.addFlashAttribute("errorMessage", "Series with ID: " + seriesID + " was not found");
+            }
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("errorMessage", "Error with deleting series: " + e.getMessage());
+        }
+
+        return "redirect:/appointments";
+    }
+
+    // cached <option> list of the clinic's patients with the current choice marked
+    private String patientOptions(String selectedID) {
+        String options = fragmentCache.get("fragments/patient-options", "options",
+                () -> Map.of("patients", patientService.getPatientSummaries()), DataSet.PATIENTS);
+        if (selectedID == null || selectedID.isEmpty()) {
+            return options;
+        }
+        return options.replace("<option value=\"" + selectedID + "\">", "<option value=\"" + selectedID + "\" selected=\"selected\">");
+    }
 }
@@ -0,0 +1,26 @@
+package com.capstone.medicalapp.medical_appointment_app.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.capstone.medicalapp.medical_appointment_app.audit.AuditLog;
+import com.capstone.medicalapp.medical_appointment_app.model.AuditEntry;
+
+// json history of a single patient, appointment or series, e.g. GET /api/audit/patient/PAT1001
+@RestController
+@RequestMapping("/api/audit")
+public class AuditController {
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @GetMapping("/{entityType}/{entityID}")
+    public List<AuditEntry> getHistory(@PathVariable String entityType, @PathVariable String entityID) {
+        return auditLog.getHistory(entityType.toUpperCase(), entityID);
+    }
+}
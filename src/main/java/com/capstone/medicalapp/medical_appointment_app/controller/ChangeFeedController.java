@@ -0,0 +1,37 @@
+package com.capstone.medicalapp.medical_appointment_app.controller;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.capstone.medicalapp.medical_appointment_app.changefeed.ChangeFeedService;
+
+// delta sync of the current clinic's patients, appointments and series: GET /api/changes?cursor=... returns the
+// next page of changes and the cursor to continue from, GET /api/changes/head the cursor to start from after
+// a full download
+@RestController
+@RequestMapping("/api/changes")
+public class ChangeFeedController {
+
+    @Autowired
+    private ChangeFeedService changeFeed;
+
+    @GetMapping
+    public ResponseEntity<?> getChanges(@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(changeFeed.getChanges(cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/head")
+    public Map<String, String> getHeadCursor() {
+        return Map.of("cursor", changeFeed.getHeadCursor());
+    }
+}
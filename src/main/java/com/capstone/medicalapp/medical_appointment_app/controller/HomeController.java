@@ -1,12 +1,36 @@
 package com.capstone.medicalapp.medical_appointment_app.controller;
 
 import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+import com.capstone.medicalapp.medical_appointment_app.sharding.ClinicContext;
+import com.capstone.medicalapp.medical_appointment_app.sharding.ClinicInterceptor;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletResponse;
 
 @Controller
 public class HomeController {
     @GetMapping("/")
-    public String home() {
+    public String home(Model model) {
+        model.addAttribute("clinicID", ClinicContext.current());
         return "index";
     }
+
+    // switches the browser to another clinic by remembering it in a cookie
+    @GetMapping("/clinic/{clinicID}")
+    public String switchClinic(@PathVariable String clinicID, HttpServletResponse response, RedirectAttributes redirectAttributes) {
+        try {
+            Cookie cookie = new Cookie(ClinicInterceptor.CLINIC_COOKIE, ClinicContext.normalize(clinicID));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            response.addCookie(cookie);
+        } catch (IllegalArgumentException e) {
+            redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+        }
+        return "redirect:/";
+    }
 }
@@ -0,0 +1,59 @@
+package com.capstone.medicalapp.medical_appointment_app.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.capstone.medicalapp.medical_appointment_app.dedup.PatientMergeService;
+import com.capstone.medicalapp.medical_appointment_app.dedup.ScanStatus;
+import com.capstone.medicalapp.medical_appointment_app.model.MergeProposal;
+
+// duplicate patient review for the current clinic: POST /api/merges/scan starts a scan, GET /api/merges lists what
+// it proposed and POST /api/merges/{id}/approve or /reject decides a proposal
+@RestController
+@RequestMapping("/api/merges")
+public class MergeController {
+
+    @Autowired
+    private PatientMergeService mergeService;
+
+    @PostMapping("/scan")
+    public ResponseEntity<ScanStatus> startScan() {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(mergeService.startScan());
+    }
+
+    @GetMapping("/scan")
+    public ResponseEntity<ScanStatus> getScanStatus() {
+        return ResponseEntity.of(mergeService.getScanStatus());
+    }
+
+    @GetMapping
+    public List<MergeProposal> getPendingProposals() {
+        return mergeService.getPendingProposals();
+    }
+
+    @PostMapping("/{proposalID}/approve")
+    public ResponseEntity<?> approve(@PathVariable Long proposalID) {
+        try {
+            return ResponseEntity.ok(mergeService.approve(proposalID));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/{proposalID}/reject")
+    public ResponseEntity<?> reject(@PathVariable Long proposalID) {
+        try {
+            return ResponseEntity.ok(mergeService.reject(proposalID));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
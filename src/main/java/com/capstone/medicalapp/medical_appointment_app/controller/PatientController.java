@@ -1,5 +1,7 @@
 package com.capstone.medicalapp.medical_appointment_app.controller;
 
+import java.util.Map;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -13,6 +15,8 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import com.capstone.medicalapp.medical_appointment_app.model.Patient;
 import com.capstone.medicalapp.medical_appointment_app.service.PatientService;
+import com.capstone.medicalapp.medical_appointment_app.viewcache.DataSet;
+import com.capstone.medicalapp.medical_appointment_app.viewcache.FragmentCache;
 
 import jakarta.validation.Valid;
 
@@ -23,10 +27,14 @@ public class PatientController {
     @Autowired
     private PatientService patientService;
 
-    // displays all patients
+    @Autowired
+    private FragmentCache fragmentCache;
+
+    // displays all patients, the table is re-rendered only after a patient changed
     @GetMapping
     public String listPatients(Model model) {
-        model.addAttribute("patients", patientService.getAllPatients());
+        model.addAttribute("patientTable", fragmentCache.get("fragments/patient-table", "table",
+                () -> Map.of("patients", patientService.getPatientSummaries()), DataSet.PATIENTS));
         return "patients";
     }
 
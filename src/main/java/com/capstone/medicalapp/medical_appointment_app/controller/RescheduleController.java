@@ -0,0 +1,42 @@
+package com.capstone.medicalapp.medical_appointment_app.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.capstone.medicalapp.medical_appointment_app.reschedule.RescheduleRequest;
+import com.capstone.medicalapp.medical_appointment_app.reschedule.RescheduleService;
+
+// moving a doctor's appointments out of a period they are unavailable: POST /api/reschedule/preview shows who would
+// move where, POST /api/reschedule moves them
+@RestController
+@RequestMapping("/api/reschedule")
+public class RescheduleController {
+
+    @Autowired
+    private RescheduleService rescheduleService;
+
+    @PostMapping("/preview")
+    public ResponseEntity<?> preview(@RequestBody RescheduleRequest request) {
+        try {
+            return ResponseEntity.ok(rescheduleService.preview(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PostMapping
+    public ResponseEntity<?> apply(@RequestBody RescheduleRequest request) {
+        try {
+            return ResponseEntity.ok(rescheduleService.apply(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.capstone.medicalapp.medical_appointment_app.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.capstone.medicalapp.medical_appointment_app.model.WaitlistEntry;
+import com.capstone.medicalapp.medical_appointment_app.waitlist.Waiter;
+import com.capstone.medicalapp.medical_appointment_app.waitlist.WaitlistRequest;
+import com.capstone.medicalapp.medical_appointment_app.waitlist.WaitlistService;
+
+// cancellation waitlist of the current clinic: POST /api/waitlist puts a patient on a doctor's list, GET
+// /api/waitlist?doctor= shows it in offer order and DELETE /api/waitlist/{id} takes an entry off again
+@RestController
+@RequestMapping("/api/waitlist")
+public class WaitlistController {
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @PostMapping
+    public ResponseEntity<?> join(@RequestBody WaitlistRequest request) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(waitlistService.join(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping
+    public List<Waiter> getWaiting(@RequestParam String doctor) {
+        return waitlistService.getWaiting(doctor);
+    }
+
+    @GetMapping("/{entryID}")
+    public ResponseEntity<WaitlistEntry> getEntry(@PathVariable Long entryID) {
+        return ResponseEntity.of(waitlistService.getEntry(entryID));
+    }
+
+    @DeleteMapping("/{entryID}")
+    public ResponseEntity<?> leave(@PathVariable Long entryID) {
+        try {
+            return ResponseEntity.ok(waitlistService.leave(entryID));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.capstone.medicalapp.medical_appointment_app.datagen;
+
+import java.time.LocalDate;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// binds the medapp.datagen.* settings, read by the datagen profile and by benchmarks
+@ConfigurationProperties(prefix = "medapp.datagen")
+public class DataGenProperties {
+
+    // the same seed and sizes give the same rows, whatever the workers and batch size
+    private long seed = 42;
+    private int patients = 100_000;
+    private int appointments = 1_000_000;
+    private int doctors = 200;
+    // zipf exponent of the doctors, 0 books every doctor equally
+    private double doctorSkew = 0.8;
+    // appointments run from start-date over this many years, start-date defaults to january 1st so the last year is the current one
+    private int years = 3;
+    private LocalDate startDate;
+    private String clinic = "MAIN";
+    // generated codes are PAT<prefix><n> and APT<prefix><n>, so they never meet the ones the services hand out
+    private String codePrefix = "G";
+    // threads generating and inserting, 0 = one per cpu
+    private int workers = 0;
+    private int batchSize = 5000;
+    // a directory to write patients.csv and appointments.csv to instead of inserting into the clinic's database
+    private String output;
+
+    public long getSeed() {return seed;}
+    public void setSeed(long seed) {this.seed = seed;}
+
+    public int getPatients() {return patients;}
+    public void setPatients(int patients) {this.patients = patients;}
+
+    public int getAppointments() {return appointments;}
+    public void setAppointments(int appointments) {this.appointments = appointments;}
+
+    public int getDoctors() {return doctors;}
+    public void setDoctors(int doctors) {this.doctors = doctors;}
+
+    public double getDoctorSkew() {return doctorSkew;}
+    public void setDoctorSkew(double doctorSkew) {this.doctorSkew = doctorSkew;}
+
+    public int getYears() {return years;}
+    public void setYears(int years) {this.years = years;}
+
+    public LocalDate getStartDate() {return startDate;}
+    public void setStartDate(LocalDate startDate) {this.startDate = startDate;}
+
+    public String getClinic() {return clinic;}
+    public void setClinic(String clinic) {this.clinic = clinic;}
+
+    public String getCodePrefix() {return codePrefix;}
+    public void setCodePrefix(String codePrefix) {this.codePrefix = codePrefix;}
+
+    public int getWorkers() {return workers;}
+    public void setWorkers(int workers) {this.workers = workers;}
+
+    public int getBatchSize() {return batchSize;}
+    public void setBatchSize(int batchSize) {this.batchSize = batchSize;}
+
+    public String getOutput() {return output;}
+    public void setOutput(String output) {this.output = output;}
+}
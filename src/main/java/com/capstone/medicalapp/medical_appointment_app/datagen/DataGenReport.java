@@ -0,0 +1,13 @@
+package com.capstone.medicalapp.medical_appointment_app.datagen;
+
+import java.time.LocalDate;
+
+// what a generator run wrote and how long each table took
+public record DataGenReport(String target, long seed, int patients, int appointments, LocalDate from, LocalDate to,
+        int workers, long patientsMs, long appointmentsMs) {
+
+    public long rowsPerSecond() {
+        long ms = Math.max(1, patientsMs + appointmentsMs);
+        return (patients + (long) appointments) * 1000 / ms;
+    }
+}
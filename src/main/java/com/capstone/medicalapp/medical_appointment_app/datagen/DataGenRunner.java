@@ -0,0 +1,27 @@
+package com.capstone.medicalapp.medical_appointment_app.datagen;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+// with the datagen profile the application generates the medapp.datagen.* dataset once it has started and exits
+@Component
+@Profile("datagen")
+public class DataGenRunner implements ApplicationRunner {
+
+    @Autowired
+    private DataGenerator dataGenerator;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        dataGenerator.generate();
+        System.exit(SpringApplication.exit(context));
+    }
+}
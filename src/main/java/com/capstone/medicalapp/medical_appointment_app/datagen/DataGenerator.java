@@ -0,0 +1,327 @@
+package com.capstone.medicalapp.medical_appointment_app.datagen;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.capstone.medicalapp.medical_appointment_app.datagen.SyntheticData.AppointmentRow;
+import com.capstone.medicalapp.medical_appointment_app.datagen.SyntheticData.PatientRow;
+import com.capstone.medicalapp.medical_appointment_app.dedup.ContactFilters;
+import com.capstone.medicalapp.medical_appointment_app.readmodel.ReadModel;
+import com.capstone.medicalapp.medical_appointment_app.repository.MultiRowInsert;
+import com.capstone.medicalapp.medical_appointment_app.sharding.ShardRouter;
+import com.capstone.medicalapp.medical_appointment_app.viewcache.DataSet;
+import com.capstone.medicalapp.medical_appointment_app.viewcache.DataVersions;
+
+// fills a clinic with a synthetic dataset for capacity tests, either straight into its database or into csv dump
+// files. the rows are cut into batches that a pool of workers generates in parallel; in the database every batch is
+// one batched insert in its own transaction on its own connection, in a dump the batches are written in order.
+// generated rows skip the audit log and the change feed, they are test data and not a history of changes
+@Service
+public class DataGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(DataGenerator.class);
+
+    private static final String INSERT_PATIENT = "INSERT INTO patients (patient_code, name, phone, email, clinic_code, created_at, updated_at)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_APPOINTMENT = "INSERT INTO appointments (appointment_code, patient_code, patient_id, doctor_name,"
+            + " appointment_date, description, clinic_code, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_KEYS = "SELECT patient_code, patient_id FROM patients WHERE clinic_code = ? AND patient_code LIKE ?";
+    private static final String COUNT_GENERATED = "SELECT COUNT(*) FROM patients WHERE clinic_code = ? AND patient_code LIKE ?";
+
+    static final String PATIENT_COLUMNS = "patient_id,patient_code,name,phone,email,clinic_code,created_at,updated_at";
+    static final String APPOINTMENT_COLUMNS = "appointment_code,patient_code,patient_id,doctor_name,appointment_date,description,clinic_code,created_at,updated_at";
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Autowired
+    private DataGenProperties properties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ContactFilters contactFilters;
+
+    @Autowired
+    private DataVersions dataVersions;
+
+    @Autowired
+    private ReadModel readModel;
+
+    public DataGenReport generate() {
+        return generate(properties);
+    }
+
+    public DataGenReport generate(DataGenProperties settings) {
+        String clinicID = settings.getClinic() == null ? "" : settings.getClinic().trim();
+        if (clinicID.isEmpty()) {
+            throw new IllegalArgumentException("Clinic cannot be blank");
+        }
+        String prefix = settings.getCodePrefix() == null ? "" : settings.getCodePrefix().trim();
+        if (!prefix.matches("^[A-Z]{1,4}$")) {
+            throw new IllegalArgumentException("Code prefix must be 1 to 4 capital letters");
+        }
+        if (settings.getAppointments() < 0) {
+            throw new IllegalArgumentException("Appointments cannot be negative");
+        }
+        if (settings.getBatchSize() < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+        if (settings.getWorkers() < 0) {
+            throw new IllegalArgumentException("Workers cannot be negative");
+        }
+        LocalDate from = settings.getStartDate() != null ? settings.getStartDate()
+                : LocalDate.now().withDayOfYear(1).minusYears(settings.getYears() - 1);
+        SyntheticData data = new SyntheticData(settings.getSeed(), settings.getPatients(), settings.getDoctors(),
+                settings.getDoctorSkew(), from, settings.getYears(), prefix);
+        int workers = settings.getWorkers() > 0 ? settings.getWorkers() : Runtime.getRuntime().availableProcessors();
+
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        try {
+            Run run = settings.getOutput() == null || settings.getOutput().isBlank()
+                    ? new DatabaseRun(data, clinicID, prefix, settings, pool, workers)
+                    : new DumpRun(data, clinicID, Path.of(settings.getOutput()), settings, pool, workers);
+
+            long start = System.nanoTime();
+            run.patients();
+            long patientsMs = (System.nanoTime() - start) / 1_000_000;
+            start = System.nanoTime();
+            run.appointments();
+            long appointmentsMs = (System.nanoTime() - start) / 1_000_000;
+
+            DataGenReport report = new DataGenReport(run.target(), settings.getSeed(), settings.getPatients(), settings.getAppointments(),
+                    data.getFrom(), data.getTo(), workers, patientsMs, appointmentsMs);
+            log.info("Generated {} patients in {} ms and {} appointments in {} ms into {} ({} rows/s, {} workers)", report.patients(),
+                    patientsMs, report.appointments(), appointmentsMs, report.target(), report.rowsPerSecond(), workers);
+            return report;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private interface Run {
+        void patients();
+        void appointments();
+        String target();
+    }
+
+    // runs one task per batch on the pool, at most a few batches ahead of the oldest one not yet finished so a
+    // large dataset is never held in memory at once. results are handed on in batch order
+    private static <T> void inBatches(ExecutorService pool, int workers, int rows, int batchSize, IntFunction<T> batch,
+            Consumer<T> inOrder) {
+        Deque<Future<T>> running = new ArrayDeque<>();
+        try {
+            for (int first = 0; first < rows; first += batchSize) {
+                int start = first;
+                running.add(pool.submit(() -> batch.apply(start)));
+                if (running.size() >= workers * 2) {
+                    inOrder.accept(running.poll().get());
+                }
+            }
+            while (!running.isEmpty()) {
+                inOrder.accept(running.poll().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Data generation was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Data generation failed", e.getCause());
+        } finally {
+            running.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private final class DatabaseRun implements Run {
+
+        private final SyntheticData data;
+        private final String clinicID;
+        private final String prefix;
+        private final DataGenProperties settings;
+        private final ExecutorService pool;
+        private final int workers;
+        private final TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        // primary key of every generated patient by its number, the appointments carry both
+        private long[] patientKeys;
+
+        DatabaseRun(SyntheticData data, String clinicID, String prefix, DataGenProperties settings, ExecutorService pool, int workers) {
+            this.data = data;
+            this.clinicID = clinicID;
+            this.prefix = prefix;
+            this.settings = settings;
+            this.pool = pool;
+            this.workers = workers;
+            Long existing = shardRouter.inClinic(clinicID, () -> jdbcTemplate.queryForObject(COUNT_GENERATED, Long.class, clinicID, "PAT" + prefix + "%"));
+            if (existing != null && existing > 0) {
+                throw new IllegalStateException("Clinic " + clinicID + " already has " + existing + " generated patients with prefix " + prefix
+                        + ", use another clinic or code prefix");
+            }
+        }
+
+        @Override
+        public String target() {
+            return "clinic " + clinicID;
+        }
+
+        @Override
+        public void patients() {
+            inBatches(pool, workers, settings.getPatients(), settings.getBatchSize(),
+                    first -> insert(first, () -> {
+                        List<Object[]> rows = new ArrayList<>();
+                        for (int i = first; i < Math.min(settings.getPatients(), first + settings.getBatchSize()); i++) {
+                            PatientRow row = data.patient(i);
+                            Timestamp createdAt = Timestamp.valueOf(row.createdAt());
+                            rows.add(new Object[] {row.code(), row.name(), row.phone(), row.email(), clinicID, createdAt, createdAt});
+                            contactFilters.added(row.email(), row.phone());
+                        }
+                        MultiRowInsert.insert(jdbcTemplate, INSERT_PATIENT, rows);
+                    }), done -> {});
+
+            patientKeys = new long[settings.getPatients()];
+            int codeStart = ("PAT" + prefix).length();
+            shardRouter.inClinic(clinicID, () -> {
+                jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(SELECT_KEYS);
+                    statement.setFetchSize(10_000);
+                    statement.setString(1, clinicID);
+                    statement.setString(2, "PAT" + prefix + "%");
+                    return statement;
+                }, rs -> {patientKeys[Integer.parseInt(rs.getString(1).substring(codeStart))] = rs.getLong(2);});
+                dataVersions.changed(DataSet.PATIENTS);
+                return null;
+            });
+        }
+
+        @Override
+        public void appointments() {
+            inBatches(pool, workers, settings.getAppointments(), settings.getBatchSize(),
+                    first -> insert(first, () -> {
+                        List<Object[]> rows = new ArrayList<>();
+                        for (int i = first; i < Math.min(settings.getAppointments(), first + settings.getBatchSize()); i++) {
+                            AppointmentRow row = data.appointment(i);
+                            Timestamp createdAt = Timestamp.valueOf(row.createdAt());
+                            rows.add(new Object[] {row.code(), data.patientCode(row.patient()), patientKeys[row.patient()], row.doctorName(),
+                                    Date.valueOf(row.date()), row.description(), clinicID, createdAt, createdAt});
+                        }
+                        MultiRowInsert.insert(jdbcTemplate, INSERT_APPOINTMENT, rows);
+                    }), done -> {});
+            shardRouter.inClinic(clinicID, () -> {
+                dataVersions.changed(DataSet.APPOINTMENTS);
+                return null;
+            });
+            // the rows skipped the change feed, so the read model loads the clinic again
+            readModel.reload(clinicID);
+        }
+
+        private Integer insert(int first, Runnable batch) {
+            return shardRouter.inClinic(clinicID, () -> transaction.execute(status -> {
+                batch.run();
+                return first;
+            }));
+        }
+    }
+
+    private static final class DumpRun implements Run {
+
+        private final SyntheticData data;
+        private final String clinicID;
+        private final Path directory;
+        private final DataGenProperties settings;
+        private final ExecutorService pool;
+        private final int workers;
+
+        DumpRun(SyntheticData data, String clinicID, Path directory, DataGenProperties settings, ExecutorService pool, int workers) {
+            this.data = data;
+            this.clinicID = clinicID;
+            this.directory = directory;
+            this.settings = settings;
+            this.pool = pool;
+            this.workers = workers;
+        }
+
+        @Override
+        public String target() {
+            return directory.toString();
+        }
+
+        // patient_id is the patient's number plus one, the dump is meant for empty tables
+        @Override
+        public void patients() {
+            write("patients.csv", PATIENT_COLUMNS, settings.getPatients(), i -> {
+                PatientRow row = data.patient(i);
+                String createdAt = TIMESTAMP.format(row.createdAt());
+                return String.join(",", String.valueOf(i + 1L), row.code(), row.name(), row.phone(), row.email(), clinicID, createdAt, createdAt);
+            });
+        }
+
+        @Override
+        public void appointments() {
+            write("appointments.csv", APPOINTMENT_COLUMNS, settings.getAppointments(), i -> {
+                AppointmentRow row = data.appointment(i);
+                String createdAt = TIMESTAMP.format(row.createdAt());
+                return String.join(",", row.code(), data.patientCode(row.patient()), String.valueOf(row.patient() + 1L), row.doctorName(),
+                        row.date().toString(), row.description(), clinicID, createdAt, createdAt);
+            });
+        }
+
+        private void write(String file, String header, int rows, IntFunction<String> line) {
+            int batchSize = settings.getBatchSize();
+            try {
+                Files.createDirectories(directory);
+                try (BufferedWriter out = Files.newBufferedWriter(directory.resolve(file), StandardCharsets.UTF_8)) {
+                    out.write(header);
+                    out.write('\n');
+                    inBatches(pool, workers, rows, batchSize, first -> {
+                        StringBuilder text = new StringBuilder(batchSize * 100);
+                        for (int i = first; i < Math.min(rows, first + batchSize); i++) {
+                            text.append(line.apply(i)).append('\n');
+                        }
+                        return text;
+                    }, text -> {
+                        try {
+                            out.append(text);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write " + directory.resolve(file), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.capstone.medicalapp.medical_appointment_app.datagen;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+// the rows of one generated dataset. every row is drawn from its own random stream, seeded from the dataset seed
+// and the row number, so a row is the same however the rows are split between workers and batches.
+// patients pass the service's validation and are unique by phone and email; appointments lean towards a few busy
+// doctors and frequent patients, weekdays, the winter months and the later years
+public class SyntheticData {
+
+    static final String[] FIRST_NAMES = {"James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael", "Linda",
+            "William", "Elizabeth", "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Charles",
+            "Karen", "Daniel", "Nancy", "Matthew", "Lisa", "Anthony", "Betty", "Mark", "Margaret", "Donald", "Sandra", "Steven",
+            "Ashley", "Paul", "Emily", "Andrew", "Donna", "Joshua", "Michelle", "Kenneth", "Carol", "Kevin", "Amanda", "Brian",
+            "Melissa", "George", "Deborah", "Timothy", "Stephanie", "Ronald", "Rebecca", "Jason", "Laura", "Edward", "Sharon",
+            "Jeffrey", "Cynthia", "Ryan", "Kathleen", "Jacob", "Amy", "Gary", "Angela", "Nicholas", "Shirley", "Eric", "Anna",
+            "Jonathan", "Brenda", "Stephen", "Pamela", "Larry", "Emma", "Justin", "Nicole", "Scott", "Helen", "Brandon", "Samantha"};
+
+    static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis",
+            "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore",
+            "Jackson", "Martin", "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez", "Clark", "Ramirez", "Lewis",
+            "Robinson", "Walker", "Young", "Allen", "King", "Wright", "Scott", "Torres", "Nguyen", "Hill", "Flores", "Green",
+            "Adams", "Nelson", "Baker", "Hall", "Rivera", "Campbell", "Mitchell", "Carter", "Roberts", "O'Brien", "O'Connor",
+            "D'Angelo", "Smith-Jones", "Lloyd-Evans", "Van Dyke", "De la Cruz", "McDonald", "Fitzgerald", "Kowalski"};
+
+    // reasons for a visit and how often they come up
+    private static final String[] DESCRIPTIONS = {"Annual checkup", "Follow-up visit", "Blood test", "Vaccination",
+            "Consultation", "Prescription renewal", "Physical therapy", "Skin examination", "Blood pressure check",
+            "Allergy testing", "Vision screening", "Prenatal visit"};
+    private static final double[] DESCRIPTION_WEIGHTS = {20, 18, 12, 8, 10, 9, 6, 4, 5, 3, 3, 2};
+
+    // the names as they appear in email addresses, lower case letters only
+    private static final String[] EMAIL_FIRST = emailParts(FIRST_NAMES);
+    private static final String[] EMAIL_LAST = emailParts(LAST_NAMES);
+    private static final String[] EMAIL_DOMAINS = {"example.com", "example.org", "example.net"};
+
+    // a fifth of the patients (every fifth one) book three fifths of the appointments
+    private static final int FREQUENT_EVERY = 5;
+    private static final double FREQUENT_SHARE = 0.6;
+    // days between booking and appointment, exponential with this mean and cut off at the maximum
+    private static final double MEAN_LEAD_DAYS = 14;
+    private static final int MAX_LEAD_DAYS = 180;
+
+    private static final long PATIENT_STREAM = 0x5851F42D4C957F2DL;
+    private static final long APPOINTMENT_STREAM = 0x2545F4914F6CDD1DL;
+
+    private final long seed;
+    private final int patients;
+    private final String codePrefix;
+    private final String[] doctorNames;
+    private final double[] doctorCdf;
+    private final LocalDate from;
+    private final double[] dayCdf;
+    private final double[] descriptionCdf;
+
+    public SyntheticData(long seed, int patients, int doctors, double doctorSkew, LocalDate from, int years, String codePrefix) {
+        if (patients < 1 || patients > 999_999_999) {
+            throw new IllegalArgumentException("Patients must be between 1 and 999999999");
+        }
+        int maxDoctors = LAST_NAMES.length * 26;
+        if (doctors < 1 || doctors > maxDoctors) {
+            throw new IllegalArgumentException("Doctors must be between 1 and " + maxDoctors);
+        }
+        if (years < 1 || years > 50) {
+            throw new IllegalArgumentException("Years must be between 1 and 50");
+        }
+        if (doctorSkew < 0) {
+            throw new IllegalArgumentException("Doctor skew cannot be negative");
+        }
+        this.seed = seed;
+        this.patients = patients;
+        this.codePrefix = codePrefix;
+        this.from = from;
+
+        doctorNames = new String[doctors];
+        double[] doctorWeights = new double[doctors];
+        for (int i = 0; i < doctors; i++) {
+            doctorNames[i] = "Dr. " + (char) ('A' + i / LAST_NAMES.length) + ". " + LAST_NAMES[i % LAST_NAMES.length];
+            doctorWeights[i] = 1 / Math.pow(i + 1, doctorSkew);
+        }
+        doctorCdf = cdf(doctorWeights);
+
+        LocalDate to = from.plusYears(years);
+        double[] dayWeights = new double[(int) (to.toEpochDay() - from.toEpochDay())];
+        for (int day = 0; day < dayWeights.length; day++) {
+            LocalDate date = from.plusDays(day);
+            double weekday = date.getDayOfWeek() == DayOfWeek.SUNDAY ? 0 : date.getDayOfWeek() == DayOfWeek.SATURDAY ? 0.3 : 1;
+            double season = 1 + 0.25 * Math.cos(2 * Math.PI * (date.getDayOfYear() - 15) / 365.25);
+            double growth = 1 + 0.15 * (date.getYear() - from.getYear());
+            dayWeights[day] = weekday * season * growth;
+        }
+        dayCdf = cdf(dayWeights);
+        descriptionCdf = cdf(DESCRIPTION_WEIGHTS);
+    }
+
+    public LocalDate getFrom() {return from;}
+    public LocalDate getTo() {return from.plusDays(dayCdf.length - 1);}
+
+    public String patientCode(int index) {
+        return "PAT" + codePrefix + index;
+    }
+
+    public PatientRow patient(int index) {
+        SplittableRandom random = random(PATIENT_STREAM, index);
+        int first = random.nextInt(FIRST_NAMES.length);
+        int last = random.nextInt(LAST_NAMES.length);
+        String email = EMAIL_FIRST[first] + "." + EMAIL_LAST[last] + "." + index + "@" + EMAIL_DOMAINS[random.nextInt(EMAIL_DOMAINS.length)];
+        // the index makes phone and email unique, the leading 2 keeps the number a valid ten digits
+        String digits = Integer.toString(index);
+        String phone = "2" + "000000000".substring(digits.length()) + digits;
+        LocalDateTime createdAt = from.minusDays(random.nextInt(730)).atTime(time(random));
+        return new PatientRow(index, patientCode(index), FIRST_NAMES[first] + " " + LAST_NAMES[last], phone, email, createdAt);
+    }
+
+    public AppointmentRow appointment(int index) {
+        SplittableRandom random = random(APPOINTMENT_STREAM, index);
+        int patient;
+        int frequent = (patients + FREQUENT_EVERY - 1) / FREQUENT_EVERY;
+        if (patients == frequent || random.nextDouble() < FREQUENT_SHARE) {
+            patient = random.nextInt(frequent) * FREQUENT_EVERY;
+        } else {
+            // the n-th patient that is not a multiple of FREQUENT_EVERY
+            int n = random.nextInt(patients - frequent);
+            patient = n + n / (FREQUENT_EVERY - 1) + 1;
+        }
+        String doctor = doctorNames[pick(doctorCdf, random)];
+        LocalDate date = from.plusDays(pick(dayCdf, random));
+        String description = DESCRIPTIONS[pick(descriptionCdf, random)];
+        int lead = (int) Math.min(MAX_LEAD_DAYS, -MEAN_LEAD_DAYS * Math.log(1 - random.nextDouble()));
+        LocalDateTime createdAt = date.minusDays(lead).atTime(time(random));
+        return new AppointmentRow(index, "APT" + codePrefix + index, patient, doctor, date, description, createdAt);
+    }
+
+    private SplittableRandom random(long stream, int index) {
+        return new SplittableRandom((seed ^ stream) + index * 0x9E3779B97F4A7C15L);
+    }
+
+    // office hours, to the minute
+    private static LocalTime time(SplittableRandom random) {
+        return LocalTime.of(7 + random.nextInt(13), random.nextInt(60));
+    }
+
+    private static String[] emailParts(String[] names) {
+        String[] parts = new String[names.length];
+        for (int i = 0; i < names.length; i++) {
+            parts[i] = names[i].toLowerCase(Locale.ROOT).replaceAll("[^a-z]", "");
+        }
+        return parts;
+    }
+
+    private static double[] cdf(double[] weights) {
+        double[] cdf = new double[weights.length];
+        double total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            total += weights[i];
+            cdf[i] = total;
+        }
+        for (int i = 0; i < cdf.length; i++) {
+            cdf[i] /= total;
+        }
+        return cdf;
+    }
+
+    private static int pick(double[] cdf, SplittableRandom random) {
+        int found = Arrays.binarySearch(cdf, random.nextDouble());
+        return Math.min(cdf.length - 1, found >= 0 ? found + 1 : -found - 1);
+    }
+
+    public record PatientRow(int index, String code, String name, String phone, String email, LocalDateTime createdAt) {}
+
+    public record AppointmentRow(int index, String code, int patient, String doctorName, LocalDate date, String description,
+            LocalDateTime createdAt) {}
+}
@@ -0,0 +1,7 @@
+package com.capstone.medicalapp.medical_appointment_app.dedup;
+
+// patient fields that must be unique within a clinic
+public enum ContactField {
+    EMAIL,
+    PHONE
+}
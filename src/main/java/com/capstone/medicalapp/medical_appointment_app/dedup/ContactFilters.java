@@ -0,0 +1,147 @@
+package com.capstone.medicalapp.medical_appointment_app.dedup;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.capstone.medicalapp.medical_appointment_app.repository.PatientRepository;
+import com.capstone.medicalapp.medical_appointment_app.sharding.ClinicContext;
+import com.capstone.medicalapp.medical_appointment_app.sharding.ShardRouter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+// tells a new email or phone number apart from a registered one without a database round trip, one filter per
+// clinic and field is loaded from every shard at startup and follows patient changes once they commit; the unique
+// constraints on patients stay the source of truth, so a "maybe" is always confirmed with a lookup and anything
+// the filter misses (rows from another instance or straight SQL) is still refused by the database
+@Component
+public class ContactFilters {
+
+    private static final Logger log = LoggerFactory.getLogger(ContactFilters.class);
+
+    @Autowired
+    private DedupProperties properties;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<String, CountingBloomFilter> filters = new ConcurrentHashMap<>();
+
+    // until the startup load is done the filters are incomplete and every check goes to the database
+    private volatile boolean loaded;
+
+    private Counter skippedCounter;
+    private Counter falsePositiveCounter;
+    private Counter duplicateCounter;
+
+    @PostConstruct
+    void registerMetrics() {
+        skippedCounter = meterRegistry.counter("medapp.dedup.checks", "result", "filtered");
+        falsePositiveCounter = meterRegistry.counter("medapp.dedup.checks", "result", "false_positive");
+        duplicateCounter = meterRegistry.counter("medapp.dedup.checks", "result", "duplicate");
+    }
+
+    // runs once the schema exists on every shard, writes that commit meanwhile land in the same filters
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!properties.isFilterEnabled()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        List<Object[]> keys = shardRouter.fanOut(patientRepository::findAllContactKeys);
+        for (Object[] key : keys) {
+            String clinicID = (String) key[0];
+            filter(clinicID, ContactField.EMAIL).add((String) key[1]);
+            filter(clinicID, ContactField.PHONE).add((String) key[2]);
+        }
+        loaded = true;
+
+        log.info("Loaded duplicate filters for {} patients in {} ms", keys.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // true when a patient of the current clinic already has the value, the lookup only runs when the filter
+    // cannot rule it out
+    public boolean isRegistered(ContactField field, String value, Predicate<String> lookup) {
+        if (loaded && !filter(ClinicContext.current(), field).mightContain(value)) {
+            skippedCounter.increment();
+            return false;
+        }
+
+        boolean registered = lookup.test(value);
+        (registered ? duplicateCounter : falsePositiveCounter).increment();
+        return registered;
+    }
+
+    public void added(String email, String phone) {
+        String clinicID = ClinicContext.current();
+        afterCommit(() -> {
+            filter(clinicID, ContactField.EMAIL).add(email);
+            filter(clinicID, ContactField.PHONE).add(phone);
+        });
+    }
+
+    public void changed(String oldEmail, String oldPhone, String email, String phone) {
+        String clinicID = ClinicContext.current();
+        afterCommit(() -> {
+            replace(filter(clinicID, ContactField.EMAIL), oldEmail, email);
+            replace(filter(clinicID, ContactField.PHONE), oldPhone, phone);
+        });
+    }
+
+    public void removed(String email, String phone) {
+        String clinicID = ClinicContext.current();
+        afterCommit(() -> {
+            filter(clinicID, ContactField.EMAIL).remove(email);
+            filter(clinicID, ContactField.PHONE).remove(phone);
+        });
+    }
+
+    private static void replace(CountingBloomFilter filter, String oldValue, String value) {
+        if (!Objects.equals(oldValue, value)) {
+            filter.remove(oldValue);
+            filter.add(value);
+        }
+    }
+
+    // a rolled back write must not leave its values behind or take someone else's out
+    private void afterCommit(Runnable change) {
+        if (!properties.isFilterEnabled()) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    private CountingBloomFilter filter(String clinicID, ContactField field) {
+        return filters.computeIfAbsent(clinicID + "/" + field, key ->
+                new CountingBloomFilter(properties.getExpectedPatientsPerClinic(), properties.getFalsePositiveRate()));
+    }
+}
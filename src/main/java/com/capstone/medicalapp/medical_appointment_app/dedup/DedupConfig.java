@@ -0,0 +1,9 @@
+package com.capstone.medicalapp.medical_appointment_app.dedup;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(DedupProperties.class)
+public class DedupConfig {
+}
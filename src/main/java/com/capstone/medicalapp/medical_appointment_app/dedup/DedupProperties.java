@@ -0,0 +1,42 @@
+package com.capstone.medicalapp.medical_appointment_app.dedup;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// binds the medapp.dedup.* settings
+@ConfigurationProperties(prefix = "medapp.dedup")
+public class DedupProperties {
+
+    // when off every duplicate check goes to the database
+    private boolean filterEnabled = true;
+    private long expectedPatientsPerClinic = 100_000;
+    private double falsePositiveRate = 0.01;
+
+    // lowest score the duplicate scan proposes a merge for
+    private double scanThreshold = 0.85;
+    // blocks bigger than this are only compared with the next scan-window records in name order
+    private int scanMaxBlockSize = 1000;
+    private int scanWindow = 20;
+    // 0 uses one thread per cpu
+    private int scanParallelism = 0;
+
+    public boolean isFilterEnabled() {return filterEnabled;}
+    public void setFilterEnabled(boolean filterEnabled) {this.filterEnabled = filterEnabled;}
+
+    public long getExpectedPatientsPerClinic() {return expectedPatientsPerClinic;}
+    public void setExpectedPatientsPerClinic(long expectedPatientsPerClinic) {this.expectedPatientsPerClinic = expectedPatientsPerClinic;}
+
+    public double getFalsePositiveRate() {return falsePositiveRate;}
+    public void setFalsePositiveRate(double falsePositiveRate) {this.falsePositiveRate = falsePositiveRate;}
+
+    public double getScanThreshold() {return scanThreshold;}
+    public void setScanThreshold(double scanThreshold) {this.scanThreshold = scanThreshold;}
+
+    public int getScanMaxBlockSize() {return scanMaxBlockSize;}
+    public void setScanMaxBlockSize(int scanMaxBlockSize) {this.scanMaxBlockSize = scanMaxBlockSize;}
+
+    public int getScanWindow() {return scanWindow;}
+    public void setScanWindow(int scanWindow) {this.scanWindow = scanWindow;}
+
+    public int getScanParallelism() {return scanParallelism;}
+    public void setScanParallelism(int scanParallelism) {this.scanParallelism = scanParallelism;}
+}
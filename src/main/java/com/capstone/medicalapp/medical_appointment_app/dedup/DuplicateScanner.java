@@ -0,0 +1,235 @@
+package com.capstone.medicalapp.medical_appointment_app.dedup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+// finds patients that are probably the same person. records are only compared when they share a blocking key
+// (phone, email address, first + last name sound), so the work grows with the block
+// sizes instead of n squared; blocks are scored in parallel on the given fork/join pool. a scanner is good for one scan
+public class DuplicateScanner {
+
+    // below this the names are too different for shared contact details to mean the same person (families share phones)
+    public static final double MIN_NAME_SIMILARITY = 0.85;
+
+    private static final double NAME_WEIGHT = 0.6;
+    private static final double CONTACT_WEIGHT = 0.4;
+    private static final int BLOCKS_PER_TASK = 256;
+    // phone numbers or addresses further apart than this are different contacts
+    private static final int MAX_CONTACT_EDITS = 2;
+
+    public record Match(int a, int b, double score, String reasons) {}
+
+    // keep is the earliest registered patient the duplicate matches, score and reasons are of that pair
+    public record Candidate(int keep, int duplicate, double score, String reasons) {}
+
+    public record Result(List<Candidate> candidates, long comparedPairs, int blocks) {}
+
+    private record Block(long[] entries, int from, int to) {}
+
+    private final double threshold;
+    private final int maxBlockSize;
+    private final int window;
+
+    private PatientRecords records;
+    private String[] names;
+    private String[] emails;
+
+    public DuplicateScanner(double threshold, int maxBlockSize, int window) {
+        this.threshold = threshold;
+        this.maxBlockSize = maxBlockSize;
+        this.window = window;
+    }
+
+    // pairs already turned down by a reviewer are left out
+    public Result scan(PatientRecords records, Set<String> rejectedPairs, ForkJoinPool pool) {
+        this.records = records;
+        int n = records.size();
+        names = new String[n];
+        emails = new String[n];
+        String[] sounds = new String[n];
+
+        pool.submit(() -> IntStream.range(0, n).parallel().forEach(i -> {
+            names[i] = NameMatching.normalizeName(records.name(i));
+            emails[i] = NameMatching.normalizeEmail(records.email(i));
+            String[] tokens = names[i].split(" ");
+            sounds[i] = NameMatching.soundex(tokens[0]) + NameMatching.soundex(tokens[tokens.length - 1]);
+        })).join();
+
+        List<Block> blocks = new ArrayList<>();
+        addBlocks(blocks, n, i -> "p" + records.phone(i));
+        addBlocks(blocks, n, i -> "e" + emails[i]);
+        addBlocks(blocks, n, i -> "n" + sounds[i]);
+
+        ConcurrentLinkedQueue<Match> matches = new ConcurrentLinkedQueue<>();
+        LongAdder compared = new LongAdder();
+        pool.invoke(new ScoreTask(blocks, 0, blocks.size(), matches, compared));
+
+        return new Result(group(matches, rejectedPairs), compared.sum(), blocks.size());
+    }
+
+    public static String pairKey(String keepPatientID, String duplicatePatientID) {
+        return keepPatientID + ">" + duplicatePatientID;
+    }
+
+    // sorts (key hash, index) pairs so records with the same key sit next to each other, a hash collision only
+    // adds a few extra comparisons
+    private void addBlocks(List<Block> blocks, int n, IntFunction<String> key) {
+        long[] entries = new long[n];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            String value = key.apply(i);
+            if (value != null) {
+                entries[count++] = ((long) value.hashCode() << 32) | i;
+            }
+        }
+        entries = Arrays.copyOf(entries, count);
+        Arrays.parallelSort(entries);
+
+        int start = 0;
+        for (int i = 1; i <= count; i++) {
+            if (i == count || (entries[i] >>> 32) != (entries[start] >>> 32)) {
+                if (i - start > 1) {
+                    blocks.add(new Block(entries, start, i));
+                }
+                start = i;
+            }
+        }
+    }
+
+    private class ScoreTask extends RecursiveAction {
+
+        private final List<Block> blocks;
+        private final int from;
+        private final int to;
+        private final ConcurrentLinkedQueue<Match> matches;
+        private final LongAdder compared;
+
+        ScoreTask(List<Block> blocks, int from, int to, ConcurrentLinkedQueue<Match> matches, LongAdder compared) {
+            this.blocks = blocks;
+            this.from = from;
+            this.to = to;
+            this.matches = matches;
+            this.compared = compared;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BLOCKS_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    scoreBlock(blocks.get(i), matches, compared);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ScoreTask(blocks, from, middle, matches, compared),
+                    new ScoreTask(blocks, middle, to, matches, compared));
+        }
+    }
+
+    // every pair in a normal block, a block that is too big (a very common name) is sorted
+    // by name and each record only compared with the next few
+    private void scoreBlock(Block block, ConcurrentLinkedQueue<Match> matches, LongAdder compared) {
+        int size = block.to() - block.from();
+        Integer[] members = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            members[i] = (int) block.entries()[block.from() + i];
+        }
+
+        int reach = size;
+        if (size > maxBlockSize) {
+            Arrays.sort(members, Comparator.comparing(i -> names[i]));
+            reach = window;
+        }
+
+        long pairs = 0;
+        for (int i = 0; i < size; i++) {
+            for (int j = i + 1; j < size && j <= i + reach; j++) {
+                pairs++;
+                Match match = score(members[i], members[j]);
+                if (match != null) {
+                    matches.add(match);
+                }
+            }
+        }
+        compared.add(pairs);
+    }
+
+    private Match score(int a, int b) {
+        double name = NameMatching.jaroWinkler(names[a], names[b]);
+        if (name < MIN_NAME_SIMILARITY) {
+            return null;
+        }
+
+        // a typo in a phone number or an address still counts, for less than an exact match
+        int phoneEdits = NameMatching.editDistance(records.phone(a), records.phone(b), MAX_CONTACT_EDITS);
+        int emailEdits = NameMatching.editDistance(emails[a], emails[b], MAX_CONTACT_EDITS);
+        double contact = Math.max(contactSimilarity(phoneEdits), contactSimilarity(emailEdits));
+        String reason = Stream.of(contactReason("phone", phoneEdits), contactReason("email", emailEdits))
+                .filter(text -> !text.isEmpty()).collect(Collectors.joining(", "));
+
+        double score = NAME_WEIGHT * name + CONTACT_WEIGHT * contact;
+        if (score < threshold) {
+            return null;
+        }
+        return new Match(a, b, score, String.format("name %.2f%s", name, reason.isEmpty() ? "" : ", " + reason));
+    }
+
+    private static double contactSimilarity(int edits) {
+        return edits > MAX_CONTACT_EDITS ? 0 : 1 - (double) edits / (MAX_CONTACT_EDITS + 2);
+    }
+
+    private static String contactReason(String field, int edits) {
+        if (edits == 0) {
+            return "same " + field;
+        }
+        return edits > MAX_CONTACT_EDITS ? "" : field + " " + edits + (edits == 1 ? " edit" : " edits") + " apart";
+    }
+
+    // proposes merging records into the earliest registered record they match directly. a record only matched
+    // through another duplicate (a~b, b~c but not a~c, or a rejected a~c) is not pulled in with someone else's
+    // score; records are visited oldest first, each unclaimed one keeps the unclaimed records it matches
+    private List<Candidate> group(ConcurrentLinkedQueue<Match> matches, Set<String> rejectedPairs) {
+        Map<Integer, Map<Integer, Match>> matched = new HashMap<>();
+        for (Match match : matches) {
+            if (rejectedPairs.contains(pairKey(records.patientID(match.a()), records.patientID(match.b())))
+                    || rejectedPairs.contains(pairKey(records.patientID(match.b()), records.patientID(match.a())))) {
+                continue;
+            }
+            // the same pair can share several blocks
+            matched.computeIfAbsent(match.a(), key -> new HashMap<>()).putIfAbsent(match.b(), match);
+            matched.computeIfAbsent(match.b(), key -> new HashMap<>()).putIfAbsent(match.a(), match);
+        }
+
+        List<Integer> members = new ArrayList<>(matched.keySet());
+        members.sort(Comparator.comparingLong(records::id));
+        Set<Integer> claimed = new HashSet<>();
+        List<Candidate> candidates = new ArrayList<>();
+        for (int keep : members) {
+            if (!claimed.add(keep)) {
+                continue;
+            }
+            for (Map.Entry<Integer, Match> other : matched.get(keep).entrySet()) {
+                if (claimed.add(other.getKey())) {
+                    Match match = other.getValue();
+                    candidates.add(new Candidate(keep, other.getKey(), match.score(), match.reasons()));
+                }
+            }
+        }
+        candidates.sort(Comparator.comparingDouble(Candidate::score).reversed());
+        return candidates;
+    }
+}
@@ -0,0 +1,153 @@
+package com.capstone.medicalapp.medical_appointment_app.dedup;
+
+import java.util.Locale;
+
+// string helpers for spotting the same person typed two different ways
+public final class NameMatching {
+
+    private static final String SOUNDEX_CODES = "01230120022455012623010202";
+
+    private NameMatching() {}
+
+    // lower case letters and single spaces only, "  O'Brien-Smith " becomes "obrien smith"
+    public static String normalizeName(String name) {
+        StringBuilder normalized = new StringBuilder(name.length());
+        boolean space = false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = Character.toLowerCase(name.charAt(i));
+            if (c >= 'a' && c <= 'z') {
+                if (space && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                normalized.append(c);
+                space = false;
+            } else if (c == ' ' || c == '-') {
+                space = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    // lower case address without dots or a +tag before the @, so "J.Smith+clinic@x.com" and "jsmith@x.com" agree
+    public static String normalizeEmail(String email) {
+        String lower = email.toLowerCase(Locale.ROOT);
+        int at = lower.indexOf('@');
+        String local = at < 0 ? lower : lower.substring(0, at);
+        int plus = local.indexOf('+');
+        if (plus >= 0) {
+            local = local.substring(0, plus);
+        }
+        return local.replace(".", "") + (at < 0 ? "" : lower.substring(at));
+    }
+
+    // american soundex of a lower case word, "smith" and "smyth" both give s530
+    public static String soundex(String word) {
+        if (word.isEmpty()) {
+            return "";
+        }
+
+        StringBuilder code = new StringBuilder(4).append(word.charAt(0));
+        char last = SOUNDEX_CODES.charAt(word.charAt(0) - 'a');
+        for (int i = 1; i < word.length() && code.length() < 4; i++) {
+            char c = word.charAt(i);
+            char digit = SOUNDEX_CODES.charAt(c - 'a');
+            if (digit != '0' && digit != last) {
+                code.append(digit);
+            }
+            // h and w do not separate letters with the same code, vowels do
+            if (c != 'h' && c != 'w') {
+                last = digit;
+            }
+        }
+        while (code.length() < 4) {
+            code.append('0');
+        }
+        return code.toString();
+    }
+
+    // jaro-winkler similarity, 1 for equal strings and close to 1 for small typos near the end
+    public static double jaroWinkler(String a, String b) {
+        if (a.equals(b)) {
+            return 1;
+        }
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0;
+        }
+
+        int range = Math.max(0, Math.max(a.length(), b.length()) / 2 - 1);
+        boolean[] aMatched = new boolean[a.length()];
+        boolean[] bMatched = new boolean[b.length()];
+        int matches = 0;
+        for (int i = 0; i < a.length(); i++) {
+            int from = Math.max(0, i - range);
+            int to = Math.min(b.length() - 1, i + range);
+            for (int j = from; j <= to; j++) {
+                if (!bMatched[j] && a.charAt(i) == b.charAt(j)) {
+                    aMatched[i] = true;
+                    bMatched[j] = true;
+                    matches++;
+                    break;
+                }
+            }
+        }
+        if (matches == 0) {
+            return 0;
+        }
+
+        int transpositions = 0;
+        for (int i = 0, j = 0; i < a.length(); i++) {
+            if (aMatched[i]) {
+                while (!bMatched[j]) {
+                    j++;
+                }
+                if (a.charAt(i) != b.charAt(j)) {
+                    transpositions++;
+                }
+                j++;
+            }
+        }
+
+        double m = matches;
+        double jaro = (m / a.length() + m / b.length() + (m - transpositions / 2.0) / m) / 3;
+
+        int prefix = 0;
+        while (prefix < 4 && prefix < a.length() && prefix < b.length() && a.charAt(prefix) == b.charAt(prefix)) {
+            prefix++;
+        }
+        return jaro + prefix * 0.1 * (1 - jaro);
+    }
+
+    // edits (insert, delete, change or swap two neighbours) to turn a into b, or max + 1 once it is more than max.
+    // "5551234567" and "5551243567" are one swap apart
+    public static int editDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] before = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int best = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    current[j] = Math.min(current[j], before[j - 2] + 1);
+                }
+                best = Math.min(best, current[j]);
+            }
+            if (best > max) {
+                return max + 1;
+            }
+            int[] oldest = before;
+            before = previous;
+            previous = current;
+            current = oldest;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+}
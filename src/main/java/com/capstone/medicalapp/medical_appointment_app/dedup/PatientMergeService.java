@@ -0,0 +1,246 @@
+package com.capstone.medicalapp.medical_appointment_app.dedup;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.capstone.medicalapp.medical_appointment_app.audit.AuditLog;
+import com.capstone.medicalapp.medical_appointment_app.audit.AuditSnapshots;
+import com.capstone.medicalapp.medical_appointment_app.changefeed.ChangeFeedService;
+import com.capstone.medicalapp.medical_appointment_app.model.Appointment;
+import com.capstone.medicalapp.medical_appointment_app.model.AppointmentSeries;
+import com.capstone.medicalapp.medical_appointment_app.model.MergeProposal;
+import com.capstone.medicalapp.medical_appointment_app.model.MergeStatus;
+import com.capstone.medicalapp.medical_appointment_app.model.Patient;
+import com.capstone.medicalapp.medical_appointment_app.push.AppointmentBroadcaster;
+import com.capstone.medicalapp.medical_appointment_app.push.AppointmentEvent;
+import com.capstone.medicalapp.medical_appointment_app.repository.AppointmentRepository;
+import com.capstone.medicalapp.medical_appointment_app.repository.AppointmentSeriesRepository;
+import com.capstone.medicalapp.medical_appointment_app.repository.MergeProposalRepository;
+import com.capstone.medicalapp.medical_appointment_app.service.PatientService;
+import com.capstone.medicalapp.medical_appointment_app.sharding.ClinicContext;
+import com.capstone.medicalapp.medical_appointment_app.sharding.ShardRouter;
+import com.capstone.medicalapp.medical_appointment_app.viewcache.DataSet;
+import com.capstone.medicalapp.medical_appointment_app.viewcache.DataVersions;
+import com.capstone.medicalapp.medical_appointment_app.waitlist.WaitlistService;
+
+// finds near-duplicate patients of a clinic in the background and merges a pair once someone approves it, a scan
+// replaces the clinic's open proposals and never changes patient data itself
+@Service
+public class PatientMergeService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientMergeService.class);
+
+    private static final String SELECT_PATIENTS = "SELECT patient_id, patient_code, name, phone, email FROM patients WHERE clinic_code = ?";
+    private static final String DELETE_PENDING = "DELETE FROM merge_proposals WHERE clinic_code = ? AND status = 'PENDING'";
+    private static final String INSERT_PROPOSAL = "INSERT INTO merge_proposals (keep_patient_code, keep_name, duplicate_patient_code, duplicate_name, score, reasons, status, clinic_code, created_at) VALUES (?, ?, ?, ?, ?, ?, 'PENDING', ?, ?)";
+
+    @Autowired
+    private DedupProperties properties;
+
+    @Autowired
+    private MergeProposalRepository proposalRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private AppointmentSeriesRepository seriesRepository;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private DataVersions dataVersions;
+
+    @Autowired
+    private ChangeFeedService changeFeed;
+
+    @Autowired
+    private AppointmentBroadcaster broadcaster;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ConcurrentHashMap<String, ScanStatus> scans = new ConcurrentHashMap<>();
+    private final ExecutorService scanExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile ForkJoinPool pool;
+
+    // starts a scan of the current clinic unless one is already running, returns the scan's status either way
+    public ScanStatus startScan() {
+        String clinicID = ClinicContext.current();
+        ScanStatus started = ScanStatus.running(clinicID);
+        ScanStatus current = scans.compute(clinicID, (key, previous) ->
+                previous != null && previous.state() == ScanStatus.State.RUNNING ? previous : started);
+        if (current == started) {
+            scanExecutor.submit(() -> shardRouter.inClinic(clinicID, () -> runScan(started)));
+        }
+        return current;
+    }
+
+    // scans the current clinic on the calling thread
+    public ScanStatus scan() {
+        ScanStatus started = ScanStatus.running(ClinicContext.current());
+        ScanStatus current = scans.compute(started.clinicID(), (key, previous) ->
+                previous != null && previous.state() == ScanStatus.State.RUNNING ? previous : started);
+        if (current != started) {
+            throw new IllegalStateException("A duplicate scan is already running for this clinic");
+        }
+        return runScan(started);
+    }
+
+    public Optional<ScanStatus> getScanStatus() {
+        return Optional.ofNullable(scans.get(ClinicContext.current()));
+    }
+
+    public List<MergeProposal> getPendingProposals() {
+        return proposalRepository.findByStatusOrderByScoreDesc(MergeStatus.PENDING);
+    }
+
+    // moves the duplicate's appointments, series and waitlist entries to the kept patient with one update each, then deletes the duplicate
+    @Transactional
+    public MergeProposal approve(Long proposalID) {
+        MergeProposal proposal = pendingProposal(proposalID);
+        String keepID = proposal.getKeepPatientID();
+        String duplicateID = proposal.getDuplicatePatientID();
+
+        Optional<Patient> kept = patientService.getPatientById(keepID);
+        if (kept.isEmpty() || !patientService.patientExists(duplicateID)) {
+            throw new IllegalArgumentException("Both patients must still exist to merge them");
+        }
+
+        // the bulk updates below skip the services, so the change feed and open appointment lists learn about the
+        // moved rows here
+        for (Appointment appointment : appointmentRepository.findByPatientID(duplicateID)) {
+            changeFeed.recordUpsert(AuditSnapshots.APPOINTMENT, appointment.getAppointmentID());
+            broadcaster.publish(new AppointmentEvent(AppointmentEvent.UPDATED, appointment.getAppointmentID(), keepID, kept.get().getName(),
+                    appointment.getDoctorName(), appointment.getAptDate(), appointment.getDescription()));
+        }
+        for (AppointmentSeries moved : seriesRepository.findByPatientID(duplicateID)) {
+            changeFeed.recordUpsert(AuditSnapshots.SERIES, moved.getSeriesID());
+        }
+        int appointments = appointmentRepository.reassignPatient(duplicateID, keepID);
+        int series = seriesRepository.reassignPatient(duplicateID, keepID);
+        int waiting = waitlistService.reassignPatient(duplicateID, keepID);
+        proposalRepository.repointPending(duplicateID, keepID);
+        patientService.deletePatient(duplicateID);
+
+        auditLog.recordUpdate(AuditSnapshots.PATIENT, keepID,
+                "merged " + duplicateID + ": " + appointments + " appointments, " + series + " series, " + waiting + " waitlist entries");
+        dataVersions.changed(DataSet.APPOINTMENTS);
+
+        proposal.setStatus(MergeStatus.APPROVED);
+        proposal.setDecidedAt(LocalDateTime.now());
+        return proposal;
+    }
+
+    // a rejected pair is not proposed again by later scans
+    @Transactional
+    public MergeProposal reject(Long proposalID) {
+        MergeProposal proposal = pendingProposal(proposalID);
+        proposal.setStatus(MergeStatus.REJECTED);
+        proposal.setDecidedAt(LocalDateTime.now());
+        return proposal;
+    }
+
+    private MergeProposal pendingProposal(Long proposalID) {
+        MergeProposal proposal = proposalRepository.findProposal(proposalID)
+                .orElseThrow(() -> new IllegalArgumentException("Merge proposal " + proposalID + " does not exist"));
+        if (proposal.getStatus() != MergeStatus.PENDING) {
+            throw new IllegalArgumentException("Merge proposal " + proposalID + " was already " + proposal.getStatus().name().toLowerCase(Locale.ROOT));
+        }
+        return proposal;
+    }
+
+    private ScanStatus runScan(ScanStatus started) {
+        String clinicID = started.clinicID();
+        ScanStatus status;
+        try {
+            PatientRecords records = new PatientRecords();
+            jdbcTemplate.query(SELECT_PATIENTS, rs -> {
+                records.add(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5));
+            }, clinicID);
+
+            Set<String> rejected = new HashSet<>();
+            for (Object[] pair : proposalRepository.findRejectedPairs()) {
+                rejected.add(DuplicateScanner.pairKey((String) pair[0], (String) pair[1]));
+            }
+
+            DuplicateScanner scanner = new DuplicateScanner(properties.getScanThreshold(), properties.getScanMaxBlockSize(), properties.getScanWindow());
+            DuplicateScanner.Result result = scanner.scan(records, rejected, pool());
+
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> rows = new ArrayList<>(result.candidates().size());
+            for (DuplicateScanner.Candidate candidate : result.candidates()) {
+                rows.add(new Object[] {records.patientID(candidate.keep()), records.name(candidate.keep()),
+                        records.patientID(candidate.duplicate()), records.name(candidate.duplicate()),
+                        candidate.score(), candidate.reasons(), clinicID, now});
+            }
+            new TransactionTemplate(transactionManager).executeWithoutResult(tx -> {
+                jdbcTemplate.update(DELETE_PENDING, clinicID);
+                jdbcTemplate.batchUpdate(INSERT_PROPOSAL, rows);
+            });
+
+            status = started.finished(records.size(), result.comparedPairs(), rows.size());
+            log.info("Duplicate scan of clinic {}: {} patients, {} pairs compared, {} merge proposals in {} ms",
+                    clinicID, status.patients(), status.comparedPairs(), status.proposals(), status.elapsedMs());
+        } catch (RuntimeException e) {
+            log.warn("Duplicate scan of clinic {} failed", clinicID, e);
+            status = started.failed(e.getMessage());
+        }
+        scans.put(clinicID, status);
+        return status;
+    }
+
+    // created on first use so the pool threads only exist once someone scans
+    private ForkJoinPool pool() {
+        if (pool == null) {
+            synchronized (this) {
+                if (pool == null) {
+                    int parallelism = properties.getScanParallelism() > 0 ? properties.getScanParallelism() : Runtime.getRuntime().availableProcessors();
+                    pool = new ForkJoinPool(parallelism);
+                }
+            }
+        }
+        return pool;
+    }
+
+    @Override
+    public void destroy() {
+        scanExecutor.shutdownNow();
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.capstone.medicalapp.medical_appointment_app.dedup;
+
+import java.util.Arrays;
+
+// one clinic's patients as parallel arrays, small enough to hold a million rows for a duplicate scan
+public class PatientRecords {
+
+    private long[] ids = new long[1024];
+    private String[] patientIDs = new String[1024];
+    private String[] names = new String[1024];
+    private String[] phones = new String[1024];
+    private String[] emails = new String[1024];
+    private int size;
+
+    public void add(long id, String patientID, String name, String phone, String email) {
+        if (size == ids.length) {
+            int capacity = size * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            patientIDs = Arrays.copyOf(patientIDs, capacity);
+            names = Arrays.copyOf(names, capacity);
+            phones = Arrays.copyOf(phones, capacity);
+            emails = Arrays.copyOf(emails, capacity);
+        }
+        ids[size] = id;
+        patientIDs[size] = patientID;
+        names[size] = name;
+        phones[size] = phone;
+        emails[size] = email;
+        size++;
+    }
+
+    public int size() {return size;}
+
+    // database id, lower means registered earlier
+    public long id(int i) {return ids[i];}
+    public String patientID(int i) {return patientIDs[i];}
+    public String name(int i) {return names[i];}
+    public String phone(int i) {return phones[i];}
+    public String email(int i) {return emails[i];}
+}
@@ -0,0 +1,31 @@
+package com.capstone.medicalapp.medical_appointment_app.dedup;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// progress and outcome of the latest duplicate scan of a clinic
+public record ScanStatus(String clinicID, State state, LocalDateTime startedAt, int patients, long comparedPairs,
+        int proposals, long elapsedMs, String error) {
+
+    public enum State {
+        RUNNING,
+        FINISHED,
+        FAILED
+    }
+
+    static ScanStatus running(String clinicID) {
+        return new ScanStatus(clinicID, State.RUNNING, LocalDateTime.now(), 0, 0, 0, 0, null);
+    }
+
+    ScanStatus finished(int patients, long comparedPairs, int proposals) {
+        return new ScanStatus(clinicID, State.FINISHED, startedAt, patients, comparedPairs, proposals, elapsed(), null);
+    }
+
+    ScanStatus failed(String error) {
+        return new ScanStatus(clinicID, State.FAILED, startedAt, 0, 0, 0, elapsed(), error);
+    }
+
+    private long elapsed() {
+        return Duration.between(startedAt, LocalDateTime.now()).toMillis();
+    }
+}
@@ -0,0 +1,205 @@
+package com.capstone.medicalapp.medical_appointment_app.groupcommit;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.capstone.medicalapp.medical_appointment_app.audit.AuditLog;
+import com.capstone.medicalapp.medical_appointment_app.model.Appointment;
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentService;
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentService.AddResult;
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentService.PendingAdd;
+import com.capstone.medicalapp.medical_appointment_app.sharding.ClinicContext;
+import com.capstone.medicalapp.medical_appointment_app.sharding.ShardRouter;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// group commit for new appointments. concurrent callers queue their booking and wait; one background thread takes
+// whatever has queued (up to max-batch-size, waiting at most max-delay-ms for more) and adds it in one transaction
+// per clinic, so the bookings share one patient query, one batched insert and one commit. every caller gets back
+// its own appointment or its own error. a batch the database refuses is retried one booking at a time
+@Component
+public class AppointmentCommitter implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentCommitter.class);
+
+    @Autowired
+    private GroupCommitProperties properties;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private BlockingQueue<Pending> queue;
+    private DistributionSummary batchSizes;
+    private volatile Thread thread;
+    private volatile boolean running;
+
+    private record Pending(Appointment appointment, String clinicID, String actor, CompletableFuture<AddResult> result) {}
+
+    // adds the appointment, through the queue when group commit is on and there is room
+    public Appointment add(Appointment apt) {
+        if (!running) {
+            return appointmentService.addAppointment(apt);
+        }
+
+        Pending pending = new Pending(apt, ClinicContext.current(), auditLog.currentActor(), new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            return appointmentService.addAppointment(apt);
+        }
+        // the committer may have stopped and drained the queue for the last time since running was read, then
+        // nothing would ever complete this booking. if it is still queued it is taken back, otherwise it was drained
+        if (!running && queue.remove(pending)) {
+            return appointmentService.addAppointment(apt);
+        }
+
+        AddResult result;
+        try {
+            result = pending.result().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while the appointment was being saved", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException("Appointment could not be saved", e.getCause());
+        }
+        if (result.error() != null) {
+            throw result.error();
+        }
+        return result.appointment();
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (properties.getMaxBatchSize() < 1 || properties.getQueueCapacity() < 1 || properties.getMaxDelayMs() < 0) {
+            throw new IllegalArgumentException("Group commit needs a positive batch size and queue capacity and a delay of at least 0");
+        }
+        queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        batchSizes = DistributionSummary.builder("medapp.groupcommit.batch.size").register(meterRegistry);
+        running = true;
+        thread = Thread.ofPlatform().name("appointment-committer").daemon().start(this::run);
+    }
+
+    // commits until stopped, then whatever is still queued
+    private void run() {
+        List<Pending> batch = new ArrayList<>(properties.getMaxBatchSize());
+        long maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(properties.getMaxDelayMs());
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < properties.getMaxBatchSize()) {
+                    queue.drainTo(batch, properties.getMaxBatchSize() - batch.size());
+                    long left = deadline - System.nanoTime();
+                    if (batch.size() >= properties.getMaxBatchSize() || left <= 0) {
+                        break;
+                    }
+                    Pending next = queue.poll(left, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+                fail(batch, new IllegalStateException("Appointment was not saved, the application is shutting down", e));
+                // polling again would only throw again, what is still queued is failed below
+                break;
+            } catch (RuntimeException e) {
+                log.error("Group commit of {} appointments failed", batch.size(), e);
+                fail(batch, e);
+            } finally {
+                batch.clear();
+            }
+        }
+
+        // a caller that queued just as the thread stopped
+        List<Pending> left = new ArrayList<>();
+        queue.drainTo(left);
+        fail(left, new IllegalStateException("Appointment was not saved, the application is shutting down"));
+    }
+
+    private static void fail(List<Pending> batch, RuntimeException error) {
+        batch.forEach(pending -> pending.result().completeExceptionally(error));
+    }
+
+    private void commit(List<Pending> batch) {
+        batchSizes.record(batch.size());
+        Map<String, List<Pending>> byClinic = new LinkedHashMap<>();
+        for (Pending pending : batch) {
+            byClinic.computeIfAbsent(pending.clinicID(), clinic -> new ArrayList<>()).add(pending);
+        }
+        for (Map.Entry<String, List<Pending>> clinic : byClinic.entrySet()) {
+            try {
+                complete(clinic.getValue(), add(clinic.getKey(), clinic.getValue()));
+            } catch (RuntimeException e) {
+                // one booking broke the batch, give each its own transaction and its own outcome
+                for (Pending pending : clinic.getValue()) {
+                    try {
+                        complete(List.of(pending), add(clinic.getKey(), List.of(pending)));
+                    } catch (RuntimeException single) {
+                        pending.result().completeExceptionally(single);
+                    }
+                }
+            }
+        }
+    }
+
+    private List<AddResult> add(String clinicID, List<Pending> pending) {
+        List<PendingAdd> adds = pending.stream().map(p -> new PendingAdd(p.appointment(), p.actor())).toList();
+        return shardRouter.inClinic(clinicID, () -> appointmentService.addAppointments(adds));
+    }
+
+    private static void complete(List<Pending> pending, List<AddResult> results) {
+        for (int i = 0; i < pending.size(); i++) {
+            pending.get(i).result().complete(results.get(i));
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread current = thread;
+        if (current != null) {
+            try {
+                current.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
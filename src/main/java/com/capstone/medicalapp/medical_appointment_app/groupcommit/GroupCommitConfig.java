@@ -0,0 +1,9 @@
+package com.capstone.medicalapp.medical_appointment_app.groupcommit;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(GroupCommitProperties.class)
+public class GroupCommitConfig {
+}
@@ -0,0 +1,29 @@
+package com.capstone.medicalapp.medical_appointment_app.groupcommit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// binds the medapp.group-commit.* settings
+@ConfigurationProperties(prefix = "medapp.group-commit")
+public class GroupCommitProperties {
+
+    // off by default, every booking then commits on its own
+    private boolean enabled = false;
+    // most bookings committed together
+    private int maxBatchSize = 50;
+    // how long the first booking of a batch waits for company, 0 only takes what is already queued
+    private long maxDelayMs = 2;
+    // bookings waiting beyond this go the direct way instead of queueing
+    private int queueCapacity = 1000;
+
+    public boolean isEnabled() {return enabled;}
+    public void setEnabled(boolean enabled) {this.enabled = enabled;}
+
+    public int getMaxBatchSize() {return maxBatchSize;}
+    public void setMaxBatchSize(int maxBatchSize) {this.maxBatchSize = maxBatchSize;}
+
+    public long getMaxDelayMs() {return maxDelayMs;}
+    public void setMaxDelayMs(long maxDelayMs) {this.maxDelayMs = maxDelayMs;}
+
+    public int getQueueCapacity() {return queueCapacity;}
+    public void setQueueCapacity(int queueCapacity) {this.queueCapacity = queueCapacity;}
+}
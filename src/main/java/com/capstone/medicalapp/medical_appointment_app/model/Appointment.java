@@ -3,11 +3,20 @@ package com.capstone.medicalapp.medical_appointment_app.model;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
+import org.hibernate.annotations.TenantId;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.ForeignKey;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
@@ -17,7 +26,15 @@ import jakarta.validation.constraints.Size;
 
 // creates a database table called "appointment" to store patient appointment data, data is persistent
 @Entity
-@Table(name = "appointments")
+// patient_id backs the foreign key, reads of a patient's appointments filter on the code and use the clinic and patient
+// code index. the day index serves the day, week and month reads, the doctor and day index keeps a reschedule's
+// locking read of its target days to those days
+@Table(name = "appointments", indexes = {
+    @Index(name = "idx_appointments_patient", columnList = "patient_id"),
+    @Index(name = "idx_appointments_patient_code", columnList = "clinic_code, patient_code"),
+    @Index(name = "idx_appointments_day", columnList = "clinic_code, appointment_date"),
+    @Index(name = "idx_appointments_doctor_day", columnList = "clinic_code, doctor_name, appointment_date")
+})
 public class Appointment {
     
     @Id // primary key
@@ -32,6 +49,14 @@ public class Appointment {
     @Column(name = "patient_code", nullable = false, length = 20)
     private String patientID;
 
+    // foreign key to the patient's primary key, the database rejects an appointment of an unknown patient and a patient
+    // who still has appointments cannot be deleted. patientID stays as the business key, setPatient keeps both in step.
+    // lazy, read it through a query that fetches it (findWithPatientBy...) or a join
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "patient_id", nullable = false, foreignKey = @ForeignKey(name = "fk_appointments_patient"))
+    private Patient patient;
+
     @Column(name = "appointment_date", nullable = false)
     private LocalDate aptDate;
 
@@ -48,6 +73,15 @@ public class Appointment {
     @Column(name = "description", nullable = false, length = 40)
     private String description;
 
+    // set when this appointment is a moved occurrence of a recurring series, or an occurrence generated from one
+    @Column(name = "series_code", length = 20)
+    private String seriesID;
+
+    // clinic the record belongs to, hibernate fills it in and filters on it from ClinicContext
+    @TenantId
+    @Column(name = "clinic_code", nullable = false, updatable = false, length = 20)
+    private String clinicID;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
@@ -96,6 +130,12 @@ public class Appointment {
     public String getPatientID() {return patientID;}
     public void setPatientID(String patientID) {this.patientID = patientID;}
 
+    public Patient getPatient() {return patient;}
+    public void setPatient(Patient patient) {
+        this.patient = patient;
+        this.patientID = patient.getPatientID();
+    }
+
     public String getDoctorName() {return doctorName;}
     public void setDoctorName(String doctorName) {this.doctorName = doctorName;}
 
@@ -105,6 +145,12 @@ public class Appointment {
     public String getDescription() {return description;}
     public void setDescription(String description) {this.description = description;}
     
+    public String getSeriesID() {return seriesID;}
+    public void setSeriesID(String seriesID) {this.seriesID = seriesID;}
+
+    public String getClinicID() {return clinicID;}
+    public void setClinicID(String clinicID) {this.clinicID = clinicID;}
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     
@@ -0,0 +1,6 @@
+package com.capstone.medicalapp.medical_appointment_app.model;
+
+import java.time.LocalDate;
+
+// how many appointments one doctor has on one day, built by a group by query instead of loading the rows
+public record AppointmentCount(LocalDate date, String doctorName, long count) {}
@@ -0,0 +1,7 @@
+package com.capstone.medicalapp.medical_appointment_app.model;
+
+import java.time.LocalDate;
+
+// one line of the appointment table with the patient's name joined in, null when the patient is gone
+public record AppointmentRow(String appointmentID, String patientID, String patientName, String doctorName,
+        LocalDate aptDate, String description, String clinicID) {}
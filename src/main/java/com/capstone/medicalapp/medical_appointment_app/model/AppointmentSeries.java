@@ -0,0 +1,255 @@
+package com.capstone.medicalapp.medical_appointment_app.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.hibernate.annotations.TenantId;
+
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+// stores one row per recurring series instead of one row per occurrence, occurrences are worked out when queried
+@Entity
+@Table(name = "appointment_series", indexes = {
+    @Index(name = "idx_series_range", columnList = "start_date, end_date"),
+    @Index(name = "idx_series_weekday", columnList = "day_of_week, start_date"),
+    @Index(name = "idx_series_patient", columnList = "patient_code")
+})
+public class AppointmentSeries {
+
+    private static final DateTimeFormatter OCCURRENCE_SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+
+    @Id // primary key
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "series_id")
+    private Long id;
+
+    // specific series id for business use
+    @Column(name = "series_code", unique = true, nullable = false, length = 20)
+    private String seriesID;
+
+    @Column(name = "patient_code", nullable = false, length = 20)
+    private String patientID;
+
+    @NotBlank(message = "Doctor's name is required")
+    @Size(max = 25, message = "Doctor's name cannot exceed 25 characters")
+    @Pattern(regexp = "^[a-zA-Z\\s'-\\.]+$", message = "Doctor's name can only contain letters, spaces, hyphens, apostrophes, and periods")
+    @Column(name = "doctor_name", nullable = false, length = 25)
+    private String doctorName;
+
+    @NotBlank(message = "Description is required")
+    @Size(max = 40, message = "Description cannot exceed 40 characters")
+    @Column(name = "description", nullable = false, length = 40)
+    private String description;
+
+    // first occurrence
+    @NotNull(message = "Start date is required")
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    // last day an occurrence can fall on (inclusive)
+    @NotNull(message = "End date is required")
+    @Column(name = "end_date", nullable = false)
+    private LocalDate endDate;
+
+    @NotNull(message = "Frequency is required")
+    @Enumerated(EnumType.STRING)
+    @Column(name = "frequency", nullable = false, length = 10)
+    private RecurrenceFrequency frequency = RecurrenceFrequency.WEEKLY;
+
+    // repeat every n days/weeks/months
+    @Min(value = 1, message = "Interval must be at least 1")
+    @Max(value = 52, message = "Interval cannot exceed 52")
+    @Column(name = "repeat_interval", nullable = false)
+    private int interval = 1;
+
+    // day of week of the first occurrence, lets weekly series be filtered in SQL before they are expanded
+    @Column(name = "day_of_week", nullable = false)
+    private int dayOfWeek;
+
+    // occurrences that were cancelled or moved to a stored appointment, the only per-occurrence data kept
+    @ElementCollection
+    @CollectionTable(name = "appointment_series_skips", joinColumns = @JoinColumn(name = "series_id"))
+    @Column(name = "occurrence_date", nullable = false)
+    private Set<LocalDate> skippedDates = new HashSet<>();
+
+    @TenantId
+    @Column(name = "clinic_code", nullable = false, updatable = false, length = 20)
+    private String clinicID;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // default constructor
+    public AppointmentSeries() {}
+
+    // constructor for new series
+    public AppointmentSeries(String patientID, String doctorName, String description, LocalDate startDate, LocalDate endDate, RecurrenceFrequency frequency, int interval) {
+        this.patientID = patientID;
+        this.doctorName = doctorName;
+        this.description = description;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.frequency = frequency;
+        this.interval = interval;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+        dayOfWeek = startDate.getDayOfWeek().getValue();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+        dayOfWeek = startDate.getDayOfWeek().getValue();
+    }
+
+    // true if the rule produces an occurrence on this date and it has not been skipped
+    public boolean occursOn(LocalDate date) {
+        if (date.isBefore(startDate) || date.isAfter(endDate) || skippedDates.contains(date)) {
+            return false;
+        }
+
+        // a clamped month end (jan 31 -> feb 28) is one step further than ChronoUnit counts
+        long steps = frequency.stepsBetween(startDate, date);
+        for (long candidate = steps; candidate <= steps + 1; candidate++) {
+            if (candidate % interval == 0 && frequency.step(startDate, candidate).equals(date)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // occurrences between from and to (inclusive), only the dates in range are generated
+    public List<Appointment> occurrencesBetween(LocalDate from, LocalDate to) {
+        LocalDate first = from.isAfter(startDate) ? from : startDate;
+        LocalDate last = to.isBefore(endDate) ? to : endDate;
+
+        List<Appointment> occurrences = new ArrayList<>();
+        if (first.isAfter(last)) {
+            return occurrences;
+        }
+
+        // jump straight to the first step on or after the start of the range
+        long steps = frequency.stepsBetween(startDate, first);
+        steps -= steps % interval;
+        LocalDate date = frequency.step(startDate, steps);
+
+        while (!date.isAfter(last)) {
+            if (!date.isBefore(first) && !skippedDates.contains(date)) {
+                occurrences.add(toOccurrence(date));
+            }
+            steps += interval;
+            date = frequency.step(startDate, steps);
+        }
+        return occurrences;
+    }
+
+    // builds the transient appointment shown for one occurrence
+    public Appointment toOccurrence(LocalDate date) {
+        Appointment occurrence = new Appointment(occurrenceID(date), patientID, doctorName, date, description);
+        occurrence.setSeriesID(seriesID);
+        occurrence.setClinicID(clinicID);
+        return occurrence;
+    }
+
+    public String occurrenceID(LocalDate date) {
+        return seriesID + "-" + date.format(OCCURRENCE_SUFFIX);
+    }
+
+    /////////
+    /// class setters and getters
+    /////////
+
+    public String getSeriesID() {return seriesID;}
+    public void setSeriesID(String seriesID) {this.seriesID = seriesID;}
+
+    public String getPatientID() {return patientID;}
+    public void setPatientID(String patientID) {this.patientID = patientID;}
+
+    public String getDoctorName() {return doctorName;}
+    public void setDoctorName(String doctorName) {this.doctorName = doctorName;}
+
+    public String getDescription() {return description;}
+    public void setDescription(String description) {this.description = description;}
+
+    public LocalDate getStartDate() {return startDate;}
+    public void setStartDate(LocalDate startDate) {this.startDate = startDate;}
+
+    public LocalDate getEndDate() {return endDate;}
+    public void setEndDate(LocalDate endDate) {this.endDate = endDate;}
+
+    public RecurrenceFrequency getFrequency() {return frequency;}
+    public void setFrequency(RecurrenceFrequency frequency) {this.frequency = frequency;}
+
+    public int getInterval() {return interval;}
+    public void setInterval(int interval) {this.interval = interval;}
+
+    public int getDayOfWeek() {return dayOfWeek;}
+
+    public Set<LocalDate> getSkippedDates() {return skippedDates;}
+    public void setSkippedDates(Set<LocalDate> skippedDates) {this.skippedDates = skippedDates;}
+
+    public String getClinicID() {return clinicID;}
+    public void setClinicID(String clinicID) {this.clinicID = clinicID;}
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+
+    @Override
+    public String toString() {
+        return "AppointmentSeries{" +
+                "id=" + id +
+                ", seriesID='" + seriesID + '\'' +
+                ", patientID='" + patientID + '\'' +
+                ", doctorName='" + doctorName + '\'' +
+                ", startDate=" + startDate +
+                ", endDate=" + endDate +
+                ", frequency=" + frequency +
+                ", interval=" + interval +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (obj == null || getClass() != obj.getClass()) return false;
+
+        AppointmentSeries series = (AppointmentSeries) obj;
+        return id != null ? id.equals(series.id) : series.id == null;
+    }
+
+    @Override
+    public int hashCode() {
+        return seriesID != null ? seriesID.hashCode() : 0;
+    }
+}
@@ -0,0 +1,88 @@
+package com.capstone.medicalapp.medical_appointment_app.model;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.TenantId;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+// append-only history of changes to patients and appointments, rows are written in batches by the audit writer
+@Entity
+@Immutable
+@Table(name = "audit_log", indexes = @Index(name = "idx_audit_entity", columnList = "entity_type, entity_code"))
+public class AuditEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "audit_id")
+    private Long id;
+
+    @Column(name = "entity_type", nullable = false, length = 20)
+    private String entityType;
+
+    // business id of the changed record (PAT1001, APT2001...)
+    @Column(name = "entity_code", nullable = false, length = 30)
+    private String entityID;
+
+    @Column(name = "action", nullable = false, length = 10)
+    private String action;
+
+    @Column(name = "changed_by", nullable = false, length = 100)
+    private String changedBy;
+
+    // the values that were set, or "field: old -> new" for updates
+    @Column(name = "details", length = 1000)
+    private String details;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+
+    @TenantId
+    @Column(name = "clinic_code", nullable = false, updatable = false, length = 20)
+    private String clinicID;
+
+    // default constructor
+    public AuditEntry() {}
+
+    public AuditEntry(String entityType, String entityID, String action, String changedBy, String details, String clinicID, LocalDateTime changedAt) {
+        this.entityType = entityType;
+        this.entityID = entityID;
+        this.action = action;
+        this.changedBy = changedBy;
+        this.details = details;
+        this.clinicID = clinicID;
+        this.changedAt = changedAt;
+    }
+
+    /////////
+    /// class getters
+    /////////
+
+    public Long getId() {return id;}
+    public String getEntityType() {return entityType;}
+    public String getEntityID() {return entityID;}
+    public String getAction() {return action;}
+    public String getChangedBy() {return changedBy;}
+    public String getDetails() {return details;}
+    public LocalDateTime getChangedAt() {return changedAt;}
+    public String getClinicID() {return clinicID;}
+
+    @Override
+    public String toString() {
+        return "AuditEntry{" +
+                "id=" + id +
+                ", entityType='" + entityType + '\'' +
+                ", entityID='" + entityID + '\'' +
+                ", action='" + action + '\'' +
+                ", changedBy='" + changedBy + '\'' +
+                ", changedAt=" + changedAt +
+                '}';
+    }
+}
@@ -0,0 +1,73 @@
+package com.capstone.medicalapp.medical_appointment_app.model;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.TenantId;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+// one row per write to a patient, appointment or series, written in the same transaction as the write so a
+// hard delete still leaves its tombstone here; the feed is ordered by the write's commit number, then the id
+@Entity
+@Immutable
+@Table(name = "change_log", indexes = @Index(name = "idx_change_log_cursor", columnList = "clinic_code, commit_number, change_id"))
+public class ChangeLogEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "change_id")
+    private Long id;
+
+    @Column(name = "entity_type", nullable = false, length = 20)
+    private String entityType;
+
+    // business id of the changed record (PAT1001, APT2001...)
+    @Column(name = "entity_code", nullable = false, length = 30)
+    private String entityID;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "operation", nullable = false, length = 10)
+    private ChangeOperation operation;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+
+    // taken from change_sequences as the write commits, shared by every entry of the write
+    @Column(name = "commit_number", nullable = false)
+    private long commitNumber;
+
+    @TenantId
+    @Column(name = "clinic_code", nullable = false, updatable = false, length = 20)
+    private String clinicID;
+
+    // default constructor
+    public ChangeLogEntry() {}
+
+    public ChangeLogEntry(String entityType, String entityID, ChangeOperation operation, LocalDateTime changedAt) {
+        this.entityType = entityType;
+        this.entityID = entityID;
+        this.operation = operation;
+        this.changedAt = changedAt;
+    }
+
+    /////////
+    /// class getters
+    /////////
+
+    public Long getId() {return id;}
+    public String getEntityType() {return entityType;}
+    public String getEntityID() {return entityID;}
+    public ChangeOperation getOperation() {return operation;}
+    public LocalDateTime getChangedAt() {return changedAt;}
+    public long getCommitNumber() {return commitNumber;}
+    public String getClinicID() {return clinicID;}
+}
@@ -0,0 +1,7 @@
+package com.capstone.medicalapp.medical_appointment_app.model;
+
+// what a change feed entry tells a syncing client to do with the record
+public enum ChangeOperation {
+    UPSERT,
+    DELETE
+}
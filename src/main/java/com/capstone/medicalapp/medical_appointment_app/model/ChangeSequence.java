@@ -0,0 +1,41 @@
+package com.capstone.medicalapp.medical_appointment_app.model;
+
+import org.hibernate.annotations.TenantId;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+// the last commit number handed to a clinic's change log. a write takes the next one just before it commits and
+// holds the row lock until it has, so the clinic's writes commit in the order of their numbers
+@Entity
+@Table(name = "change_sequences", uniqueConstraints = @UniqueConstraint(name = "uk_change_sequences_clinic", columnNames = "clinic_code"))
+public class ChangeSequence {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "sequence_id")
+    private Long id;
+
+    @TenantId
+    @Column(name = "clinic_code", nullable = false, updatable = false, length = 20)
+    private String clinicID;
+
+    @Column(name = "last_commit", nullable = false)
+    private long lastCommit;
+
+    // default constructor
+    public ChangeSequence() {}
+
+    /////////
+    /// class getters
+    /////////
+
+    public Long getId() {return id;}
+    public String getClinicID() {return clinicID;}
+    public long getLastCommit() {return lastCommit;}
+}
@@ -0,0 +1,47 @@
+package com.capstone.medicalapp.medical_appointment_app.model;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.TenantId;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+
+// one row per doctor of a clinic that has been rescheduled, updating it holds the row lock until the transaction
+// ends so two reschedules of the same doctor count the free days one after the other
+@Entity
+@Table(name = "doctor_locks", uniqueConstraints = @UniqueConstraint(name = "uk_doctor_locks_clinic_doctor", columnNames = {"clinic_code", "doctor_name"}))
+public class DoctorLock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "lock_id")
+    private Long id;
+
+    @Column(name = "doctor_name", nullable = false, length = 25)
+    private String doctorName;
+
+    @TenantId
+    @Column(name = "clinic_code", nullable = false, updatable = false, length = 20)
+    private String clinicID;
+
+    @Column(name = "locked_at", nullable = false)
+    private LocalDateTime lockedAt;
+
+    // default constructor
+    public DoctorLock() {}
+
+    /////////
+    /// class getters
+    /////////
+
+    public Long getId() {return id;}
+    public String getDoctorName() {return doctorName;}
+    public String getClinicID() {return clinicID;}
+    public LocalDateTime getLockedAt() {return lockedAt;}
+}
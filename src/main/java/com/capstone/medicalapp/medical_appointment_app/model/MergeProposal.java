@@ -0,0 +1,96 @@
+package com.capstone.medicalapp.medical_appointment_app.model;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.TenantId;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+// a pair of patients the duplicate scan thinks are the same person, nothing changes until someone approves it
+@Entity
+@Table(name = "merge_proposals", indexes = @Index(name = "idx_merge_status", columnList = "clinic_code, status"))
+public class MergeProposal {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "proposal_id")
+    private Long id;
+
+    // the earliest registered patient of the group, it keeps its code and receives the appointments
+    @Column(name = "keep_patient_code", nullable = false, length = 20)
+    private String keepPatientID;
+
+    @Column(name = "keep_name", nullable = false, length = 25)
+    private String keepName;
+
+    @Column(name = "duplicate_patient_code", nullable = false, length = 20)
+    private String duplicatePatientID;
+
+    @Column(name = "duplicate_name", nullable = false, length = 25)
+    private String duplicateName;
+
+    // 0..1, how alike the names and contact details are
+    @Column(name = "score", nullable = false)
+    private double score;
+
+    // what matched, e.g. "name 0.97, same phone"
+    @Column(name = "reasons", length = 100)
+    private String reasons;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 10)
+    private MergeStatus status = MergeStatus.PENDING;
+
+    @TenantId
+    @Column(name = "clinic_code", nullable = false, updatable = false, length = 20)
+    private String clinicID;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "decided_at")
+    private LocalDateTime decidedAt;
+
+    // default constructor
+    public MergeProposal() {}
+
+    public Long getId() {return id;}
+
+    public String getKeepPatientID() {return keepPatientID;}
+    public void setKeepPatientID(String keepPatientID) {this.keepPatientID = keepPatientID;}
+
+    public String getKeepName() {return keepName;}
+    public void setKeepName(String keepName) {this.keepName = keepName;}
+
+    public String getDuplicatePatientID() {return duplicatePatientID;}
+    public void setDuplicatePatientID(String duplicatePatientID) {this.duplicatePatientID = duplicatePatientID;}
+
+    public String getDuplicateName() {return duplicateName;}
+    public void setDuplicateName(String duplicateName) {this.duplicateName = duplicateName;}
+
+    public double getScore() {return score;}
+    public void setScore(double score) {this.score = score;}
+
+    public String getReasons() {return reasons;}
+    public void setReasons(String reasons) {this.reasons = reasons;}
+
+    public MergeStatus getStatus() {return status;}
+    public void setStatus(MergeStatus status) {this.status = status;}
+
+    public String getClinicID() {return clinicID;}
+    public void setClinicID(String clinicID) {this.clinicID = clinicID;}
+
+    public LocalDateTime getCreatedAt() {return createdAt;}
+    public void setCreatedAt(LocalDateTime createdAt) {this.createdAt = createdAt;}
+
+    public LocalDateTime getDecidedAt() {return decidedAt;}
+    public void setDecidedAt(LocalDateTime decidedAt) {this.decidedAt = decidedAt;}
+}
@@ -0,0 +1,8 @@
+package com.capstone.medicalapp.medical_appointment_app.model;
+
+// where a proposed patient merge stands
+public enum MergeStatus {
+    PENDING,
+    APPROVED,
+    REJECTED
+}
@@ -2,6 +2,8 @@ package com.capstone.medicalapp.medical_appointment_app.model;
 
 import java.time.LocalDateTime;
 
+import org.hibernate.annotations.TenantId;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
@@ -10,14 +12,19 @@ import jakarta.persistence.Id;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 
 // creates a database table called "patients" to store patient data, data is persistent
+// email and phone are unique within a clinic, the same person may still be registered at two clinics
 @Entity
-@Table(name = "patients")
+@Table(name = "patients", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_patients_clinic_email", columnNames = {"clinic_code", "email"}),
+    @UniqueConstraint(name = "uk_patients_clinic_phone", columnNames = {"clinic_code", "phone"})
+})
 public class Patient {
 
     @Id // declares as primary key for database
@@ -49,6 +56,11 @@ public class Patient {
     @Column(name = "email", nullable = false, length = 100)
     private String email;
 
+    // clinic the record belongs to, hibernate fills it in and filters on it from ClinicContext
+    @TenantId
+    @Column(name = "clinic_code", nullable = false, updatable = false, length = 20)
+    private String clinicID;
+
     // saves timestamps for patient creation and edits
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -102,6 +114,9 @@ public class Patient {
     public String getEmail() {return email;}
     public void setEmail(String email) {this.email = email;}
 
+    public String getClinicID() {return clinicID;}
+    public void setClinicID(String clinicID) {this.clinicID = clinicID;}
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     
@@ -0,0 +1,4 @@
+package com.capstone.medicalapp.medical_appointment_app.model;
+
+// the columns the patient table and the patient picker show, read straight into a record so no entity is managed
+public record PatientSummary(String patientID, String name, String phone, String email, String clinicID) {}
@@ -0,0 +1,27 @@
+package com.capstone.medicalapp.medical_appointment_app.model;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+// how often a recurring appointment series repeats
+public enum RecurrenceFrequency {
+    DAILY(ChronoUnit.DAYS),
+    WEEKLY(ChronoUnit.WEEKS),
+    MONTHLY(ChronoUnit.MONTHS);
+
+    private final ChronoUnit unit;
+
+    RecurrenceFrequency(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    // date of the n-th step after start (months are clamped to the end of shorter months)
+    public LocalDate step(LocalDate start, long steps) {
+        return start.plus(steps, unit);
+    }
+
+    // whole steps between start and date, rounded down
+    public long stepsBetween(LocalDate start, LocalDate date) {
+        return unit.between(start, date);
+    }
+}
@@ -0,0 +1,7 @@
+package com.capstone.medicalapp.medical_appointment_app.model;
+
+import java.time.LocalDate;
+
+// one line of the recurring series table with the patient's name joined in
+public record SeriesRow(String seriesID, String patientID, String patientName, String doctorName,
+        RecurrenceFrequency frequency, int interval, LocalDate startDate, LocalDate endDate, String description) {}
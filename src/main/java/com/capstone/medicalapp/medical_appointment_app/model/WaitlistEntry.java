@@ -0,0 +1,106 @@
+package com.capstone.medicalapp.medical_appointment_app.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.TenantId;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+// a patient waiting for an earlier date with one doctor, booked into the first freed slot inside their window
+@Entity
+@Table(name = "waitlist_entries", indexes = @Index(name = "idx_waitlist_doctor", columnList = "clinic_code, doctor_name, status"))
+public class WaitlistEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "entry_id")
+    private Long id;
+
+    @Column(name = "patient_code", nullable = false, length = 20)
+    private String patientID;
+
+    @Column(name = "doctor_name", nullable = false, length = 25)
+    private String doctorName;
+
+    // 1 (routine) to 5 (urgent), higher urgency is offered a slot first
+    @Column(name = "urgency", nullable = false)
+    private int urgency;
+
+    // the dates the patient can take
+    @Column(name = "earliest_date", nullable = false)
+    private LocalDate earliestDate;
+
+    @Column(name = "latest_date", nullable = false)
+    private LocalDate latestDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 10)
+    private WaitlistStatus status = WaitlistStatus.WAITING;
+
+    // the appointment the entry was booked into
+    @Column(name = "appointment_code", length = 20)
+    private String appointmentID;
+
+    @TenantId
+    @Column(name = "clinic_code", nullable = false, updatable = false, length = 20)
+    private String clinicID;
+
+    // equal urgency is served in request order, kept to microseconds so it reads back the same
+    @Column(name = "requested_at", nullable = false, updatable = false)
+    private LocalDateTime requestedAt;
+
+    @Column(name = "decided_at")
+    private LocalDateTime decidedAt;
+
+    // default constructor
+    public WaitlistEntry() {}
+
+    public WaitlistEntry(String patientID, String doctorName, int urgency, LocalDate earliestDate, LocalDate latestDate) {
+        this.patientID = patientID;
+        this.doctorName = doctorName;
+        this.urgency = urgency;
+        this.earliestDate = earliestDate;
+        this.latestDate = latestDate;
+    }
+
+    public Long getId() {return id;}
+
+    public String getPatientID() {return patientID;}
+    public void setPatientID(String patientID) {this.patientID = patientID;}
+
+    public String getDoctorName() {return doctorName;}
+    public void setDoctorName(String doctorName) {this.doctorName = doctorName;}
+
+    public int getUrgency() {return urgency;}
+    public void setUrgency(int urgency) {this.urgency = urgency;}
+
+    public LocalDate getEarliestDate() {return earliestDate;}
+    public void setEarliestDate(LocalDate earliestDate) {this.earliestDate = earliestDate;}
+
+    public LocalDate getLatestDate() {return latestDate;}
+    public void setLatestDate(LocalDate latestDate) {this.latestDate = latestDate;}
+
+    public WaitlistStatus getStatus() {return status;}
+    public void setStatus(WaitlistStatus status) {this.status = status;}
+
+    public String getAppointmentID() {return appointmentID;}
+    public void setAppointmentID(String appointmentID) {this.appointmentID = appointmentID;}
+
+    public String getClinicID() {return clinicID;}
+    public void setClinicID(String clinicID) {this.clinicID = clinicID;}
+
+    public LocalDateTime getRequestedAt() {return requestedAt;}
+    public void setRequestedAt(LocalDateTime requestedAt) {this.requestedAt = requestedAt;}
+
+    public LocalDateTime getDecidedAt() {return decidedAt;}
+    public void setDecidedAt(LocalDateTime decidedAt) {this.decidedAt = decidedAt;}
+}
@@ -0,0 +1,10 @@
+package com.capstone.medicalapp.medical_appointment_app.model;
+
+// where a waitlist entry stands, an entry is booked at most once. a waiting entry whose latest date has passed is
+// expired the next time its doctor's queue is offered a slot or the patient joins that doctor's list again
+public enum WaitlistStatus {
+    WAITING,
+    BOOKED,
+    CANCELLED,
+    EXPIRED
+}
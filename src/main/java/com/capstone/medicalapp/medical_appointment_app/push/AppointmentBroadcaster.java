@@ -0,0 +1,169 @@
+package com.capstone.medicalapp.medical_appointment_app.push;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.capstone.medicalapp.medical_appointment_app.sharding.ClinicContext;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// pushes appointment changes to every open list page of the clinic over server-sent events. a stream is an async
+// servlet response, so an idle one holds a socket and nothing else; each subscriber has its own queue drained by a
+// virtual thread only while there is something to send, so events arrive in order and one slow screen never
+// holds up the others
+@Component
+public class AppointmentBroadcaster implements InitializingBean, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentBroadcaster.class);
+
+    @Autowired
+    private PushProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().name("sse-heartbeat").factory());
+
+    @Override
+    public void afterPropertiesSet() {
+        Gauge.builder("medapp.push.subscribers", this, AppointmentBroadcaster::getSubscriberCount)
+                .description("Open appointment event streams")
+                .register(meterRegistry);
+        heartbeat.scheduleAtFixedRate(() -> subscribers.values().forEach(clinic -> clinic.forEach(subscriber -> subscriber.enqueue(SseEmitter.event().comment("ping")))),
+                properties.getHeartbeatMs(), properties.getHeartbeatMs(), TimeUnit.MILLISECONDS);
+    }
+
+    // a new event stream for the current clinic
+    public SseEmitter subscribe() {
+        Set<Subscriber> clinic = subscribers.computeIfAbsent(ClinicContext.current(), key -> ConcurrentHashMap.newKeySet());
+        SseEmitter emitter = new SseEmitter(properties.getStreamTimeoutMs());
+        Subscriber subscriber = new Subscriber(emitter, clinic);
+        emitter.onCompletion(subscriber::remove);
+        emitter.onTimeout(subscriber::remove);
+        emitter.onError(error -> subscriber.remove());
+        clinic.add(subscriber);
+        // sends the response headers now, so the browser sees the stream open
+        subscriber.enqueue(SseEmitter.event().comment("connected"));
+        return emitter;
+    }
+
+    // sends the event to the clinic's open streams once the current transaction commits, a rolled back
+    // change is never shown
+    public void publish(AppointmentEvent event) {
+        String clinicID = ClinicContext.current();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    broadcast(clinicID, event);
+                }
+            });
+        } else {
+            broadcast(clinicID, event);
+        }
+    }
+
+    private void broadcast(String clinicID, AppointmentEvent event) {
+        Set<Subscriber> clinic = subscribers.get(clinicID);
+        if (clinic == null) {
+            return;
+        }
+        for (Subscriber subscriber : clinic) {
+            subscriber.enqueue(SseEmitter.event().name(event.type()).data(event, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Set<Subscriber> clinic;
+        private final Queue<SseEmitter.SseEventBuilder> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter, Set<Subscriber> clinic) {
+            this.emitter = emitter;
+            this.clinic = clinic;
+        }
+
+        void enqueue(SseEmitter.SseEventBuilder event) {
+            if (queued.incrementAndGet() > properties.getMaxQueuedEvents()) {
+                // too far behind to catch up, the browser reconnects and reloads the list
+                remove();
+                emitter.complete();
+                return;
+            }
+            queue.add(event);
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            do {
+                SseEmitter.SseEventBuilder event;
+                while ((event = queue.poll()) != null) {
+                    queued.decrementAndGet();
+                    try {
+                        emitter.send(event);
+                    } catch (IOException | IllegalStateException e) {
+                        log.debug("Dropping closed appointment event stream: {}", e.getMessage());
+                        remove();
+                        return;
+                    }
+                }
+                draining.set(false);
+                // an event added after the last poll but before the flag was cleared would otherwise wait for the next one
+            } while (!queue.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        void remove() {
+            clinic.remove(this);
+            queue.clear();
+        }
+    }
+
+    // ends the streams before the web server's graceful shutdown starts, which would otherwise wait for them
+    @EventListener(ContextClosedEvent.class)
+    public void closeStreams() {
+        heartbeat.shutdownNow();
+        subscribers.values().forEach(clinic -> clinic.forEach(subscriber -> subscriber.emitter.complete()));
+        subscribers.clear();
+    }
+
+    @Override
+    public void destroy() {
+        heartbeat.shutdownNow();
+        senders.shutdownNow();
+    }
+}
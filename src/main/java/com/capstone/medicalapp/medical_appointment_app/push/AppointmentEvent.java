@@ -0,0 +1,23 @@
+package com.capstone.medicalapp.medical_appointment_app.push;
+
+import java.time.LocalDate;
+
+import com.capstone.medicalapp.medical_appointment_app.model.Appointment;
+
+// what an open appointment list needs to patch one row, type is created, updated or deleted
+public record AppointmentEvent(String type, String appointmentID, String patientID, String patientName, String doctorName,
+        LocalDate aptDate, String description) {
+
+    public static final String CREATED = "created";
+    public static final String UPDATED = "updated";
+    public static final String DELETED = "deleted";
+
+    public static AppointmentEvent of(String type, Appointment appointment, String patientName) {
+        return new AppointmentEvent(type, appointment.getAppointmentID(), appointment.getPatientID(), patientName,
+                appointment.getDoctorName(), appointment.getAptDate(), appointment.getDescription());
+    }
+
+    public static AppointmentEvent deleted(String appointmentID) {
+        return new AppointmentEvent(DELETED, appointmentID, null, null, null, null, null);
+    }
+}
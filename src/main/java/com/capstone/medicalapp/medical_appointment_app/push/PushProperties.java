@@ -0,0 +1,24 @@
+package com.capstone.medicalapp.medical_appointment_app.push;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// binds the medapp.push.* settings
+@ConfigurationProperties(prefix = "medapp.push")
+public class PushProperties {
+
+    // an event stream is closed after this long and the browser reconnects, which also reloads the list once
+    private long streamTimeoutMs = 1_800_000;
+    // comment line sent to every stream so proxies do not close idle connections
+    private long heartbeatMs = 25_000;
+    // events waiting for one slow client before its stream is dropped
+    private int maxQueuedEvents = 100;
+
+    public long getStreamTimeoutMs() {return streamTimeoutMs;}
+    public void setStreamTimeoutMs(long streamTimeoutMs) {this.streamTimeoutMs = streamTimeoutMs;}
+
+    public long getHeartbeatMs() {return heartbeatMs;}
+    public void setHeartbeatMs(long heartbeatMs) {this.heartbeatMs = heartbeatMs;}
+
+    public int getMaxQueuedEvents() {return maxQueuedEvents;}
+    public void setMaxQueuedEvents(int maxQueuedEvents) {this.maxQueuedEvents = maxQueuedEvents;}
+}
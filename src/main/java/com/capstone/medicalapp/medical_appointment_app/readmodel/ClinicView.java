@@ -0,0 +1,394 @@
+package com.capstone.medicalapp.medical_appointment_app.readmodel;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.capstone.medicalapp.medical_appointment_app.model.Appointment;
+import com.capstone.medicalapp.medical_appointment_app.model.AppointmentCount;
+import com.capstone.medicalapp.medical_appointment_app.model.AppointmentRow;
+import com.capstone.medicalapp.medical_appointment_app.model.Patient;
+import com.capstone.medicalapp.medical_appointment_app.model.PatientSummary;
+
+// one clinic's patients and appointments in memory, indexed by code, by day and by patient. readers never lock:
+// rows are immutable records, the maps are concurrent and the lists of a day or a patient are arrays that a write
+// replaces instead of changing. writes hold the lock, entities handed out are new copies every time
+public final class ClinicView {
+
+    // timestamps are kept as microseconds of the wall clock, a null updated_at as NO_TIME
+    static final long NO_TIME = Long.MIN_VALUE;
+
+    record PatientEntry(long id, String code, String name, String phone, String email, long createdAt, long updatedAt) {}
+
+    record AppointmentEntry(long id, String code, String patientCode, String doctorName, LocalDate date, String description,
+            String seriesCode, long createdAt, long updatedAt) {}
+
+    private record Listing<T>(long version, List<T> rows) {}
+
+    private static final AppointmentEntry[] NONE = new AppointmentEntry[0];
+    private static final Comparator<AppointmentEntry> BY_ID = Comparator.comparingLong(AppointmentEntry::id);
+    private static final Comparator<AppointmentEntry> BY_DATE = Comparator.comparing(AppointmentEntry::date).thenComparing(BY_ID);
+
+    private final String clinicID;
+    final ReentrantLock lock = new ReentrantLock();
+
+    private final ConcurrentHashMap<String, PatientEntry> patients = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AppointmentEntry> appointments = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<LocalDate, AppointmentEntry[]> byDate = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<String, AppointmentEntry[]> byPatient = new ConcurrentHashMap<>();
+
+    // false while the view loads, reads then go to the database and changes wait in pending until it is done
+    private volatile boolean ready;
+    final Set<String> pendingPatients = new HashSet<>();
+    final Set<String> pendingAppointments = new HashSet<>();
+
+    // moves on with every write, the full lists are built on the first read after it and kept until the next one
+    private volatile long version;
+    private volatile Listing<PatientSummary> patientListing;
+    private volatile Listing<AppointmentRow> appointmentListing;
+
+    ClinicView(String clinicID, boolean ready) {
+        this.clinicID = clinicID;
+        this.ready = ready;
+    }
+
+    public String getClinicID() {return clinicID;}
+
+    public boolean isReady() {return ready;}
+
+    /////////
+    /// reads, shaped like the repository queries they stand in for
+    /////////
+
+    public List<PatientSummary> patientSummaries() {
+        long current = version;
+        Listing<PatientSummary> listing = patientListing;
+        if (listing != null && listing.version() == current) {
+            return listing.rows();
+        }
+        List<PatientSummary> rows = sortedPatients().stream()
+                .map(entry -> new PatientSummary(entry.code(), entry.name(), entry.phone(), entry.email(), clinicID))
+                .toList();
+        if (version == current) {
+            patientListing = new Listing<>(current, rows);
+        }
+        return rows;
+    }
+
+    public List<Patient> patients() {
+        return sortedPatients().stream().map(this::toPatient).toList();
+    }
+
+    public Optional<Patient> patient(String patientID) {
+        PatientEntry entry = patients.get(patientID);
+        return entry == null ? Optional.empty() : Optional.of(toPatient(entry));
+    }
+
+    public List<Patient> patients(Collection<String> patientIDs) {
+        List<Patient> found = new ArrayList<>(patientIDs.size());
+        for (String patientID : new HashSet<>(patientIDs)) {
+            PatientEntry entry = patients.get(patientID);
+            if (entry != null) {
+                found.add(toPatient(entry));
+            }
+        }
+        return found;
+    }
+
+    public long patientCount() {
+        return patients.mappingCount();
+    }
+
+    public boolean hasPatient(String patientID) {
+        return patients.containsKey(patientID);
+    }
+
+    // table rows with the patient's name looked up at read time, so renaming a patient changes no appointment
+    public List<AppointmentRow> appointmentRows() {
+        long current = version;
+        Listing<AppointmentRow> listing = appointmentListing;
+        if (listing != null && listing.version() == current) {
+            return listing.rows();
+        }
+        List<AppointmentEntry> sorted = new ArrayList<>(appointments.values());
+        sorted.sort(BY_ID);
+        List<AppointmentRow> rows = sorted.stream().map(entry -> {
+            PatientEntry patient = patients.get(entry.patientCode());
+            return new AppointmentRow(entry.code(), entry.patientCode(), patient == null ? null : patient.name(), entry.doctorName(),
+                    entry.date(), entry.description(), clinicID);
+        }).toList();
+        if (version == current) {
+            appointmentListing = new Listing<>(current, rows);
+        }
+        return rows;
+    }
+
+    public List<Appointment> appointments() {
+        List<AppointmentEntry> sorted = new ArrayList<>(appointments.values());
+        sorted.sort(BY_ID);
+        return toAppointments(sorted);
+    }
+
+    public Optional<Appointment> appointment(String appointmentID) {
+        AppointmentEntry entry = appointments.get(appointmentID);
+        return entry == null ? Optional.empty() : Optional.of(toAppointment(entry));
+    }
+
+    public List<Appointment> appointmentsOfPatient(String patientID) {
+        return toAppointments(Arrays.asList(byPatient.getOrDefault(patientID, NONE)));
+    }
+
+    public List<Appointment> appointmentsOfPatient(String patientID, LocalDate from, LocalDate to) {
+        List<AppointmentEntry> inRange = new ArrayList<>();
+        for (AppointmentEntry entry : byPatient.getOrDefault(patientID, NONE)) {
+            if (!entry.date().isBefore(from) && !entry.date().isAfter(to)) {
+                inRange.add(entry);
+            }
+        }
+        return toAppointments(inRange);
+    }
+
+    public List<Appointment> appointmentsOn(LocalDate date) {
+        return toAppointments(Arrays.asList(byDate.getOrDefault(date, NONE)));
+    }
+
+    // in date order, doctorName null for every doctor
+    public List<Appointment> appointmentsBetween(LocalDate from, LocalDate to, String doctorName) {
+        List<AppointmentEntry> inRange = new ArrayList<>();
+        for (AppointmentEntry[] day : byDate.subMap(from, true, to, true).values()) {
+            for (AppointmentEntry entry : day) {
+                if (doctorName == null || doctorName.equals(entry.doctorName())) {
+                    inRange.add(entry);
+                }
+            }
+        }
+        return toAppointments(inRange);
+    }
+
+    // per day and doctor in date and doctor order, doctorName null for every doctor
+    public List<AppointmentCount> countByDayAndDoctor(LocalDate from, LocalDate to, String doctorName) {
+        List<AppointmentCount> counts = new ArrayList<>();
+        for (Map.Entry<LocalDate, AppointmentEntry[]> day : byDate.subMap(from, true, to, true).entrySet()) {
+            Map<String, Long> doctors = new TreeMap<>();
+            for (AppointmentEntry entry : day.getValue()) {
+                if (doctorName == null || doctorName.equals(entry.doctorName())) {
+                    doctors.merge(entry.doctorName(), 1L, Long::sum);
+                }
+            }
+            doctors.forEach((doctor, count) -> counts.add(new AppointmentCount(day.getKey(), doctor, count)));
+        }
+        return counts;
+    }
+
+    public long appointmentCount() {
+        return appointments.mappingCount();
+    }
+
+    public boolean hasAppointment(String appointmentID) {
+        return appointments.containsKey(appointmentID);
+    }
+
+    long days() {
+        return byDate.size();
+    }
+
+    PatientEntry storedPatient(String patientID) {
+        return patients.get(patientID);
+    }
+
+    AppointmentEntry storedAppointment(String appointmentID) {
+        return appointments.get(appointmentID);
+    }
+
+    Set<String> patientCodes() {
+        return patients.keySet();
+    }
+
+    Set<String> appointmentCodes() {
+        return appointments.keySet();
+    }
+
+    /////////
+    /// writes, the caller holds the lock
+    /////////
+
+    void putPatient(PatientEntry entry) {
+        patients.put(entry.code(), entry);
+        version++;
+    }
+
+    void removePatient(String patientID) {
+        if (patients.remove(patientID) != null) {
+            version++;
+        }
+    }
+
+    void putAppointment(AppointmentEntry entry) {
+        // the patient's code object is shared instead of a copy per appointment
+        PatientEntry patient = patients.get(entry.patientCode());
+        AppointmentEntry stored = patient == null || patient.code() == entry.patientCode() ? entry
+                : new AppointmentEntry(entry.id(), entry.code(), patient.code(), entry.doctorName(), entry.date(), entry.description(),
+                        entry.seriesCode(), entry.createdAt(), entry.updatedAt());
+        AppointmentEntry previous = appointments.put(stored.code(), stored);
+        if (previous != null) {
+            unindex(previous);
+        }
+        byDate.compute(stored.date(), (date, day) -> with(day, stored, BY_ID));
+        byPatient.compute(stored.patientCode(), (patientID, rows) -> with(rows, stored, BY_DATE));
+        version++;
+    }
+
+    void removeAppointment(String appointmentID) {
+        AppointmentEntry previous = appointments.remove(appointmentID);
+        if (previous != null) {
+            unindex(previous);
+            version++;
+        }
+    }
+
+    void startLoading() {
+        ready = false;
+        patients.clear();
+        appointments.clear();
+        byDate.clear();
+        byPatient.clear();
+        version++;
+    }
+
+    void ready() {
+        ready = true;
+    }
+
+    void failed() {
+        ready = false;
+    }
+
+    private void unindex(AppointmentEntry entry) {
+        byDate.computeIfPresent(entry.date(), (date, day) -> without(day, entry.code()));
+        byPatient.computeIfPresent(entry.patientCode(), (patientID, rows) -> without(rows, entry.code()));
+    }
+
+    // a copy of the sorted array with the entry inserted in its place
+    private static AppointmentEntry[] with(AppointmentEntry[] rows, AppointmentEntry entry, Comparator<AppointmentEntry> order) {
+        if (rows == null) {
+            return new AppointmentEntry[] {entry};
+        }
+        int at = Arrays.binarySearch(rows, entry, order);
+        at = at < 0 ? -at - 1 : at;
+        AppointmentEntry[] copy = new AppointmentEntry[rows.length + 1];
+        System.arraycopy(rows, 0, copy, 0, at);
+        copy[at] = entry;
+        System.arraycopy(rows, at, copy, at + 1, rows.length - at);
+        return copy;
+    }
+
+    // null removes the key once its last row is gone
+    private static AppointmentEntry[] without(AppointmentEntry[] rows, String appointmentID) {
+        for (int i = 0; i < rows.length; i++) {
+            if (rows[i].code().equals(appointmentID)) {
+                if (rows.length == 1) {
+                    return null;
+                }
+                AppointmentEntry[] copy = new AppointmentEntry[rows.length - 1];
+                System.arraycopy(rows, 0, copy, 0, i);
+                System.arraycopy(rows, i + 1, copy, i, rows.length - i - 1);
+                return copy;
+            }
+        }
+        return rows;
+    }
+
+    // fills a loading view in one pass, the day and patient arrays are built once at the end instead of copied per row
+    final class Loader {
+
+        private final Map<LocalDate, List<AppointmentEntry>> days = new HashMap<>();
+        private final Map<String, List<AppointmentEntry>> ofPatient = new HashMap<>();
+        // doctor names and descriptions repeat across many rows, while loading one instance of each is kept
+        private final Map<String, String> strings = new HashMap<>();
+
+        void patient(PatientEntry entry) {
+            patients.put(entry.code(), entry);
+        }
+
+        void appointment(AppointmentEntry entry) {
+            PatientEntry patient = patients.get(entry.patientCode());
+            AppointmentEntry shared = new AppointmentEntry(entry.id(), entry.code(), patient != null ? patient.code() : entry.patientCode(),
+                    strings.computeIfAbsent(entry.doctorName(), value -> value), entry.date(),
+                    strings.computeIfAbsent(entry.description(), value -> value), entry.seriesCode(), entry.createdAt(), entry.updatedAt());
+            appointments.put(shared.code(), shared);
+            days.computeIfAbsent(shared.date(), date -> new ArrayList<>()).add(shared);
+            ofPatient.computeIfAbsent(shared.patientCode(), patientID -> new ArrayList<>()).add(shared);
+        }
+
+        // the caller holds the lock
+        void finish() {
+            days.forEach((date, rows) -> byDate.put(date, sorted(rows, BY_ID)));
+            ofPatient.forEach((patientID, rows) -> byPatient.put(patientID, sorted(rows, BY_DATE)));
+            version++;
+        }
+
+        private static AppointmentEntry[] sorted(List<AppointmentEntry> rows, Comparator<AppointmentEntry> order) {
+            AppointmentEntry[] array = rows.toArray(NONE);
+            Arrays.sort(array, order);
+            return array;
+        }
+    }
+
+    private List<PatientEntry> sortedPatients() {
+        List<PatientEntry> sorted = new ArrayList<>(patients.values());
+        sorted.sort(Comparator.comparingLong(PatientEntry::id));
+        return sorted;
+    }
+
+    private List<Appointment> toAppointments(List<AppointmentEntry> entries) {
+        List<Appointment> list = new ArrayList<>(entries.size());
+        for (AppointmentEntry entry : entries) {
+            list.add(toAppointment(entry));
+        }
+        return list;
+    }
+
+    private Patient toPatient(PatientEntry entry) {
+        Patient patient = new Patient(entry.code(), entry.name(), entry.phone(), entry.email());
+        patient.setClinicID(clinicID);
+        patient.setCreatedAt(timestamp(entry.createdAt()));
+        patient.setUpdatedAt(timestamp(entry.updatedAt()));
+        return patient;
+    }
+
+    private Appointment toAppointment(AppointmentEntry entry) {
+        Appointment appointment = new Appointment(entry.code(), entry.patientCode(), entry.doctorName(), entry.date(), entry.description());
+        PatientEntry patient = patients.get(entry.patientCode());
+        if (patient != null) {
+            appointment.setPatient(toPatient(patient));
+        }
+        appointment.setSeriesID(entry.seriesCode());
+        appointment.setClinicID(clinicID);
+        appointment.setCreatedAt(timestamp(entry.createdAt()));
+        appointment.setUpdatedAt(timestamp(entry.updatedAt()));
+        return appointment;
+    }
+
+    static long micros(LocalDateTime value) {
+        return value == null ? NO_TIME : value.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + value.getNano() / 1000;
+    }
+
+    static LocalDateTime timestamp(long micros) {
+        return micros == NO_TIME ? null
+                : LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000), (int) Math.floorMod(micros, 1_000_000) * 1000, ZoneOffset.UTC);
+    }
+}
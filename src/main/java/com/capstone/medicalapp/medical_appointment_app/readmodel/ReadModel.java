@@ -0,0 +1,432 @@
+package com.capstone.medicalapp.medical_appointment_app.readmodel;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.capstone.medicalapp.medical_appointment_app.audit.AuditSnapshots;
+import com.capstone.medicalapp.medical_appointment_app.readmodel.ClinicView.AppointmentEntry;
+import com.capstone.medicalapp.medical_appointment_app.readmodel.ClinicView.PatientEntry;
+import com.capstone.medicalapp.medical_appointment_app.sharding.ClinicContext;
+import com.capstone.medicalapp.medical_appointment_app.sharding.ShardRouter;
+
+import jakarta.annotation.PostConstruct;
+
+// every clinic's patients and appointments held in memory for the list and lookup reads, which outnumber writes by
+// far. it is loaded from every shard once the application is ready and follows the change feed: the rows a write
+// recorded are read back by code once it commits, under the clinic's lock so an older read never lands after a newer
+// one. the tables stay the source of truth, reads inside a write transaction and reads of a clinic that is still
+// loading go to the database, and check() compares a clinic with its tables and repairs what differs
+@Component
+public class ReadModel {
+
+    private static final Logger log = LoggerFactory.getLogger(ReadModel.class);
+
+    private static final String PATIENT_COLUMNS = "SELECT patient_id, patient_code, name, phone, email, created_at, updated_at, clinic_code FROM patients";
+    private static final String APPOINTMENT_COLUMNS = "SELECT appointment_id, appointment_code, patient_code, doctor_name, appointment_date,"
+            + " description, series_code, created_at, updated_at, clinic_code FROM appointments";
+    private static final String OF_CLINIC = " WHERE clinic_code = ?";
+    // codes read back per statement
+    private static final int CODES_PER_QUERY = 500;
+    private static final int MISMATCHES_LISTED = 20;
+
+    @Autowired
+    private ReadModelProperties properties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ConcurrentHashMap<String, ClinicView> views = new ConcurrentHashMap<>();
+
+    // until the startup load is done every view starts out loading
+    private boolean warmed;
+
+    private TransactionTemplate readOnly;
+    private TransactionTemplate consistent;
+
+    @PostConstruct
+    void createTransactions() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        consistent = new TransactionTemplate(transactionManager);
+        consistent.setReadOnly(true);
+        consistent.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    // answers from the current clinic's view when it can, otherwise runs the query in a read-only transaction. the
+    // service methods calling this only join a transaction, so a read served from memory never takes a connection
+    public <T> T read(Function<ClinicView, T> fromModel, Supplier<T> fromDatabase) {
+        ClinicView view = serving();
+        return view != null ? fromModel.apply(view) : readOnly.execute(status -> fromDatabase.get());
+    }
+
+    private ClinicView serving() {
+        if (!properties.isEnabled() || ClinicContext.isAllClinics()) {
+            return null;
+        }
+        // a write transaction must read its own uncommitted changes
+        if (TransactionSynchronizationManager.isActualTransactionActive() && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return null;
+        }
+        ClinicView view = views.get(ClinicContext.current());
+        return view != null && view.isReady() ? view : null;
+    }
+
+    // runs once the schema exists on every shard, writes that commit meanwhile are read back when it is done
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        Loading loading = new Loading();
+        for (String shard : shardRouter.getShardNames()) {
+            ClinicContext.allClinicsOn(shard);
+            try {
+                consistent.execute(status -> {
+                    jdbcTemplate.query(streaming(PATIENT_COLUMNS), rs -> {loading.loader(rs.getString(8)).patient(patient(rs));});
+                    jdbcTemplate.query(streaming(APPOINTMENT_COLUMNS), rs -> {loading.loader(rs.getString(10)).appointment(appointment(rs));});
+                    return null;
+                });
+            } finally {
+                ClinicContext.clear();
+            }
+        }
+
+        List<ClinicView> loaded;
+        synchronized (views) {
+            warmed = true;
+            loaded = new ArrayList<>(views.values());
+        }
+        long patients = 0;
+        long appointments = 0;
+        for (ClinicView view : loaded) {
+            finish(view, loading.loaders.get(view.getClinicID()));
+            patients += view.patientCount();
+            appointments += view.appointmentCount();
+        }
+        log.info("Loaded the read model of {} clinics, {} patients and {} appointments, in {} ms", loaded.size(), patients, appointments,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // loads one clinic again after rows were written around the services, by the data generator or a snapshot restore
+    public synchronized void reload(String clinicID) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        ClinicView view = view(clinicID);
+        synchronized (views) {
+            if (!warmed) {
+                // the startup load has not run yet and will read the clinic then
+                return;
+            }
+        }
+
+        view.lock.lock();
+        try {
+            view.startLoading();
+        } finally {
+            view.lock.unlock();
+        }
+        ClinicView.Loader loader = view.new Loader();
+        shardRouter.inClinic(clinicID, () -> consistent.execute(status -> {
+            jdbcTemplate.query(streaming(PATIENT_COLUMNS + OF_CLINIC, clinicID), rs -> {loader.patient(patient(rs));});
+            jdbcTemplate.query(streaming(APPOINTMENT_COLUMNS + OF_CLINIC, clinicID), rs -> {loader.appointment(appointment(rs));});
+            return null;
+        }));
+        finish(view, loader);
+    }
+
+    private void finish(ClinicView view, ClinicView.Loader loader) {
+        view.lock.lock();
+        try {
+            if (loader != null) {
+                loader.finish();
+            }
+            view.ready();
+            List<String> patients = new ArrayList<>(view.pendingPatients);
+            List<String> appointments = new ArrayList<>(view.pendingAppointments);
+            view.pendingPatients.clear();
+            view.pendingAppointments.clear();
+            shardRouter.inClinic(view.getClinicID(), () -> {
+                readBack(view, patients, appointments);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            view.failed();
+            log.warn("Could not read back the rows written while clinic {} was loading, its reads go to the database until the read model is checked",
+                    view.getClinicID(), e);
+        } finally {
+            view.lock.unlock();
+        }
+    }
+
+    // called by the change feed for every record a write touches. the rows of one transaction are read back together
+    // once it commits, a rolled back write changes nothing
+    public void changed(String entityType, Collection<String> entityIDs) {
+        boolean patient = AuditSnapshots.PATIENT.equals(entityType);
+        if (!properties.isEnabled() || !patient && !AuditSnapshots.APPOINTMENT.equals(entityType)) {
+            return;
+        }
+
+        String clinicID = ClinicContext.current();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh(clinicID, patient ? entityIDs : List.of(), patient ? List.of() : entityIDs);
+            return;
+        }
+
+        Changes changes = (Changes) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            Changes registered = new Changes();
+            TransactionSynchronizationManager.bindResource(this, registered);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    registered.clinics.forEach((clinic, changed) -> refresh(clinic, changed.patients, changed.appointments));
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ReadModel.this);
+                }
+            });
+            changes = registered;
+        }
+        Changed changed = changes.clinics.computeIfAbsent(clinicID, clinic -> new Changed());
+        (patient ? changed.patients : changed.appointments).addAll(entityIDs);
+    }
+
+    private static final class Changes {
+        private final ConcurrentHashMap<String, Changed> clinics = new ConcurrentHashMap<>();
+    }
+
+    private static final class Changed {
+        private final Set<String> patients = new HashSet<>();
+        private final Set<String> appointments = new HashSet<>();
+    }
+
+    // a clinic that could not be read back stops serving, its reads go to the database until check() loads it again
+    private void refresh(String clinicID, Collection<String> patients, Collection<String> appointments) {
+        ClinicView view = view(clinicID);
+        view.lock.lock();
+        try {
+            if (!view.isReady()) {
+                view.pendingPatients.addAll(patients);
+                view.pendingAppointments.addAll(appointments);
+                return;
+            }
+            shardRouter.inClinic(clinicID, () -> {
+                readBack(view, patients, appointments);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            view.failed();
+            log.warn("Could not read back changed rows of clinic {}, its reads go to the database until the read model is checked", clinicID, e);
+        } finally {
+            view.lock.unlock();
+        }
+    }
+
+    // replaces the rows with what the tables hold now, codes without a row are removed. the caller holds the lock
+    private void readBack(ClinicView view, Collection<String> patients, Collection<String> appointments) {
+        String clinicID = view.getClinicID();
+        for (List<String> codes : chunks(patients)) {
+            Set<String> missing = new HashSet<>(codes);
+            jdbcTemplate.query(byCodes(PATIENT_COLUMNS, "patient_code", codes.size()), rs -> {
+                PatientEntry entry = patient(rs);
+                missing.remove(entry.code());
+                view.putPatient(entry);
+            }, arguments(clinicID, codes));
+            missing.forEach(view::removePatient);
+        }
+        for (List<String> codes : chunks(appointments)) {
+            Set<String> missing = new HashSet<>(codes);
+            jdbcTemplate.query(byCodes(APPOINTMENT_COLUMNS, "appointment_code", codes.size()), rs -> {
+                AppointmentEntry entry = appointment(rs);
+                missing.remove(entry.code());
+                view.putAppointment(entry);
+            }, arguments(clinicID, codes));
+            missing.forEach(view::removeAppointment);
+        }
+    }
+
+    // compares every clinic's view row by row with its tables and reads the differing rows back, a clinic that is
+    // not serving is loaded again first and a clinic still waiting for the startup load is left out
+    public List<ReadModelCheck> check() {
+        if (!properties.isEnabled()) {
+            return List.of();
+        }
+        List<ReadModelCheck> checks = new ArrayList<>();
+        for (ClinicView view : sortedViews()) {
+            checks.add(check(view));
+        }
+        return checks.stream().filter(Objects::nonNull).toList();
+    }
+
+    private ReadModelCheck check(ClinicView view) {
+        String clinicID = view.getClinicID();
+        if (!view.isReady()) {
+            reload(clinicID);
+            if (!view.isReady()) {
+                // still waiting for the startup load
+                return null;
+            }
+        }
+
+        long start = System.nanoTime();
+        List<String> patients = new ArrayList<>();
+        List<String> appointments = new ArrayList<>();
+        long[] rows = new long[2];
+        shardRouter.inClinic(clinicID, () -> consistent.execute(status -> {
+            Set<String> unseen = new HashSet<>(view.patientCodes());
+            jdbcTemplate.query(streaming(PATIENT_COLUMNS + OF_CLINIC, clinicID), rs -> {
+                PatientEntry entry = patient(rs);
+                rows[0]++;
+                unseen.remove(entry.code());
+                if (!entry.equals(view.storedPatient(entry.code()))) {
+                    patients.add(entry.code());
+                }
+            });
+            patients.addAll(unseen);
+
+            unseen.clear();
+            unseen.addAll(view.appointmentCodes());
+            jdbcTemplate.query(streaming(APPOINTMENT_COLUMNS + OF_CLINIC, clinicID), rs -> {
+                AppointmentEntry entry = appointment(rs);
+                rows[1]++;
+                unseen.remove(entry.code());
+                if (!entry.equals(view.storedAppointment(entry.code()))) {
+                    appointments.add(entry.code());
+                }
+            });
+            appointments.addAll(unseen);
+            return null;
+        }));
+
+        int mismatches = patients.size() + appointments.size();
+        if (mismatches > 0) {
+            log.warn("The read model of clinic {} differed from the database in {} patients and {} appointments, reading them back",
+                    clinicID, patients.size(), appointments.size());
+            refresh(clinicID, patients, appointments);
+        }
+        List<String> mismatched = new ArrayList<>(patients);
+        mismatched.addAll(appointments);
+        return new ReadModelCheck(clinicID, rows[0], rows[1], mismatches, List.copyOf(mismatched.subList(0, Math.min(MISMATCHES_LISTED, mismatches))),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public List<ReadModelStatus> getStatus() {
+        return sortedViews().stream()
+                .map(view -> new ReadModelStatus(view.getClinicID(), view.isReady(), view.patientCount(), view.appointmentCount(), view.days()))
+                .toList();
+    }
+
+    private List<ClinicView> sortedViews() {
+        List<ClinicView> sorted = new ArrayList<>(views.values());
+        sorted.sort(Comparator.comparing(ClinicView::getClinicID));
+        return sorted;
+    }
+
+    // a view created before the startup load is done waits for it, one created later starts out empty and serving
+    private ClinicView view(String clinicID) {
+        ClinicView view = views.get(clinicID);
+        if (view != null) {
+            return view;
+        }
+        synchronized (views) {
+            return views.computeIfAbsent(clinicID, id -> new ClinicView(id, warmed));
+        }
+    }
+
+    // the loaders of the clinics found while loading every shard
+    private final class Loading {
+
+        private final Map<String, ClinicView.Loader> loaders = new HashMap<>();
+
+        ClinicView.Loader loader(String clinicID) {
+            return loaders.computeIfAbsent(clinicID, id -> view(id).new Loader());
+        }
+    }
+
+    private static PatientEntry patient(ResultSet rs) throws SQLException {
+        return new PatientEntry(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5),
+                micros(rs.getTimestamp(6)), micros(rs.getTimestamp(7)));
+    }
+
+    private static AppointmentEntry appointment(ResultSet rs) throws SQLException {
+        return new AppointmentEntry(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getDate(5).toLocalDate(),
+                rs.getString(6), rs.getString(7), micros(rs.getTimestamp(8)), micros(rs.getTimestamp(9)));
+    }
+
+    private static long micros(Timestamp timestamp) {
+        return timestamp == null ? ClinicView.NO_TIME : ClinicView.micros(timestamp.toLocalDateTime());
+    }
+
+    private PreparedStatementCreator streaming(String sql, Object... arguments) {
+        return connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setFetchSize(properties.getFetchSize());
+            for (int i = 0; i < arguments.length; i++) {
+                statement.setObject(i + 1, arguments[i]);
+            }
+            return statement;
+        };
+    }
+
+    private static String byCodes(String columns, String codeColumn, int count) {
+        return columns + OF_CLINIC + " AND " + codeColumn + " IN (" + String.join(", ", Collections.nCopies(count, "?")) + ")";
+    }
+
+    private static Object[] arguments(String clinicID, List<String> codes) {
+        Object[] arguments = new Object[codes.size() + 1];
+        arguments[0] = clinicID;
+        for (int i = 0; i < codes.size(); i++) {
+            arguments[i + 1] = codes.get(i);
+        }
+        return arguments;
+    }
+
+    private static List<List<String>> chunks(Collection<String> codes) {
+        List<String> all = new ArrayList<>(codes);
+        List<List<String>> chunks = new ArrayList<>();
+        for (int i = 0; i < all.size(); i += CODES_PER_QUERY) {
+            chunks.add(all.subList(i, Math.min(all.size(), i + CODES_PER_QUERY)));
+        }
+        return chunks;
+    }
+}
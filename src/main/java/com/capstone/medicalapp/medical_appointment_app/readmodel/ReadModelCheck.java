@@ -0,0 +1,12 @@
+package com.capstone.medicalapp.medical_appointment_app.readmodel;
+
+import java.util.List;
+
+// the outcome of comparing one clinic's read model with its tables, mismatched lists the first rows that differed;
+// they were read again and replaced, so a mismatch caused by a write still on its way is repaired as well
+public record ReadModelCheck(String clinicID, long patients, long appointments, int mismatches, List<String> mismatched, long millis) {
+
+    public boolean consistent() {
+        return mismatches == 0;
+    }
+}
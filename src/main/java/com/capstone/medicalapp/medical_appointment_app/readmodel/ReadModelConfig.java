@@ -0,0 +1,15 @@
+package com.capstone.medicalapp.medical_appointment_app.readmodel;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ReadModelProperties.class)
+public class ReadModelConfig {
+
+    @Bean
+    public ReadModelEndpoint readModelEndpoint(ReadModel readModel) {
+        return new ReadModelEndpoint(readModel);
+    }
+}
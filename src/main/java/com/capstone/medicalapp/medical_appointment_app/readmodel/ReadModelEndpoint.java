@@ -0,0 +1,29 @@
+package com.capstone.medicalapp.medical_appointment_app.readmodel;
+
+import java.util.List;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+// /actuator/readmodel lists the clinics held in memory, POST compares every clinic with the database and repairs
+// the rows that differ
+@Endpoint(id = "readmodel")
+public class ReadModelEndpoint {
+
+    private final ReadModel readModel;
+
+    public ReadModelEndpoint(ReadModel readModel) {
+        this.readModel = readModel;
+    }
+
+    @ReadOperation
+    public List<ReadModelStatus> status() {
+        return readModel.getStatus();
+    }
+
+    @WriteOperation
+    public List<ReadModelCheck> check() {
+        return readModel.check();
+    }
+}
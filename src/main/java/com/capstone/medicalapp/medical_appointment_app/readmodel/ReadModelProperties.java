@@ -0,0 +1,19 @@
+package com.capstone.medicalapp.medical_appointment_app.readmodel;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// binds the medapp.read-model.* settings
+@ConfigurationProperties(prefix = "medapp.read-model")
+public class ReadModelProperties {
+
+    // off by default, every read then goes to the database
+    private boolean enabled = false;
+    // rows fetched per round trip while a clinic is loaded
+    private int fetchSize = 10_000;
+
+    public boolean isEnabled() {return enabled;}
+    public void setEnabled(boolean enabled) {this.enabled = enabled;}
+
+    public int getFetchSize() {return fetchSize;}
+    public void setFetchSize(int fetchSize) {this.fetchSize = fetchSize;}
+}
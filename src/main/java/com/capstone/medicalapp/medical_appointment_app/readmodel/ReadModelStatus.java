@@ -0,0 +1,4 @@
+package com.capstone.medicalapp.medical_appointment_app.readmodel;
+
+// what the read model holds for one clinic, ready is false while it loads and reads go to the database
+public record ReadModelStatus(String clinicID, boolean ready, long patients, long appointments, long days) {}
@@ -1,24 +1,62 @@
 package com.capstone.medicalapp.medical_appointment_app.repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.capstone.medicalapp.medical_appointment_app.model.Appointment;
+import com.capstone.medicalapp.medical_appointment_app.model.AppointmentCount;
+import com.capstone.medicalapp.medical_appointment_app.model.AppointmentRow;
 
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
     
     Optional<Appointment> findByAppointmentID(String appointmentID);
+    List<Appointment> findByAppointmentIDIn(Collection<String> appointmentIDs);
     
     List<Appointment> findByPatientID(String patientID);
     List<Appointment> findByAptDate(LocalDate date);
+
+    // a patient's appointments with the patient fetched in the same statement
+    @EntityGraph(attributePaths = "patient")
+    List<Appointment> findWithPatientByPatientID(String patientID);
+    @EntityGraph(attributePaths = "patient")
+    List<Appointment> findWithPatientByPatientIDAndAptDateBetween(String patientID, LocalDate from, LocalDate to);
+
+    List<Appointment> findByAptDateBetweenOrderByAptDate(LocalDate from, LocalDate to);
+    List<Appointment> findByDoctorNameAndAptDateBetweenOrderByAptDate(String doctorName, LocalDate from, LocalDate to);
+
+    // appointments per day and doctor in the range counted by the database, a null doctor counts every doctor
+    @Query("select new com.capstone.medicalapp.medical_appointment_app.model.AppointmentCount(a.aptDate, a.doctorName, count(a))"
+            + " from Appointment a where a.aptDate between :from and :to and (:doctorName is null or a.doctorName = :doctorName)"
+            + " group by a.aptDate, a.doctorName order by a.aptDate, a.doctorName")
+    List<AppointmentCount> countByDayAndDoctor(LocalDate from, LocalDate to, String doctorName);
+    
+    // the table rows with patient names in one query, joined through the patient foreign key
+    @Query("select new com.capstone.medicalapp.medical_appointment_app.model.AppointmentRow(a.appointmentID, a.patientID, p.name,"
+            + " a.doctorName, a.aptDate, a.description, a.clinicID)"
+            + " from Appointment a join a.patient p order by a.id")
+    List<AppointmentRow> findAllRows();
     
     boolean existsByAppointmentID(String appointmentID);
     
     void deleteByAppointmentID(String appointmentID);
-    void deleteByPatientID(String patientID);
-}
\ No newline at end of file
+
+    // a single delete statement, the derived version loads and removes the rows one by one
+    @Modifying
+    @Query("delete from Appointment a where a.patientID = :patientID")
+    int deleteByPatientID(String patientID);
+
+    // moves every row of one patient to another in a single statement, used when merging duplicates
+    @Modifying
+    @Query("update Appointment a set a.patientID = :toPatientID, a.patient = (select p from Patient p where p.patientID = :toPatientID),"
+            + " a.updatedAt = local datetime where a.patientID = :fromPatientID")
+    int reassignPatient(String fromPatientID, String toPatientID);
+}
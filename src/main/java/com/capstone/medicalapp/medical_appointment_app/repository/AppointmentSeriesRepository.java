@@ -0,0 +1,53 @@
+package com.capstone.medicalapp.medical_appointment_app.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.capstone.medicalapp.medical_appointment_app.model.AppointmentSeries;
+import com.capstone.medicalapp.medical_appointment_app.model.SeriesRow;
+
+@Repository
+public interface AppointmentSeriesRepository extends JpaRepository<AppointmentSeries, Long> {
+
+    Optional<AppointmentSeries> findBySeriesID(String seriesID);
+
+    boolean existsBySeriesID(String seriesID);
+    boolean existsByPatientID(String patientID);
+
+    @Query("select new com.capstone.medicalapp.medical_appointment_app.model.SeriesRow(s.seriesID, s.patientID, p.name, s.doctorName,"
+            + " s.frequency, s.interval, s.startDate, s.endDate, s.description)"
+            + " from AppointmentSeries s left join Patient p on p.patientID = s.patientID and p.clinicID = s.clinicID order by s.id")
+    List<SeriesRow> findAllRows();
+
+    // series that can have an occurrence on the date, weekly ones only when they fall on the same weekday
+    @Query("select distinct s from AppointmentSeries s left join fetch s.skippedDates where s.startDate <= :date and s.endDate >= :date"
+            + " and (s.frequency <> com.capstone.medicalapp.medical_appointment_app.model.RecurrenceFrequency.WEEKLY or s.dayOfWeek = :dayOfWeek)")
+    List<AppointmentSeries> findCandidatesOn(LocalDate date, int dayOfWeek);
+
+    // a patient's series whose date span overlaps the range, skipped dates fetched in the same query
+    @Query("select distinct s from AppointmentSeries s left join fetch s.skippedDates where s.patientID = :patientID and s.startDate <= :to and s.endDate >= :from")
+    List<AppointmentSeries> findOverlappingForPatient(String patientID, LocalDate from, LocalDate to);
+
+    // series whose date span overlaps the range, a null doctor matches every doctor
+    @Query("select distinct s from AppointmentSeries s left join fetch s.skippedDates where s.startDate <= :to and s.endDate >= :from"
+            + " and (:doctorName is null or s.doctorName = :doctorName)")
+    List<AppointmentSeries> findOverlapping(LocalDate from, LocalDate to, String doctorName);
+
+    @Query("select distinct s from AppointmentSeries s left join fetch s.skippedDates where s.seriesID in :seriesIDs")
+    List<AppointmentSeries> findBySeriesIDIn(Collection<String> seriesIDs);
+
+    @Query("select distinct s from AppointmentSeries s left join fetch s.skippedDates where s.patientID = :patientID")
+    List<AppointmentSeries> findByPatientID(String patientID);
+
+    // moves every row of one patient to another in a single statement, used when merging duplicates
+    @Modifying
+    @Query("update AppointmentSeries s set s.patientID = :toPatientID, s.updatedAt = local datetime where s.patientID = :fromPatientID")
+    int reassignPatient(String fromPatientID, String toPatientID);
+}
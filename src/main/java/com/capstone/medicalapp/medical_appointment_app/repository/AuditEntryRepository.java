@@ -0,0 +1,14 @@
+package com.capstone.medicalapp.medical_appointment_app.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.capstone.medicalapp.medical_appointment_app.model.AuditEntry;
+
+@Repository
+public interface AuditEntryRepository extends JpaRepository<AuditEntry, Long> {
+
+    List<AuditEntry> findByEntityTypeAndEntityIDOrderByChangedAtAscIdAsc(String entityType, String entityID);
+}
@@ -0,0 +1,19 @@
+package com.capstone.medicalapp.medical_appointment_app.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.capstone.medicalapp.medical_appointment_app.model.ChangeLogEntry;
+
+@Repository
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntry, Long> {
+
+    // entries after the (commitNumber, id) cursor in feed order
+    @Query("select e from ChangeLogEntry e where e.commitNumber > :commitNumber or (e.commitNumber = :commitNumber and e.id > :sequence)"
+            + " order by e.commitNumber, e.id")
+    List<ChangeLogEntry> findAfter(long commitNumber, long sequence, Limit limit);
+}
@@ -0,0 +1,31 @@
+package com.capstone.medicalapp.medical_appointment_app.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.capstone.medicalapp.medical_appointment_app.model.MergeProposal;
+import com.capstone.medicalapp.medical_appointment_app.model.MergeStatus;
+
+@Repository
+public interface MergeProposalRepository extends JpaRepository<MergeProposal, Long> {
+
+    // by id through a query so the clinic filter applies
+    @Query("select p from MergeProposal p where p.id = :id")
+    Optional<MergeProposal> findProposal(Long id);
+
+    List<MergeProposal> findByStatusOrderByScoreDesc(MergeStatus status);
+
+    @Query("select p.keepPatientID, p.duplicatePatientID from MergeProposal p where p.status = com.capstone.medicalapp.medical_appointment_app.model.MergeStatus.REJECTED")
+    List<Object[]> findRejectedPairs();
+
+    // open proposals that keep a patient that has just been merged away now keep its survivor
+    @Modifying
+    @Query("update MergeProposal p set p.keepPatientID = :keepPatientID where p.keepPatientID = :mergedPatientID"
+            + " and p.status = com.capstone.medicalapp.medical_appointment_app.model.MergeStatus.PENDING")
+    int repointPending(String mergedPatientID, String keepPatientID);
+}
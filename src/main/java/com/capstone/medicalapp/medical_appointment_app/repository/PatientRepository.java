@@ -1,18 +1,31 @@
 package com.capstone.medicalapp.medical_appointment_app.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.capstone.medicalapp.medical_appointment_app.model.Patient;
+import com.capstone.medicalapp.medical_appointment_app.model.PatientSummary;
 
 @Repository
 public interface PatientRepository extends JpaRepository<Patient, Long> {
     
     Optional<Patient> findByPatientID(String patientID);
+    List<Patient> findByPatientIDIn(Collection<String> patientIDs);
     boolean existsByPatientID(String patientID);
     boolean existsByEmail(String email);
     boolean existsByPhone(String phone);
     void deleteByPatientID(String patientID);
+
+    @Query("select new com.capstone.medicalapp.medical_appointment_app.model.PatientSummary(p.patientID, p.name, p.phone, p.email, p.clinicID)"
+            + " from Patient p order by p.id")
+    List<PatientSummary> findAllSummaries();
+
+    // clinic, email and phone of every patient, used to load the duplicate filters
+    @Query("select p.clinicID, p.email, p.phone from Patient p")
+    List<Object[]> findAllContactKeys();
 }
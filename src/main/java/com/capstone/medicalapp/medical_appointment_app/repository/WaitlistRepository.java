@@ -0,0 +1,57 @@
+package com.capstone.medicalapp.medical_appointment_app.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.capstone.medicalapp.medical_appointment_app.model.WaitlistEntry;
+import com.capstone.medicalapp.medical_appointment_app.model.WaitlistStatus;
+
+@Repository
+public interface WaitlistRepository extends JpaRepository<WaitlistEntry, Long> {
+
+    // by id through a query so the clinic filter applies
+    @Query("select e from WaitlistEntry e where e.id = :id")
+    Optional<WaitlistEntry> findEntry(Long id);
+
+    List<WaitlistEntry> findByDoctorNameAndStatus(String doctorName, WaitlistStatus status);
+
+    List<WaitlistEntry> findByPatientIDAndStatus(String patientID, WaitlistStatus status);
+
+    List<WaitlistEntry> findByPatientIDAndDoctorNameAndStatus(String patientID, String doctorName, WaitlistStatus status);
+
+    // books a still waiting entry, 0 when someone else booked or cancelled it first
+    @Modifying
+    @Query("update WaitlistEntry e set e.status = com.capstone.medicalapp.medical_appointment_app.model.WaitlistStatus.BOOKED,"
+            + " e.appointmentID = :appointmentID, e.decidedAt = :decidedAt"
+            + " where e.id = :id and e.status = com.capstone.medicalapp.medical_appointment_app.model.WaitlistStatus.WAITING")
+    int markBooked(Long id, String appointmentID, LocalDateTime decidedAt);
+
+    @Modifying
+    @Query("update WaitlistEntry e set e.status = com.capstone.medicalapp.medical_appointment_app.model.WaitlistStatus.CANCELLED,"
+            + " e.decidedAt = :decidedAt"
+            + " where e.id = :id and e.status = com.capstone.medicalapp.medical_appointment_app.model.WaitlistStatus.WAITING")
+    int markCancelled(Long id, LocalDateTime decidedAt);
+
+    @Modifying
+    @Query("update WaitlistEntry e set e.status = com.capstone.medicalapp.medical_appointment_app.model.WaitlistStatus.EXPIRED,"
+            + " e.decidedAt = :decidedAt"
+            + " where e.id in :ids and e.status = com.capstone.medicalapp.medical_appointment_app.model.WaitlistStatus.WAITING")
+    int markExpired(Collection<Long> ids, LocalDateTime decidedAt);
+
+    // the request time is fixed once an entry exists, only a merge of two entries moves it
+    @Modifying
+    @Query("update WaitlistEntry e set e.urgency = :urgency, e.requestedAt = :requestedAt where e.id = :id")
+    int updatePriority(Long id, int urgency, LocalDateTime requestedAt);
+
+    // moves every row of one patient to another in a single statement, used when merging duplicates
+    @Modifying
+    @Query("update WaitlistEntry e set e.patientID = :toPatientID where e.patientID = :fromPatientID")
+    int reassignPatient(String fromPatientID, String toPatientID);
+}
@@ -0,0 +1,9 @@
+package com.capstone.medicalapp.medical_appointment_app.reschedule;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(RescheduleProperties.class)
+public class RescheduleConfig {
+}
@@ -0,0 +1,28 @@
+package com.capstone.medicalapp.medical_appointment_app.reschedule;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// binds the medapp.reschedule.* settings
+@ConfigurationProperties(prefix = "medapp.reschedule")
+public class RescheduleProperties {
+
+    // appointments a doctor takes per day, counting the ones already booked and series occurrences
+    private int dailyCapacity = 20;
+    // days after the unavailability searched for free capacity, appointments that do not fit are reported unplaced
+    private int horizonDays = 90;
+    private boolean skipWeekends = true;
+    // largest run accepted, every moved appointment holds an audit queue slot until the batch commits
+    private int maxAppointments = 5000;
+
+    public int getDailyCapacity() {return dailyCapacity;}
+    public void setDailyCapacity(int dailyCapacity) {this.dailyCapacity = dailyCapacity;}
+
+    public int getHorizonDays() {return horizonDays;}
+    public void setHorizonDays(int horizonDays) {this.horizonDays = horizonDays;}
+
+    public boolean isSkipWeekends() {return skipWeekends;}
+    public void setSkipWeekends(boolean skipWeekends) {this.skipWeekends = skipWeekends;}
+
+    public int getMaxAppointments() {return maxAppointments;}
+    public void setMaxAppointments(int maxAppointments) {this.maxAppointments = maxAppointments;}
+}
@@ -0,0 +1,13 @@
+package com.capstone.medicalapp.medical_appointment_app.reschedule;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// who moved where, in the order the new days were handed out; unplaced appointments found no free day within the
+// horizon and were left where they are. series occurrences in the range are counted but left to their series
+public record RescheduleReport(String doctorName, LocalDate from, LocalDate to, boolean applied, List<Move> moved,
+        List<Move> unplaced, int seriesOccurrences, long elapsedMs) {
+
+    // toDate is null for an unplaced appointment
+    public record Move(String appointmentID, String patientID, String patientName, LocalDate fromDate, LocalDate toDate) {}
+}
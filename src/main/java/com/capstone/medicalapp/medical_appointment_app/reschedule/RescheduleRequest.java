@@ -0,0 +1,6 @@
+package com.capstone.medicalapp.medical_appointment_app.reschedule;
+
+import java.time.LocalDate;
+
+// a doctor is unavailable from one date to another (inclusive), capacity and horizon default to the configured ones
+public record RescheduleRequest(String doctorName, LocalDate from, LocalDate to, Integer dailyCapacity, Integer horizonDays) {}
@@ -0,0 +1,276 @@
+package com.capstone.medicalapp.medical_appointment_app.reschedule;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.capstone.medicalapp.medical_appointment_app.audit.AuditLog;
+import com.capstone.medicalapp.medical_appointment_app.audit.AuditProperties;
+import com.capstone.medicalapp.medical_appointment_app.audit.AuditSnapshots;
+import com.capstone.medicalapp.medical_appointment_app.changefeed.ChangeFeedService;
+import com.capstone.medicalapp.medical_appointment_app.model.Appointment;
+import com.capstone.medicalapp.medical_appointment_app.model.AppointmentCount;
+import com.capstone.medicalapp.medical_appointment_app.push.AppointmentBroadcaster;
+import com.capstone.medicalapp.medical_appointment_app.push.AppointmentEvent;
+import com.capstone.medicalapp.medical_appointment_app.repository.AppointmentRepository;
+import com.capstone.medicalapp.medical_appointment_app.reschedule.RescheduleReport.Move;
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentSeriesService;
+import com.capstone.medicalapp.medical_appointment_app.sharding.ClinicContext;
+import com.capstone.medicalapp.medical_appointment_app.viewcache.DataSet;
+import com.capstone.medicalapp.medical_appointment_app.viewcache.DataVersions;
+
+import jakarta.annotation.PostConstruct;
+
+// moves a doctor's appointments out of a period they are unavailable, into the first days after it that still have
+// capacity. a plan costs the same handful of queries however many appointments it moves, and applying it is one
+// batched update in one transaction: either every appointment moves or none does. applying holds the doctor's lock row
+// so two reschedules of one doctor plan one after the other, and recounts the target days before it commits
+@Service
+@Transactional
+public class RescheduleService {
+
+    private static final String SELECT_AFFECTED = "SELECT a.appointment_id, a.appointment_code, a.patient_code, p.name, a.appointment_date, a.description"
+            + " FROM appointments a LEFT JOIN patients p ON p.patient_code = a.patient_code AND p.clinic_code = a.clinic_code"
+            + " WHERE a.clinic_code = ? AND a.doctor_name = ? AND a.appointment_date BETWEEN ? AND ? ORDER BY a.appointment_date, a.appointment_id";
+    private static final String MOVE = "UPDATE appointments SET appointment_date = ?, updated_at = ?"
+            + " WHERE appointment_id = ? AND clinic_code = ? AND doctor_name = ? AND appointment_date = ?";
+    private static final String LOCK_DOCTOR = "UPDATE doctor_locks SET locked_at = ? WHERE clinic_code = ? AND doctor_name = ?";
+    private static final String INSERT_LOCK = "INSERT INTO doctor_locks (doctor_name, clinic_code, locked_at) VALUES (?, ?, ?)";
+    // a locking read sees what was committed since the plan read the days, and keeps those rows until the batch commits
+    private static final String SELECT_DAYS = "SELECT appointment_date FROM appointments"
+            + " WHERE clinic_code = ? AND doctor_name = ? AND appointment_date BETWEEN ? AND ? FOR UPDATE";
+
+    private static final int DOCTOR_LENGTH = 25;
+    private static final int MAX_RANGE_DAYS = 366;
+
+    @Autowired
+    private RescheduleProperties properties;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private AppointmentSeriesService seriesService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private AuditProperties auditProperties;
+
+    @Autowired
+    private ChangeFeedService changeFeed;
+
+    @Autowired
+    private AppointmentBroadcaster broadcaster;
+
+    @Autowired
+    private DataVersions dataVersions;
+
+    // applying audits every moved appointment in one transaction, so the largest reschedule has to fit in the audit queue
+    @PostConstruct
+    void checkLimits() {
+        if (properties.getMaxAppointments() > auditProperties.getQueueCapacity()) {
+            throw new IllegalStateException("medapp.reschedule.max-appointments (" + properties.getMaxAppointments()
+                    + ") cannot be more than medapp.audit.queue-capacity (" + auditProperties.getQueueCapacity() + ")");
+        }
+    }
+
+        // what applying the request would do right now, nothing is changed
+    @Transactional(readOnly = true)
+    public RescheduleReport preview(RescheduleRequest request) {
+        long start = System.nanoTime();
+        Plan plan = plan(request, false);
+        return plan.report(false, start);
+    }
+
+    // moves the appointments, a row changed by someone else since it was read or a target day booked past its capacity
+    // fails the whole batch
+    public RescheduleReport apply(RescheduleRequest request) {
+        long start = System.nanoTime();
+        Plan plan = plan(request, true);
+        List<Move> moved = plan.moves(true);
+        if (moved.isEmpty()) {
+            return plan.report(true, start);
+        }
+
+        String clinicID = ClinicContext.current();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(moved.size());
+        for (int i = 0; i < plan.affected.size(); i++) {
+            Affected row = plan.affected.get(i);
+            if (plan.targets[i] != null) {
+                rows.add(new Object[] {Date.valueOf(plan.targets[i]), now, row.id(), clinicID, plan.doctorName, Date.valueOf(row.date())});
+            }
+        }
+        auditLog.reserve(rows.size());
+        int[] counts = jdbcTemplate.batchUpdate(MOVE, rows);
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                throw new IllegalStateException("Appointment " + moved.get(i).appointmentID() + " changed while rescheduling, try again");
+            }
+        }
+        // bookings do not take the doctor's lock, one made on a target day since the plan leaves that day short here
+        int[] free = free(plan.doctorName, plan.from, plan.to, plan.capacity, plan.horizon, true).free();
+        for (Move move : moved) {
+            int day = (int) ChronoUnit.DAYS.between(plan.to, move.toDate()) - 1;
+            if (free[day] < 0) {
+                throw new IllegalStateException("Day " + move.toDate() + " was booked while rescheduling, try again");
+            }
+        }
+
+        List<String> appointmentIDs = new ArrayList<>(moved.size());
+        for (int i = 0; i < plan.affected.size(); i++) {
+            Affected row = plan.affected.get(i);
+            LocalDate target = plan.targets[i];
+            if (target == null) {
+                continue;
+            }
+            appointmentIDs.add(row.appointmentID());
+            auditLog.recordUpdate(AuditSnapshots.APPOINTMENT, row.appointmentID(), "aptDate: " + row.date() + " -> " + target);
+            broadcaster.publish(new AppointmentEvent(AppointmentEvent.UPDATED, row.appointmentID(), row.patientID(), row.patientName(),
+                    plan.doctorName, target, row.description()));
+        }
+        changeFeed.recordUpserts(AuditSnapshots.APPOINTMENT, appointmentIDs);
+        dataVersions.changed(DataSet.APPOINTMENTS);
+        return plan.report(true, start);
+    }
+
+    // locked, the doctor's lock row is held from here until the transaction ends
+    private Plan plan(RescheduleRequest request, boolean locked) {
+        if (request == null) {
+            throw new IllegalArgumentException("Reschedule request cannot be null");
+        }
+        String doctorName = request.doctorName() == null ? "" : request.doctorName().trim();
+        if (doctorName.isEmpty()) {
+            throw new IllegalArgumentException("Doctor name cannot be blank");
+        }
+        if (doctorName.length() > DOCTOR_LENGTH) {
+            throw new IllegalArgumentException("Doctor name cannot exceed " + DOCTOR_LENGTH + " characters");
+        }
+        if (request.from() == null || request.to() == null) {
+            throw new IllegalArgumentException("From and to date are required");
+        }
+        if (request.to().isBefore(request.from())) {
+            throw new IllegalArgumentException("To date cannot be before the from date");
+        }
+        if (request.from().isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("Unavailability cannot start in the past");
+        }
+        if (ChronoUnit.DAYS.between(request.from(), request.to()) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Unavailability cannot be longer than " + MAX_RANGE_DAYS + " days");
+        }
+        int capacity = request.dailyCapacity() != null ? request.dailyCapacity() : properties.getDailyCapacity();
+        int horizon = request.horizonDays() != null ? request.horizonDays() : properties.getHorizonDays();
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Daily capacity must be at least 1");
+        }
+        if (horizon < 1 || horizon > MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Horizon must be between 1 and " + MAX_RANGE_DAYS + " days");
+        }
+        if (locked) {
+            lock(doctorName);
+        }
+
+        List<Affected> affected = jdbcTemplate.query(SELECT_AFFECTED, (rs, n) -> new Affected(rs.getLong(1), rs.getString(2), rs.getString(3),
+                rs.getString(4), rs.getDate(5).toLocalDate(), rs.getString(6)),
+                ClinicContext.current(), doctorName, Date.valueOf(request.from()), Date.valueOf(request.to()));
+        if (affected.size() > properties.getMaxAppointments()) {
+            throw new IllegalArgumentException(affected.size() + " appointments are affected, at most " + properties.getMaxAppointments()
+                    + " can be moved at once; split the period");
+        }
+
+        Days free = free(doctorName, request.from(), request.to(), capacity, horizon, false);
+        int[] days = SlotPlanner.assign(free.free(), affected.size());
+        LocalDate first = request.to().plusDays(1);
+        LocalDate[] targets = new LocalDate[days.length];
+        for (int i = 0; i < days.length; i++) {
+            targets[i] = days[i] == SlotPlanner.UNPLACED ? null : first.plusDays(days[i]);
+        }
+        return new Plan(doctorName, request.from(), request.to(), capacity, horizon, affected, targets, free.seriesOccurrences());
+    }
+
+    private void lock(String doctorName) {
+        String clinicID = ClinicContext.current();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        if (jdbcTemplate.update(LOCK_DOCTOR, now, clinicID, doctorName) > 0) {
+            return;
+        }
+        // the doctor's first reschedule, a concurrent one waits on the unique key and then takes the row it inserted
+        try {
+            jdbcTemplate.update(INSERT_LOCK, doctorName, clinicID, now);
+        } catch (DuplicateKeyException e) {
+            jdbcTemplate.update(LOCK_DOCTOR, now, clinicID, doctorName);
+        }
+    }
+
+    // free places on each day of the horizon after what is booked already, and the series occurrences inside the period
+    private Days free(String doctorName, LocalDate from, LocalDate to, int capacity, int horizon, boolean locking) {
+        LocalDate first = to.plusDays(1);
+        LocalDate last = to.plusDays(horizon);
+        int[] free = new int[horizon];
+        for (int day = 0; day < horizon; day++) {
+            DayOfWeek weekday = first.plusDays(day).getDayOfWeek();
+            boolean weekend = weekday == DayOfWeek.SATURDAY || weekday == DayOfWeek.SUNDAY;
+            free[day] = properties.isSkipWeekends() && weekend ? 0 : capacity;
+        }
+        if (locking) {
+            for (LocalDate date : jdbcTemplate.queryForList(SELECT_DAYS, LocalDate.class, ClinicContext.current(), doctorName,
+                    Date.valueOf(first), Date.valueOf(last))) {
+                free[(int) ChronoUnit.DAYS.between(first, date)]--;
+            }
+        } else {
+            for (AppointmentCount count : appointmentRepository.countByDayAndDoctor(first, last, doctorName)) {
+                free[(int) ChronoUnit.DAYS.between(first, count.date())] -= (int) count.count();
+            }
+        }
+        int seriesOccurrences = 0;
+        for (Appointment occurrence : seriesService.getOccurrencesBetween(from, last, doctorName)) {
+            if (occurrence.getAptDate().isAfter(to)) {
+                free[(int) ChronoUnit.DAYS.between(first, occurrence.getAptDate())]--;
+            } else {
+                seriesOccurrences++;
+            }
+        }
+        return new Days(free, seriesOccurrences);
+    }
+
+    private record Days(int[] free, int seriesOccurrences) {}
+
+    private record Affected(long id, String appointmentID, String patientID, String patientName, LocalDate date, String description) {}
+
+    // the affected appointments in order and the day each one gets, null when it found none
+    private record Plan(String doctorName, LocalDate from, LocalDate to, int capacity, int horizon, List<Affected> affected, LocalDate[] targets,
+            int seriesOccurrences) {
+
+        List<Move> moves(boolean placed) {
+            List<Move> moves = new ArrayList<>();
+            for (int i = 0; i < affected.size(); i++) {
+                if ((targets[i] != null) == placed) {
+                    Affected row = affected.get(i);
+                    moves.add(new Move(row.appointmentID(), row.patientID(), row.patientName(), row.date(), targets[i]));
+                }
+            }
+            return moves;
+        }
+
+        RescheduleReport report(boolean applied, long start) {
+            return new RescheduleReport(doctorName, from, to, applied, moves(true), moves(false), seriesOccurrences,
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.capstone.medicalapp.medical_appointment_app.reschedule;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+// hands out free capacity to appointments in order: appointment i goes to the first day whose running total of free
+// places exceeds i. the running totals are a parallel prefix sum and every appointment finds its day with its own
+// binary search, so the work splits across cores with no shared counters
+public final class SlotPlanner {
+
+    public static final int UNPLACED = -1;
+
+    private SlotPlanner() {}
+
+    // index of the day for each of the count appointments, UNPLACED once the free places run out
+    public static int[] assign(int[] free, int count) {
+        long[] total = new long[free.length];
+        for (int day = 0; day < free.length; day++) {
+            total[day] = Math.max(0, free[day]);
+        }
+        Arrays.parallelPrefix(total, Long::sum);
+
+        int[] days = new int[count];
+        IntStream.range(0, count).parallel().forEach(i -> days[i] = firstAbove(total, i));
+        return days;
+    }
+
+    // first day whose total is above the position, totals never decrease
+    private static int firstAbove(long[] total, long position) {
+        int low = 0;
+        int high = total.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (total[mid] > position) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low == total.length ? UNPLACED : low;
+    }
+}
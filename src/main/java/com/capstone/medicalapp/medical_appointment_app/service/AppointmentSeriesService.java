@@ -0,0 +1,305 @@
+package com.capstone.medicalapp.medical_appointment_app.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.capstone.medicalapp.medical_appointment_app.audit.AuditLog;
+import com.capstone.medicalapp.medical_appointment_app.audit.AuditSnapshots;
+import com.capstone.medicalapp.medical_appointment_app.changefeed.ChangeFeedService;
+import com.capstone.medicalapp.medical_appointment_app.model.Appointment;
+import com.capstone.medicalapp.medical_appointment_app.model.AppointmentSeries;
+import com.capstone.medicalapp.medical_appointment_app.model.SeriesRow;
+import com.capstone.medicalapp.medical_appointment_app.repository.AppointmentSeriesRepository;
+import com.capstone.medicalapp.medical_appointment_app.singleflight.SingleFlight;
+import com.capstone.medicalapp.medical_appointment_app.viewcache.DataSet;
+import com.capstone.medicalapp.medical_appointment_app.viewcache.DataVersions;
+import com.capstone.medicalapp.medical_appointment_app.waitlist.SlotFreedEvent;
+
+// manages recurring series, one row per series however many occurrences it has
+@Service
+@Transactional
+public class AppointmentSeriesService {
+
+    @Autowired
+    private AppointmentSeriesRepository seriesRepository;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private DataVersions dataVersions;
+
+    @Autowired
+    private ChangeFeedService changeFeed;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    private final AtomicLong idGeneration = new AtomicLong(3000);
+
+    private static final byte DOCTOR_LENGTH = 25;
+    private static final byte DESCRIPTION_LENGTH = 40;
+    private static final int MAX_SERIES_YEARS = 5;
+
+    private String generateSeriesID() {
+        return "SER" + idGeneration.incrementAndGet();
+    }
+
+    @Transactional(readOnly = true)
+    public List<AppointmentSeries> getAllSeries() {
+        return seriesRepository.findAll();
+    }
+
+    // rows for the series table with the patient name joined in
+    @SingleFlight(dependsOn = {DataSet.APPOINTMENTS, DataSet.PATIENTS})
+    @Transactional(readOnly = true)
+    public List<SeriesRow> getSeriesRows() {
+        return seriesRepository.findAllRows();
+    }
+
+    // adds a new series for a pre-existing patient
+    public AppointmentSeries addSeries(AppointmentSeries series) {
+        if (series == null) {
+            throw new IllegalArgumentException("Series cannot be null");
+        }
+
+        validateSeriesData(series);
+
+        if (!series.getStartDate().isAfter(LocalDate.now())) {
+            throw new IllegalArgumentException("Series start date must be in the future");
+        }
+
+        if (!patientService.patientExists(series.getPatientID())) {
+            throw new IllegalArgumentException("Patient with ID " + series.getPatientID() + " does not exist");
+        }
+
+        series.setSeriesID(generateSeriesID());
+        AppointmentSeries savedSeries = seriesRepository.save(series);
+        auditLog.recordCreate(AuditSnapshots.SERIES, savedSeries.getSeriesID(), AuditSnapshots.of(savedSeries));
+        changeFeed.recordUpsert(AuditSnapshots.SERIES, savedSeries.getSeriesID());
+        dataVersions.changed(DataSet.APPOINTMENTS);
+        return savedSeries;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<AppointmentSeries> getSeriesById(String seriesID) {
+        if (seriesID == null || seriesID.trim().isEmpty()) {
+            return Optional.empty();
+        }
+        return seriesRepository.findBySeriesID(seriesID);
+    }
+
+    // changes the rule of a series, a single row update no matter how many occurrences it covers. occurrences before
+    // today are history: a series that has started keeps them, ends yesterday and the new rule continues from today in
+    // a new series, which is returned
+    public Optional<AppointmentSeries> updateSeries(String seriesID, AppointmentSeries updatedSeries) {
+        Optional<AppointmentSeries> existingSeries = getSeriesById(seriesID);
+        if (existingSeries.isEmpty()) {
+            return Optional.empty();
+        }
+
+        validateSeriesData(updatedSeries);
+
+        if (!patientService.patientExists(updatedSeries.getPatientID())) {
+            throw new IllegalArgumentException("Patient with ID: " + updatedSeries.getPatientID() + " does not exist");
+        }
+
+        AppointmentSeries series = existingSeries.get();
+        LocalDate today = LocalDate.now();
+        if (!series.getStartDate().isBefore(today)) {
+            if (updatedSeries.getStartDate().isBefore(today)) {
+                throw new IllegalArgumentException("Series start date cannot be in the past");
+            }
+            return Optional.of(change(series, updatedSeries, updatedSeries.getStartDate(), updatedSeries.getEndDate()));
+        }
+
+        if (updatedSeries.getEndDate().isBefore(today.minusDays(1))) {
+            throw new IllegalArgumentException("Series has started, its end date cannot remove past occurrences");
+        }
+        if (sameRule(series, updatedSeries)) {
+            return Optional.of(change(series, updatedSeries, series.getStartDate(), updatedSeries.getEndDate()));
+        }
+
+        // the same start keeps the rule's rhythm and it picks up at its first date from today, a new start must be ahead
+        LocalDate continueFrom;
+        if (updatedSeries.getStartDate().equals(series.getStartDate())) {
+            AppointmentSeries rule = new AppointmentSeries(updatedSeries.getPatientID(), updatedSeries.getDoctorName(), updatedSeries.getDescription(),
+                    series.getStartDate(), updatedSeries.getEndDate(), updatedSeries.getFrequency(), updatedSeries.getInterval());
+            List<Appointment> upcoming = rule.occurrencesBetween(today, updatedSeries.getEndDate());
+            continueFrom = upcoming.isEmpty() ? null : upcoming.get(0).getAptDate();
+        } else if (updatedSeries.getStartDate().isBefore(today)) {
+            throw new IllegalArgumentException("Series has started, its start date can only move to today or later");
+        } else {
+            continueFrom = updatedSeries.getStartDate();
+        }
+
+        List<LocalDate> carried = series.getSkippedDates().stream().filter(date -> !date.isBefore(today)).toList();
+        carried.forEach(series.getSkippedDates()::remove);
+        change(series, series, series.getStartDate(), today.minusDays(1));
+        if (continueFrom == null) {
+            return Optional.of(series);
+        }
+
+        AppointmentSeries continued = new AppointmentSeries(updatedSeries.getPatientID(), updatedSeries.getDoctorName(), updatedSeries.getDescription(),
+                continueFrom, updatedSeries.getEndDate(), updatedSeries.getFrequency(), updatedSeries.getInterval());
+        continued.getSkippedDates().addAll(carried);
+        continued.setSeriesID(generateSeriesID());
+        AppointmentSeries savedSeries = seriesRepository.save(continued);
+        auditLog.recordCreate(AuditSnapshots.SERIES, savedSeries.getSeriesID(), AuditSnapshots.of(savedSeries));
+        changeFeed.recordUpsert(AuditSnapshots.SERIES, savedSeries.getSeriesID());
+        return Optional.of(savedSeries);
+    }
+
+    // one row update of a series to the rule of changed between start and end
+    private AppointmentSeries change(AppointmentSeries series, AppointmentSeries changed, LocalDate start, LocalDate end) {
+        Map<String, Object> before = AuditSnapshots.of(series);
+        series.setPatientID(changed.getPatientID());
+        series.setDoctorName(changed.getDoctorName());
+        series.setDescription(changed.getDescription());
+        series.setStartDate(start);
+        series.setEndDate(end);
+        series.setFrequency(changed.getFrequency());
+        series.setInterval(changed.getInterval());
+
+        AppointmentSeries savedSeries = seriesRepository.save(series);
+        auditLog.recordUpdate(AuditSnapshots.SERIES, series.getSeriesID(), before, AuditSnapshots.of(savedSeries));
+        changeFeed.recordUpsert(AuditSnapshots.SERIES, series.getSeriesID());
+        dataVersions.changed(DataSet.APPOINTMENTS);
+        return savedSeries;
+    }
+
+    // true when only the end date differs, which leaves every occurrence up to the new end where it was
+    private boolean sameRule(AppointmentSeries series, AppointmentSeries changed) {
+        return series.getPatientID().equals(changed.getPatientID()) && series.getDoctorName().equals(changed.getDoctorName())
+                && series.getDescription().equals(changed.getDescription()) && series.getStartDate().equals(changed.getStartDate())
+                && series.getFrequency() == changed.getFrequency() && series.getInterval() == changed.getInterval();
+    }
+
+    public boolean deleteSeries(String seriesID) {
+        Optional<AppointmentSeries> series = getSeriesById(seriesID);
+        if (series.isPresent()) {
+            seriesRepository.delete(series.get());
+            auditLog.recordDelete(AuditSnapshots.SERIES, seriesID, AuditSnapshots.of(series.get()));
+            changeFeed.recordDelete(AuditSnapshots.SERIES, seriesID);
+            dataVersions.changed(DataSet.APPOINTMENTS);
+            return true;
+        }
+        return false;
+    }
+
+    // cancels a single occurrence by remembering its date as skipped
+    public boolean cancelOccurrence(String seriesID, LocalDate date) {
+        Optional<AppointmentSeries> series = getSeriesById(seriesID);
+        if (series.isEmpty() || date == null || !series.get().occursOn(date)) {
+            return false;
+        }
+
+        series.get().getSkippedDates().add(date);
+        auditLog.recordUpdate(AuditSnapshots.SERIES, seriesID, "skipped occurrence: " + date);
+        changeFeed.recordUpsert(AuditSnapshots.SERIES, seriesID);
+        events.publishEvent(new SlotFreedEvent(series.get().getDoctorName(), date));
+        dataVersions.changed(DataSet.APPOINTMENTS);
+        return true;
+    }
+
+    // occurrences of every series on one date
+    @Transactional(readOnly = true)
+    public List<Appointment> getOccurrencesOn(LocalDate date) {
+        List<Appointment> occurrences = new ArrayList<>();
+        for (AppointmentSeries series : seriesRepository.findCandidatesOn(date, date.getDayOfWeek().getValue())) {
+            if (series.occursOn(date)) {
+                occurrences.add(series.toOccurrence(date));
+            }
+        }
+        return occurrences;
+    }
+
+    // occurrences of every series of a patient
+    @Transactional(readOnly = true)
+    public List<Appointment> getOccurrencesForPatient(String patientID) {
+        List<Appointment> occurrences = new ArrayList<>();
+        for (AppointmentSeries series : seriesRepository.findByPatientID(patientID)) {
+            occurrences.addAll(series.occurrencesBetween(series.getStartDate(), series.getEndDate()));
+        }
+        return occurrences;
+    }
+
+    // occurrences of a patient's series that fall in the range
+    @Transactional(readOnly = true)
+    public List<Appointment> getOccurrencesForPatient(String patientID, LocalDate from, LocalDate to) {
+        List<Appointment> occurrences = new ArrayList<>();
+        for (AppointmentSeries series : seriesRepository.findOverlappingForPatient(patientID, from, to)) {
+            occurrences.addAll(series.occurrencesBetween(from, to));
+        }
+        return occurrences;
+    }
+
+    // occurrences of every series in the range, a null doctor means all doctors
+    @Transactional(readOnly = true)
+    public List<Appointment> getOccurrencesBetween(LocalDate from, LocalDate to, String doctorName) {
+        List<Appointment> occurrences = new ArrayList<>();
+        for (AppointmentSeries series : seriesRepository.findOverlapping(from, to, doctorName)) {
+            occurrences.addAll(series.occurrencesBetween(from, to));
+        }
+        return occurrences;
+    }
+
+    // validate information for adding or changing a series
+    private void validateSeriesData(AppointmentSeries series) {
+        if (series.getPatientID() == null || series.getPatientID().trim().isEmpty()) {
+            throw new IllegalArgumentException("Patient ID cannot be blank");
+        }
+
+        if (series.getDoctorName() == null || series.getDoctorName().trim().isEmpty()) {
+            throw new IllegalArgumentException("Doctor name cannot be blank");
+        }
+
+        if (series.getDoctorName().length() > DOCTOR_LENGTH) {
+            throw new IllegalArgumentException("Doctor name cannot exceed " + DOCTOR_LENGTH + " characters");
+        }
+
+        if (!series.getDoctorName().matches("^[a-zA-Z\\s'-\\.]+$")) {
+            throw new IllegalArgumentException("Doctor name can only contain letters, spaces, hyphens, apostrophes, and periods");
+        }
+
+        if (series.getDescription() == null || series.getDescription().trim().isEmpty()) {
+            throw new IllegalArgumentException("Description cannot be blank");
+        }
+
+        if (series.getDescription().length() > DESCRIPTION_LENGTH) {
+            throw new IllegalArgumentException("Description cannot exceed " + DESCRIPTION_LENGTH + " characters");
+        }
+
+        if (series.getStartDate() == null || series.getEndDate() == null) {
+            throw new IllegalArgumentException("Series start and end dates cannot be blank");
+        }
+
+        if (series.getEndDate().isBefore(series.getStartDate())) {
+            throw new IllegalArgumentException("Series end date cannot be before its start date");
+        }
+
+        if (series.getEndDate().isAfter(series.getStartDate().plusYears(MAX_SERIES_YEARS))) {
+            throw new IllegalArgumentException("Series cannot run longer than " + MAX_SERIES_YEARS + " years");
+        }
+
+        if (series.getFrequency() == null) {
+            throw new IllegalArgumentException("Series frequency cannot be blank");
+        }
+
+        if (series.getInterval() < 1) {
+            throw new IllegalArgumentException("Series interval must be at least 1");
+        }
+    }
+}
@@ -1,16 +1,46 @@
 package com.capstone.medicalapp.medical_appointment_app.service;
 
+import java.sql.Date;
+import java.sql.Timestamp;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.capstone.medicalapp.medical_appointment_app.audit.AuditLog;
+import com.capstone.medicalapp.medical_appointment_app.audit.AuditSnapshots;
+import com.capstone.medicalapp.medical_appointment_app.changefeed.ChangeFeedService;
 import com.capstone.medicalapp.medical_appointment_app.model.Appointment;
+import com.capstone.medicalapp.medical_appointment_app.model.AppointmentCount;
+import com.capstone.medicalapp.medical_appointment_app.model.AppointmentRow;
+import com.capstone.medicalapp.medical_appointment_app.model.Patient;
+import com.capstone.medicalapp.medical_appointment_app.push.AppointmentBroadcaster;
+import com.capstone.medicalapp.medical_appointment_app.push.AppointmentEvent;
+import com.capstone.medicalapp.medical_appointment_app.readmodel.ClinicView;
+import com.capstone.medicalapp.medical_appointment_app.readmodel.ReadModel;
 import com.capstone.medicalapp.medical_appointment_app.repository.AppointmentRepository;
+import com.capstone.medicalapp.medical_appointment_app.sharding.ClinicContext;
+import com.capstone.medicalapp.medical_appointment_app.singleflight.SingleFlight;
+import com.capstone.medicalapp.medical_appointment_app.viewcache.DataSet;
+import com.capstone.medicalapp.medical_appointment_app.viewcache.DataVersions;
+import com.capstone.medicalapp.medical_appointment_app.waitlist.SlotFreedEvent;
 
 // ensures database is consistent
 @Service
@@ -22,19 +52,58 @@ public class AppointmentService {
     
     @Autowired
     private PatientService patientService;
+
+    @Autowired
+    private AppointmentSeriesService seriesService;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private DataVersions dataVersions;
+
+    @Autowired
+    private ChangeFeedService changeFeed;
+
+    @Autowired
+    private AppointmentBroadcaster broadcaster;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReadModel readModel;
     
     private final AtomicLong idGeneration = new AtomicLong(2000);
+
+    private static final String INSERT_APPOINTMENT = "INSERT INTO appointments (appointment_code, patient_code, patient_id, doctor_name,"
+            + " appointment_date, description, series_code, clinic_code, created_at, updated_at)"
+            + " SELECT ?, p.patient_code, p.patient_id, ?, ?, ?, ?, ?, ?, ? FROM patients p WHERE p.patient_code = ? AND p.clinic_code = ?";
     
     private static final byte DOCTOR_LENGTH = 25;
     private static final byte DESCRIPTION_LENGTH = 40;
+    private static final int MAX_CALENDAR_DAYS = 366;
     
     private String generateAppointmentID() {
         return "APT" + idGeneration.incrementAndGet();
     }
     
-    // returns all scheduled appointments
+    // returns all scheduled appointments. the reads below are answered by the read model when it is on, they only
+    // start a transaction to query the database
+    @SingleFlight(dependsOn = DataSet.APPOINTMENTS)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<Appointment> getAllAppointments() {
-        return appointmentRepository.findAll();
+        return readModel.read(ClinicView::appointments, appointmentRepository::findAll);
+    }
+
+    // rows for the appointment table, records with the patient name joined in instead of managed entities
+    @SingleFlight(dependsOn = {DataSet.APPOINTMENTS, DataSet.PATIENTS})
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<AppointmentRow> getAppointmentRows() {
+        return readModel.read(ClinicView::appointmentRows, appointmentRepository::findAllRows);
     }
     
     // adds a new appointment to the database using pre-existing patient in database
@@ -45,24 +114,108 @@ public class AppointmentService {
         
         validateAppointmentData(apt);
         
-        if (!patientService.patientExists(apt.getPatientID())) {
-            throw new IllegalArgumentException("Patient with ID " + apt.getPatientID() + " does not exist");
-        }
+        Patient patient = patientService.getPatientById(apt.getPatientID())
+                .orElseThrow(() -> new IllegalArgumentException("Patient with ID " + apt.getPatientID() + " does not exist"));
         
         String appointmentId = generateAppointmentID();
         apt.setAppointmentID(appointmentId);
+        apt.setPatient(patient);
         
-        return appointmentRepository.save(apt);
+        Appointment savedApt = appointmentRepository.save(apt);
+        auditLog.recordCreate(AuditSnapshots.APPOINTMENT, appointmentId, AuditSnapshots.of(savedApt));
+        changeFeed.recordUpsert(AuditSnapshots.APPOINTMENT, appointmentId);
+        broadcaster.publish(AppointmentEvent.of(AppointmentEvent.CREATED, savedApt, patient.getName()));
+        dataVersions.changed(DataSet.APPOINTMENTS);
+        return savedApt;
+    }
+    
+    // one appointment of a group commit and who asked for it, for the audit log
+    public record PendingAdd(Appointment appointment, String actor) {}
+
+    // the added appointment, or the error that kept it out
+    public record AddResult(Appointment appointment, RuntimeException error) {}
+
+    // adds appointments from several callers in one transaction: their patients are read in one query and the rows
+    // go out as one batched insert. an appointment that fails validation or whose patient is gone gets its own error
+    // and the others are still added, any other failure rolls back the whole call
+    public List<AddResult> addAppointments(List<PendingAdd> adds) {
+        AddResult[] results = new AddResult[adds.size()];
+        Set<String> patientIDs = new HashSet<>();
+        for (int i = 0; i < adds.size(); i++) {
+            Appointment apt = adds.get(i).appointment();
+            try {
+                if (apt == null) {
+                    throw new IllegalArgumentException("Appointment cannot be null");
+                }
+                validateAppointmentData(apt);
+                patientIDs.add(apt.getPatientID());
+            } catch (IllegalArgumentException e) {
+                results[i] = new AddResult(null, e);
+            }
+        }
+        Map<String, Patient> patients = new HashMap<>();
+        for (Patient patient : patientService.getPatientsById(patientIDs)) {
+            patients.put(patient.getPatientID(), patient);
+        }
+
+        String clinicID = ClinicContext.current();
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+        List<Integer> inserted = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < adds.size(); i++) {
+            Appointment apt = adds.get(i).appointment();
+            if (results[i] != null) {
+                continue;
+            }
+            Patient patient = patients.get(apt.getPatientID());
+            if (patient == null) {
+                results[i] = new AddResult(null, new IllegalArgumentException("Patient with ID " + apt.getPatientID() + " does not exist"));
+                continue;
+            }
+            apt.setAppointmentID(generateAppointmentID());
+            apt.setPatient(patient);
+            apt.setClinicID(clinicID);
+            apt.setCreatedAt(now);
+            apt.setUpdatedAt(now);
+            inserted.add(i);
+            rows.add(new Object[] {apt.getAppointmentID(), apt.getDoctorName(), Date.valueOf(apt.getAptDate()),
+                    apt.getDescription(), apt.getSeriesID(), clinicID, timestamp, timestamp, apt.getPatientID(), clinicID});
+        }
+
+        // the patient key is looked up by the insert itself, a patient deleted since it was read inserts nothing
+        auditLog.reserve(inserted.size());
+        int[] counts = jdbcTemplate.batchUpdate(INSERT_APPOINTMENT, rows);
+        List<String> appointmentIDs = new ArrayList<>(inserted.size());
+        for (int n = 0; n < inserted.size(); n++) {
+            int i = inserted.get(n);
+            Appointment apt = adds.get(i).appointment();
+            if (counts[n] == 0) {
+                results[i] = new AddResult(null, new IllegalArgumentException("Patient with ID " + apt.getPatientID() + " does not exist"));
+                continue;
+            }
+            results[i] = new AddResult(apt, null);
+            appointmentIDs.add(apt.getAppointmentID());
+            auditLog.recordCreate(AuditSnapshots.APPOINTMENT, apt.getAppointmentID(), AuditSnapshots.of(apt), adds.get(i).actor());
+            broadcaster.publish(AppointmentEvent.of(AppointmentEvent.CREATED, apt, apt.getPatient().getName()));
+        }
+        if (!appointmentIDs.isEmpty()) {
+            changeFeed.recordUpserts(AuditSnapshots.APPOINTMENT, appointmentIDs);
+            dataVersions.changed(DataSet.APPOINTMENTS);
+        }
+        return Arrays.asList(results);
     }
     
     // returns an appointment by the id
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<Appointment> getAppointmentById(String appointmentID) {
         if (appointmentID == null || appointmentID.trim().isEmpty()) {
             return Optional.empty();
         }
-        return appointmentRepository.findByAppointmentID(appointmentID);
+        return readModel.read(view -> view.appointment(appointmentID), () -> appointmentRepository.findByAppointmentID(appointmentID));
     }
     
+    // deletes an appointment, its slot is offered to the doctor's waitlist once the delete commits
     public boolean deleteAppointment(String appointmentID) {
         if (appointmentID == null || appointmentID.trim().isEmpty()) {
             return false;
@@ -71,6 +224,11 @@ public class AppointmentService {
         Optional<Appointment> appointment = appointmentRepository.findByAppointmentID(appointmentID);
         if (appointment.isPresent()) {
             appointmentRepository.delete(appointment.get());
+            auditLog.recordDelete(AuditSnapshots.APPOINTMENT, appointmentID, AuditSnapshots.of(appointment.get()));
+            changeFeed.recordDelete(AuditSnapshots.APPOINTMENT, appointmentID);
+            broadcaster.publish(AppointmentEvent.deleted(appointmentID));
+            events.publishEvent(new SlotFreedEvent(appointment.get().getDoctorName(), appointment.get().getAptDate()));
+            dataVersions.changed(DataSet.APPOINTMENTS);
             return true;
         }
         return false;
@@ -82,50 +240,155 @@ public class AppointmentService {
             return Optional.empty();
         }
         
+        // invalid input is turned away before anything is read
+        validateAppointmentData(updatedApt);
+        
         Optional<Appointment> existingApt = appointmentRepository.findByAppointmentID(appointmentID);
         if (existingApt.isEmpty()) {
             return Optional.empty();
         }
         
-        validateAppointmentData(updatedApt);
-        
-        if (!patientService.patientExists(updatedApt.getPatientID())) {
-            throw new IllegalArgumentException("Patient with ID: " + updatedApt.getPatientID() + " does not exist");
-        }
+        Patient patient = patientService.getPatientById(updatedApt.getPatientID())
+                .orElseThrow(() -> new IllegalArgumentException("Patient with ID: " + updatedApt.getPatientID() + " does not exist"));
         
         Appointment apt = existingApt.get();
-        apt.setPatientID(updatedApt.getPatientID());
+        Map<String, Object> before = AuditSnapshots.of(apt);
+        String oldDoctor = apt.getDoctorName();
+        LocalDate oldDate = apt.getAptDate();
+        apt.setPatient(patient);
         apt.setDoctorName(updatedApt.getDoctorName());
         apt.setAptDate(updatedApt.getAptDate());
         apt.setDescription(updatedApt.getDescription());
         
-        return Optional.of(appointmentRepository.save(apt));
+        Appointment savedApt = appointmentRepository.save(apt);
+        auditLog.recordUpdate(AuditSnapshots.APPOINTMENT, appointmentID, before, AuditSnapshots.of(savedApt));
+        changeFeed.recordUpsert(AuditSnapshots.APPOINTMENT, appointmentID);
+        broadcaster.publish(AppointmentEvent.of(AppointmentEvent.UPDATED, savedApt, patient.getName()));
+        // moving to another doctor or day frees the slot it held
+        if (!oldDoctor.equals(savedApt.getDoctorName()) || !oldDate.equals(savedApt.getAptDate())) {
+            events.publishEvent(new SlotFreedEvent(oldDoctor, oldDate));
+        }
+        dataVersions.changed(DataSet.APPOINTMENTS);
+        return Optional.of(savedApt);
     }
     
-    // returns an appointment according to the patient id assigned to it
+    // returns an appointment according to the patient id assigned to it, including occurrences of their series
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<Appointment> getAppointmentsByPatientID(String patientID) {
         if (patientID == null || patientID.trim().isEmpty()) {
             return List.of();
         }
-        return appointmentRepository.findByPatientID(patientID);
+        return readModel.read(view -> merge(view.appointmentsOfPatient(patientID), seriesService.getOccurrencesForPatient(patientID)),
+                () -> merge(appointmentRepository.findWithPatientByPatientID(patientID), seriesService.getOccurrencesForPatient(patientID)));
+    }
+
+    // returns a patient's appointments between two dates (inclusive), series are only expanded inside the range
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<Appointment> getAppointmentsByPatientID(String patientID, LocalDate from, LocalDate to) {
+        if (patientID == null || patientID.trim().isEmpty() || from == null || to == null || to.isBefore(from)) {
+            return List.of();
+        }
+        return readModel.read(view -> merge(view.appointmentsOfPatient(patientID, from, to), seriesService.getOccurrencesForPatient(patientID, from, to)),
+                () -> merge(appointmentRepository.findWithPatientByPatientIDAndAptDateBetween(patientID, from, to),
+                        seriesService.getOccurrencesForPatient(patientID, from, to)));
     }
     
-    // returns appointments by date
+    // returns appointments by date, including series occurrences that fall on it
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<Appointment> getAppointmentsByDate(LocalDate date) {
         if (date == null) {
             return List.of();
         }
-        return appointmentRepository.findByAptDate(date);
+        return readModel.read(view -> merge(view.appointmentsOn(date), seriesService.getOccurrencesOn(date)),
+                () -> merge(appointmentRepository.findByAptDate(date), seriesService.getOccurrencesOn(date)));
+    }
+
+    // returns appointments between two dates (inclusive) for one doctor or, when doctorName is blank, for all of them
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<Appointment> getAppointmentsBetween(LocalDate from, LocalDate to, String doctorName) {
+        if (from == null || to == null || to.isBefore(from)) {
+            return List.of();
+        }
+        String doctor = blankToNull(doctorName);
+        return readModel.read(view -> merge(view.appointmentsBetween(from, to, doctor), seriesService.getOccurrencesBetween(from, to, doctor)), () -> {
+            List<Appointment> stored = doctor == null
+                    ? appointmentRepository.findByAptDateBetweenOrderByAptDate(from, to)
+                    : appointmentRepository.findByDoctorNameAndAptDateBetweenOrderByAptDate(doctor, from, to);
+            return merge(stored, seriesService.getOccurrencesBetween(from, to, doctor));
+        });
+    }
+
+    // appointment counts per day and doctor for a calendar, stored appointments are counted by the database and
+    // series by their rule, so a week and a year cost the same two queries
+    @SingleFlight(dependsOn = DataSet.APPOINTMENTS)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Map<LocalDate, List<AppointmentCount>> getCalendarCounts(LocalDate from, LocalDate to, String doctorName) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new IllegalArgumentException("Calendar range must start on or before its end");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_CALENDAR_DAYS) {
+            throw new IllegalArgumentException("Calendar range cannot exceed " + MAX_CALENDAR_DAYS + " days");
+        }
+
+        String doctor = blankToNull(doctorName);
+        return readModel.read(view -> calendar(view.countByDayAndDoctor(from, to, doctor), seriesService.getOccurrencesBetween(from, to, doctor)),
+                () -> calendar(appointmentRepository.countByDayAndDoctor(from, to, doctor), seriesService.getOccurrencesBetween(from, to, doctor)));
+    }
+
+    private static Map<LocalDate, List<AppointmentCount>> calendar(List<AppointmentCount> stored, List<Appointment> occurrences) {
+        Map<LocalDate, Map<String, Long>> counts = new TreeMap<>();
+        for (AppointmentCount count : stored) {
+            counts.computeIfAbsent(count.date(), day -> new TreeMap<>()).merge(count.doctorName(), count.count(), Long::sum);
+        }
+        for (Appointment occurrence : occurrences) {
+            counts.computeIfAbsent(occurrence.getAptDate(), day -> new TreeMap<>()).merge(occurrence.getDoctorName(), 1L, Long::sum);
+        }
+
+        Map<LocalDate, List<AppointmentCount>> calendar = new TreeMap<>();
+        counts.forEach((day, doctors) -> calendar.put(day, doctors.entrySet().stream()
+                .map(entry -> new AppointmentCount(day, entry.getKey(), entry.getValue()))
+                .toList()));
+        return calendar;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+
+    // moves one occurrence of a series to a stored appointment, the series skips the original date
+    public Appointment moveSeriesOccurrence(String seriesID, LocalDate occurrenceDate, Appointment replacement) {
+        if (!seriesService.cancelOccurrence(seriesID, occurrenceDate)) {
+            throw new IllegalArgumentException("Series " + seriesID + " has no occurrence on " + occurrenceDate);
+        }
+
+        replacement.setSeriesID(seriesID);
+        return addAppointment(replacement);
+    }
+
+    // stored appointments and generated occurrences in date order
+    private List<Appointment> merge(List<Appointment> stored, List<Appointment> occurrences) {
+        if (occurrences.isEmpty()) {
+            return stored;
+        }
+
+        List<Appointment> merged = new ArrayList<>(stored.size() + occurrences.size());
+        merged.addAll(stored);
+        merged.addAll(occurrences);
+        merged.sort(Comparator.comparing(Appointment::getAptDate));
+        return merged;
     }
     
     // returns number of appointments in database
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public int getAppointmentCount() {
-        return (int) appointmentRepository.count();
+        return readModel.read(view -> (int) view.appointmentCount(), () -> (int) appointmentRepository.count());
     }
     
     // checks if appt exists in database
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public boolean appointmentExists(String appointmentID) {
-        return appointmentID != null && appointmentRepository.existsByAppointmentID(appointmentID);
+        return appointmentID != null
+                && readModel.read(view -> view.hasAppointment(appointmentID), () -> appointmentRepository.existsByAppointmentID(appointmentID));
     }
     
     // deletes an appointment according to to patient id assigned to it from the database
@@ -134,8 +397,20 @@ public class AppointmentService {
             return 0;
         }
         
+        // one bulk delete, the rows are still read first for the audit log and the change feed
         List<Appointment> appointments = appointmentRepository.findByPatientID(patientId);
-        appointmentRepository.deleteAll(appointments);
+        if (appointments.isEmpty()) {
+            return 0;
+        }
+        auditLog.reserve(appointments.size());
+        appointmentRepository.deleteByPatientID(patientId);
+        for (Appointment apt : appointments) {
+            auditLog.recordDelete(AuditSnapshots.APPOINTMENT, apt.getAppointmentID(), AuditSnapshots.of(apt));
+            changeFeed.recordDelete(AuditSnapshots.APPOINTMENT, apt.getAppointmentID());
+            broadcaster.publish(AppointmentEvent.deleted(apt.getAppointmentID()));
+            events.publishEvent(new SlotFreedEvent(apt.getDoctorName(), apt.getAptDate()));
+        }
+        dataVersions.changed(DataSet.APPOINTMENTS);
         return appointments.size();
     }
     
@@ -1,15 +1,32 @@
 package com.capstone.medicalapp.medical_appointment_app.service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.capstone.medicalapp.medical_appointment_app.audit.AuditLog;
+import com.capstone.medicalapp.medical_appointment_app.audit.AuditSnapshots;
+import com.capstone.medicalapp.medical_appointment_app.changefeed.ChangeFeedService;
+import com.capstone.medicalapp.medical_appointment_app.dedup.ContactField;
+import com.capstone.medicalapp.medical_appointment_app.dedup.ContactFilters;
 import com.capstone.medicalapp.medical_appointment_app.model.Patient;
+import com.capstone.medicalapp.medical_appointment_app.model.PatientSummary;
+import com.capstone.medicalapp.medical_appointment_app.readmodel.ClinicView;
+import com.capstone.medicalapp.medical_appointment_app.readmodel.ReadModel;
+import com.capstone.medicalapp.medical_appointment_app.repository.AppointmentSeriesRepository;
 import com.capstone.medicalapp.medical_appointment_app.repository.PatientRepository;
+import com.capstone.medicalapp.medical_appointment_app.singleflight.SingleFlight;
+import com.capstone.medicalapp.medical_appointment_app.viewcache.DataSet;
+import com.capstone.medicalapp.medical_appointment_app.viewcache.DataVersions;
 
 // ensures that patient database functions and stays consistent
 @Service
@@ -18,6 +35,24 @@ public class PatientService {
     
     @Autowired
     private PatientRepository patientRepository;
+
+    @Autowired
+    private AppointmentSeriesRepository seriesRepository;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private DataVersions dataVersions;
+
+    @Autowired
+    private ChangeFeedService changeFeed;
+
+    @Autowired
+    private ContactFilters contactFilters;
+
+    @Autowired
+    private ReadModel readModel;
     
     private final AtomicLong idGeneration = new AtomicLong(1000);
     
@@ -28,8 +63,18 @@ public class PatientService {
         return "PAT" + idGeneration.incrementAndGet();
     }
     
+    // the reads below are answered by the read model when it is on, they only start a transaction to query the database
+    @SingleFlight(dependsOn = DataSet.PATIENTS)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<Patient> getAllPatients() {
-        return patientRepository.findAll();
+        return readModel.read(ClinicView::patients, patientRepository::findAll);
+    }
+
+    // patient table and picker rows, records instead of managed entities
+    @SingleFlight(dependsOn = DataSet.PATIENTS)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<PatientSummary> getPatientSummaries() {
+        return readModel.read(ClinicView::patientSummaries, patientRepository::findAllSummaries);
     }
     
     // adds a new patient to the database
@@ -39,19 +84,36 @@ public class PatientService {
         }
         
         validatePatientData(patient);
+        patient.setEmail(patient.getEmail().toLowerCase(Locale.ROOT));
+        checkContactIsFree(null, patient.getEmail(), patient.getPhone());
         
         String patientID = generatePatientID();
         patient.setPatientID(patientID);
         
-        return patientRepository.save(patient);
+        Patient savedPatient = saveUnique(patient);
+        contactFilters.added(savedPatient.getEmail(), savedPatient.getPhone());
+        auditLog.recordCreate(AuditSnapshots.PATIENT, patientID, AuditSnapshots.of(savedPatient));
+        changeFeed.recordUpsert(AuditSnapshots.PATIENT, patientID);
+        dataVersions.changed(DataSet.PATIENTS);
+        return savedPatient;
     }
     
     // gets patient from database by patient id
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<Patient> getPatientById(String patientID) {
         if (patientID == null || patientID.trim().isEmpty()) {
             return Optional.empty();
         }
-        return patientRepository.findByPatientID(patientID);
+        return readModel.read(view -> view.patient(patientID), () -> patientRepository.findByPatientID(patientID));
+    }
+
+    // gets several patients in one query, ids without a patient are left out
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<Patient> getPatientsById(Collection<String> patientIDs) {
+        if (patientIDs == null || patientIDs.isEmpty()) {
+            return List.of();
+        }
+        return readModel.read(view -> view.patients(patientIDs), () -> patientRepository.findByPatientIDIn(patientIDs));
     }
     
     public boolean deletePatient(String patientID) {
@@ -61,7 +123,11 @@ public class PatientService {
         
         Optional<Patient> patient = patientRepository.findByPatientID(patientID);
         if (patient.isPresent()) {
-            patientRepository.delete(patient.get());
+            deleteUnreferenced(patient.get());
+            contactFilters.removed(patient.get().getEmail(), patient.get().getPhone());
+            auditLog.recordDelete(AuditSnapshots.PATIENT, patientID, AuditSnapshots.of(patient.get()));
+            changeFeed.recordDelete(AuditSnapshots.PATIENT, patientID);
+            dataVersions.changed(DataSet.PATIENTS);
             return true;
         }
         return false;
@@ -79,23 +145,84 @@ public class PatientService {
         }
         
         validatePatientData(updatedPatient);
+        String email = updatedPatient.getEmail().toLowerCase(Locale.ROOT);
         
         Patient patient = existingPatient.get();
+        checkContactIsFree(patient, email, updatedPatient.getPhone());
+        
+        Map<String, Object> before = AuditSnapshots.of(patient);
+        String oldEmail = patient.getEmail();
+        String oldPhone = patient.getPhone();
         patient.setName(updatedPatient.getName());
         patient.setPhone(updatedPatient.getPhone());
-        patient.setEmail(updatedPatient.getEmail());
+        patient.setEmail(email);
         
-        return Optional.of(patientRepository.save(patient));
+        Patient savedPatient = saveUnique(patient);
+        contactFilters.changed(oldEmail, oldPhone, savedPatient.getEmail(), savedPatient.getPhone());
+        auditLog.recordUpdate(AuditSnapshots.PATIENT, patientID, before, AuditSnapshots.of(savedPatient));
+        changeFeed.recordUpsert(AuditSnapshots.PATIENT, patientID);
+        dataVersions.changed(DataSet.PATIENTS);
+        return Optional.of(savedPatient);
     }
     
     // returns the number of patients in database
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public int getPatientCount() {
-        return (int) patientRepository.count();
+        return readModel.read(view -> (int) view.patientCount(), () -> (int) patientRepository.count());
     }
     
     // checks and returns if a patient exists in database by their id
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public boolean patientExists(String patientId) {
-        return patientId != null && patientRepository.existsByPatientID(patientId);
+        return patientId != null && readModel.read(view -> view.hasPatient(patientId), () -> patientRepository.existsByPatientID(patientId));
+    }
+    
+    // refuses an email or phone number another patient of the clinic already has, most new values are ruled
+    // out by the filters without a lookup
+    private void checkContactIsFree(Patient current, String email, String phone) {
+        if ((current == null || !email.equals(current.getEmail()))
+                && contactFilters.isRegistered(ContactField.EMAIL, email, patientRepository::existsByEmail)) {
+            throw new IllegalArgumentException("A patient with this email already exists");
+        }
+
+        if ((current == null || !phone.equals(current.getPhone()))
+                && contactFilters.isRegistered(ContactField.PHONE, phone, patientRepository::existsByPhone)) {
+            throw new IllegalArgumentException("A patient with this phone number already exists");
+        }
+    }
+
+    // the appointments foreign key refuses to delete a patient who still has appointments
+    private void deleteUnreferenced(Patient patient) {
+        // series only hold the patient code, without a foreign key to refuse the delete
+        if (seriesRepository.existsByPatientID(patient.getPatientID())) {
+            throw new IllegalArgumentException("Patient " + patient.getPatientID() + " still has a recurring series, delete it first");
+        }
+        try {
+            patientRepository.delete(patient);
+            patientRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            String message = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+            if (message.contains("fk_appointments_patient")) {
+                throw new IllegalArgumentException("Patient " + patient.getPatientID() + " still has appointments, cancel them first");
+            }
+            throw e;
+        }
+    }
+
+    // two requests can pass the check with the same value at once, the unique constraints then refuse the second
+    private Patient saveUnique(Patient patient) {
+        try {
+            return patientRepository.saveAndFlush(patient);
+        } catch (DataIntegrityViolationException e) {
+            String message = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+            if (message.contains("uk_patients_clinic_email")) {
+                throw new IllegalArgumentException("A patient with this email already exists");
+            }
+            if (message.contains("uk_patients_clinic_phone")) {
+                throw new IllegalArgumentException("A patient with this phone number already exists");
+            }
+            throw e;
+        }
     }
     
     // validates information for adding patient into database
@@ -0,0 +1,72 @@
+package com.capstone.medicalapp.medical_appointment_app.sharding;
+
+// holds the clinic the current thread works for, the routing datasource and hibernate both read it from here
+public final class ClinicContext {
+
+    public static final String DEFAULT_CLINIC = "MAIN";
+
+    private static final String CLINIC_PATTERN = "^[A-Z0-9_-]{1,20}$";
+
+    // clinicID is null when the thread is allowed to see every clinic on the shard (admin fan-out)
+    private record Scope(String clinicID, String shard) {}
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private ClinicContext() {}
+
+    // returns the clinic for the current thread, falling back to the default clinic
+    public static String current() {
+        Scope scope = CURRENT.get();
+        return scope != null && scope.clinicID() != null ? scope.clinicID() : DEFAULT_CLINIC;
+    }
+
+    // the shard forced by a fan-out, or null when the shard should be picked from the clinic
+    public static String forcedShard() {
+        Scope scope = CURRENT.get();
+        return scope != null ? scope.shard() : null;
+    }
+
+    // true while a fan-out task reads every clinic stored on one shard
+    public static boolean isAllClinics() {
+        Scope scope = CURRENT.get();
+        return scope != null && scope.clinicID() == null;
+    }
+
+    public static void set(String clinicID) {
+        CURRENT.set(new Scope(normalize(clinicID), null));
+    }
+
+    public static void allClinicsOn(String shard) {
+        CURRENT.set(new Scope(null, shard));
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    // lets the shard router put back exactly what the thread had before
+    static Object capture() {
+        return CURRENT.get();
+    }
+
+    static void restore(Object captured) {
+        if (captured == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set((Scope) captured);
+        }
+    }
+
+    // clinic codes are stored upper case and limited to the column length
+    public static String normalize(String clinicID) {
+        if (clinicID == null || clinicID.trim().isEmpty()) {
+            return DEFAULT_CLINIC;
+        }
+
+        String normalized = clinicID.trim().toUpperCase();
+        if (!normalized.matches(CLINIC_PATTERN)) {
+            throw new IllegalArgumentException("Clinic ID can only contain letters, digits, hyphens and underscores (max 20)");
+        }
+        return normalized;
+    }
+}
@@ -0,0 +1,40 @@
+package com.capstone.medicalapp.medical_appointment_app.sharding;
+
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// reads the clinic for each request from the X-Clinic-ID header or the "clinic" cookie
+public class ClinicInterceptor implements HandlerInterceptor {
+
+    public static final String CLINIC_HEADER = "X-Clinic-ID";
+    public static final String CLINIC_COOKIE = "clinic";
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        String clinicID = request.getHeader(CLINIC_HEADER);
+
+        if (clinicID == null && request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (CLINIC_COOKIE.equals(cookie.getName())) {
+                    clinicID = cookie.getValue();
+                }
+            }
+        }
+
+        try {
+            ClinicContext.set(clinicID);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ClinicContext.clear();
+    }
+}
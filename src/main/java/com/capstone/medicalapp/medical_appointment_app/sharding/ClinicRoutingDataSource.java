@@ -0,0 +1,41 @@
+package com.capstone.medicalapp.medical_appointment_app.sharding;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+// picks the shard datasource for every connection request based on the clinic in ClinicContext
+public class ClinicRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String DEFAULT_SHARD = "default";
+
+    private final Map<String, String> clinicShards;
+    private final List<String> shardNames;
+
+    public ClinicRoutingDataSource(Map<String, String> clinicShards, List<String> extraShards) {
+        this.clinicShards = Map.copyOf(clinicShards);
+
+        List<String> names = new ArrayList<>();
+        names.add(DEFAULT_SHARD);
+        names.addAll(extraShards);
+        this.shardNames = List.copyOf(names);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String forced = ClinicContext.forcedShard();
+        return forced != null ? forced : shardFor(ClinicContext.current());
+    }
+
+    // returns the shard a clinic is stored on
+    public String shardFor(String clinicID) {
+        return clinicShards.getOrDefault(clinicID, DEFAULT_SHARD);
+    }
+
+    // every physical shard, the default one first
+    public List<String> getShardNames() {
+        return shardNames;
+    }
+}
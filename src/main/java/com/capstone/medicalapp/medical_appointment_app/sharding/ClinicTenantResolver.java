@@ -0,0 +1,23 @@
+package com.capstone.medicalapp.medical_appointment_app.sharding;
+
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+
+// tells hibernate which clinic the session belongs to, so the @TenantId column is set and filtered automatically
+public class ClinicTenantResolver implements CurrentTenantIdentifierResolver<String> {
+
+    @Override
+    public String resolveCurrentTenantIdentifier() {
+        return ClinicContext.current();
+    }
+
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return false;
+    }
+
+    // fan-out tasks read every clinic on their shard
+    @Override
+    public boolean isRoot(String tenantId) {
+        return ClinicContext.isAllClinics();
+    }
+}
@@ -0,0 +1,100 @@
+package com.capstone.medicalapp.medical_appointment_app.sharding;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// runs work on a specific clinic or on every shard at once for admin listings
+@Component
+public class ShardRouter implements SmartInitializingSingleton, DisposableBean {
+
+    @Autowired
+    private ClinicRoutingDataSource dataSource;
+
+    @Autowired
+    private ShardSchemaIntegrator schemaIntegrator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ExecutorService fanOutExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // hibernate only builds the schema on the default shard, so repeat it for the others once startup is done
+    @Override
+    public void afterSingletonsInstantiated() {
+        for (String shard : dataSource.getShardNames()) {
+            if (shard.equals(ClinicRoutingDataSource.DEFAULT_SHARD)) {
+                continue;
+            }
+
+            ClinicContext.allClinicsOn(shard);
+            try {
+                schemaIntegrator.applySchema();
+            } finally {
+                ClinicContext.clear();
+            }
+        }
+    }
+
+    public List<String> getShardNames() {
+        return dataSource.getShardNames();
+    }
+
+    // runs the work as the given clinic, restoring whatever clinic the thread had before
+    public <T> T inClinic(String clinicID, Supplier<T> work) {
+        Object previous = ClinicContext.capture();
+        ClinicContext.set(clinicID);
+        try {
+            return work.get();
+        } finally {
+            ClinicContext.restore(previous);
+        }
+    }
+
+    // queries every shard in parallel in read-only transactions and merges the results in shard order
+    public <T> List<T> fanOut(Supplier<? extends List<T>> query) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        List<Future<List<T>>> results = new ArrayList<>();
+        for (String shard : dataSource.getShardNames()) {
+            results.add(fanOutExecutor.submit(() -> {
+                ClinicContext.allClinicsOn(shard);
+                try {
+                    return readOnly.execute(status -> List.copyOf(query.get()));
+                } finally {
+                    ClinicContext.clear();
+                }
+            }));
+        }
+
+        List<T> merged = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            try {
+                merged.addAll(results.get(i).get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while querying shard " + dataSource.getShardNames().get(i), e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Query failed on shard " + dataSource.getShardNames().get(i), e.getCause());
+            }
+        }
+        return merged;
+    }
+
+    @Override
+    public void destroy() {
+        fanOutExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,40 @@
+package com.capstone.medicalapp.medical_appointment_app.sharding;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+
+// keeps the hibernate metadata so the ddl-auto action can be repeated on every shard, not only the default one
+public class ShardSchemaIntegrator implements Integrator {
+
+    private Metadata metadata;
+    private SessionFactoryImplementor sessionFactory;
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        this.metadata = metadata;
+        this.sessionFactory = sessionFactory;
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        this.metadata = null;
+        this.sessionFactory = null;
+    }
+
+    // runs the configured schema action against the shard the current thread routes to
+    public void applySchema() {
+        if (metadata == null) {
+            return;
+        }
+
+        Map<String, Object> settings = new HashMap<>(sessionFactory.getProperties());
+        SchemaManagementToolCoordinator.process(metadata, sessionFactory.getServiceRegistry(), settings, action -> {});
+    }
+}
@@ -0,0 +1,90 @@
+package com.capstone.medicalapp.medical_appointment_app.sharding;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+// wires the clinic routing datasource in front of JPA, spring.datasource becomes the default shard
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig implements WebMvcConfigurer {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource defaultShardDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("shard-" + ClinicRoutingDataSource.DEFAULT_SHARD);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public ClinicRoutingDataSource dataSource(HikariDataSource defaultShardDataSource, ShardingProperties shardingProperties) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ClinicRoutingDataSource.DEFAULT_SHARD, defaultShardDataSource);
+
+        List<String> extraShards = new ArrayList<>();
+        shardingProperties.getShards().forEach((name, shard) -> {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard.getUrl())
+                    .username(shard.getUsername())
+                    .password(shard.getPassword())
+                    .driverClassName(shard.getDriverClassName())
+                    .build();
+            dataSource.setPoolName("shard-" + name);
+            targets.put(name, dataSource);
+            extraShards.add(name);
+        });
+
+        Map<String, String> clinicShards = new HashMap<>();
+        shardingProperties.getClinics().forEach((clinic, shard) -> {
+            if (!targets.containsKey(shard)) {
+                throw new IllegalStateException("Clinic " + clinic + " is mapped to unknown shard " + shard);
+            }
+            clinicShards.put(ClinicContext.normalize(clinic), shard);
+        });
+
+        ClinicRoutingDataSource routingDataSource = new ClinicRoutingDataSource(clinicShards, extraShards);
+        routingDataSource.setTargetDataSources(targets);
+        routingDataSource.setDefaultTargetDataSource(defaultShardDataSource);
+        routingDataSource.setLenientFallback(false);
+        return routingDataSource;
+    }
+
+    @Bean
+    public ShardSchemaIntegrator shardSchemaIntegrator() {
+        return new ShardSchemaIntegrator();
+    }
+
+    // turns on hibernate's discriminator multi-tenancy so each query is limited to the current clinic
+    @Bean
+    public HibernatePropertiesCustomizer shardingHibernateCustomizer(ShardSchemaIntegrator shardSchemaIntegrator) {
+        return properties -> {
+            properties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER, new ClinicTenantResolver());
+            properties.put(JpaSettings.INTEGRATOR_PROVIDER, (IntegratorProvider) () -> List.of(shardSchemaIntegrator));
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ClinicInterceptor());
+    }
+}
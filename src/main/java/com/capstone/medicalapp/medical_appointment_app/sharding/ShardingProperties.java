@@ -0,0 +1,43 @@
+package com.capstone.medicalapp.medical_appointment_app.sharding;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// binds the medapp.sharding.* settings, with no shards configured everything stays on spring.datasource
+@ConfigurationProperties(prefix = "medapp.sharding")
+public class ShardingProperties {
+
+    // extra databases by shard name
+    private Map<String, Shard> shards = new LinkedHashMap<>();
+
+    // clinic code -> shard name, clinics that are not listed live on the default datasource
+    private Map<String, String> clinics = new LinkedHashMap<>();
+
+    public Map<String, Shard> getShards() {return shards;}
+    public void setShards(Map<String, Shard> shards) {this.shards = shards;}
+
+    public Map<String, String> getClinics() {return clinics;}
+    public void setClinics(Map<String, String> clinics) {this.clinics = clinics;}
+
+    // connection settings for one shard
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+
+        public String getUrl() {return url;}
+        public void setUrl(String url) {this.url = url;}
+
+        public String getUsername() {return username;}
+        public void setUsername(String username) {this.username = username;}
+
+        public String getPassword() {return password;}
+        public void setPassword(String password) {this.password = password;}
+
+        public String getDriverClassName() {return driverClassName;}
+        public void setDriverClassName(String driverClassName) {this.driverClassName = driverClassName;}
+    }
+}
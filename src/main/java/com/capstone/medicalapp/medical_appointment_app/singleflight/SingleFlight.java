@@ -0,0 +1,22 @@
+package com.capstone.medicalapp.medical_appointment_app.singleflight;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.capstone.medicalapp.medical_appointment_app.viewcache.DataSet;
+
+// concurrent calls of the annotated read with equal arguments in the same clinic share one execution and its result.
+// nothing is kept once the execution finishes, and calls made inside a transaction always run on their own. a call
+// made after a write to one of the dependsOn data sets committed never joins an execution that started before it.
+// the shared result must be treated as read-only
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SingleFlight {
+
+    // the name the calls are counted under, the method name when blank
+    String value() default "";
+
+    DataSet[] dependsOn() default {};
+}
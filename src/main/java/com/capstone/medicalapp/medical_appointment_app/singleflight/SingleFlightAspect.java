@@ -0,0 +1,90 @@
+package com.capstone.medicalapp.medical_appointment_app.singleflight;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.capstone.medicalapp.medical_appointment_app.sharding.ClinicContext;
+import com.capstone.medicalapp.medical_appointment_app.viewcache.DataSet;
+import com.capstone.medicalapp.medical_appointment_app.viewcache.DataVersions;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// runs @SingleFlight reads. the first caller of a key executes the method, callers that arrive while it runs wait
+// for the same result instead of sending the same query. it wraps the transaction advice, so a waiting caller holds
+// no connection, and the key is dropped before the result is handed out, so a later caller always reads afresh
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SingleFlightAspect {
+
+    @Autowired
+    private SingleFlightProperties properties;
+
+    @Autowired
+    private DataVersions dataVersions;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    // the data versions tell a call made after a write from one made before it
+    private record Key(String clinicID, String method, List<Object> args, List<Long> versions) {}
+
+    @Around("@annotation(com.capstone.medicalapp.medical_appointment_app.singleflight.SingleFlight)")
+    public Object coalesce(ProceedingJoinPoint call) throws Throwable {
+        // a caller inside a transaction may have written what it is about to read, only its own query will do
+        if (!properties.isEnabled() || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return call.proceed();
+        }
+
+        SingleFlight singleFlight = ((MethodSignature) call.getSignature()).getMethod().getAnnotation(SingleFlight.class);
+        String name = singleFlight.value().isEmpty() ? call.getSignature().getName() : singleFlight.value();
+        List<Long> versions = new ArrayList<>(singleFlight.dependsOn().length);
+        for (DataSet dataSet : singleFlight.dependsOn()) {
+            versions.add(dataVersions.current(dataSet));
+        }
+        Key key = new Key(ClinicContext.current(), call.getSignature().toLongString(), Arrays.asList(call.getArgs()), versions);
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, flight);
+        if (running != null) {
+            counter(name, "coalesced").increment();
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause();
+            }
+        }
+
+        counter(name, "executed").increment();
+        try {
+            Object result = call.proceed();
+            inFlight.remove(key, flight);
+            flight.complete(result);
+            return result;
+        } catch (Throwable e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Counter counter(String name, String result) {
+        return meterRegistry.counter("medapp.singleflight.calls", "name", name, "result", result);
+    }
+}
@@ -0,0 +1,13 @@
+package com.capstone.medicalapp.medical_appointment_app.singleflight;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// binds the medapp.single-flight.* settings
+@ConfigurationProperties(prefix = "medapp.single-flight")
+public class SingleFlightProperties {
+
+    private boolean enabled = true;
+
+    public boolean isEnabled() {return enabled;}
+    public void setEnabled(boolean enabled) {this.enabled = enabled;}
+}
@@ -0,0 +1,72 @@
+package com.capstone.medicalapp.medical_appointment_app.snapshot;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// a run of appointments in column order. the patient is its position in the snapshot's patients, the doctor an
+// entry of the doctor dictionary, dates and created_at are differences to the previous row and updated_at the
+// difference to the row's own created_at (0 when it is null)
+final class AppointmentSegment {
+
+    private static final int COLUMNS = 8;
+
+    record Row(String code, int patient, int doctor, LocalDate date, String description, String seriesCode,
+            LocalDateTime createdAt, LocalDateTime updatedAt) {}
+
+    private final Columns.Out codes = new Columns.Out();
+    private final Columns.Out patients = new Columns.Out();
+    private final Columns.Out doctors = new Columns.Out();
+    private final Columns.Out dates = new Columns.Out();
+    private final Columns.Out descriptions = new Columns.Out();
+    private final Columns.Out series = new Columns.Out();
+    private final Columns.Out created = new Columns.Out();
+    private final Columns.Out updated = new Columns.Out();
+    private long previousDay;
+    private long previousCreated;
+    private int rows;
+
+    int rows() {return rows;}
+
+    void add(Row row) {
+        codes.frontCoded(row.code());
+        patients.varLong(row.patient());
+        doctors.varLong(row.doctor());
+        long day = row.date().toEpochDay();
+        dates.zigzag(day - previousDay);
+        previousDay = day;
+        descriptions.string(row.description());
+        series.nullableString(row.seriesCode());
+        long createdAt = Columns.micros(row.createdAt());
+        created.zigzag(createdAt - previousCreated);
+        previousCreated = createdAt;
+        updated.varLong(row.updatedAt() == null ? 0 : Columns.zigzag(Columns.micros(row.updatedAt()) - createdAt) + 1);
+        rows++;
+    }
+
+    byte[] encode() {
+        return Columns.join(codes, patients, doctors, dates, descriptions, series, created, updated);
+    }
+
+    static List<Row> decode(ByteBuffer segment, int rows) {
+        Columns.In[] columns = Columns.split(segment, COLUMNS);
+        List<Row> decoded = new ArrayList<>(rows);
+        long day = 0;
+        long createdAt = 0;
+        for (int i = 0; i < rows; i++) {
+            String code = columns[0].frontCoded();
+            int patient = columns[1].varInt();
+            int doctor = columns[2].varInt();
+            day += columns[3].zigzag();
+            String description = columns[4].string();
+            String seriesCode = columns[5].nullableString();
+            createdAt += columns[6].zigzag();
+            long updatedAt = columns[7].varLong();
+            decoded.add(new Row(code, patient, doctor, LocalDate.ofEpochDay(day), description, seriesCode, Columns.timestamp(createdAt),
+                    updatedAt == 0 ? null : Columns.timestamp(createdAt + Columns.unzigzag(updatedAt - 1))));
+        }
+        return decoded;
+    }
+}
@@ -0,0 +1,196 @@
+package com.capstone.medicalapp.medical_appointment_app.snapshot;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+// the encodings a snapshot column is made of: unsigned varints, zigzag varints for signed deltas, length-prefixed
+// utf-8 strings and front-coded strings, which keep only what differs from the previous value
+final class Columns {
+
+    private Columns() {}
+
+    // timestamps are kept as microseconds of the wall clock value, so a restore in another time zone gives the same value
+    static long micros(LocalDateTime value) {
+        return value.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + value.getNano() / 1000;
+    }
+
+    static LocalDateTime timestamp(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000), (int) Math.floorMod(micros, 1_000_000) * 1000, ZoneOffset.UTC);
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    // a segment is the number of columns, each column's length and then the columns one after another
+    static byte[] join(Out... columns) {
+        Out segment = new Out();
+        segment.varLong(columns.length);
+        for (Out column : columns) {
+            segment.varLong(column.size());
+        }
+        for (Out column : columns) {
+            segment.bytes(column);
+        }
+        return segment.toByteArray();
+    }
+
+    static In[] split(ByteBuffer segment, int expected) {
+        In in = new In(segment);
+        int count = in.varInt();
+        if (count != expected) {
+            throw new IllegalStateException("Snapshot segment has " + count + " columns, expected " + expected);
+        }
+        int[] lengths = new int[count];
+        for (int i = 0; i < count; i++) {
+            lengths[i] = in.varInt();
+        }
+        In[] columns = new In[count];
+        for (int i = 0; i < count; i++) {
+            columns[i] = new In(in.slice(lengths[i]));
+        }
+        return columns;
+    }
+
+    static final class Out {
+
+        private byte[] bytes = new byte[1024];
+        private int size;
+        private String previous = "";
+
+        int size() {return size;}
+
+        void varLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void zigzag(long value) {
+            varLong(Columns.zigzag(value));
+        }
+
+        void string(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            varLong(utf8.length);
+            raw(utf8, utf8.length);
+        }
+
+        // 0 for null, otherwise the byte length plus one
+        void nullableString(String value) {
+            if (value == null) {
+                varLong(0);
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            varLong(utf8.length + 1L);
+            raw(utf8, utf8.length);
+        }
+
+        // how many leading characters it shares with the previous value, then the rest
+        void frontCoded(String value) {
+            int shared = 0;
+            int max = Math.min(previous.length(), value.length());
+            while (shared < max && previous.charAt(shared) == value.charAt(shared)) {
+                shared++;
+            }
+            varLong(shared);
+            string(value.substring(shared));
+            previous = value;
+        }
+
+        void bytes(Out column) {
+            raw(column.bytes, column.size);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+
+        private void raw(byte[] value, int length) {
+            ensure(length);
+            System.arraycopy(value, 0, bytes, size, length);
+            size += length;
+        }
+
+        private void ensure(int more) {
+            if (size + more > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + more));
+            }
+        }
+    }
+
+    static final class In {
+
+        private final ByteBuffer buffer;
+        private String previous = "";
+        private byte[] scratch = new byte[64];
+
+        In(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        boolean hasRemaining() {return buffer.hasRemaining();}
+
+        long varLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IllegalStateException("Malformed varint in snapshot");
+        }
+
+        int varInt() {
+            return Math.toIntExact(varLong());
+        }
+
+        long zigzag() {
+            return unzigzag(varLong());
+        }
+
+        String string() {
+            return utf8(varInt());
+        }
+
+        String nullableString() {
+            int length = varInt();
+            return length == 0 ? null : utf8(length - 1);
+        }
+
+        String frontCoded() {
+            int shared = varInt();
+            String value = previous.substring(0, shared) + string();
+            previous = value;
+            return value;
+        }
+
+        // the next length bytes as their own buffer, this one moves past them
+        ByteBuffer slice(int length) {
+            ByteBuffer slice = buffer.slice(buffer.position(), length);
+            buffer.position(buffer.position() + length);
+            return slice;
+        }
+
+        private String utf8(int length) {
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.capstone.medicalapp.medical_appointment_app.snapshot;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// a run of patients in column order: front-coded codes, names, phones and emails, created_at as the difference to
+// the previous row and updated_at as the difference to the row's own created_at (0 when it is null)
+final class PatientSegment {
+
+    private static final int COLUMNS = 6;
+
+    record Row(String code, String name, String phone, String email, LocalDateTime createdAt, LocalDateTime updatedAt) {}
+
+    private final Columns.Out codes = new Columns.Out();
+    private final Columns.Out names = new Columns.Out();
+    private final Columns.Out phones = new Columns.Out();
+    private final Columns.Out emails = new Columns.Out();
+    private final Columns.Out created = new Columns.Out();
+    private final Columns.Out updated = new Columns.Out();
+    private long previousCreated;
+    private int rows;
+
+    int rows() {return rows;}
+
+    void add(Row row) {
+        codes.frontCoded(row.code());
+        names.string(row.name());
+        phones.string(row.phone());
+        emails.string(row.email());
+        long createdAt = Columns.micros(row.createdAt());
+        created.zigzag(createdAt - previousCreated);
+        previousCreated = createdAt;
+        updated.varLong(row.updatedAt() == null ? 0 : Columns.zigzag(Columns.micros(row.updatedAt()) - createdAt) + 1);
+        rows++;
+    }
+
+    byte[] encode() {
+        return Columns.join(codes, names, phones, emails, created, updated);
+    }
+
+    static List<Row> decode(ByteBuffer segment, int rows) {
+        Columns.In[] columns = Columns.split(segment, COLUMNS);
+        List<Row> decoded = new ArrayList<>(rows);
+        long createdAt = 0;
+        for (int i = 0; i < rows; i++) {
+            createdAt += columns[4].zigzag();
+            long updatedAt = columns[5].varLong();
+            decoded.add(new Row(columns[0].frontCoded(), columns[1].string(), columns[2].string(), columns[3].string(),
+                    Columns.timestamp(createdAt), updatedAt == 0 ? null : Columns.timestamp(createdAt + Columns.unzigzag(updatedAt - 1))));
+        }
+        return decoded;
+    }
+}
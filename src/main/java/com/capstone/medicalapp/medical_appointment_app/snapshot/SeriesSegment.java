@@ -0,0 +1,95 @@
+package com.capstone.medicalapp.medical_appointment_app.snapshot;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// a run of appointment series in column order. the patient and the doctor are kept like an appointment's, the start
+// date as the difference to the previous row, the end date as the difference to the start and the skipped dates as
+// their number followed by the difference of each to the one before it, starting from the start date
+final class SeriesSegment {
+
+    private static final int COLUMNS = 12;
+
+    record Row(String code, int patient, int doctor, String description, LocalDate startDate, LocalDate endDate, String frequency,
+            int interval, int dayOfWeek, List<LocalDate> skippedDates, LocalDateTime createdAt, LocalDateTime updatedAt) {}
+
+    private final Columns.Out codes = new Columns.Out();
+    private final Columns.Out patients = new Columns.Out();
+    private final Columns.Out doctors = new Columns.Out();
+    private final Columns.Out descriptions = new Columns.Out();
+    private final Columns.Out starts = new Columns.Out();
+    private final Columns.Out ends = new Columns.Out();
+    private final Columns.Out frequencies = new Columns.Out();
+    private final Columns.Out intervals = new Columns.Out();
+    private final Columns.Out weekdays = new Columns.Out();
+    private final Columns.Out skips = new Columns.Out();
+    private final Columns.Out created = new Columns.Out();
+    private final Columns.Out updated = new Columns.Out();
+    private long previousStart;
+    private long previousCreated;
+    private int rows;
+
+    int rows() {return rows;}
+
+    void add(Row row) {
+        codes.frontCoded(row.code());
+        patients.varLong(row.patient());
+        doctors.varLong(row.doctor());
+        descriptions.string(row.description());
+        long start = row.startDate().toEpochDay();
+        starts.zigzag(start - previousStart);
+        previousStart = start;
+        ends.zigzag(row.endDate().toEpochDay() - start);
+        frequencies.string(row.frequency());
+        intervals.varLong(row.interval());
+        weekdays.varLong(row.dayOfWeek());
+        skips.varLong(row.skippedDates().size());
+        long previousSkip = start;
+        for (LocalDate skipped : row.skippedDates()) {
+            skips.zigzag(skipped.toEpochDay() - previousSkip);
+            previousSkip = skipped.toEpochDay();
+        }
+        long createdAt = Columns.micros(row.createdAt());
+        created.zigzag(createdAt - previousCreated);
+        previousCreated = createdAt;
+        updated.varLong(row.updatedAt() == null ? 0 : Columns.zigzag(Columns.micros(row.updatedAt()) - createdAt) + 1);
+        rows++;
+    }
+
+    byte[] encode() {
+        return Columns.join(codes, patients, doctors, descriptions, starts, ends, frequencies, intervals, weekdays, skips, created, updated);
+    }
+
+    static List<Row> decode(ByteBuffer segment, int rows) {
+        Columns.In[] columns = Columns.split(segment, COLUMNS);
+        List<Row> decoded = new ArrayList<>(rows);
+        long start = 0;
+        long createdAt = 0;
+        for (int i = 0; i < rows; i++) {
+            String code = columns[0].frontCoded();
+            int patient = columns[1].varInt();
+            int doctor = columns[2].varInt();
+            String description = columns[3].string();
+            start += columns[4].zigzag();
+            LocalDate endDate = LocalDate.ofEpochDay(start + columns[5].zigzag());
+            String frequency = columns[6].string();
+            int interval = columns[7].varInt();
+            int dayOfWeek = columns[8].varInt();
+            int skipCount = columns[9].varInt();
+            List<LocalDate> skipped = new ArrayList<>(skipCount);
+            long skip = start;
+            for (int j = 0; j < skipCount; j++) {
+                skip += columns[9].zigzag();
+                skipped.add(LocalDate.ofEpochDay(skip));
+            }
+            createdAt += columns[10].zigzag();
+            long updatedAt = columns[11].varLong();
+            decoded.add(new Row(code, patient, doctor, description, LocalDate.ofEpochDay(start), endDate, frequency, interval, dayOfWeek,
+                    skipped, Columns.timestamp(createdAt), updatedAt == 0 ? null : Columns.timestamp(createdAt + Columns.unzigzag(updatedAt - 1))));
+        }
+        return decoded;
+    }
+}
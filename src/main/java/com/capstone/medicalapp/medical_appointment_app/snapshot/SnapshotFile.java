@@ -0,0 +1,259 @@
+package com.capstone.medicalapp.medical_appointment_app.snapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+// the snapshot container: a header with the format version, then checksummed blocks (column segments of the
+// patients, appointments and series and the doctor dictionary), then a footer listing every block and a fixed size
+// trailer pointing at the footer. a reader checks the trailer, the footer and then each block's crc32c before it trusts any of them
+final class SnapshotFile {
+
+    // 2 added the appointment series
+    static final int VERSION = 2;
+
+    static final int PATIENTS = 1;
+    static final int APPOINTMENTS = 2;
+    static final int DOCTORS = 3;
+    static final int SERIES = 4;
+
+    private static final byte[] MAGIC = "MEDSNAP\0".getBytes(StandardCharsets.US_ASCII);
+    private static final int HEADER_LENGTH = MAGIC.length + Integer.BYTES;
+    // footer offset, footer length, footer crc, magic
+    private static final int TRAILER_LENGTH = Long.BYTES + Integer.BYTES + Integer.BYTES + MAGIC.length;
+
+    private SnapshotFile() {}
+
+    record Segment(int table, long firstRow, int rows, long offset, int length, int crc) {}
+
+    record Footer(String clinicID, LocalDateTime createdAt, long patients, long appointments, long series, List<Segment> segments) {
+
+        List<Segment> segments(int table) {
+            return segments.stream().filter(segment -> segment.table() == table).toList();
+        }
+    }
+
+    static int crc(ByteBuffer bytes) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes.duplicate());
+        return (int) crc.getValue();
+    }
+
+    // writes to a temporary file next to the target and moves it into place once it is complete
+    static final class Writer implements Closeable {
+
+        private final Path file;
+        private final Path partial;
+        private final FileChannel channel;
+        private final List<Segment> segments = new ArrayList<>();
+        private long position;
+        private boolean finished;
+
+        Writer(Path file) {
+            this.file = file;
+            this.partial = file.resolveSibling(file.getFileName() + ".partial");
+            try {
+                if (file.getParent() != null) {
+                    Files.createDirectories(file.getParent());
+                }
+                channel = FileChannel.open(partial, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH).put(MAGIC).putInt(VERSION).flip();
+                write(header);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not create snapshot " + file, e);
+            }
+        }
+
+        long position() {return position;}
+
+        void block(int table, long firstRow, int rows, byte[] data) {
+            ByteBuffer bytes = ByteBuffer.wrap(data);
+            segments.add(new Segment(table, firstRow, rows, position, data.length, crc(bytes)));
+            write(bytes);
+        }
+
+        void finish(String clinicID, LocalDateTime createdAt, long patients, long appointments, long series) {
+            Columns.Out footer = new Columns.Out();
+            footer.string(clinicID);
+            footer.zigzag(Columns.micros(createdAt));
+            footer.varLong(patients);
+            footer.varLong(appointments);
+            footer.varLong(series);
+            footer.varLong(segments.size());
+            for (Segment segment : segments) {
+                footer.varLong(segment.table());
+                footer.varLong(segment.firstRow());
+                footer.varLong(segment.rows());
+                footer.varLong(segment.offset());
+                footer.varLong(segment.length());
+                footer.varLong(Integer.toUnsignedLong(segment.crc()));
+            }
+            ByteBuffer bytes = ByteBuffer.wrap(footer.toByteArray());
+            long offset = position;
+            int crc = crc(bytes);
+            write(bytes);
+            write(ByteBuffer.allocate(TRAILER_LENGTH).putLong(offset).putInt(bytes.capacity()).putInt(crc).put(MAGIC).flip());
+            try {
+                channel.force(true);
+                channel.close();
+                Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not finish snapshot " + file, e);
+            }
+            finished = true;
+        }
+
+        private void write(ByteBuffer bytes) {
+            try {
+                while (bytes.hasRemaining()) {
+                    position += channel.write(bytes);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write snapshot " + file, e);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (finished) {
+                return;
+            }
+            try {
+                channel.close();
+                Files.deleteIfExists(partial);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not remove unfinished snapshot " + partial, e);
+            }
+        }
+    }
+
+    // blocks are memory mapped read-only, nothing is copied until a column is decoded
+    static final class Reader implements Closeable {
+
+        private final Path file;
+        private final FileChannel channel;
+        private final Footer footer;
+
+        Reader(Path file) {
+            this.file = file;
+            try {
+                channel = FileChannel.open(file, StandardOpenOption.READ);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not open snapshot " + file, e);
+            }
+            try {
+                footer = readFooter();
+            } catch (RuntimeException e) {
+                close();
+                throw e;
+            }
+        }
+
+        Footer footer() {return footer;}
+
+        ByteBuffer map(Segment segment) {
+            return map(segment.offset(), segment.length());
+        }
+
+        // the block's bytes once their checksum matched
+        ByteBuffer verified(Segment segment) {
+            ByteBuffer bytes = map(segment);
+            if (crc(bytes) != segment.crc()) {
+                throw new IllegalStateException("Snapshot " + file + " is corrupt: checksum mismatch in the block at offset " + segment.offset());
+            }
+            return bytes;
+        }
+
+        private Footer readFooter() {
+            long size;
+            try {
+                size = channel.size();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read snapshot " + file, e);
+            }
+            if (size < HEADER_LENGTH + TRAILER_LENGTH) {
+                throw new IllegalStateException(file + " is not a snapshot, it is too short");
+            }
+            ByteBuffer header = map(0, HEADER_LENGTH);
+            if (!hasMagic(header)) {
+                throw new IllegalStateException(file + " is not a snapshot");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IllegalStateException("Snapshot " + file + " has format version " + version + ", this application reads version " + VERSION);
+            }
+            ByteBuffer trailer = map(size - TRAILER_LENGTH, TRAILER_LENGTH);
+            long offset = trailer.getLong();
+            int length = trailer.getInt();
+            int crc = trailer.getInt();
+            if (!hasMagic(trailer) || offset < HEADER_LENGTH || offset + length > size - TRAILER_LENGTH) {
+                throw new IllegalStateException("Snapshot " + file + " is incomplete or corrupt");
+            }
+            ByteBuffer bytes = map(offset, length);
+            if (crc(bytes) != crc) {
+                throw new IllegalStateException("Snapshot " + file + " is corrupt: checksum mismatch in the footer");
+            }
+
+            Columns.In in = new Columns.In(bytes);
+            String clinicID = in.string();
+            LocalDateTime createdAt = Columns.timestamp(in.zigzag());
+            long patients = in.varLong();
+            long appointments = in.varLong();
+            long series = in.varLong();
+            int count = in.varInt();
+            List<Segment> segments = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Segment segment = new Segment(in.varInt(), in.varLong(), in.varInt(), in.varLong(), in.varInt(), (int) in.varLong());
+                if (segment.offset() < HEADER_LENGTH || segment.offset() + segment.length() > offset) {
+                    throw new IllegalStateException("Snapshot " + file + " is corrupt: a block lies outside the data");
+                }
+                segments.add(segment);
+            }
+            Footer footer = new Footer(clinicID, createdAt, patients, appointments, series, segments);
+            if (rows(footer.segments(PATIENTS)) != patients || rows(footer.segments(APPOINTMENTS)) != appointments
+                    || rows(footer.segments(SERIES)) != series) {
+                throw new IllegalStateException("Snapshot " + file + " is corrupt: its segments do not add up to its row counts");
+            }
+            return footer;
+        }
+
+        private static long rows(List<Segment> segments) {
+            return segments.stream().mapToLong(Segment::rows).sum();
+        }
+
+        private static boolean hasMagic(ByteBuffer bytes) {
+            byte[] magic = new byte[MAGIC.length];
+            bytes.get(magic);
+            return Arrays.equals(magic, MAGIC);
+        }
+
+        private ByteBuffer map(long offset, int length) {
+            try {
+                return channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read snapshot " + file, e);
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not close snapshot " + file, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.capstone.medicalapp.medical_appointment_app.snapshot;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// binds the medapp.snapshot.* settings, read by the snapshot profile and by benchmarks
+@ConfigurationProperties(prefix = "medapp.snapshot")
+public class SnapshotProperties {
+
+    // what the snapshot profile does once started: write, restore or verify
+    private String action = "write";
+    private String file = "clinic.medsnap";
+    // the clinic to write, or to restore into; a restore without one goes back into the clinic the snapshot was taken of
+    private String clinic;
+    // rows per checksummed segment, the unit a restore worker decodes at once
+    private int segmentRows = 65_536;
+    // threads restoring segments, 0 = one per cpu
+    private int workers = 0;
+    // rows per insert transaction during a restore
+    private int batchSize = 5000;
+
+    public String getAction() {return action;}
+    public void setAction(String action) {this.action = action;}
+
+    public String getFile() {return file;}
+    public void setFile(String file) {this.file = file;}
+
+    public String getClinic() {return clinic;}
+    public void setClinic(String clinic) {this.clinic = clinic;}
+
+    public int getSegmentRows() {return segmentRows;}
+    public void setSegmentRows(int segmentRows) {this.segmentRows = segmentRows;}
+
+    public int getWorkers() {return workers;}
+    public void setWorkers(int workers) {this.workers = workers;}
+
+    public int getBatchSize() {return batchSize;}
+    public void setBatchSize(int batchSize) {this.batchSize = batchSize;}
+}
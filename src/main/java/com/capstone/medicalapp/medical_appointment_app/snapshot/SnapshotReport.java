@@ -0,0 +1,9 @@
+package com.capstone.medicalapp.medical_appointment_app.snapshot;
+
+// what a snapshot write or restore moved and how long it took
+public record SnapshotReport(String file, String clinicID, long patients, long appointments, long series, long bytes, int workers, long millis) {
+
+    public long rowsPerSecond() {
+        return (patients + appointments + series) * 1000 / Math.max(1, millis);
+    }
+}
@@ -0,0 +1,40 @@
+package com.capstone.medicalapp.medical_appointment_app.snapshot;
+
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import com.capstone.medicalapp.medical_appointment_app.sharding.ClinicContext;
+
+// with the snapshot profile the application writes, restores or verifies the medapp.snapshot.file once it has started and exits
+@Component
+@Profile("snapshot")
+public class SnapshotRunner implements ApplicationRunner {
+
+    @Autowired
+    private SnapshotService snapshotService;
+
+    @Autowired
+    private SnapshotProperties properties;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Path file = Path.of(properties.getFile());
+        switch (properties.getAction() == null ? "" : properties.getAction().trim()) {
+            case "write" -> snapshotService.write(file, properties.getClinic() == null ? ClinicContext.DEFAULT_CLINIC : properties.getClinic());
+            case "restore" -> snapshotService.restore(file, properties.getClinic());
+            case "verify" -> snapshotService.verify(file);
+            default -> throw new IllegalArgumentException("Snapshot action must be write, restore or verify");
+        }
+        System.exit(SpringApplication.exit(context));
+    }
+}
@@ -0,0 +1,522 @@
+package com.capstone.medicalapp.medical_appointment_app.snapshot;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.capstone.medicalapp.medical_appointment_app.dedup.ContactFilters;
+import com.capstone.medicalapp.medical_appointment_app.readmodel.ReadModel;
+import com.capstone.medicalapp.medical_appointment_app.repository.MultiRowInsert;
+import com.capstone.medicalapp.medical_appointment_app.sharding.ShardRouter;
+import com.capstone.medicalapp.medical_appointment_app.snapshot.SnapshotFile.Footer;
+import com.capstone.medicalapp.medical_appointment_app.snapshot.SnapshotFile.Segment;
+import com.capstone.medicalapp.medical_appointment_app.viewcache.DataSet;
+import com.capstone.medicalapp.medical_appointment_app.viewcache.DataVersions;
+
+// saves a clinic's patients, appointments and appointment series to a compact binary snapshot and loads one back into
+// an empty clinic. a write streams the tables in one repeatable-read transaction, so the snapshot is consistent without stopping
+// the clinic. a restore checks every checksum before it inserts anything, then loads the segments in parallel, each
+// batch a multi-row insert in its own transaction; if any of it fails the clinic is emptied again. restored rows skip
+// the audit log and the change feed like generated ones, they are a copy and not a history of changes
+@Service
+public class SnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(SnapshotService.class);
+
+    private static final String SELECT_PATIENTS = "SELECT patient_id, patient_code, name, phone, email, created_at, updated_at"
+            + " FROM patients WHERE clinic_code = ?";
+    private static final String SELECT_APPOINTMENTS = "SELECT appointment_code, patient_id, doctor_name, appointment_date, description,"
+            + " series_code, created_at, updated_at FROM appointments WHERE clinic_code = ? ORDER BY appointment_id";
+    private static final String INSERT_PATIENT = "INSERT INTO patients (patient_code, name, phone, email, clinic_code, created_at, updated_at)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_APPOINTMENT = "INSERT INTO appointments (appointment_code, patient_code, patient_id, doctor_name,"
+            + " appointment_date, description, series_code, clinic_code, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    // series name their patient by code, the join finds the key their position is looked up by
+    private static final String SELECT_SERIES = "SELECT s.series_code, p.patient_id, s.doctor_name, s.description, s.start_date, s.end_date,"
+            + " s.frequency, s.repeat_interval, s.day_of_week, s.created_at, s.updated_at, s.series_id FROM appointment_series s"
+            + " LEFT JOIN patients p ON p.patient_code = s.patient_code AND p.clinic_code = s.clinic_code WHERE s.clinic_code = ? ORDER BY s.series_id";
+    private static final String SELECT_SKIPS = "SELECT k.series_id, k.occurrence_date FROM appointment_series_skips k"
+            + " JOIN appointment_series s ON s.series_id = k.series_id WHERE s.clinic_code = ? ORDER BY k.series_id, k.occurrence_date";
+    private static final String INSERT_SERIES = "INSERT INTO appointment_series (series_code, patient_code, doctor_name, description,"
+            + " start_date, end_date, frequency, repeat_interval, day_of_week, clinic_code, created_at, updated_at)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_SKIP = "INSERT INTO appointment_series_skips (series_id, occurrence_date) VALUES (?, ?)";
+    private static final String SELECT_KEYS = "SELECT patient_code, patient_id FROM patients WHERE clinic_code = ?";
+    private static final int FETCH_SIZE = 10_000;
+
+    @Autowired
+    private SnapshotProperties properties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ContactFilters contactFilters;
+
+    @Autowired
+    private DataVersions dataVersions;
+
+    @Autowired
+    private ReadModel readModel;
+
+    public SnapshotReport write(Path file, String clinicID) {
+        String clinic = clinicID == null ? "" : clinicID.trim();
+        if (clinic.isEmpty()) {
+            throw new IllegalArgumentException("Clinic cannot be blank");
+        }
+        if (properties.getSegmentRows() < 1) {
+            throw new IllegalArgumentException("Segment rows must be at least 1");
+        }
+        TransactionTemplate consistent = new TransactionTemplate(transactionManager);
+        consistent.setReadOnly(true);
+        consistent.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+
+        long start = System.nanoTime();
+        SnapshotReport report = shardRouter.inClinic(clinic, () -> consistent.execute(status -> {
+            try (SnapshotFile.Writer out = new SnapshotFile.Writer(file)) {
+                Writing writing = new Writing(out, properties.getSegmentRows());
+                jdbcTemplate.query(streaming(SELECT_PATIENTS, clinic), writing::patient);
+                writing.flushPatients();
+                writing.patientsDone();
+                jdbcTemplate.query(streaming(SELECT_APPOINTMENTS, clinic), writing::appointment);
+                writing.flushAppointments();
+                jdbcTemplate.query(streaming(SELECT_SKIPS, clinic), writing::skip);
+                jdbcTemplate.query(streaming(SELECT_SERIES, clinic), writing::series);
+                writing.flushSeries();
+                writing.doctors();
+                out.finish(clinic, LocalDateTime.now(), writing.patients, writing.appointments, writing.series);
+                return new SnapshotReport(file.toString(), clinic, writing.patients, writing.appointments, writing.series, out.position(), 1,
+                        (System.nanoTime() - start) / 1_000_000);
+            }
+        }));
+        log.info("Wrote {} patients, {} appointments and {} series of clinic {} to {} ({} bytes) in {} ms ({} rows/s)", report.patients(),
+                report.appointments(), report.series(), clinic, file, report.bytes(), report.millis(), report.rowsPerSecond());
+        return report;
+    }
+
+    // restores into the given clinic, or the one the snapshot was taken of when it is null
+    public SnapshotReport restore(Path file, String clinicID) {
+        if (properties.getBatchSize() < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+        if (properties.getWorkers() < 0) {
+            throw new IllegalArgumentException("Workers cannot be negative");
+        }
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("Snapshot " + file + " does not exist");
+        }
+        int workers = properties.getWorkers() > 0 ? properties.getWorkers() : Runtime.getRuntime().availableProcessors();
+
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        try (SnapshotFile.Reader in = new SnapshotFile.Reader(file)) {
+            Footer footer = in.footer();
+            String clinic = clinicID == null || clinicID.isBlank() ? footer.clinicID() : clinicID.trim();
+            if (footer.patients() > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("Snapshot " + file + " has more patients than a restore can hold");
+            }
+
+            // nothing goes in before every block is known to be intact
+            inParallel(pool, footer.segments(), in::verified);
+            List<String> doctors = doctors(in, footer);
+            long[] existing = shardRouter.inClinic(clinic, () -> new long[] {
+                    jdbcTemplate.queryForObject("SELECT COUNT(*) FROM patients WHERE clinic_code = ?", Long.class, clinic),
+                    jdbcTemplate.queryForObject("SELECT COUNT(*) FROM appointments WHERE clinic_code = ?", Long.class, clinic),
+                    jdbcTemplate.queryForObject("SELECT COUNT(*) FROM appointment_series WHERE clinic_code = ?", Long.class, clinic)});
+            if (existing[0] > 0 || existing[1] > 0 || existing[2] > 0) {
+                throw new IllegalStateException("Clinic " + clinic + " already has " + existing[0] + " patients, " + existing[1]
+                        + " appointments and " + existing[2] + " series, a snapshot is only restored into an empty clinic");
+            }
+
+            try {
+                String[] codes = new String[(int) footer.patients()];
+                inParallel(pool, footer.segments(SnapshotFile.PATIENTS), segment -> insertPatients(in, segment, clinic, codes));
+
+                long[] keys = keys(clinic, codes);
+                inParallel(pool, footer.segments(SnapshotFile.APPOINTMENTS), segment -> insertAppointments(in, segment, clinic, codes, keys, doctors));
+                Map<String, List<LocalDate>> skips = new ConcurrentHashMap<>();
+                inParallel(pool, footer.segments(SnapshotFile.SERIES), segment -> insertSeries(in, segment, clinic, codes, doctors, skips));
+                insertSkips(clinic, skips);
+                changed(clinic);
+            } catch (RuntimeException e) {
+                log.warn("Restoring {} into clinic {} failed, removing the rows restored so far", file, clinic);
+                discard(clinic);
+                throw e;
+            }
+
+            SnapshotReport report = new SnapshotReport(file.toString(), clinic, footer.patients(), footer.appointments(), footer.series(),
+                    Files.size(file), workers, (System.nanoTime() - start) / 1_000_000);
+            log.info("Restored {} patients, {} appointments and {} series from {} into clinic {} in {} ms ({} rows/s, {} workers)",
+                    report.patients(), report.appointments(), report.series(), file, clinic, report.millis(), report.rowsPerSecond(), workers);
+            return report;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read snapshot " + file, e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // reads the whole snapshot without touching the database: every checksum, every row and every reference
+    public SnapshotReport verify(Path file) {
+        if (!Files.isRegularFile(file)) {
+            throw new IllegalArgumentException("Snapshot " + file + " does not exist");
+        }
+        int workers = properties.getWorkers() > 0 ? properties.getWorkers() : Runtime.getRuntime().availableProcessors();
+
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        try (SnapshotFile.Reader in = new SnapshotFile.Reader(file)) {
+            Footer footer = in.footer();
+            int doctors = doctors(in, footer).size();
+            inParallel(pool, footer.segments(), segment -> {
+                ByteBuffer bytes = in.verified(segment);
+                if (segment.table() == SnapshotFile.PATIENTS) {
+                    PatientSegment.decode(bytes, segment.rows());
+                } else if (segment.table() == SnapshotFile.APPOINTMENTS) {
+                    for (AppointmentSegment.Row row : AppointmentSegment.decode(bytes, segment.rows())) {
+                        if (row.patient() >= footer.patients() || row.doctor() >= doctors) {
+                            throw new IllegalStateException("Snapshot appointment " + row.code() + " refers to a patient or doctor it does not contain");
+                        }
+                    }
+                } else if (segment.table() == SnapshotFile.SERIES) {
+                    for (SeriesSegment.Row row : SeriesSegment.decode(bytes, segment.rows())) {
+                        if (row.patient() >= footer.patients() || row.doctor() >= doctors) {
+                            throw new IllegalStateException("Snapshot series " + row.code() + " refers to a patient or doctor it does not contain");
+                        }
+                    }
+                }
+            });
+            return new SnapshotReport(file.toString(), footer.clinicID(), footer.patients(), footer.appointments(), footer.series(),
+                    Files.size(file), workers, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read snapshot " + file, e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void insertPatients(SnapshotFile.Reader in, Segment segment, String clinic, String[] codes) {
+        List<PatientSegment.Row> rows = PatientSegment.decode(in.map(segment), segment.rows());
+        inBatches(clinic, rows, row -> {
+            contactFilters.added(row.email(), row.phone());
+            return new Object[] {row.code(), row.name(), row.phone(), row.email(), clinic, row.createdAt(), row.updatedAt()};
+        }, INSERT_PATIENT);
+        for (int i = 0; i < rows.size(); i++) {
+            codes[Math.toIntExact(segment.firstRow() + i)] = rows.get(i).code();
+        }
+    }
+
+    private void insertAppointments(SnapshotFile.Reader in, Segment segment, String clinic, String[] codes, long[] keys, List<String> doctors) {
+        List<AppointmentSegment.Row> rows = AppointmentSegment.decode(in.map(segment), segment.rows());
+        inBatches(clinic, rows, row -> {
+            if (row.patient() >= codes.length || row.doctor() >= doctors.size()) {
+                throw new IllegalStateException("Snapshot appointment " + row.code() + " refers to a patient or doctor it does not contain");
+            }
+            return new Object[] {row.code(), codes[row.patient()], keys[row.patient()], doctors.get(row.doctor()), row.date(),
+                    row.description(), row.seriesCode(), clinic, row.createdAt(), row.updatedAt()};
+        }, INSERT_APPOINTMENT);
+    }
+
+    private void insertSeries(SnapshotFile.Reader in, Segment segment, String clinic, String[] codes, List<String> doctors,
+            Map<String, List<LocalDate>> skips) {
+        List<SeriesSegment.Row> rows = SeriesSegment.decode(in.map(segment), segment.rows());
+        inBatches(clinic, rows, row -> {
+            if (row.patient() >= codes.length || row.doctor() >= doctors.size()) {
+                throw new IllegalStateException("Snapshot series " + row.code() + " refers to a patient or doctor it does not contain");
+            }
+            return new Object[] {row.code(), codes[row.patient()], doctors.get(row.doctor()), row.description(), row.startDate(),
+                    row.endDate(), row.frequency(), row.interval(), row.dayOfWeek(), clinic, row.createdAt(), row.updatedAt()};
+        }, INSERT_SERIES);
+        for (SeriesSegment.Row row : rows) {
+            if (!row.skippedDates().isEmpty()) {
+                skips.put(row.code(), row.skippedDates());
+            }
+        }
+    }
+
+    // skips hang off the generated series key, so they go in once every series has one
+    private void insertSkips(String clinic, Map<String, List<LocalDate>> skips) {
+        if (skips.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>();
+        shardRouter.inClinic(clinic, () -> {
+            jdbcTemplate.query(streaming("SELECT series_code, series_id FROM appointment_series WHERE clinic_code = ?", clinic), rs -> {
+                for (LocalDate skipped : skips.getOrDefault(rs.getString(1), List.of())) {
+                    rows.add(new Object[] {rs.getLong(2), skipped});
+                }
+            });
+            return null;
+        });
+        inBatches(clinic, rows, row -> row, INSERT_SKIP);
+    }
+
+    private <R> void inBatches(String clinic, List<R> rows, Function<R, Object[]> values, String insert) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (int first = 0; first < rows.size(); first += properties.getBatchSize()) {
+            List<R> batch = rows.subList(first, Math.min(rows.size(), first + properties.getBatchSize()));
+            shardRouter.inClinic(clinic, () -> transaction.execute(status -> {
+                List<Object[]> statement = new ArrayList<>(batch.size());
+                for (R row : batch) {
+                    statement.add(values.apply(row));
+                }
+                MultiRowInsert.insert(jdbcTemplate, insert, statement);
+                return null;
+            }));
+        }
+    }
+
+    // the restored primary key of every patient by its position in the snapshot
+    private long[] keys(String clinic, String[] codes) {
+        Map<String, Integer> positions = new HashMap<>(codes.length * 4 / 3 + 1);
+        for (int i = 0; i < codes.length; i++) {
+            positions.put(codes[i], i);
+        }
+        long[] keys = new long[codes.length];
+        int[] found = new int[1];
+        shardRouter.inClinic(clinic, () -> {
+            jdbcTemplate.query(streaming(SELECT_KEYS, clinic), rs -> {
+                Integer position = positions.get(rs.getString(1));
+                if (position != null) {
+                    keys[position] = rs.getLong(2);
+                    found[0]++;
+                }
+            });
+            return null;
+        });
+        if (found[0] != codes.length) {
+            throw new IllegalStateException("Only " + found[0] + " of " + codes.length + " restored patients were found in clinic " + clinic);
+        }
+        return keys;
+    }
+
+    private List<String> doctors(SnapshotFile.Reader in, Footer footer) {
+        List<String> doctors = new ArrayList<>();
+        for (Segment segment : footer.segments(SnapshotFile.DOCTORS)) {
+            Columns.In column = new Columns.In(in.map(segment));
+            for (int i = 0; i < segment.rows(); i++) {
+                doctors.add(column.string());
+            }
+        }
+        return doctors;
+    }
+
+    private void changed(String clinic) {
+        shardRouter.inClinic(clinic, () -> {
+            dataVersions.changed(DataSet.PATIENTS);
+            dataVersions.changed(DataSet.APPOINTMENTS);
+            return null;
+        });
+        readModel.reload(clinic);
+    }
+
+    // the clinic was empty before the restore, so everything in it now came from the snapshot
+    private void discard(String clinic) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        shardRouter.inClinic(clinic, () -> transaction.execute(status -> {
+            jdbcTemplate.query("SELECT email, phone FROM patients WHERE clinic_code = ?",
+                    rs -> {contactFilters.removed(rs.getString(1), rs.getString(2));}, clinic);
+            jdbcTemplate.update("DELETE FROM appointment_series_skips WHERE series_id IN"
+                    + " (SELECT series_id FROM appointment_series WHERE clinic_code = ?)", clinic);
+            jdbcTemplate.update("DELETE FROM appointment_series WHERE clinic_code = ?", clinic);
+            jdbcTemplate.update("DELETE FROM appointments WHERE clinic_code = ?", clinic);
+            jdbcTemplate.update("DELETE FROM patients WHERE clinic_code = ?", clinic);
+            return null;
+        }));
+        changed(clinic);
+    }
+
+    // runs one task per segment and waits for all of them, the first failure cancels the rest
+    private static void inParallel(ExecutorService pool, List<Segment> segments, Consumer<Segment> task) {
+        List<Future<?>> running = new ArrayList<>(segments.size());
+        try {
+            for (Segment segment : segments) {
+                running.add(pool.submit(() -> task.accept(segment)));
+            }
+            for (Future<?> future : running) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Snapshot restore was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Snapshot restore failed", e.getCause());
+        } finally {
+            running.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private static PreparedStatementCreator streaming(String sql, String clinic) {
+        return connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setFetchSize(FETCH_SIZE);
+            statement.setString(1, clinic);
+            return statement;
+        };
+    }
+
+    // collects rows into segments as they stream in. appointments and series name their patient by its position in the
+    // snapshot, found by a binary search over the sorted patient keys
+    private static final class Writing {
+
+        private final SnapshotFile.Writer out;
+        private final int segmentRows;
+        // patient keys in snapshot order, then sorted with the position each one had
+        private long[] patientKeys = new long[1024];
+        private long[] sortedKeys;
+        private int[] positions;
+        private long patients;
+        private long appointments;
+        private long series;
+        private PatientSegment patientSegment = new PatientSegment();
+        private AppointmentSegment appointmentSegment = new AppointmentSegment();
+        private SeriesSegment seriesSegment = new SeriesSegment();
+        // skipped dates by series key, read before the series so each row can take its own
+        private final Map<Long, List<LocalDate>> skips = new HashMap<>();
+        private final Map<String, Integer> doctorIDs = new HashMap<>();
+        private final List<String> doctorNames = new ArrayList<>();
+
+        Writing(SnapshotFile.Writer out, int segmentRows) {
+            this.out = out;
+            this.segmentRows = segmentRows;
+        }
+
+        void patient(ResultSet rs) throws SQLException {
+            if (patients == patientKeys.length) {
+                patientKeys = Arrays.copyOf(patientKeys, patientKeys.length * 2);
+            }
+            patientKeys[(int) patients] = rs.getLong(1);
+            patientSegment.add(new PatientSegment.Row(rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5),
+                    rs.getObject(6, LocalDateTime.class), rs.getObject(7, LocalDateTime.class)));
+            patients++;
+            if (patientSegment.rows() == segmentRows) {
+                flushPatients();
+            }
+        }
+
+        void flushPatients() {
+            if (patientSegment.rows() > 0) {
+                out.block(SnapshotFile.PATIENTS, patients - patientSegment.rows(), patientSegment.rows(), patientSegment.encode());
+                patientSegment = new PatientSegment();
+            }
+        }
+
+        // the patients come in whatever order the database finds them in, sorting them here saves it a sort
+        void patientsDone() {
+            int count = (int) patients;
+            sortedKeys = Arrays.copyOf(patientKeys, count);
+            Arrays.sort(sortedKeys);
+            positions = new int[count];
+            for (int i = 0; i < count; i++) {
+                positions[Arrays.binarySearch(sortedKeys, patientKeys[i])] = i;
+            }
+            patientKeys = null;
+        }
+
+        void appointment(ResultSet rs) throws SQLException {
+            long patientKey = rs.getLong(2);
+            int rank = Arrays.binarySearch(sortedKeys, patientKey);
+            if (rank < 0) {
+                throw new IllegalStateException("Appointment " + rs.getString(1) + " belongs to patient " + patientKey + " of another clinic");
+            }
+            int patient = positions[rank];
+            int doctor = doctor(rs.getString(3));
+            appointmentSegment.add(new AppointmentSegment.Row(rs.getString(1), patient, doctor, rs.getObject(4, LocalDate.class),
+                    rs.getString(5), rs.getString(6), rs.getObject(7, LocalDateTime.class), rs.getObject(8, LocalDateTime.class)));
+            appointments++;
+            if (appointmentSegment.rows() == segmentRows) {
+                flushAppointments();
+            }
+        }
+
+        void flushAppointments() {
+            if (appointmentSegment.rows() > 0) {
+                out.block(SnapshotFile.APPOINTMENTS, appointments - appointmentSegment.rows(), appointmentSegment.rows(), appointmentSegment.encode());
+                appointmentSegment = new AppointmentSegment();
+            }
+        }
+
+        void skip(ResultSet rs) throws SQLException {
+            skips.computeIfAbsent(rs.getLong(1), key -> new ArrayList<>()).add(rs.getObject(2, LocalDate.class));
+        }
+
+        void series(ResultSet rs) throws SQLException {
+            long patientKey = rs.getLong(2);
+            int rank = rs.wasNull() ? -1 : Arrays.binarySearch(sortedKeys, patientKey);
+            if (rank < 0) {
+                throw new IllegalStateException("Series " + rs.getString(1) + " belongs to a patient that is not in the clinic");
+            }
+            seriesSegment.add(new SeriesSegment.Row(rs.getString(1), positions[rank], doctor(rs.getString(3)), rs.getString(4),
+                    rs.getObject(5, LocalDate.class), rs.getObject(6, LocalDate.class), rs.getString(7), rs.getInt(8), rs.getInt(9),
+                    skips.getOrDefault(rs.getLong(12), List.of()), rs.getObject(10, LocalDateTime.class), rs.getObject(11, LocalDateTime.class)));
+            series++;
+            if (seriesSegment.rows() == segmentRows) {
+                flushSeries();
+            }
+        }
+
+        void flushSeries() {
+            if (seriesSegment.rows() > 0) {
+                out.block(SnapshotFile.SERIES, series - seriesSegment.rows(), seriesSegment.rows(), seriesSegment.encode());
+                seriesSegment = new SeriesSegment();
+            }
+        }
+
+        private int doctor(String doctorName) {
+            Integer doctor = doctorIDs.get(doctorName);
+            if (doctor == null) {
+                doctor = doctorNames.size();
+                doctorIDs.put(doctorName, doctor);
+                doctorNames.add(doctorName);
+            }
+            return doctor;
+        }
+
+        // the dictionary goes last, it is only complete once every appointment and series has been seen
+        void doctors() {
+            Columns.Out dictionary = new Columns.Out();
+            for (String name : doctorNames) {
+                dictionary.string(name);
+            }
+            out.block(SnapshotFile.DOCTORS, 0, doctorNames.size(), dictionary.toByteArray());
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.capstone.medicalapp.medical_appointment_app.tracing;
+
+// an open span, closing it records its end
+public interface Scope extends AutoCloseable {
+
+    @Override
+    void close();
+}
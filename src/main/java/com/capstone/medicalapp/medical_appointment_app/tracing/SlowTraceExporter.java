@@ -0,0 +1,55 @@
+package com.capstone.medicalapp.medical_appointment_app.tracing;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+
+// keeps the slowest finished requests in memory for the actuator endpoint, no collector needed. the fastest kept
+// trace sits at the head of the heap, so a request that would not make the list costs one volatile read
+public class SlowTraceExporter {
+
+    private final int capacity;
+    private final PriorityQueue<TraceSummary> slowest = new PriorityQueue<>(Comparator.comparingDouble(TraceSummary::durationMs));
+    private volatile double floorMs = -1;
+
+    public SlowTraceExporter(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("At least one trace must be kept");
+        }
+        this.capacity = capacity;
+    }
+
+    // whether a request of this duration would be kept, checked before its summary is built
+    public boolean accepts(double durationMs) {
+        return durationMs > floorMs;
+    }
+
+    public synchronized void export(TraceSummary trace) {
+        if (!accepts(trace.durationMs())) {
+            return;
+        }
+        slowest.add(trace);
+        if (slowest.size() > capacity) {
+            slowest.poll();
+        }
+        floorMs = slowest.size() < capacity ? -1 : slowest.peek().durationMs();
+    }
+
+    // slowest first
+    public synchronized List<TraceSummary> getSlowest() {
+        List<TraceSummary> traces = new ArrayList<>(slowest);
+        traces.sort(Comparator.comparingDouble(TraceSummary::durationMs).reversed());
+        return traces;
+    }
+
+    public synchronized Optional<TraceSummary> find(String traceId) {
+        return slowest.stream().filter(trace -> trace.traceId().equals(traceId)).findFirst();
+    }
+
+    public synchronized void clear() {
+        slowest.clear();
+        floorMs = -1;
+    }
+}
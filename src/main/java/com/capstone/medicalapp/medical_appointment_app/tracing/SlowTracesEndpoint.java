@@ -0,0 +1,36 @@
+package com.capstone.medicalapp.medical_appointment_app.tracing;
+
+import java.util.List;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+
+// /actuator/slowtraces lists the slowest requests kept, /actuator/slowtraces/{traceId} shows one of them and
+// DELETE starts over, e.g. after a deployment
+@Endpoint(id = "slowtraces")
+public class SlowTracesEndpoint {
+
+    private final SlowTraceExporter exporter;
+
+    public SlowTracesEndpoint(SlowTraceExporter exporter) {
+        this.exporter = exporter;
+    }
+
+    @ReadOperation
+    public List<TraceSummary> slowest() {
+        return exporter.getSlowest();
+    }
+
+    // a trace that is no longer kept answers 404
+    @ReadOperation
+    public TraceSummary trace(@Selector String traceId) {
+        return exporter.find(traceId).orElse(null);
+    }
+
+    @DeleteOperation
+    public void clear() {
+        exporter.clear();
+    }
+}
@@ -0,0 +1,97 @@
+package com.capstone.medicalapp.medical_appointment_app.tracing;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// the spans of one request while it runs, only ever touched by the request's own thread
+public class Trace {
+
+    static final String ROOT_LAYER = "http";
+
+    private final String traceId;
+    private final String request;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final long startNanos = System.nanoTime();
+    private final int maxSpans;
+    private final List<Span> spans = new ArrayList<>();
+    private int current = -1;
+    private int dropped;
+
+    Trace(String traceId, String request, int maxSpans) {
+        this.traceId = traceId;
+        this.request = request;
+        this.maxSpans = maxSpans;
+        open(ROOT_LAYER, request);
+    }
+
+    public String traceId() {return traceId;}
+
+    // a new span inside the innermost open one, null once the trace holds max-spans
+    Span open(String layer, String name) {
+        if (spans.size() >= maxSpans) {
+            dropped++;
+            return null;
+        }
+        Span span = new Span(spans.size(), current, layer, name, System.nanoTime());
+        spans.add(span);
+        current = span.id;
+        return span;
+    }
+
+    // spans close in reverse order of opening, one left open by mistake is closed with its parent
+    void close(Span span) {
+        if (span.endNanos != 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (int id = current; id >= span.id; id = spans.get(id).parent) {
+            spans.get(id).endNanos = now;
+        }
+        current = span.parent;
+    }
+
+    int currentSpan() {return current;}
+
+    long elapsedNanos() {return System.nanoTime() - startNanos;}
+
+    TraceSummary summarize(int status) {
+        close(spans.get(0));
+        long[] self = new long[spans.size()];
+        for (Span span : spans) {
+            self[span.id] += span.endNanos - span.startNanos;
+            if (span.parent >= 0) {
+                self[span.parent] -= span.endNanos - span.startNanos;
+            }
+        }
+        Map<String, Double> selfTime = new LinkedHashMap<>();
+        List<TraceSpan> views = new ArrayList<>(spans.size());
+        for (Span span : spans) {
+            selfTime.merge(span.layer, self[span.id] / 1e6, Double::sum);
+            views.add(new TraceSpan(span.id, span.parent, span.layer, span.name, (span.startNanos - startNanos) / 1e6,
+                    (span.endNanos - span.startNanos) / 1e6));
+        }
+        Span root = spans.get(0);
+        return new TraceSummary(traceId, request, status, startedAt, (root.endNanos - root.startNanos) / 1e6, selfTime, views, dropped);
+    }
+
+    static final class Span {
+
+        final int id;
+        final int parent;
+        final String layer;
+        final String name;
+        final long startNanos;
+        long endNanos;
+
+        Span(int id, int parent, String layer, String name, long startNanos) {
+            this.id = id;
+            this.parent = parent;
+            this.layer = layer;
+            this.name = name;
+            this.startNanos = startNanos;
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.capstone.medicalapp.medical_appointment_app.tracing;
+
+// one timed layer of a request, parent is the id of the span it ran inside (-1 for the request itself).
+// times are milliseconds from the start of the request
+public record TraceSpan(int id, int parent, String layer, String name, double startMs, double durationMs) {}
@@ -0,0 +1,10 @@
+package com.capstone.medicalapp.medical_appointment_app.tracing;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+// a finished request: its spans in start order and, per layer, the time spent in that layer itself (children
+// subtracted), so the values add up to the request's duration
+public record TraceSummary(String traceId, String request, int status, LocalDateTime startedAt, double durationMs,
+        Map<String, Double> selfTimeMs, List<TraceSpan> spans, int droppedSpans) {}
@@ -0,0 +1,91 @@
+package com.capstone.medicalapp.medical_appointment_app.tracing;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+// the trace of the request running on this thread. TracingFilter begins and ends it, the aspect and the view
+// interceptor open a span around each layer the request passes through. work on other threads (the audit writer,
+// the group committer) is not part of any trace, span() is a no-op there
+public class Tracer {
+
+    public static final String TRACE_ID = "traceId";
+    public static final String SPAN_ID = "spanId";
+
+    private static final Logger log = LoggerFactory.getLogger(Tracer.class);
+    private static final Scope NOOP = () -> {};
+
+    private final ThreadLocal<Trace> current = new ThreadLocal<>();
+    private final SlowTraceExporter exporter;
+    private final int maxSpans;
+    private final long logSlowerThanMs;
+
+    public Tracer(SlowTraceExporter exporter, int maxSpans, long logSlowerThanMs) {
+        this.exporter = exporter;
+        this.maxSpans = maxSpans;
+        this.logSlowerThanMs = logSlowerThanMs;
+    }
+
+    // starts the trace of a request, its id goes into the log context for every line the request writes
+    public Trace begin(String request) {
+        Trace trace = new Trace(String.format("%016x", ThreadLocalRandom.current().nextLong()), request, maxSpans);
+        current.set(trace);
+        MDC.put(TRACE_ID, trace.traceId());
+        MDC.put(SPAN_ID, "0");
+        return trace;
+    }
+
+    public boolean isTracing() {
+        return current.get() != null;
+    }
+
+    public Scope span(String layer, String name) {
+        Trace trace = current.get();
+        if (trace == null) {
+            return NOOP;
+        }
+        Trace.Span span = trace.open(layer, name);
+        if (span == null) {
+            return NOOP;
+        }
+        MDC.put(SPAN_ID, String.valueOf(span.id));
+        return () -> {
+            trace.close(span);
+            MDC.put(SPAN_ID, String.valueOf(Math.max(0, trace.currentSpan())));
+        };
+    }
+
+    // finishes the trace, hands it to the exporter when it is among the slowest and logs it when it is slow
+    public void end(Trace trace, int status) {
+        try {
+            double durationMs = trace.elapsedNanos() / 1e6;
+            boolean slow = logSlowerThanMs > 0 && durationMs >= logSlowerThanMs;
+            if (!slow && !exporter.accepts(durationMs)) {
+                return;
+            }
+            TraceSummary summary = trace.summarize(status);
+            // a request that reached no controller (a static file, a 404) has nothing to break down
+            if (summary.spans().size() < 2) {
+                return;
+            }
+            exporter.export(summary);
+            if (slow) {
+                log.info("Slow request {} took {} ms: {}", summary.request(), Math.round(summary.durationMs()), breakdown(summary.selfTimeMs()));
+            }
+        } finally {
+            current.remove();
+            MDC.remove(TRACE_ID);
+            MDC.remove(SPAN_ID);
+        }
+    }
+
+    private static String breakdown(Map<String, Double> selfTimeMs) {
+        return selfTimeMs.entrySet().stream()
+                .map(entry -> entry.getKey() + " " + Math.round(entry.getValue()) + " ms")
+                .collect(Collectors.joining(", "));
+    }
+}
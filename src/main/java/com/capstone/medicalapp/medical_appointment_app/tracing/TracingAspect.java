@@ -0,0 +1,82 @@
+package com.capstone.medicalapp.medical_appointment_app.tracing;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+// the spans inside a request: controller methods, @Transactional service methods (ordered just outside the
+// transaction advice, so begin and commit count), each repository call, each JdbcTemplate statement and each
+// connection taken from the pool. only sql text is recorded, never parameter values
+@Aspect
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class TracingAspect {
+
+    private final Tracer tracer;
+    private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+
+    public TracingAspect(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Around("within(com.capstone.medicalapp.medical_appointment_app.controller..*) && execution(public * *(..))")
+    public Object controller(ProceedingJoinPoint call) throws Throwable {
+        return trace("controller", call);
+    }
+
+    @Around("execution(public * com.capstone.medicalapp.medical_appointment_app..*(..))"
+            + " && (@within(org.springframework.transaction.annotation.Transactional)"
+            + " || @annotation(org.springframework.transaction.annotation.Transactional))")
+    public Object transaction(ProceedingJoinPoint call) throws Throwable {
+        return trace("transaction", call);
+    }
+
+    @Around("target(org.springframework.data.repository.Repository)")
+    public Object repository(ProceedingJoinPoint call) throws Throwable {
+        if (!tracer.isTracing()) {
+            return call.proceed();
+        }
+        // the proxy's own interface, not CrudRepository for an inherited method such as save
+        String repository = repositoryNames.computeIfAbsent(call.getThis().getClass(),
+                type -> AopProxyUtils.proxiedUserInterfaces(call.getThis())[0].getSimpleName());
+        try (Scope span = tracer.span("repository", repository + "." + call.getSignature().getName())) {
+            return call.proceed();
+        }
+    }
+
+    @Around("execution(public * org.springframework.jdbc.core.JdbcTemplate.*(..)) && args(sql, ..)")
+    public Object jdbc(ProceedingJoinPoint call, String sql) throws Throwable {
+        if (!tracer.isTracing()) {
+            return call.proceed();
+        }
+        try (Scope span = tracer.span("jdbc", statement(sql))) {
+            return call.proceed();
+        }
+    }
+
+    @Around("execution(java.sql.Connection javax.sql.DataSource.getConnection(..))"
+            + " && target(com.capstone.medicalapp.medical_appointment_app.sharding.ClinicRoutingDataSource)")
+    public Object connection(ProceedingJoinPoint call) throws Throwable {
+        return trace("connection", call);
+    }
+
+    private Object trace(String layer, ProceedingJoinPoint call) throws Throwable {
+        if (!tracer.isTracing()) {
+            return call.proceed();
+        }
+        try (Scope span = tracer.span(layer, call.getSignature().getDeclaringType().getSimpleName() + "." + call.getSignature().getName())) {
+            return call.proceed();
+        }
+    }
+
+    // the start of the statement on one line, enough to tell the queries of a request apart
+    static String statement(String sql) {
+        String line = sql.strip().replaceAll("\\s+", " ");
+        return line.length() <= 100 ? line : line.substring(0, 100) + "...";
+    }
+}
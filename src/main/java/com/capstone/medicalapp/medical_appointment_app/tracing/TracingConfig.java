@@ -0,0 +1,55 @@
+package com.capstone.medicalapp.medical_appointment_app.tracing;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// request tracing with an in-memory exporter of the slowest traces. the span aspect is ordered just outside the
+// transaction advice (lowest precedence) and inside single-flight, so a coalesced read shows as time in its caller
+@Configuration
+@EnableConfigurationProperties(TracingProperties.class)
+@ConditionalOnProperty(prefix = "medapp.tracing", name = "enabled", matchIfMissing = true)
+public class TracingConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private TracingProperties properties;
+
+    @Bean
+    public SlowTraceExporter slowTraceExporter() {
+        return new SlowTraceExporter(properties.getSlowest());
+    }
+
+    @Bean
+    public Tracer tracer() {
+        return new Tracer(slowTraceExporter(), properties.getMaxSpans(), properties.getLogSlowerThanMs());
+    }
+
+    @Bean
+    public TracingAspect tracingAspect() {
+        return new TracingAspect(tracer());
+    }
+
+    // first in the chain so the request span covers every other filter
+    @Bean
+    public FilterRegistrationBean<TracingFilter> tracingFilter() {
+        FilterRegistrationBean<TracingFilter> registration = new FilterRegistrationBean<>(new TracingFilter(tracer()));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    public SlowTracesEndpoint slowTracesEndpoint() {
+        return new SlowTracesEndpoint(slowTraceExporter());
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ViewTracingInterceptor(tracer()));
+    }
+}
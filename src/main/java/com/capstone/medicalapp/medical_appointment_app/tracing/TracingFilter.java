@@ -0,0 +1,35 @@
+package com.capstone.medicalapp.medical_appointment_app.tracing;
+
+import java.io.IOException;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// one trace per request, its id is returned in the X-Trace-Id header to find it on the actuator endpoint and in
+// the logs. a streaming request (server-sent events) is traced until its handler returns, not while it streams
+public class TracingFilter extends OncePerRequestFilter {
+
+    public static final String TRACE_HEADER = "X-Trace-Id";
+
+    private final Tracer tracer;
+
+    public TracingFilter(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Trace trace = tracer.begin(request.getMethod() + " " + request.getRequestURI());
+        response.setHeader(TRACE_HEADER, trace.traceId());
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            tracer.end(trace, response.getStatus());
+        }
+    }
+}
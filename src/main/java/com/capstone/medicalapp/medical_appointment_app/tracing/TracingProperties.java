@@ -0,0 +1,25 @@
+package com.capstone.medicalapp.medical_appointment_app.tracing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// binds the medapp.tracing.* settings
+@ConfigurationProperties(prefix = "medapp.tracing")
+public class TracingProperties {
+
+    private boolean enabled = true;
+    private int slowest = 50;
+    private int maxSpans = 500;
+    private long logSlowerThanMs = 1000;
+
+    public boolean isEnabled() {return enabled;}
+    public void setEnabled(boolean enabled) {this.enabled = enabled;}
+
+    public int getSlowest() {return slowest;}
+    public void setSlowest(int slowest) {this.slowest = slowest;}
+
+    public int getMaxSpans() {return maxSpans;}
+    public void setMaxSpans(int maxSpans) {this.maxSpans = maxSpans;}
+
+    public long getLogSlowerThanMs() {return logSlowerThanMs;}
+    public void setLogSlowerThanMs(long logSlowerThanMs) {this.logSlowerThanMs = logSlowerThanMs;}
+}
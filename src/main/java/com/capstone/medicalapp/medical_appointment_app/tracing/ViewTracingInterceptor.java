@@ -0,0 +1,35 @@
+package com.capstone.medicalapp.medical_appointment_app.tracing;
+
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// times template rendering: postHandle runs right before the view renders and afterCompletion right after it
+public class ViewTracingInterceptor implements HandlerInterceptor {
+
+    private static final String VIEW_SPAN = ViewTracingInterceptor.class.getName() + ".span";
+
+    private final Tracer tracer;
+
+    public ViewTracingInterceptor(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) {
+        if (modelAndView != null && modelAndView.hasView() && tracer.isTracing()) {
+            String name = modelAndView.getViewName() != null ? modelAndView.getViewName() : modelAndView.getView().getClass().getSimpleName();
+            request.setAttribute(VIEW_SPAN, tracer.span("view", name));
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(VIEW_SPAN) instanceof Scope span) {
+            span.close();
+            request.removeAttribute(VIEW_SPAN);
+        }
+    }
+}
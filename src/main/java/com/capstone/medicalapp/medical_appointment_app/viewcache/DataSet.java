@@ -0,0 +1,7 @@
+package com.capstone.medicalapp.medical_appointment_app.viewcache;
+
+// groups of data a cached fragment can depend on, series count as appointments
+public enum DataSet {
+    PATIENTS,
+    APPOINTMENTS
+}
@@ -0,0 +1,42 @@
+package com.capstone.medicalapp.medical_appointment_app.viewcache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.capstone.medicalapp.medical_appointment_app.sharding.ClinicContext;
+
+// a counter per clinic and data set that every write moves forward, cached fragments remember the counters
+// they were rendered at and are thrown away as soon as one has moved on
+@Component
+public class DataVersions {
+
+    private final ConcurrentHashMap<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    // the version only moves once the write commits, so a render of the old data can never be stored
+    // under the new version
+    public void changed(DataSet dataSet) {
+        AtomicLong version = counter(ClinicContext.current(), dataSet);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    version.incrementAndGet();
+                }
+            });
+        } else {
+            version.incrementAndGet();
+        }
+    }
+
+    public long current(DataSet dataSet) {
+        return counter(ClinicContext.current(), dataSet).get();
+    }
+
+    private AtomicLong counter(String clinicID, DataSet dataSet) {
+        return versions.computeIfAbsent(clinicID + "/" + dataSet, key -> new AtomicLong());
+    }
+}
@@ -0,0 +1,102 @@
+package com.capstone.medicalapp.medical_appointment_app.viewcache;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.web.IWebExchange;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import com.capstone.medicalapp.medical_appointment_app.sharding.ClinicContext;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+// rendered html of a template fragment per clinic, reused until a write changes one of the data sets it
+// was rendered from or it is older than the ttl. a hit runs no query and no template evaluation, pages insert it
+// with th:utext
+@Component
+public class FragmentCache {
+
+    @Autowired
+    private DataVersions dataVersions;
+
+    @Autowired
+    private FragmentCacheProperties properties;
+
+    @Autowired
+    private ITemplateEngine templateEngine;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private Counter hits;
+    private Counter misses;
+
+    private record Entry(long[] versions, long renderedAt, String html) {
+        boolean newerThan(Entry other) {
+            return other == null || Arrays.stream(versions).sum() >= Arrays.stream(other.versions).sum();
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        hits = meterRegistry.counter("medapp.fragments", "result", "hit");
+        misses = meterRegistry.counter("medapp.fragments", "result", "miss");
+    }
+
+    // the model is only built (and queried) when the cached copy is missing or out of date
+    public String get(String template, String fragment, Supplier<Map<String, Object>> model, DataSet... dependsOn) {
+        String key = ClinicContext.current() + "/" + template + "::" + fragment;
+        long[] versions = new long[dependsOn.length];
+        for (int i = 0; i < dependsOn.length; i++) {
+            versions[i] = dataVersions.current(dependsOn[i]);
+        }
+
+        Entry cached = entries.get(key);
+        long now = System.nanoTime();
+        if (cached != null && Arrays.equals(cached.versions(), versions) && now - cached.renderedAt() < properties.getTtlMs() * 1_000_000) {
+            hits.increment();
+            return cached.html();
+        }
+
+        misses.increment();
+        Entry rendered = new Entry(versions, now, render(template, fragment, model.get()));
+        // a slow render that started before a write must not replace the newer copy
+        entries.merge(key, rendered, (current, candidate) -> candidate.newerThan(current) ? candidate : current);
+        return rendered.html();
+    }
+
+    private String render(String template, String fragment, Map<String, Object> model) {
+        // the servlet context comes from the request so the cache can still be created in a context without a web server
+        ServletRequestAttributes request = (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
+        // the html is shared by every visitor, so its links must not carry the ;jsessionid of the one who rendered it
+        HttpServletResponse response = new HttpServletResponseWrapper(request.getResponse()) {
+            @Override
+            public String encodeURL(String url) {
+                return url;
+            }
+
+            @Override
+            public String encodeRedirectURL(String url) {
+                return url;
+            }
+        };
+        IWebExchange exchange = JakartaServletWebApplication.buildApplication(request.getRequest().getServletContext())
+                .buildExchange(request.getRequest(), response);
+        return templateEngine.process(template, Set.of(fragment), new WebContext(exchange, LocaleContextHolder.getLocale(), model));
+    }
+}
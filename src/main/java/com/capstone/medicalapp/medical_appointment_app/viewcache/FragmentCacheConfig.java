@@ -0,0 +1,9 @@
+package com.capstone.medicalapp.medical_appointment_app.viewcache;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(FragmentCacheProperties.class)
+public class FragmentCacheConfig {
+}
@@ -0,0 +1,15 @@
+package com.capstone.medicalapp.medical_appointment_app.viewcache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+// binds the medapp.fragment-cache.* settings
+@ConfigurationProperties(prefix = "medapp.fragment-cache")
+public class FragmentCacheProperties {
+
+    // longest a fragment is reused, the change counters only see this instance's writes so another instance's
+    // show up after at most this long. 0 renders every time
+    private long ttlMs = 5000;
+
+    public long getTtlMs() {return ttlMs;}
+    public void setTtlMs(long ttlMs) {this.ttlMs = ttlMs;}
+}
@@ -0,0 +1,7 @@
+package com.capstone.medicalapp.medical_appointment_app.waitlist;
+
+import java.time.LocalDate;
+
+// published when an appointment or a series occurrence is cancelled or moved off its doctor and day, the waitlist
+// hears it after the commit
+public record SlotFreedEvent(String doctorName, LocalDate date) {}
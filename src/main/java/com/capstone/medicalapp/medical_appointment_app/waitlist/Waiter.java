@@ -0,0 +1,29 @@
+package com.capstone.medicalapp.medical_appointment_app.waitlist;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+
+import com.capstone.medicalapp.medical_appointment_app.model.WaitlistEntry;
+
+// a waiting entry as the in-memory queue keeps it
+public record Waiter(long entryID, String patientID, int urgency, LocalDate earliestDate, LocalDate latestDate, LocalDateTime requestedAt) {
+
+    // most urgent first, then whoever asked first; the entry id keeps two requests in the same microsecond apart
+    public static final Comparator<Waiter> PRIORITY = Comparator.comparingInt(Waiter::urgency).reversed()
+            .thenComparing(Waiter::requestedAt)
+            .thenComparingLong(Waiter::entryID);
+
+    public static Waiter of(WaitlistEntry entry) {
+        return new Waiter(entry.getId(), entry.getPatientID(), entry.getUrgency(), entry.getEarliestDate(), entry.getLatestDate(), entry.getRequestedAt());
+    }
+
+    // the last day the patient could come is behind us
+    public boolean expired(LocalDate today) {
+        return latestDate.isBefore(today);
+    }
+
+    public boolean accepts(LocalDate date) {
+        return !date.isBefore(earliestDate) && !date.isAfter(latestDate);
+    }
+}
@@ -0,0 +1,78 @@
+package com.capstone.medicalapp.medical_appointment_app.waitlist;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// the waiting patients of one doctor in one clinic in offer order. a concurrent skip list, so joins, cancellations
+// and claims for different slots go ahead together without a lock
+class WaitlistQueue {
+
+    private final ConcurrentSkipListSet<Waiter> waiting = new ConcurrentSkipListSet<>(Waiter.PRIORITY);
+    // entries claimed by an offer that has not finished, a reload must not hand them out a second time
+    private final Set<Long> offering = ConcurrentHashMap.newKeySet();
+
+    WaitlistQueue(List<Waiter> loaded) {
+        waiting.addAll(loaded);
+    }
+
+    void add(Waiter waiter) {
+        waiting.add(waiter);
+    }
+
+    boolean remove(Waiter waiter) {
+        return waiting.remove(waiter);
+    }
+
+    // takes the best waiter who can come on the date. remove() succeeds for exactly one caller, so a waiter two
+    // freed slots race for goes to one of them and the other moves on to the next waiter
+    Waiter claim(LocalDate date) {
+        for (Waiter waiter : waiting) {
+            if (waiter.accepts(date) && waiting.remove(waiter)) {
+                offering.add(waiter.entryID());
+                return waiter;
+            }
+        }
+        return null;
+    }
+
+    // the offer of a claimed waiter is over, whether it booked them or put them back
+    void release(Waiter waiter) {
+        offering.remove(waiter.entryID());
+    }
+
+    // brings the queue in line with the waiting rows, which another instance may have joined, left or booked since
+    // they were loaded
+    void reload(List<Waiter> rows) {
+        Set<Waiter> current = new HashSet<>(rows);
+        waiting.removeIf(waiter -> !current.contains(waiter));
+        for (Waiter waiter : rows) {
+            if (!offering.contains(waiter.entryID())) {
+                waiting.add(waiter);
+            }
+        }
+    }
+
+    // drops the waiters whose window has passed, they would otherwise be walked past by every claim
+    List<Waiter> expire(LocalDate today) {
+        List<Waiter> expired = new ArrayList<>();
+        for (Waiter waiter : waiting) {
+            if (waiter.expired(today) && waiting.remove(waiter)) {
+                expired.add(waiter);
+            }
+        }
+        return expired;
+    }
+
+    List<Waiter> snapshot() {
+        return List.copyOf(waiting);
+    }
+
+    int size() {
+        return waiting.size();
+    }
+}
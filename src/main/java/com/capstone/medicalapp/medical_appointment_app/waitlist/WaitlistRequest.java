@@ -0,0 +1,6 @@
+package com.capstone.medicalapp.medical_appointment_app.waitlist;
+
+import java.time.LocalDate;
+
+// body of POST /api/waitlist, the patient can take any date from earliestDate to latestDate with the doctor
+public record WaitlistRequest(String patientID, String doctorName, int urgency, LocalDate earliestDate, LocalDate latestDate) {}
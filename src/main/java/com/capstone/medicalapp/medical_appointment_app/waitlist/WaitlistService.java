@@ -0,0 +1,297 @@
+package com.capstone.medicalapp.medical_appointment_app.waitlist;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.capstone.medicalapp.medical_appointment_app.model.Appointment;
+import com.capstone.medicalapp.medical_appointment_app.model.WaitlistEntry;
+import com.capstone.medicalapp.medical_appointment_app.model.WaitlistStatus;
+import com.capstone.medicalapp.medical_appointment_app.repository.WaitlistRepository;
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentService;
+import com.capstone.medicalapp.medical_appointment_app.service.PatientService;
+import com.capstone.medicalapp.medical_appointment_app.sharding.ClinicContext;
+import com.capstone.medicalapp.medical_appointment_app.sharding.ShardRouter;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+// books waiting patients into cancelled appointments. each doctor of each clinic has its own in-memory queue, reloaded
+// from the waiting rows before every offer so patients who joined on another instance are offered too; the rows stay
+// the source of truth, so a waiter is only booked if its row is still waiting when the replacement appointment commits
+@Service
+public class WaitlistService implements InitializingBean, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(WaitlistService.class);
+
+    public static final int MIN_URGENCY = 1;
+    public static final int MAX_URGENCY = 5;
+    public static final String DESCRIPTION = "Booked from waitlist";
+
+    private static final int DOCTOR_LENGTH = 25;
+
+    @Autowired
+    private WaitlistRepository repository;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<String, WaitlistQueue> queues = new ConcurrentHashMap<>();
+    private final ExecutorService offerExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger pendingOffers = new AtomicInteger();
+    private TransactionTemplate offerTransaction;
+
+    @Override
+    public void afterPropertiesSet() {
+        offerTransaction = new TransactionTemplate(transactionManager);
+        offerTransaction.setPropagationBehavior(TransactionTemplate.PROPAGATION_REQUIRES_NEW);
+        Gauge.builder("medapp.waitlist.waiting", queues, all -> all.values().stream().mapToInt(WaitlistQueue::size).sum())
+                .description("Patients waiting for a freed slot, in the queues loaded so far")
+                .register(meterRegistry);
+    }
+
+    // puts a patient on a doctor's waitlist of the current clinic
+    public WaitlistEntry join(WaitlistRequest request) {
+        if (request == null) {
+            throw new IllegalArgumentException("Waitlist request cannot be null");
+        }
+        String doctorName = request.doctorName() == null ? "" : request.doctorName().trim();
+        if (doctorName.isEmpty()) {
+            throw new IllegalArgumentException("Doctor name cannot be blank");
+        }
+        if (doctorName.length() > DOCTOR_LENGTH) {
+            throw new IllegalArgumentException("Doctor name cannot exceed " + DOCTOR_LENGTH + " characters");
+        }
+        if (request.urgency() < MIN_URGENCY || request.urgency() > MAX_URGENCY) {
+            throw new IllegalArgumentException("Urgency must be between " + MIN_URGENCY + " and " + MAX_URGENCY);
+        }
+        if (request.earliestDate() == null || request.latestDate() == null) {
+            throw new IllegalArgumentException("Earliest and latest date are required");
+        }
+        if (request.latestDate().isBefore(request.earliestDate())) {
+            throw new IllegalArgumentException("Latest date cannot be before the earliest date");
+        }
+        if (!request.latestDate().isAfter(LocalDate.now())) {
+            throw new IllegalArgumentException("Latest date must be in the future");
+        }
+        if (!patientService.patientExists(request.patientID())) {
+            throw new IllegalArgumentException("Patient with ID " + request.patientID() + " does not exist");
+        }
+        // an earlier entry whose window has passed no longer counts as waiting
+        LocalDate today = LocalDate.now();
+        List<WaitlistEntry> waiting = repository.findByPatientIDAndDoctorNameAndStatus(request.patientID(), doctorName, WaitlistStatus.WAITING);
+        if (waiting.stream().anyMatch(entry -> !entry.getLatestDate().isBefore(today))) {
+            throw new IllegalArgumentException("Patient " + request.patientID() + " is already waiting for " + doctorName);
+        }
+        if (!waiting.isEmpty()) {
+            Set<Long> expired = new HashSet<>();
+            waiting.forEach(entry -> expired.add(entry.getId()));
+            queue(doctorName).expire(today).forEach(waiter -> expired.add(waiter.entryID()));
+            expire(List.copyOf(expired));
+        }
+
+        WaitlistEntry entry = new WaitlistEntry(request.patientID(), doctorName, request.urgency(), request.earliestDate(), request.latestDate());
+        entry.setRequestedAt(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        WaitlistEntry saved = repository.save(entry);
+        queue(doctorName).add(Waiter.of(saved));
+        return saved;
+    }
+
+    // takes a waiting entry off the list
+    @Transactional
+    public WaitlistEntry leave(Long entryID) {
+        WaitlistEntry entry = repository.findEntry(entryID)
+                .orElseThrow(() -> new IllegalArgumentException("Waitlist entry " + entryID + " does not exist"));
+        if (repository.markCancelled(entryID, LocalDateTime.now()) == 0) {
+            throw new IllegalArgumentException("Waitlist entry " + entryID + " is no longer waiting");
+        }
+        queue(entry.getDoctorName()).remove(Waiter.of(entry));
+        entry.setStatus(WaitlistStatus.CANCELLED);
+        return entry;
+    }
+
+    public Optional<WaitlistEntry> getEntry(Long entryID) {
+        return repository.findEntry(entryID);
+    }
+
+    // a doctor's waiting patients in the order freed slots are offered to them
+    public List<Waiter> getWaiting(String doctorName) {
+        LocalDate today = LocalDate.now();
+        return reload(doctorName == null ? "" : doctorName.trim()).snapshot().stream().filter(waiter -> !waiter.expired(today)).toList();
+    }
+
+    public int getPendingOffers() {
+        return pendingOffers.get();
+    }
+
+    // the cancellation has committed; the offer runs on its own thread so the request does not hold its connection
+    // while a second one books the replacement
+    @TransactionalEventListener
+    public void onSlotFreed(SlotFreedEvent event) {
+        String clinicID = ClinicContext.current();
+        pendingOffers.incrementAndGet();
+        offerExecutor.submit(() -> {
+            try {
+                shardRouter.inClinic(clinicID, () -> offer(event.doctorName(), event.date()));
+            } catch (RuntimeException e) {
+                log.warn("Could not offer {} on {} to the waitlist of clinic {}", event.doctorName(), event.date(), clinicID, e);
+            } finally {
+                pendingOffers.decrementAndGet();
+            }
+        });
+    }
+
+    // books the best waiter who can come on the date with the doctor, if there is one. a waiter whose patient is gone
+    // or who left the list in the meantime is dropped and the next one is tried
+    public Optional<Appointment> offer(String doctorName, LocalDate date) {
+        if (!date.isAfter(LocalDate.now())) {
+            return Optional.empty();
+        }
+
+        WaitlistQueue queue = reload(doctorName);
+        expire(queue.expire(LocalDate.now()).stream().map(Waiter::entryID).toList());
+        Waiter waiter;
+        while ((waiter = queue.claim(date)) != null) {
+            Waiter claimed = waiter;
+            Appointment booked;
+            try {
+                booked = offerTransaction.execute(tx -> {
+                    if (!patientService.patientExists(claimed.patientID())) {
+                        // a merge that committed after the claim moved the entry to the kept patient, it waits on as theirs
+                        Optional<WaitlistEntry> merged = repository.findEntry(claimed.entryID())
+                                .filter(entry -> entry.getStatus() == WaitlistStatus.WAITING && !entry.getPatientID().equals(claimed.patientID()));
+                        if (merged.isPresent()) {
+                            queue.add(Waiter.of(merged.get()));
+                        } else {
+                            repository.markCancelled(claimed.entryID(), LocalDateTime.now());
+                        }
+                        return null;
+                    }
+                    Appointment appointment = appointmentService.addAppointment(new Appointment(claimed.patientID(), doctorName, date, DESCRIPTION));
+                    if (repository.markBooked(claimed.entryID(), appointment.getAppointmentID(), LocalDateTime.now()) == 0) {
+                        tx.setRollbackOnly();
+                        return null;
+                    }
+                    return appointment;
+                });
+            } catch (RuntimeException e) {
+                queue.add(claimed);
+                throw e;
+            } finally {
+                queue.release(claimed);
+            }
+            if (booked != null) {
+                return Optional.of(booked);
+            }
+        }
+        return Optional.empty();
+    }
+
+    // moves a merged duplicate's entries to the kept patient. where both were waiting for the same doctor the kept
+    // patient's entry stays, with the higher urgency and the earlier request time of the two, and the duplicate's is
+    // cancelled. the loaded queues follow once the merge commits. the caller runs the transaction
+    public int reassignPatient(String duplicateID, String keepID) {
+        List<QueueChange> changes = new ArrayList<>();
+        for (WaitlistEntry entry : repository.findByPatientIDAndStatus(duplicateID, WaitlistStatus.WAITING)) {
+            String doctorName = entry.getDoctorName();
+            Waiter duplicate = Waiter.of(entry);
+            Optional<WaitlistEntry> kept = repository.findByPatientIDAndDoctorNameAndStatus(keepID, doctorName, WaitlistStatus.WAITING)
+                    .stream().findFirst();
+            if (kept.isPresent()) {
+                Waiter keep = Waiter.of(kept.get());
+                Waiter merged = new Waiter(keep.entryID(), keepID, Math.max(keep.urgency(), duplicate.urgency()), keep.earliestDate(),
+                        keep.latestDate(), keep.requestedAt().isAfter(duplicate.requestedAt()) ? duplicate.requestedAt() : keep.requestedAt());
+                repository.updatePriority(merged.entryID(), merged.urgency(), merged.requestedAt());
+                repository.markCancelled(duplicate.entryID(), LocalDateTime.now());
+                changes.add(new QueueChange(doctorName, keep, merged));
+                changes.add(new QueueChange(doctorName, duplicate, null));
+            } else {
+                changes.add(new QueueChange(doctorName, duplicate, new Waiter(duplicate.entryID(), keepID, duplicate.urgency(),
+                        duplicate.earliestDate(), duplicate.latestDate(), duplicate.requestedAt())));
+            }
+        }
+        int moved = repository.reassignPatient(duplicateID, keepID);
+
+        if (!changes.isEmpty()) {
+            String clinicID = ClinicContext.current();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    for (QueueChange change : changes) {
+                        // a queue not loaded yet reads the merged rows when it is first used
+                        WaitlistQueue queue = queues.get(clinicID + "|" + change.doctorName());
+                        if (queue != null && queue.remove(change.before()) && change.after() != null) {
+                            queue.add(change.after());
+                        }
+                    }
+                }
+            });
+        }
+        return moved;
+    }
+
+    private record QueueChange(String doctorName, Waiter before, Waiter after) {}
+
+    // marks the rows of waiters whose window has passed, in a transaction of its own like an offer
+    private void expire(List<Long> entryIDs) {
+        if (!entryIDs.isEmpty()) {
+            offerTransaction.executeWithoutResult(tx -> repository.markExpired(entryIDs, LocalDateTime.now()));
+        }
+    }
+
+    // the queue of a doctor in the current clinic, read from the waiting rows the first time it is needed
+    private WaitlistQueue queue(String doctorName) {
+        return queues.computeIfAbsent(ClinicContext.current() + "|" + doctorName, key -> new WaitlistQueue(waitingRows(doctorName)));
+    }
+
+    // the queue of a doctor with the waiting rows read again, other instances share the rows but not the queue
+    private WaitlistQueue reload(String doctorName) {
+        List<Waiter> rows = waitingRows(doctorName);
+        WaitlistQueue queue = queues.computeIfAbsent(ClinicContext.current() + "|" + doctorName, key -> new WaitlistQueue(rows));
+        queue.reload(rows);
+        return queue;
+    }
+
+    private List<Waiter> waitingRows(String doctorName) {
+        return repository.findByDoctorNameAndStatus(doctorName, WaitlistStatus.WAITING).stream().map(Waiter::of).toList();
+    }
+
+    @Override
+    public void destroy() {
+        offerExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,86 @@
+// keeps the appointment table current from /appointments/events instead of reloading the page
+(function () {
+    var rows = document.getElementById('appointment-rows');
+    if (!rows || !window.EventSource) {
+        return;
+    }
+    var count = document.getElementById('appointment-count');
+    var opened = false;
+    var source = new EventSource('/appointments/events');
+
+    // changes made while the stream was down were missed, so a reconnect loads the list once
+    source.onopen = function () {
+        if (opened) {
+            location.reload();
+        }
+        opened = true;
+    };
+
+    function cell(text) {
+        var td = document.createElement('td');
+        td.textContent = text == null ? '' : text;
+        return td;
+    }
+
+    function link(href, label, classes) {
+        var a = document.createElement('a');
+        a.href = href;
+        a.className = classes;
+        a.textContent = label;
+        return a;
+    }
+
+    function buildRow(event) {
+        var tr = document.createElement('tr');
+        tr.setAttribute('data-appointment-id', event.appointmentID);
+        [event.appointmentID, event.patientName, event.doctorName, event.aptDate, event.description].forEach(function (value) {
+            tr.appendChild(cell(value));
+        });
+        var actions = document.createElement('td');
+        actions.appendChild(link('/appointments/edit/' + encodeURIComponent(event.appointmentID), 'Edit', 'btn btn-warning btn-sm me-2'));
+        var remove = link('/appointments/delete/' + encodeURIComponent(event.appointmentID), 'Delete', 'btn btn-danger btn-sm');
+        remove.addEventListener('click', function (e) {
+            if (!confirm('Are you sure you want to delete this appointment?')) {
+                e.preventDefault();
+            }
+        });
+        actions.appendChild(remove);
+        tr.appendChild(actions);
+        return tr;
+    }
+
+    function findRow(appointmentID) {
+        return rows.querySelector('tr[data-appointment-id="' + CSS.escape(appointmentID) + '"]');
+    }
+
+    function updateCount() {
+        var total = rows.querySelectorAll('tr[data-appointment-id]').length;
+        count.textContent = total;
+        var empty = rows.querySelector('tr.empty-row');
+        if (empty) {
+            empty.hidden = total > 0;
+        }
+    }
+
+    function upsert(message) {
+        var event = JSON.parse(message.data);
+        var row = buildRow(event);
+        var existing = findRow(event.appointmentID);
+        if (existing) {
+            rows.replaceChild(row, existing);
+        } else {
+            rows.appendChild(row);
+        }
+        updateCount();
+    }
+
+    source.addEventListener('created', upsert);
+    source.addEventListener('updated', upsert);
+    source.addEventListener('deleted', function (message) {
+        var existing = findRow(JSON.parse(message.data).appointmentID);
+        if (existing) {
+            existing.remove();
+        }
+        updateCount();
+    });
+})();
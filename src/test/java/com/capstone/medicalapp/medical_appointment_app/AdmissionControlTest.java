@@ -0,0 +1,145 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import com.capstone.medicalapp.medical_appointment_app.admission.AdaptiveConcurrencyLimiter;
+import com.capstone.medicalapp.medical_appointment_app.admission.TokenBucketRateLimiter;
+
+@SpringBootTest(properties = {
+    "medapp.admission.burst=2",
+    "medapp.admission.rate-per-second=0.01",
+    "medapp.admission.client-header=X-Client-ID"
+})
+@AutoConfigureMockMvc
+@DisplayName("Admission Control Tests")
+class AdmissionControlTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Should answer 429 once a client used its burst, without affecting reads or other clients")
+    void shouldRateLimitWritesPerClient() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            int status = postPatient("kiosk-1");
+            assertTrue(status < 400, "write " + i + " was rejected with " + status);
+        }
+
+        assertEquals(429, postPatient("kiosk-1"));
+        assertEquals(429, mockMvc.perform(get("/patients/delete/PAT1").header("X-Client-ID", "kiosk-1")).andReturn().getResponse().getStatus());
+        assertEquals(200, mockMvc.perform(get("/patients").header("X-Client-ID", "kiosk-1")).andReturn().getResponse().getStatus());
+        assertTrue(postPatient("kiosk-2") < 400);
+    }
+
+    @Test
+    @DisplayName("Should refill tokens over time")
+    void shouldRefillTokens() {
+        AtomicLong now = new AtomicLong();
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, 2, 100, now::get);
+
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), limiter.tryAcquire("a"));
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(0, limiter.tryAcquire("a"));
+    }
+
+    @Test
+    @DisplayName("Should forget idle clients once too many are tracked")
+    void shouldEvictIdleClients() {
+        AtomicLong now = new AtomicLong();
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1, 2, now::get);
+
+        limiter.tryAcquire("a");
+        limiter.tryAcquire("b");
+        now.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        limiter.tryAcquire("c");
+
+        assertEquals(1, limiter.trackedClients());
+    }
+
+    @Test
+    @DisplayName("Should keep the limits of active clients and share one bucket among the clients beyond them")
+    void shouldNotResetActiveClients() {
+        AtomicLong now = new AtomicLong();
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1, 2, now::get);
+
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("b"));
+        assertEquals(0, limiter.tryAcquire("c"));
+        assertTrue(limiter.tryAcquire("d") > 0);
+
+        assertTrue(limiter.tryAcquire("a") > 0);
+        assertTrue(limiter.tryAcquire("b") > 0);
+        assertEquals(2, limiter.trackedClients());
+
+        // once the tracked clients are idle again a new client gets its own bucket
+        now.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        assertEquals(0, limiter.tryAcquire("d"));
+        assertEquals(1, limiter.trackedClients());
+    }
+
+    @Test
+    @DisplayName("Should shrink the concurrency limit when writes slow down and grow it back when they recover")
+    void shouldAdaptConcurrencyLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(8, 1, 16, 1.5);
+
+        saturate(limiter, 200, TimeUnit.MILLISECONDS.toNanos(5));
+        int steady = limiter.getLimit();
+        assertEquals(16, steady);
+
+        saturate(limiter, 50, TimeUnit.MILLISECONDS.toNanos(50));
+        int slowed = limiter.getLimit();
+        assertTrue(slowed < steady / 2, "limit only dropped to " + slowed);
+
+        saturate(limiter, 300, TimeUnit.MILLISECONDS.toNanos(5));
+        assertTrue(limiter.getLimit() > slowed);
+    }
+
+    @Test
+    @DisplayName("Should refuse slots beyond the limit")
+    void shouldRefuseBeyondLimit() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 4, 1.5);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.getInflight());
+    }
+
+    // fills every slot and releases them with the given latency, round after round
+    private static void saturate(AdaptiveConcurrencyLimiter limiter, int rounds, long rttNanos) {
+        for (int r = 0; r < rounds; r++) {
+            int taken = 0;
+            while (limiter.tryAcquire()) {
+                taken++;
+            }
+            for (int i = 0; i < taken; i++) {
+                limiter.release(rttNanos);
+            }
+        }
+    }
+
+    private int postPatient(String client) throws Exception {
+        return mockMvc.perform(post("/patients")
+                        .header("X-Client-ID", client)
+                        .param("name", "John Doe")
+                        .param("phone", "1234567890")
+                        .param("email", "john.doe@email.com"))
+                .andReturn().getResponse().getStatus();
+    }
+}
@@ -0,0 +1,115 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.capstone.medicalapp.medical_appointment_app.model.Patient;
+import com.capstone.medicalapp.medical_appointment_app.service.PatientService;
+
+// read latency of a patient page while a few kiosks flood the write endpoints, with admission control off and on
+// run with: ./mvnw test -Dtest=AdmissionLoadBenchmark [-Dbench.writers=64 -Dbench.seconds=10]
+@DisplayName("Admission Load Benchmark")
+class AdmissionLoadBenchmark {
+
+    private static final int READERS = 4;
+    private static final int KIOSKS = 4;
+    private static final int WARMUP_REQUESTS = 500;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Test
+    @DisplayName("Read latency during a write storm")
+    void readLatencyDuringWriteStorm() throws Exception {
+        int writers = Integer.getInteger("bench.writers", 64);
+        int seconds = Integer.getInteger("bench.seconds", 10);
+
+        System.out.printf("%-22s %-10s %-10s %-10s %-8s %s%n", "scenario", "reads", "p50 ms", "p99 ms", "writes", "write status");
+        run("reads only", true, 0, seconds);
+        run("storm, unprotected", false, writers, seconds);
+        run("storm, protected", true, writers, seconds);
+    }
+
+    private void run(String scenario, boolean admission, int writers, int seconds) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(MedicalAppApplication.class)
+                .properties("server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:admission_" + scenario.hashCode() + ";DB_CLOSE_DELAY=-1",
+                        "medapp.admission.enabled=" + admission,
+                        "medapp.admission.client-header=X-Client-ID")
+                .run()) {
+            String patientID = context.getBean(PatientService.class).addPatient(new Patient("Read Probe", "1234567890", "probe@email.com")).getPatientID();
+            String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+            // warm up the read and write paths before anything is timed
+            HttpRequest warmRead = HttpRequest.newBuilder(URI.create(base + "/patients/edit/" + patientID)).build();
+            for (int i = 0; i < WARMUP_REQUESTS; i++) {
+                client.send(warmRead, HttpResponse.BodyHandlers.discarding());
+            }
+
+            List<Long> readNanos = Collections.synchronizedList(new ArrayList<>());
+            Map<Integer, LongAdder> writeStatus = new ConcurrentHashMap<>();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+            try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int w = 0; w < writers; w++) {
+                    String kiosk = "kiosk-" + (w % KIOSKS);
+                    threads.submit(() -> {
+                        while (System.nanoTime() < deadline) {
+                            long n = sequence.incrementAndGet();
+                            HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/patients"))
+                                    .header("X-Client-ID", kiosk)
+                                    .header("Content-Type", "application/x-www-form-urlencoded")
+                                    .POST(HttpRequest.BodyPublishers.ofString("name=Storm+Patient&phone=" + String.format("%010d", n) + "&email=storm" + n + "%40email.com"))
+                                    .build();
+                            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            writeStatus.computeIfAbsent(status, s -> new LongAdder()).increment();
+                        }
+                        return null;
+                    });
+                }
+                for (int r = 0; r < READERS; r++) {
+                    threads.submit(() -> {
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/patients/edit/" + patientID)).build();
+                        while (System.nanoTime() < deadline) {
+                            long start = System.nanoTime();
+                            client.send(request, HttpResponse.BodyHandlers.discarding());
+                            readNanos.add(System.nanoTime() - start);
+                        }
+                        return null;
+                    });
+                }
+            }
+
+            List<Long> sorted = new ArrayList<>(readNanos);
+            Collections.sort(sorted);
+            long writes = writeStatus.values().stream().mapToLong(LongAdder::sum).sum();
+            System.out.printf("%-22s %-10d %-10.2f %-10.2f %-8d %s%n", scenario, sorted.size(),
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), writes, writeStatus);
+        }
+    }
+
+    private static double percentile(List<Long> sorted, double p) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        return sorted.get((int) Math.min(sorted.size() - 1, Math.round(p * (sorted.size() - 1)))) / 1e6;
+    }
+}
@@ -0,0 +1,107 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.capstone.medicalapp.medical_appointment_app.analytics.AnalyticsService;
+import com.capstone.medicalapp.medical_appointment_app.analytics.AppointmentColumns;
+import com.capstone.medicalapp.medical_appointment_app.analytics.AppointmentReports;
+import com.capstone.medicalapp.medical_appointment_app.datagen.DataGenProperties;
+import com.capstone.medicalapp.medical_appointment_app.datagen.DataGenerator;
+
+// the analytics reports over a large column snapshot on one thread and on the common fork/join pool, then the
+// snapshot build from the database next to the same report as a sql group by
+// run with: ./mvnw test -Dtest=AnalyticsBenchmark [-Dbench.rows=10000000 -Dbench.dbRows=200000] -DargLine=-Xmx3g
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:analytics_bench;DB_CLOSE_DELAY=-1")
+@DisplayName("Analytics Benchmark")
+class AnalyticsBenchmark {
+
+    private static final int DOCTORS = 200;
+    private static final int PATIENTS = 50_000;
+    private static final int ROUNDS = 5;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private DataGenerator dataGenerator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Report times over a large snapshot")
+    void reportsOverSnapshot() {
+        int rows = Integer.getInteger("bench.rows", 10_000_000);
+        Random random = new Random(42);
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        LocalDate[] days = start.datesUntil(start.plusYears(3)).toArray(LocalDate[]::new);
+
+        long buildStart = System.nanoTime();
+        AppointmentColumns.Builder builder = new AppointmentColumns.Builder(rows);
+        for (int i = 0; i < rows; i++) {
+            int day = random.nextInt(days.length);
+            builder.add("Dr. Doctor" + random.nextInt(DOCTORS), days[day], days[Math.max(0, day - random.nextInt(120))], random.nextInt(20) == 0);
+        }
+        AppointmentColumns columns = builder.build();
+        System.out.printf("built %d rows (%d MB of columns) in %d ms%n", columns.size(), columns.sizeInBytes() >> 20,
+                (System.nanoTime() - buildStart) / 1_000_000);
+
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            for (ForkJoinPool pool : List.of(single, ForkJoinPool.commonPool())) {
+                String name = pool == single ? "1 thread" : "common(" + pool.getParallelism() + ")";
+                time(name, "doctors per month", () -> AppointmentReports.perDoctorAndMonth(columns, YearMonth.of(2024, 1), YearMonth.of(2026, 12), pool).size());
+                time(name, "lead time", () -> AppointmentReports.leadTime(columns, null, null, null, pool).appointments());
+                time(name, "lead time of one doctor", () -> AppointmentReports.leadTime(columns, "Dr. Doctor7", null, null, pool).appointments());
+                time(name, "booking funnel", () -> AppointmentReports.bookingFunnel(columns, null, null, LocalDate.of(2025, 6, 1), pool).booked());
+            }
+        } finally {
+            single.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Snapshot build against a sql group by")
+    void snapshotAgainstGroupBy() {
+        int rows = Integer.getInteger("bench.dbRows", 200_000);
+        LocalDate start = LocalDate.of(2024, 1, 1);
+
+        jdbcTemplate.update("DELETE FROM appointments");
+        jdbcTemplate.update("DELETE FROM patients");
+        DataGenProperties settings = new DataGenProperties();
+        settings.setPatients(PATIENTS);
+        settings.setAppointments(rows);
+        settings.setDoctors(DOCTORS);
+        settings.setStartDate(start);
+        dataGenerator.generate(settings);
+
+        time("database", "snapshot build", () -> analyticsService.refresh().size());
+        time("database", "sql group by", () -> jdbcTemplate.queryForList("SELECT doctor_name, YEAR(appointment_date), MONTH(appointment_date), COUNT(*) FROM appointments"
+                + " WHERE clinic_code = 'MAIN' GROUP BY doctor_name, YEAR(appointment_date), MONTH(appointment_date)").size());
+        time("snapshot", "doctors per month", () -> analyticsService.getAppointmentsPerDoctorAndMonth(YearMonth.of(2024, 1), YearMonth.of(2026, 12)).size());
+    }
+
+    // best of a few rounds after one warm-up
+    private static void time(String setup, String report, Supplier<Object> run) {
+        run.get();
+        long best = Long.MAX_VALUE;
+        Object result = null;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            result = run.get();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-10s %-25s %8.1f ms (%s)%n", setup, report, best / 1e6, result);
+    }
+}
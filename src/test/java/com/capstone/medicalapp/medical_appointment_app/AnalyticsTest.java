@@ -0,0 +1,152 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import com.capstone.medicalapp.medical_appointment_app.analytics.AnalyticsService;
+import com.capstone.medicalapp.medical_appointment_app.analytics.AppointmentColumns;
+import com.capstone.medicalapp.medical_appointment_app.analytics.AppointmentReports;
+import com.capstone.medicalapp.medical_appointment_app.analytics.BookingFunnel;
+import com.capstone.medicalapp.medical_appointment_app.analytics.DoctorMonthCount;
+import com.capstone.medicalapp.medical_appointment_app.analytics.LeadTimeReport;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:analytics_test;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@DisplayName("Analytics Tests")
+class AnalyticsTest {
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private final LocalDate today = LocalDate.now();
+    private int rows;
+    private long patientKey;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM appointment_series_skips");
+        jdbcTemplate.update("DELETE FROM appointment_series");
+        jdbcTemplate.update("DELETE FROM appointments");
+        jdbcTemplate.update("DELETE FROM patients");
+        jdbcTemplate.update("INSERT INTO patients (patient_code, name, phone, email, clinic_code, created_at, updated_at) VALUES ('PAT1', 'John Doe', '1234567890', 'john.doe@email.com', 'MAIN', ?, ?)",
+                Timestamp.valueOf(today.atStartOfDay()), Timestamp.valueOf(today.atStartOfDay()));
+        patientKey = jdbcTemplate.queryForObject("SELECT patient_id FROM patients WHERE patient_code = 'PAT1'", Long.class);
+        insertAppointment("Dr. Smith", today.minusDays(3), today.minusDays(3), null);
+        insertAppointment("Dr. Smith", today.minusDays(1), today.minusDays(11), null);
+        insertAppointment("Dr. Smith", today.plusDays(40), today, "SER3001");
+        insertAppointment("Dr. Jones", today.plusDays(40), today.minusDays(2), null);
+        analyticsService.refresh();
+    }
+
+    private void insertAppointment(String doctor, LocalDate date, LocalDate bookedOn, String seriesCode) {
+        jdbcTemplate.update("INSERT INTO appointments (appointment_code, patient_code, patient_id, doctor_name, appointment_date, description, series_code, clinic_code, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                "APT" + ++rows, "PAT1", patientKey, doctor, Date.valueOf(date), "Checkup", seriesCode, "MAIN",
+                Timestamp.valueOf(bookedOn.atTime(9, 30)), Timestamp.valueOf(bookedOn.atTime(9, 30)));
+    }
+
+    @Test
+    @DisplayName("Should report appointments per doctor and month, lead times and the booking funnel")
+    void shouldAnswerReportsFromSnapshot() {
+        List<DoctorMonthCount> counts = analyticsService.getAppointmentsPerDoctorAndMonth(
+                YearMonth.from(today.minusDays(3)), YearMonth.from(today.plusDays(40)));
+        assertEquals(new DoctorMonthCount("Dr. Jones", YearMonth.from(today.plusDays(40)), 1), counts.get(0));
+        assertEquals(3, counts.stream().filter(c -> c.doctorName().equals("Dr. Smith")).mapToLong(DoctorMonthCount::appointments).sum());
+
+        LeadTimeReport smith = analyticsService.getLeadTime("Dr. Smith", null, null);
+        assertEquals(3, smith.appointments());
+        assertEquals(10, smith.medianDays());
+        assertEquals(1, smith.buckets().get(0).appointments());
+        assertEquals(0, analyticsService.getLeadTime("Dr. Nobody", null, null).appointments());
+
+        BookingFunnel funnel = analyticsService.getBookingFunnel(null, null);
+        assertEquals(4, funnel.booked());
+        assertEquals(2, funnel.upcoming());
+        assertEquals(2, funnel.past());
+        assertEquals(1, funnel.movedFromSeries());
+    }
+
+    @Test
+    @DisplayName("Should count the occurrences of a series, booked when the series was created")
+    void shouldExpandSeries() {
+        // weekly from tomorrow for four weeks, set up six days ago, the second visit cancelled
+        LocalDate first = today.plusDays(1);
+        jdbcTemplate.update("INSERT INTO appointment_series (series_code, patient_code, doctor_name, description, start_date, end_date, frequency, repeat_interval, day_of_week, clinic_code, created_at, updated_at)"
+                + " VALUES ('SER1', 'PAT1', 'Dr. Weekly', 'Dialysis', ?, ?, 'WEEKLY', 1, ?, 'MAIN', ?, ?)", Date.valueOf(first), Date.valueOf(first.plusWeeks(3)),
+                first.getDayOfWeek().getValue(), Timestamp.valueOf(today.minusDays(6).atStartOfDay()), Timestamp.valueOf(today.minusDays(6).atStartOfDay()));
+        jdbcTemplate.update("INSERT INTO appointment_series_skips (series_id, occurrence_date) SELECT series_id, ? FROM appointment_series WHERE series_code = 'SER1'",
+                Date.valueOf(first.plusWeeks(1)));
+        analyticsService.refresh();
+
+        LeadTimeReport weekly = analyticsService.getLeadTime("Dr. Weekly", null, null);
+        assertEquals(3, weekly.appointments());
+        assertEquals(21, weekly.medianDays());
+        BookingFunnel funnel = analyticsService.getBookingFunnel(null, null);
+        assertEquals(7, funnel.booked());
+        assertEquals(5, funnel.upcoming());
+        assertEquals(1, funnel.movedFromSeries());
+    }
+
+    @Test
+    @DisplayName("Should count the same in parallel as one pass does")
+    void shouldMatchSequentialCount() {
+        Random random = new Random(7);
+        AppointmentColumns.Builder builder = new AppointmentColumns.Builder(16);
+        long[] expected = new long[3];
+        LocalDate start = LocalDate.of(2026, 1, 1);
+        for (int i = 0; i < 200_000; i++) {
+            int doctor = random.nextInt(3);
+            builder.add("Dr. " + (char) ('A' + doctor), start.plusDays(random.nextInt(365)), start, false);
+            expected[doctor]++;
+        }
+        AppointmentColumns columns = builder.build();
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<DoctorMonthCount> counts = AppointmentReports.perDoctorAndMonth(columns, YearMonth.of(2026, 1), YearMonth.of(2026, 12), pool);
+            for (int doctor = 0; doctor < 3; doctor++) {
+                String name = "Dr. " + (char) ('A' + doctor);
+                assertEquals(expected[doctor], counts.stream().filter(c -> c.doctorName().equals(name)).mapToLong(DoctorMonthCount::appointments).sum());
+            }
+            assertEquals(200_000, AppointmentReports.leadTime(columns, null, null, null, pool).appointments());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should serve reports as json")
+    void shouldServeEndpoint() throws Exception {
+        String month = YearMonth.from(today.plusDays(40)).toString();
+        String json = mockMvc.perform(get("/api/analytics/doctors-per-month?from=" + month + "&to=" + month))
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(json.contains("\"doctorName\":\"Dr. Jones\""));
+        assertTrue(json.contains("\"month\":\"" + month + "\""));
+
+        assertEquals(400, mockMvc.perform(get("/api/analytics/doctors-per-month?from=" + month + "&to=2000-01"))
+                .andReturn().getResponse().getStatus());
+        assertTrue(mockMvc.perform(get("/api/analytics")).andReturn().getResponse().getContentAsString().contains("\"rows\":4"));
+    }
+}
@@ -0,0 +1,171 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.capstone.medicalapp.medical_appointment_app.dedup.PatientMergeService;
+import com.capstone.medicalapp.medical_appointment_app.model.Appointment;
+import com.capstone.medicalapp.medical_appointment_app.model.Patient;
+import com.capstone.medicalapp.medical_appointment_app.push.AppointmentBroadcaster;
+import com.capstone.medicalapp.medical_appointment_app.repository.AppointmentRepository;
+import com.capstone.medicalapp.medical_appointment_app.repository.PatientRepository;
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentService;
+import com.capstone.medicalapp.medical_appointment_app.service.PatientService;
+import com.capstone.medicalapp.medical_appointment_app.sharding.ShardRouter;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@DisplayName("Appointment Push Tests")
+class AppointmentPushTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private AppointmentBroadcaster broadcaster;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private PatientMergeService mergeService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() {
+        for (String clinicID : new String[] {"MAIN", "NORTH"}) {
+            shardRouter.inClinic(clinicID, () -> {
+                appointmentRepository.deleteAll();
+                patientRepository.deleteAll();
+                return null;
+            });
+        }
+    }
+
+    // next "event:"/"data:" pair on the stream, heartbeat and other comment lines are skipped
+    private static String[] nextEvent(BufferedReader stream) throws Exception {
+        String name = null;
+        String line;
+        while ((line = stream.readLine()) != null) {
+            if (line.startsWith("event:")) {
+                name = line.substring(6);
+            } else if (line.startsWith("data:") && name != null) {
+                return new String[] {name, line.substring(5)};
+            }
+        }
+        throw new IllegalStateException("Event stream closed");
+    }
+
+    private BufferedReader open(String clinicID) throws Exception {
+        int before = broadcaster.getSubscriberCount();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/appointments/events"))
+                .header("X-Clinic-ID", clinicID).build();
+        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("text/event-stream"));
+        while (broadcaster.getSubscriberCount() == before) {
+            Thread.sleep(10);
+        }
+        return new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should push created, updated and deleted appointments in commit order")
+    void shouldPushChangesInOrder() {
+        assertTimeoutPreemptively(Duration.ofSeconds(20), () -> {
+            BufferedReader stream = open("MAIN");
+            Patient patient = patientService.addPatient(new Patient("John Doe", "1234567890", "john.doe@email.com"));
+
+            Appointment appointment = appointmentService.addAppointment(new Appointment(patient.getPatientID(), "Dr. Smith", LocalDate.now().plusDays(3), "Checkup"));
+            appointmentService.updateAppointment(appointment.getAppointmentID(), new Appointment(patient.getPatientID(), "Dr. Jones", LocalDate.now().plusDays(4), "Follow up"));
+            appointmentService.deleteAppointment(appointment.getAppointmentID());
+
+            String[] created = nextEvent(stream);
+            assertEquals("created", created[0]);
+            assertTrue(created[1].contains("\"appointmentID\":\"" + appointment.getAppointmentID() + "\""));
+            assertTrue(created[1].contains("\"patientName\":\"John Doe\""));
+            String[] updated = nextEvent(stream);
+            assertEquals("updated", updated[0]);
+            assertTrue(updated[1].contains("\"doctorName\":\"Dr. Jones\""));
+            assertEquals("deleted", nextEvent(stream)[0]);
+            stream.close();
+        });
+    }
+
+    @Test
+    @DisplayName("Should only push a clinic's changes to that clinic's pages")
+    void shouldKeepClinicsApart() {
+        assertTimeoutPreemptively(Duration.ofSeconds(20), () -> {
+            BufferedReader north = open("NORTH");
+            Patient mainPatient = patientService.addPatient(new Patient("John Doe", "1234567890", "john.doe@email.com"));
+            appointmentService.addAppointment(new Appointment(mainPatient.getPatientID(), "Dr. Smith", LocalDate.now().plusDays(3), "Main clinic"));
+
+            Appointment northAppointment = shardRouter.inClinic("NORTH", () -> {
+                Patient patient = patientService.addPatient(new Patient("Jane Roe", "0987654321", "jane.roe@email.com"));
+                return appointmentService.addAppointment(new Appointment(patient.getPatientID(), "Dr. Jones", LocalDate.now().plusDays(3), "North clinic"));
+            });
+
+            String[] event = nextEvent(north);
+            assertTrue(event[1].contains("\"appointmentID\":\"" + northAppointment.getAppointmentID() + "\""));
+            north.close();
+        });
+    }
+
+    @Test
+    @DisplayName("Should push the moved appointments under the kept patient when duplicates are merged")
+    void shouldPushMergedAppointments() {
+        assertTimeoutPreemptively(Duration.ofSeconds(20), () -> {
+            Patient kept = patientService.addPatient(new Patient("Jon Smith", "5551234567", "jon.smith@email.com"));
+            Patient duplicate = patientService.addPatient(new Patient("John Smith", "5557654321", "johnsmith@gmail.com"));
+            Appointment moved = appointmentService.addAppointment(new Appointment(duplicate.getPatientID(), "Dr. Smith", LocalDate.now().plusDays(3), "Checkup"));
+            jdbcTemplate.update("INSERT INTO merge_proposals (keep_patient_code, keep_name, duplicate_patient_code, duplicate_name, score, reasons,"
+                    + " status, clinic_code, created_at) VALUES (?, ?, ?, ?, 0.95, 'similar name', 'PENDING', 'MAIN', CURRENT_TIMESTAMP)",
+                    kept.getPatientID(), kept.getName(), duplicate.getPatientID(), duplicate.getName());
+            Long proposalID = jdbcTemplate.queryForObject("SELECT MAX(proposal_id) FROM merge_proposals", Long.class);
+
+            BufferedReader stream = open("MAIN");
+            mergeService.approve(proposalID);
+
+            String[] updated = nextEvent(stream);
+            assertEquals("updated", updated[0]);
+            assertTrue(updated[1].contains("\"appointmentID\":\"" + moved.getAppointmentID() + "\""));
+            assertTrue(updated[1].contains("\"patientID\":\"" + kept.getPatientID() + "\""));
+            assertTrue(updated[1].contains("\"patientName\":\"Jon Smith\""));
+            stream.close();
+        });
+    }
+}
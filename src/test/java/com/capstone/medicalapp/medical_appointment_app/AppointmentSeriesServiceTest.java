@@ -0,0 +1,190 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.capstone.medicalapp.medical_appointment_app.model.Appointment;
+import com.capstone.medicalapp.medical_appointment_app.model.AppointmentSeries;
+import com.capstone.medicalapp.medical_appointment_app.model.Patient;
+import com.capstone.medicalapp.medical_appointment_app.model.RecurrenceFrequency;
+import com.capstone.medicalapp.medical_appointment_app.repository.AppointmentRepository;
+import com.capstone.medicalapp.medical_appointment_app.repository.AppointmentSeriesRepository;
+import com.capstone.medicalapp.medical_appointment_app.repository.PatientRepository;
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentSeriesService;
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentService;
+import com.capstone.medicalapp.medical_appointment_app.service.PatientService;
+
+@SpringBootTest
+@DisplayName("Appointment Series Tests")
+class AppointmentSeriesServiceTest {
+
+    @Autowired
+    private AppointmentSeriesService seriesService;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private AppointmentSeriesRepository seriesRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    private String patientId;
+    private LocalDate start;
+
+    @BeforeEach
+    void setUp() {
+        seriesRepository.deleteAll();
+        appointmentRepository.deleteAll();
+        patientRepository.deleteAll();
+
+        patientId = patientService.addPatient(new Patient("John Doe", "1234567890", "john.doe@email.com")).getPatientID();
+        start = LocalDate.now().plusDays(1);
+    }
+
+    private AppointmentSeries weeklyForAYear() {
+        return seriesService.addSeries(new AppointmentSeries(patientId, "Dr. Smith", "Dialysis", start, start.plusWeeks(51), RecurrenceFrequency.WEEKLY, 1));
+    }
+
+    @Test
+    @DisplayName("Should store a year of weekly visits as a single row")
+    void shouldStoreSeriesAsSingleRow() {
+        weeklyForAYear();
+
+        assertEquals(1, seriesRepository.count());
+        assertEquals(0, appointmentRepository.count());
+        assertEquals(52, appointmentService.getAppointmentsByPatientID(patientId).size());
+    }
+
+    @Test
+    @DisplayName("Should expand occurrences on matching dates only")
+    void shouldExpandOccurrencesByDate() {
+        AppointmentSeries series = weeklyForAYear();
+
+        List<Appointment> onOccurrence = appointmentService.getAppointmentsByDate(start.plusWeeks(10));
+        assertEquals(1, onOccurrence.size());
+        assertEquals(series.getSeriesID(), onOccurrence.get(0).getSeriesID());
+        assertEquals(series.occurrenceID(start.plusWeeks(10)), onOccurrence.get(0).getAppointmentID());
+
+        assertTrue(appointmentService.getAppointmentsByDate(start.plusWeeks(10).plusDays(1)).isEmpty());
+        assertTrue(appointmentService.getAppointmentsByDate(start.plusWeeks(52)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should only expand occurrences inside the requested range")
+    void shouldExpandOccurrencesInRange() {
+        weeklyForAYear();
+
+        List<Appointment> month = appointmentService.getAppointmentsByPatientID(patientId, start.plusWeeks(4), start.plusWeeks(8).minusDays(1));
+
+        assertEquals(4, month.size());
+        assertEquals(start.plusWeeks(4), month.get(0).getAptDate());
+    }
+
+    @Test
+    @DisplayName("Should skip a cancelled occurrence")
+    void shouldSkipCancelledOccurrence() {
+        AppointmentSeries series = weeklyForAYear();
+
+        assertTrue(seriesService.cancelOccurrence(series.getSeriesID(), start.plusWeeks(3)));
+        assertFalse(seriesService.cancelOccurrence(series.getSeriesID(), start.plusWeeks(3).plusDays(2)));
+
+        assertTrue(appointmentService.getAppointmentsByDate(start.plusWeeks(3)).isEmpty());
+        assertEquals(51, appointmentService.getAppointmentsByPatientID(patientId).size());
+    }
+
+    @Test
+    @DisplayName("Should store a moved occurrence as its own appointment")
+    void shouldStoreMovedOccurrence() {
+        AppointmentSeries series = weeklyForAYear();
+        LocalDate original = start.plusWeeks(5);
+        Appointment replacement = new Appointment(patientId, "Dr. Jones", original.plusDays(2), "Dialysis");
+
+        Appointment moved = appointmentService.moveSeriesOccurrence(series.getSeriesID(), original, replacement);
+
+        assertEquals(series.getSeriesID(), moved.getSeriesID());
+        assertEquals(1, appointmentRepository.count());
+        assertTrue(appointmentService.getAppointmentsByDate(original).isEmpty());
+        assertEquals(1, appointmentService.getAppointmentsByDate(original.plusDays(2)).size());
+        assertEquals(52, appointmentService.getAppointmentsByPatientID(patientId).size());
+    }
+
+    @Test
+    @DisplayName("Should change every occurrence with one update")
+    void shouldUpdateWholeSeries() {
+        AppointmentSeries series = weeklyForAYear();
+        AppointmentSeries changed = new AppointmentSeries(patientId, "Dr. Jones", "Dialysis", start, start.plusWeeks(25), RecurrenceFrequency.WEEKLY, 2);
+
+        seriesService.updateSeries(series.getSeriesID(), changed);
+
+        List<Appointment> occurrences = appointmentService.getAppointmentsByPatientID(patientId);
+        assertEquals(13, occurrences.size());
+        assertTrue(occurrences.stream().allMatch(a -> a.getDoctorName().equals("Dr. Jones")));
+    }
+
+    @Test
+    @DisplayName("Should edit a series that has started without rewriting its past occurrences")
+    void shouldUpdateStartedSeries() {
+        AppointmentSeries series = weeklyForAYear();
+        // four weeks in, the visit of tomorrow is the first one still to come
+        LocalDate started = start.minusWeeks(4);
+        series.setStartDate(started);
+        series.setEndDate(started.plusWeeks(51));
+        seriesRepository.save(series);
+
+        AppointmentSeries shortened = seriesService.updateSeries(series.getSeriesID(),
+                new AppointmentSeries(patientId, "Dr. Smith", "Dialysis", started, started.plusWeeks(9), RecurrenceFrequency.WEEKLY, 1)).orElseThrow();
+        assertEquals(series.getSeriesID(), shortened.getSeriesID());
+        assertEquals(10, appointmentService.getAppointmentsByPatientID(patientId).size());
+
+        AppointmentSeries continued = seriesService.updateSeries(series.getSeriesID(),
+                new AppointmentSeries(patientId, "Dr. Jones", "Dialysis", started, started.plusWeeks(9), RecurrenceFrequency.WEEKLY, 1)).orElseThrow();
+        assertEquals(start, continued.getStartDate());
+        assertEquals(start.minusDays(2), seriesService.getSeriesById(series.getSeriesID()).orElseThrow().getEndDate());
+        List<Appointment> occurrences = appointmentService.getAppointmentsByPatientID(patientId);
+        assertEquals(10, occurrences.size());
+        assertEquals(4, occurrences.stream().filter(a -> a.getDoctorName().equals("Dr. Smith") && a.getAptDate().isBefore(start)).count());
+        assertEquals(6, occurrences.stream().filter(a -> a.getDoctorName().equals("Dr. Jones") && !a.getAptDate().isBefore(start)).count());
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> seriesService.updateSeries(series.getSeriesID(),
+                new AppointmentSeries(patientId, "Dr. Smith", "Dialysis", started, started.plusWeeks(1), RecurrenceFrequency.WEEKLY, 1)));
+        assertEquals("Series has started, its end date cannot remove past occurrences", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should clamp monthly occurrences to the end of short months")
+    void shouldClampMonthlyOccurrences() {
+        LocalDate monthEnd = LocalDate.now().plusYears(1).withMonth(1).withDayOfMonth(31);
+        seriesService.addSeries(new AppointmentSeries(patientId, "Dr. Smith", "Review", monthEnd, monthEnd.plusMonths(2), RecurrenceFrequency.MONTHLY, 1));
+
+        LocalDate february = monthEnd.plusMonths(1);
+        assertEquals(1, appointmentService.getAppointmentsByDate(february).size());
+        assertEquals(3, appointmentService.getAppointmentsByPatientID(patientId).size());
+    }
+
+    @Test
+    @DisplayName("Should reject a series that ends before it starts")
+    void shouldRejectInvalidRange() {
+        AppointmentSeries series = new AppointmentSeries(patientId, "Dr. Smith", "Dialysis", start, start.minusDays(1), RecurrenceFrequency.WEEKLY, 1);
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> seriesService.addSeries(series));
+        assertEquals("Series end date cannot be before its start date", exception.getMessage());
+    }
+}
@@ -0,0 +1,177 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.capstone.medicalapp.medical_appointment_app.audit.AuditAction;
+import com.capstone.medicalapp.medical_appointment_app.audit.AuditBackpressureException;
+import com.capstone.medicalapp.medical_appointment_app.audit.AuditEvent;
+import com.capstone.medicalapp.medical_appointment_app.audit.AuditLog;
+import com.capstone.medicalapp.medical_appointment_app.audit.AuditQueue;
+import com.capstone.medicalapp.medical_appointment_app.audit.AuditSnapshots;
+import com.capstone.medicalapp.medical_appointment_app.audit.AuditWriter;
+import com.capstone.medicalapp.medical_appointment_app.model.Appointment;
+import com.capstone.medicalapp.medical_appointment_app.model.AuditEntry;
+import com.capstone.medicalapp.medical_appointment_app.model.Patient;
+import com.capstone.medicalapp.medical_appointment_app.repository.AppointmentRepository;
+import com.capstone.medicalapp.medical_appointment_app.repository.AuditEntryRepository;
+import com.capstone.medicalapp.medical_appointment_app.repository.PatientRepository;
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentService;
+import com.capstone.medicalapp.medical_appointment_app.service.PatientService;
+
+@SpringBootTest
+@DisplayName("Audit Log Tests")
+class AuditLogTest {
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private AuditWriter auditWriter;
+
+    @Autowired
+    private AuditQueue auditQueue;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private AuditEntryRepository auditEntryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        auditWriter.awaitDrained(Duration.ofSeconds(5));
+        auditEntryRepository.deleteAll();
+        appointmentRepository.deleteAll();
+        patientRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Should record create, update and delete of a patient in order")
+    void shouldRecordPatientHistory() {
+        Patient patient = patientService.addPatient(new Patient("John Doe", "1234567890", "john.doe@email.com"));
+        patientService.updatePatient(patient.getPatientID(), new Patient("John Doe", "0987654321", "john.doe@email.com"));
+        patientService.deletePatient(patient.getPatientID());
+
+        assertTrue(auditWriter.awaitDrained(Duration.ofSeconds(5)));
+        List<AuditEntry> history = auditLog.getHistory(AuditSnapshots.PATIENT, patient.getPatientID());
+
+        assertEquals(3, history.size());
+        assertEquals("CREATE", history.get(0).getAction());
+        assertEquals("UPDATE", history.get(1).getAction());
+        assertEquals("phone: 1234567890 -> 0987654321", history.get(1).getDetails());
+        assertEquals("DELETE", history.get(2).getAction());
+    }
+
+    @Test
+    @DisplayName("Should not record an update that changed nothing")
+    void shouldSkipUnchangedUpdate() {
+        Patient patient = patientService.addPatient(new Patient("John Doe", "1234567890", "john.doe@email.com"));
+        patientService.updatePatient(patient.getPatientID(), new Patient("John Doe", "1234567890", "john.doe@email.com"));
+
+        assertTrue(auditWriter.awaitDrained(Duration.ofSeconds(5)));
+        assertEquals(1, auditLog.getHistory(AuditSnapshots.PATIENT, patient.getPatientID()).size());
+    }
+
+    @Test
+    @DisplayName("Should not record a write that failed validation")
+    void shouldNotRecordFailedWrite() {
+        assertThrows(IllegalArgumentException.class, () -> patientService.addPatient(new Patient("", "1234567890", "john.doe@email.com")));
+
+        assertTrue(auditWriter.awaitDrained(Duration.ofSeconds(5)));
+        assertEquals(0, auditEntryRepository.count());
+    }
+
+    @Test
+    @DisplayName("Should refuse events once the queue is full until permits are released")
+    void shouldBoundQueue() {
+        AuditQueue queue = new AuditQueue(2);
+        AuditEvent event = new AuditEvent(AuditSnapshots.PATIENT, "PAT1", AuditAction.CREATE, "system", "", "MAIN", LocalDateTime.now());
+
+        assertTrue(queue.tryReserve());
+        assertTrue(queue.tryReserve());
+        assertFalse(queue.tryReserve());
+
+        queue.publish(event);
+        assertEquals(1, queue.size());
+
+        queue.release(1);
+        assertTrue(queue.tryReserve());
+        assertEquals(2, queue.permitsUsed());
+
+        // a bulk reservation takes all its permits or none
+        queue.release(1);
+        assertFalse(queue.tryReserve(2));
+        assertEquals(1, queue.permitsUsed());
+        queue.release(1);
+        assertTrue(queue.tryReserve(2));
+    }
+
+    @Test
+    @DisplayName("Should refuse a bulk change with a full queue before it writes, after one block timeout")
+    void shouldReserveBulkChangesUpFront() {
+        String patientID = patientService.addPatient(new Patient("John Doe", "1234567890", "john.doe@email.com")).getPatientID();
+        for (int i = 1; i <= 4; i++) {
+            appointmentService.addAppointment(new Appointment(patientID, "Dr. Smith", LocalDate.now().plusDays(i), "Checkup"));
+        }
+        auditWriter.awaitDrained(Duration.ofSeconds(5));
+
+        // three free slots for four events
+        int taken = 0;
+        while (auditQueue.permitsUsed() < auditQueue.capacity() - 3 && auditQueue.tryReserve()) {
+            taken++;
+        }
+        try {
+            long start = System.nanoTime();
+            assertThrows(AuditBackpressureException.class, () -> appointmentService.deleteAppointmentsByPatientId(patientID));
+            long millis = (System.nanoTime() - start) / 1_000_000;
+
+            // one wait for the whole transaction, not one per appointment
+            assertTrue(millis < 1500, millis + " ms");
+            assertEquals(4, appointmentRepository.count());
+            assertEquals(auditQueue.capacity() - 3, auditQueue.permitsUsed());
+        } finally {
+            auditQueue.release(taken);
+        }
+        assertEquals(4, appointmentService.deleteAppointmentsByPatientId(patientID));
+    }
+
+    @Test
+    @DisplayName("Should refuse a change with more events than the queue holds without waiting")
+    void shouldRefuseChangesLargerThanTheQueue() {
+        long start = System.nanoTime();
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> new TransactionTemplate(transactionManager)
+                .executeWithoutResult(tx -> auditLog.reserve(auditQueue.capacity() + 1)));
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(exception.getMessage().contains("split the change"));
+        assertTrue(millis < 500, millis + " ms");
+        assertEquals(0, auditQueue.permitsUsed());
+    }
+}
@@ -0,0 +1,136 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import com.capstone.medicalapp.medical_appointment_app.model.Appointment;
+import com.capstone.medicalapp.medical_appointment_app.model.AppointmentCount;
+import com.capstone.medicalapp.medical_appointment_app.model.AppointmentSeries;
+import com.capstone.medicalapp.medical_appointment_app.model.Patient;
+import com.capstone.medicalapp.medical_appointment_app.model.RecurrenceFrequency;
+import com.capstone.medicalapp.medical_appointment_app.repository.AppointmentRepository;
+import com.capstone.medicalapp.medical_appointment_app.repository.AppointmentSeriesRepository;
+import com.capstone.medicalapp.medical_appointment_app.repository.PatientRepository;
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentSeriesService;
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentService;
+import com.capstone.medicalapp.medical_appointment_app.service.PatientService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@DisplayName("Calendar View Tests")
+class CalendarViewTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentSeriesService seriesService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private AppointmentSeriesRepository seriesRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private String patientId;
+    private LocalDate monday;
+
+    @BeforeEach
+    void setUp() {
+        seriesRepository.deleteAll();
+        appointmentRepository.deleteAll();
+        patientRepository.deleteAll();
+
+        patientId = patientService.addPatient(new Patient("John Doe", "1234567890", "john.doe@email.com")).getPatientID();
+        monday = LocalDate.now().plusWeeks(2).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    private void book(String doctor, LocalDate date) {
+        appointmentService.addAppointment(new Appointment(patientId, doctor, date, "Checkup"));
+    }
+
+    @Test
+    @DisplayName("Should count appointments and series occurrences per day and doctor")
+    void shouldCountPerDayAndDoctor() {
+        book("Dr. Smith", monday);
+        book("Dr. Smith", monday);
+        book("Dr. Jones", monday);
+        book("Dr. Jones", monday.plusDays(2));
+        book("Dr. Jones", monday.plusDays(9));
+        seriesService.addSeries(new AppointmentSeries(patientId, "Dr. Smith", "Dialysis", monday, monday.plusWeeks(10), RecurrenceFrequency.WEEKLY, 1));
+
+        Map<LocalDate, List<AppointmentCount>> week = appointmentService.getCalendarCounts(monday, monday.plusDays(6), null);
+
+        assertEquals(List.of(new AppointmentCount(monday, "Dr. Jones", 1), new AppointmentCount(monday, "Dr. Smith", 3)), week.get(monday));
+        assertEquals(List.of(new AppointmentCount(monday.plusDays(2), "Dr. Jones", 1)), week.get(monday.plusDays(2)));
+        assertEquals(2, week.size());
+
+        Map<LocalDate, List<AppointmentCount>> smith = appointmentService.getCalendarCounts(monday, monday.plusDays(13), "Dr. Smith");
+        assertEquals(List.of(new AppointmentCount(monday.plusWeeks(1), "Dr. Smith", 1)), smith.get(monday.plusWeeks(1)));
+        assertFalse(smith.containsKey(monday.plusDays(2)));
+
+        assertEquals(5, appointmentService.getAppointmentsBetween(monday, monday.plusDays(6), null).size());
+        assertEquals(3, appointmentService.getAppointmentsBetween(monday, monday.plusDays(13), "Dr. Jones").size());
+        assertThrows(IllegalArgumentException.class, () -> appointmentService.getCalendarCounts(monday, monday.minusDays(1), null));
+    }
+
+    @Test
+    @DisplayName("Should render a week or a month with the same queries however many appointments it shows")
+    void shouldRenderWithConstantQueries() throws Exception {
+        seriesService.addSeries(new AppointmentSeries(patientId, "Dr. Smith", "Dialysis", monday, monday.plusWeeks(10), RecurrenceFrequency.WEEKLY, 1));
+        for (int i = 0; i < 28; i++) {
+            book(i % 2 == 0 ? "Dr. Smith" : "Dr. Jones", monday.plusDays(i));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        String week = page("/appointments/calendar?view=week&date=" + monday);
+        long weekStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        String month = page("/appointments/calendar?view=month&date=" + monday.plusWeeks(2));
+        long monthStatements = statistics.getPrepareStatementCount();
+
+        assertEquals(2, weekStatements);
+        assertEquals(weekStatements, monthStatements);
+        assertTrue(week.contains("Week of " + monday));
+        assertTrue(week.contains("Dr. Jones"));
+        assertTrue(month.contains("Dr. Smith"));
+    }
+
+    private String page(String url) throws Exception {
+        return mockMvc.perform(get(url)).andReturn().getResponse().getContentAsString();
+    }
+}
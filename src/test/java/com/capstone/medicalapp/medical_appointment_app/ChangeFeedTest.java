@@ -0,0 +1,205 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import com.capstone.medicalapp.medical_appointment_app.audit.AuditSnapshots;
+import com.capstone.medicalapp.medical_appointment_app.changefeed.Change;
+import com.capstone.medicalapp.medical_appointment_app.changefeed.ChangeFeedService;
+import com.capstone.medicalapp.medical_appointment_app.changefeed.ChangePage;
+import com.capstone.medicalapp.medical_appointment_app.model.Appointment;
+import com.capstone.medicalapp.medical_appointment_app.model.ChangeOperation;
+import com.capstone.medicalapp.medical_appointment_app.model.Patient;
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentService;
+import com.capstone.medicalapp.medical_appointment_app.service.PatientService;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:changefeed_test;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@DisplayName("Change Feed Tests")
+class ChangeFeedTest {
+
+    @Autowired
+    private ChangeFeedService changeFeed;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM appointments");
+        jdbcTemplate.update("DELETE FROM patients");
+        jdbcTemplate.update("DELETE FROM change_log");
+    }
+
+    @Test
+    @DisplayName("Should return each changed record once with its current data and a tombstone for deletes")
+    void shouldReturnChangesAndTombstones() throws Exception {
+        Patient patient = patientService.addPatient(new Patient("John Doe", "1234567890", "john.doe@email.com"));
+        Appointment appointment = appointmentService.addAppointment(new Appointment(patient.getPatientID(), "Dr. Smith", LocalDate.now().plusDays(3), "Checkup"));
+        patientService.updatePatient(patient.getPatientID(), new Patient("Johnny Doe", "1234567890", "john.doe@email.com"));
+        appointmentService.deleteAppointment(appointment.getAppointmentID());
+
+        ChangePage page = changeFeed.getChanges(null, null);
+
+        assertEquals(2, page.changes().size());
+        Change patientChange = page.changes().get(0);
+        assertEquals(AuditSnapshots.PATIENT, patientChange.entityType());
+        assertEquals(ChangeOperation.UPSERT, patientChange.operation());
+        assertEquals("Johnny Doe", ((Patient) patientChange.data()).getName());
+        Change tombstone = page.changes().get(1);
+        assertEquals(appointment.getAppointmentID(), tombstone.entityID());
+        assertEquals(ChangeOperation.DELETE, tombstone.operation());
+        assertNull(tombstone.data());
+        assertFalse(page.hasMore());
+
+        assertTrue(changeFeed.getChanges(page.cursor(), null).changes().isEmpty());
+        patientService.deletePatient(patient.getPatientID());
+        List<Change> next = changeFeed.getChanges(page.cursor(), null).changes();
+        assertEquals(1, next.size());
+        assertEquals(ChangeOperation.DELETE, next.get(0).operation());
+    }
+
+    @Test
+    @DisplayName("Should page through the feed and start after a full download from the head cursor")
+    void shouldPageFromCursor() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            patientService.addPatient(new Patient("Patient " + (char) ('A' + i), "555000000" + i, "patient" + i + "@email.com"));
+        }
+        String head = changeFeed.getHeadCursor();
+
+        Set<String> seen = new HashSet<>();
+        ChangePage page = changeFeed.getChanges(null, 2);
+        seen.addAll(page.changes().stream().map(Change::entityID).toList());
+        while (page.hasMore()) {
+            assertEquals(2, page.changes().size());
+            page = changeFeed.getChanges(page.cursor(), 2);
+            seen.addAll(page.changes().stream().map(Change::entityID).toList());
+        }
+        assertEquals(5, seen.size());
+
+        assertTrue(changeFeed.getChanges(head, null).changes().isEmpty());
+        Patient added = patientService.addPatient(new Patient("Late Patient", "5551110000", "late@email.com"));
+        assertEquals(List.of(added.getPatientID()), changeFeed.getChanges(head, null).changes().stream().map(Change::entityID).toList());
+    }
+
+    @Test
+    @DisplayName("Should not lose changes written while a client is syncing")
+    void shouldKeepUpWithConcurrentWriters() throws Exception {
+        int writers = 4;
+        int perWriter = 25;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < perWriter; i++) {
+                    int n = writer * perWriter + i;
+                    patientService.addPatient(new Patient("Patient " + (char) ('A' + writer), String.format("%010d", n), "p" + n + "@email.com"));
+                }
+            }));
+        }
+
+        Set<String> synced = new HashSet<>();
+        String cursor = null;
+        boolean writing = true;
+        while (writing) {
+            writing = futures.stream().anyMatch(f -> !f.isDone());
+            ChangePage page;
+            do {
+                page = changeFeed.getChanges(cursor, 7);
+                page.changes().forEach(change -> synced.add(change.entityID()));
+                cursor = page.cursor();
+            } while (page.hasMore());
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        assertEquals(writers * perWriter, synced.size());
+    }
+
+    @Test
+    @DisplayName("Should not hide a change whose transaction commits after a later one")
+    void shouldKeepLongTransactions() throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch synced = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> slow = executor.submit(() -> transaction.execute(status -> {
+                String patientID = patientService.addPatient(new Patient("Slow Writer", "1234567890", "slow@email.com")).getPatientID();
+                written.countDown();
+                try {
+                    synced.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return patientID;
+            }));
+            assertTrue(written.await(10, TimeUnit.SECONDS));
+
+            // a quicker write commits first and the client syncs past it while the slow one is still open
+            Patient quick = patientService.addPatient(new Patient("Quick Writer", "0987654321", "quick@email.com"));
+                ChangePage page = changeFeed.getChanges(null, null);
+            assertEquals(List.of(quick.getPatientID()), page.changes().stream().map(Change::entityID).toList());
+
+            synced.countDown();
+            String slowID = slow.get(10, TimeUnit.SECONDS);
+                assertEquals(List.of(slowID), changeFeed.getChanges(page.cursor(), null).changes().stream().map(Change::entityID).toList());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should serve the feed as json and refuse a bad cursor")
+    void shouldServeEndpoint() throws Exception {
+        patientService.addPatient(new Patient("John Doe", "1234567890", "john.doe@email.com"));
+
+        String json = mockMvc.perform(get("/api/changes")).andReturn().getResponse().getContentAsString();
+        assertTrue(json.contains("\"operation\":\"UPSERT\""));
+        assertTrue(json.contains("\"name\":\"John Doe\""));
+        assertTrue(json.contains("\"cursor\":"));
+
+        assertEquals(400, mockMvc.perform(get("/api/changes?cursor=not-a-cursor")).andReturn().getResponse().getStatus());
+        assertEquals(200, mockMvc.perform(get("/api/changes/head")).andReturn().getResponse().getStatus());
+    }
+}
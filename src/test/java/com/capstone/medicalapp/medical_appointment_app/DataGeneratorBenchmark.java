@@ -0,0 +1,70 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.capstone.medicalapp.medical_appointment_app.datagen.DataGenProperties;
+import com.capstone.medicalapp.medical_appointment_app.datagen.DataGenReport;
+import com.capstone.medicalapp.medical_appointment_app.datagen.DataGenerator;
+
+// generation speed into the database (an in-memory H2 here, point spring.datasource.url at MySQL to time that) with
+// one worker and with one per cpu, then into dump files
+// run with: ./mvnw test -Dtest=DataGeneratorBenchmark [-Dbench.patients=200000 -Dbench.appointments=2000000 -Dbench.dumpAppointments=10000000] -DargLine=-Xmx3g
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:data_generator_bench;DB_CLOSE_DELAY=-1")
+@DisplayName("Data Generator Benchmark")
+class DataGeneratorBenchmark {
+
+    @Autowired
+    private DataGenerator dataGenerator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static DataGenProperties settings(int patients, int appointments, int workers, String prefix) {
+        DataGenProperties settings = new DataGenProperties();
+        settings.setPatients(patients);
+        settings.setAppointments(appointments);
+        settings.setStartDate(LocalDate.of(2024, 1, 1));
+        settings.setWorkers(workers);
+        settings.setCodePrefix(prefix);
+        return settings;
+    }
+
+    @Test
+    @DisplayName("Rows per second into the database and into dump files")
+    void generate() throws Exception {
+        int patients = Integer.getInteger("bench.patients", 200_000);
+        int appointments = Integer.getInteger("bench.appointments", 2_000_000);
+        int dumpAppointments = Integer.getInteger("bench.dumpAppointments", 10_000_000);
+
+        // a warm-up, then each worker count into its own clinic
+        dataGenerator.generate(settings(10_000, 50_000, 0, "W"));
+        int cpus = Runtime.getRuntime().availableProcessors();
+        for (int workers : cpus == 1 ? new int[] {1} : new int[] {1, cpus}) {
+            DataGenProperties settings = settings(patients, appointments, workers, workers == 1 ? "S" : "P");
+            settings.setClinic("BENCH" + workers);
+            print(dataGenerator.generate(settings));
+            assertEquals((long) appointments, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM appointments WHERE clinic_code = ?", Long.class,
+                    settings.getClinic()));
+        }
+
+        Path directory = Files.createTempDirectory("datagen-bench");
+        DataGenProperties dump = settings(patients * 5, dumpAppointments, 0, "G");
+        dump.setOutput(directory.toString());
+        print(dataGenerator.generate(dump));
+        System.out.printf("dump: %d MB%n", (Files.size(directory.resolve("patients.csv")) + Files.size(directory.resolve("appointments.csv"))) >> 20);
+    }
+
+    private static void print(DataGenReport report) {
+        System.out.printf("%-22s %2d workers: %9d patients in %6d ms, %9d appointments in %6d ms, %8d rows/s%n", report.target(), report.workers(),
+                report.patients(), report.patientsMs(), report.appointments(), report.appointmentsMs(), report.rowsPerSecond());
+    }
+}
@@ -0,0 +1,125 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.capstone.medicalapp.medical_appointment_app.datagen.DataGenProperties;
+import com.capstone.medicalapp.medical_appointment_app.datagen.DataGenReport;
+import com.capstone.medicalapp.medical_appointment_app.datagen.DataGenerator;
+import com.capstone.medicalapp.medical_appointment_app.datagen.SyntheticData;
+import com.capstone.medicalapp.medical_appointment_app.datagen.SyntheticData.PatientRow;
+import com.capstone.medicalapp.medical_appointment_app.model.Patient;
+import com.capstone.medicalapp.medical_appointment_app.service.PatientService;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:data_generator_test;DB_CLOSE_DELAY=-1")
+@DisplayName("Data Generator Tests")
+class DataGeneratorTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    @Autowired
+    private DataGenerator dataGenerator;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM appointments");
+        jdbcTemplate.update("DELETE FROM patients");
+    }
+
+    private static DataGenProperties settings(int patients, int appointments, int workers, int batchSize) {
+        DataGenProperties settings = new DataGenProperties();
+        settings.setPatients(patients);
+        settings.setAppointments(appointments);
+        settings.setDoctors(50);
+        settings.setStartDate(START);
+        settings.setWorkers(workers);
+        settings.setBatchSize(batchSize);
+        return settings;
+    }
+
+    @Test
+    @DisplayName("Generated patients pass the patient validation and only depend on the seed")
+    void shouldGenerateValidPatients() {
+        SyntheticData data = new SyntheticData(42, 1000, 50, 0.8, START, 3, "G");
+        for (int i = 0; i < 300; i++) {
+            PatientRow row = data.patient(i);
+            assertDoesNotThrow(() -> patientService.addPatient(new Patient(row.name(), row.phone(), row.email())), row.toString());
+        }
+
+        assertEquals(data.patient(7), new SyntheticData(42, 1000, 50, 0.8, START, 3, "G").patient(7));
+        assertEquals(data.appointment(7), new SyntheticData(42, 1000, 50, 0.8, START, 3, "G").appointment(7));
+        assertNotEquals(data.appointment(7), new SyntheticData(43, 1000, 50, 0.8, START, 3, "G").appointment(7));
+    }
+
+    @Test
+    @DisplayName("Parallel workers fill the clinic with linked, skewed appointments")
+    void shouldPopulateDatabase() {
+        DataGenReport report = dataGenerator.generate(settings(2000, 20_000, 4, 500));
+
+        assertEquals(2000L, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM patients WHERE clinic_code = 'MAIN'", Long.class));
+        assertEquals(20_000L, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM appointments a JOIN patients p"
+                + " ON p.patient_id = a.patient_id AND p.patient_code = a.patient_code", Long.class));
+        assertEquals(START, report.from());
+        assertEquals(LocalDate.of(2026, 12, 31), report.to());
+
+        // the busiest doctor has several times an even share, nobody comes on a sunday
+        long busiest = jdbcTemplate.queryForObject("SELECT MAX(n) FROM (SELECT COUNT(*) n FROM appointments GROUP BY doctor_name)", Long.class);
+        assertTrue(busiest > 3 * 20_000 / 50, "busiest doctor has " + busiest);
+        List<LocalDate> dates = jdbcTemplate.queryForList("SELECT DISTINCT appointment_date FROM appointments", LocalDate.class);
+        assertTrue(dates.stream().noneMatch(date -> date.getDayOfWeek() == DayOfWeek.SUNDAY));
+
+        assertThrows(IllegalStateException.class, () -> dataGenerator.generate(settings(10, 10, 1, 5)));
+    }
+
+    @Test
+    @DisplayName("Dump files are the same for any number of workers and load into H2")
+    void shouldWriteIdenticalDumps(@TempDir Path directory) throws Exception {
+        DataGenProperties oneWorker = settings(1500, 12_000, 1, 700);
+        oneWorker.setOutput(directory.resolve("one").toString());
+        DataGenProperties manyWorkers = settings(1500, 12_000, 3, 250);
+        manyWorkers.setOutput(directory.resolve("many").toString());
+        dataGenerator.generate(oneWorker);
+        dataGenerator.generate(manyWorkers);
+
+        for (String file : List.of("patients.csv", "appointments.csv")) {
+            assertArrayEquals(Files.readAllBytes(directory.resolve("one").resolve(file)), Files.readAllBytes(directory.resolve("many").resolve(file)), file);
+        }
+
+        Path dump = directory.resolve("many");
+        jdbcTemplate.update("INSERT INTO patients (patient_id, patient_code, name, phone, email, clinic_code, created_at, updated_at)"
+                + " SELECT * FROM CSVREAD('" + dump.resolve("patients.csv") + "')");
+        jdbcTemplate.update("INSERT INTO appointments (appointment_code, patient_code, patient_id, doctor_name, appointment_date, description,"
+                + " clinic_code, created_at, updated_at) SELECT * FROM CSVREAD('" + dump.resolve("appointments.csv") + "')");
+        jdbcTemplate.update("ALTER TABLE patients ALTER COLUMN patient_id RESTART WITH 1501");
+
+        Map<String, Object> counts = jdbcTemplate.queryForMap("SELECT COUNT(*) n, COUNT(DISTINCT a.patient_code) patients FROM appointments a"
+                + " JOIN patients p ON p.patient_id = a.patient_id AND p.patient_code = a.patient_code");
+        assertEquals(12_000L, ((Number) counts.get("n")).longValue());
+        assertTrue(((Number) counts.get("patients")).longValue() > 1000);
+        assertDoesNotThrow(() -> patientService.addPatient(new Patient("John Doe", "1234567890", "john.doe@email.com")));
+    }
+}
@@ -0,0 +1,87 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.capstone.medicalapp.medical_appointment_app.dedup.ContactFilters;
+import com.capstone.medicalapp.medical_appointment_app.model.Patient;
+import com.capstone.medicalapp.medical_appointment_app.service.PatientService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// patient insert throughput with the duplicate check answered by the filters vs by a lookup on every insert,
+// against a clinic that already holds bench.existing patients
+// run with: ./mvnw test -Dtest=DuplicateCheckBenchmark [-Dbench.existing=200000 -Dbench.inserts=20000]
+@DisplayName("Duplicate Check Benchmark")
+class DuplicateCheckBenchmark {
+
+    private static final int WARMUP_INSERTS = 2000;
+
+    @Test
+    @DisplayName("Insert throughput, filters vs lookups")
+    void insertThroughput() {
+        int existing = Integer.getInteger("bench.existing", 100_000);
+        int inserts = Integer.getInteger("bench.inserts", 10_000);
+
+        System.out.printf("%-10s %-12s %-14s %-18s%n", "check", "inserts/s", "db lookups", "lookups/insert");
+        run("lookups", false, existing, inserts);
+        run("filters", true, existing, inserts);
+    }
+
+    private void run(String mode, boolean filters, int existing, int inserts) {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(MedicalAppApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:dedup_bench_" + mode + ";DB_CLOSE_DELAY=-1",
+                        "medapp.dedup.filter-enabled=" + filters)
+                .run()) {
+            PatientService patientService = context.getBean(PatientService.class);
+            MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+
+            // existing patients go in with plain SQL, then the filters are loaded again as they would be at startup
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> rows = new ArrayList<>();
+            for (int i = 0; i < existing; i++) {
+                rows.add(new Object[] {"OLD" + i, "Existing Patient", String.format("%010d", i), "existing" + i + "@email.com", "MAIN", now, now});
+                if (rows.size() == 5000) {
+                    insertRows(context, rows);
+                    rows.clear();
+                }
+            }
+            insertRows(context, rows);
+            context.getBean(ContactFilters.class).load();
+
+            int next = existing;
+            for (int i = 0; i < WARMUP_INSERTS; i++, next++) {
+                patientService.addPatient(new Patient("Warm Patient", String.format("%010d", next), "new" + next + "@email.com"));
+            }
+
+            double lookupsBefore = lookups(meterRegistry);
+            long start = System.nanoTime();
+            for (int i = 0; i < inserts; i++, next++) {
+                patientService.addPatient(new Patient("New Patient", String.format("%010d", next), "new" + next + "@email.com"));
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            double lookups = lookups(meterRegistry) - lookupsBefore;
+
+            System.out.printf("%-10s %-12.0f %-14.0f %-18.3f%n", mode, inserts / seconds, lookups, lookups / inserts);
+        }
+    }
+
+    private static double lookups(MeterRegistry meterRegistry) {
+        return meterRegistry.counter("medapp.dedup.checks", "result", "false_positive").count()
+                + meterRegistry.counter("medapp.dedup.checks", "result", "duplicate").count();
+    }
+
+    private static void insertRows(ConfigurableApplicationContext context, List<Object[]> rows) {
+        context.getBean(JdbcTemplate.class).batchUpdate("INSERT INTO patients (patient_code, name, phone, email, clinic_code, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+}
@@ -0,0 +1,137 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.capstone.medicalapp.medical_appointment_app.dedup.CountingBloomFilter;
+import com.capstone.medicalapp.medical_appointment_app.model.Patient;
+import com.capstone.medicalapp.medical_appointment_app.repository.AppointmentRepository;
+import com.capstone.medicalapp.medical_appointment_app.service.PatientService;
+import com.capstone.medicalapp.medical_appointment_app.sharding.ShardRouter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest
+@DisplayName("Duplicate Patient Tests")
+class DuplicatePatientTest {
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM patients");
+    }
+
+    private double filteredChecks() {
+        return meterRegistry.counter("medapp.dedup.checks", "result", "filtered").count();
+    }
+
+    @Test
+    @DisplayName("Should refuse a second patient with the same email or phone")
+    void shouldRefuseDuplicates() {
+        patientService.addPatient(new Patient("John Doe", "1234567890", "john.doe@email.com"));
+
+        IllegalArgumentException email = assertThrows(IllegalArgumentException.class,
+                () -> patientService.addPatient(new Patient("Johnny Doe", "1112223333", "John.Doe@Email.com")));
+        assertEquals("A patient with this email already exists", email.getMessage());
+
+        IllegalArgumentException phone = assertThrows(IllegalArgumentException.class,
+                () -> patientService.addPatient(new Patient("Jane Doe", "1234567890", "jane.doe@email.com")));
+        assertEquals("A patient with this phone number already exists", phone.getMessage());
+
+        assertEquals(1, patientService.getPatientCount());
+    }
+
+    @Test
+    @DisplayName("Should answer new values from the filters without a lookup")
+    void shouldSkipLookupForNewValues() {
+        double before = filteredChecks();
+
+        patientService.addPatient(new Patient("Mary Major", "5556667777", "mary.major@email.com"));
+
+        assertEquals(before + 2, filteredChecks());
+    }
+
+    @Test
+    @DisplayName("Should free an email and phone once the patient changes or is deleted")
+    void shouldFreeValuesOnUpdateAndDelete() {
+        Patient patient = patientService.addPatient(new Patient("John Doe", "1234567890", "john.doe@email.com"));
+        patientService.updatePatient(patient.getPatientID(), new Patient("John Doe", "1234567890", "john@email.com"));
+
+        assertDoesNotThrow(() -> patientService.addPatient(new Patient("Johnny Doe", "1112223333", "john.doe@email.com")));
+
+        patientService.deletePatient(patient.getPatientID());
+
+        assertDoesNotThrow(() -> patientService.addPatient(new Patient("Jack Doe", "1234567890", "jack@email.com")));
+    }
+
+    @Test
+    @DisplayName("Should allow the same email at another clinic")
+    void shouldAllowSameValuesAtOtherClinics() {
+        shardRouter.inClinic("EAST", () -> patientService.addPatient(new Patient("Jane Doe", "1234567890", "jane@email.com")));
+
+        assertDoesNotThrow(() -> shardRouter.inClinic("WEST", () -> patientService.addPatient(new Patient("Jane Doe", "1234567890", "jane@email.com"))));
+    }
+
+    @Test
+    @DisplayName("Should fall back on the unique constraint for rows the filters never saw")
+    void shouldRefuseDuplicatesWrittenOutsideTheService() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO patients (patient_code, name, phone, email, clinic_code, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                "PAT1", "Rick Roe", "4445556666", "rick@email.com", "MAIN", now, now);
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> patientService.addPatient(new Patient("Rick Roe", "7778889999", "rick@email.com")));
+        assertEquals("A patient with this email already exists", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Counting filter never forgets an added value and can take values out")
+    void countingFilterAddsAndRemoves() {
+        CountingBloomFilter filter = new CountingBloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("patient" + i + "@email.com");
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("patient" + i + "@email.com"));
+        }
+
+        int falsePositives = 0;
+        for (int i = 10_000; i < 20_000; i++) {
+            if (filter.mightContain("patient" + i + "@email.com")) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 200, "false positives: " + falsePositives);
+
+        filter.remove("patient0@email.com");
+        assertFalse(filter.mightContain("patient0@email.com"));
+        assertEquals(9_999, filter.entries());
+    }
+}
@@ -0,0 +1,136 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+// time to first request and resident memory of the packaged app, default jar vs the fast-start layout
+// build first with: ./mvnw -Pfast-start package -DskipTests
+// then run with:    ./mvnw test -Dtest=FastStartBenchmark [-Dbench.runs=5]
+@DisplayName("Fast Start Benchmark")
+class FastStartBenchmark {
+
+    private static final Path TARGET = Path.of("target");
+    private static final Path FAST_START = TARGET.resolve("fast-start");
+    private static final long STARTUP_TIMEOUT_SECONDS = 120;
+
+    @Test
+    @DisplayName("Startup of default vs CDS vs CDS + AOT")
+    void startupByMode() throws Exception {
+        int runs = Integer.getInteger("bench.runs", 3);
+        Path fatJar = findJar(TARGET);
+        Path extractedJar = findJar(FAST_START);
+        assumeTrue(fatJar != null && extractedJar != null && Files.exists(FAST_START.resolve("application.jsa")),
+                "Build with ./mvnw -Pfast-start package -DskipTests first");
+
+        System.out.printf("%-22s %-22s %-12s%n", "mode", "first request ms (med)", "RSS MB (med)");
+        measure("default", runs, TARGET, List.of("-jar", fatJar.getFileName().toString()));
+        measure("extracted + CDS", runs, FAST_START, List.of("-XX:SharedArchiveFile=application.jsa", "-jar", extractedJar.getFileName().toString()));
+        measure("extracted + CDS + AOT", runs, FAST_START, List.of("-XX:SharedArchiveFile=application.jsa", "-Dspring.aot.enabled=true",
+                "-jar", extractedJar.getFileName().toString()));
+    }
+
+    private void measure(String mode, int runs, Path directory, List<String> launch) throws Exception {
+        List<Long> startupMillis = new ArrayList<>();
+        List<Long> rssKb = new ArrayList<>();
+        for (int i = 0; i < runs; i++) {
+            long[] result = startOnce(directory, launch);
+            startupMillis.add(result[0]);
+            rssKb.add(result[1]);
+        }
+        System.out.printf("%-22s %-22d %-12d   runs %s%n", mode, median(startupMillis), median(rssKb) / 1024, startupMillis);
+    }
+
+    // starts the app, polls the home page until it answers and reads the RSS at that moment
+    private long[] startOnce(Path directory, List<String> launch) throws Exception {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.add("-Dspring.profiles.active=training");
+        command.add("-Dserver.port=" + port);
+        command.addAll(launch);
+
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest home = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/")).build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .directory(directory.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            long deadline = start + TimeUnit.SECONDS.toNanos(STARTUP_TIMEOUT_SECONDS);
+            while (true) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("App exited with " + process.exitValue() + ": " + command);
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("App did not answer within " + STARTUP_TIMEOUT_SECONDS + "s: " + command);
+                }
+                try {
+                    if (client.send(home, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        break;
+                    }
+                } catch (IOException notListeningYet) {
+                    Thread.sleep(5);
+                }
+            }
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            return new long[] {elapsedMillis, rssKb(process.pid())};
+        } finally {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    // VmRSS from /proc, -1 where that is not available
+    private static long rssKb(long pid) throws IOException {
+        Path status = Path.of("/proc", String.valueOf(pid), "status");
+        if (!Files.exists(status)) {
+            return -1;
+        }
+        for (String line : Files.readAllLines(status)) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("[^0-9]", ""));
+            }
+        }
+        return -1;
+    }
+
+    private static Path findJar(Path directory) {
+        File[] jars = directory.toFile().listFiles((dir, name) -> name.endsWith(".jar") && !name.endsWith("-plain.jar"));
+        if (jars == null || jars.length == 0) {
+            return null;
+        }
+        Arrays.sort(jars);
+        return jars[0].toPath();
+    }
+
+    private static long median(List<Long> values) {
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted.get(sorted.size() / 2);
+    }
+}
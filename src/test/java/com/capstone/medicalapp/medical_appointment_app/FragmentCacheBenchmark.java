@@ -0,0 +1,94 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import com.capstone.medicalapp.medical_appointment_app.viewcache.DataSet;
+import com.capstone.medicalapp.medical_appointment_app.viewcache.DataVersions;
+
+// list page latency when the rendered tables are reused vs re-rendered after every write
+// run with: ./mvnw test -Dtest=FragmentCacheBenchmark [-Dbench.patients=1000 -Dbench.appointments=3000]
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:fragment_bench;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@DisplayName("Fragment Cache Benchmark")
+class FragmentCacheBenchmark {
+
+    private static final int REQUESTS = 200;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DataVersions dataVersions;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Cached vs re-rendered list pages")
+    void listPages() throws Exception {
+        int patients = Integer.getInteger("bench.patients", 500);
+        int appointments = Integer.getInteger("bench.appointments", 1500);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < patients; i++) {
+            rows.add(new Object[] {"PAT" + i, "Bench Patient", String.format("%010d", i), "bench" + i + "@email.com", "MAIN", now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO patients (patient_code, name, phone, email, clinic_code, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+        rows.clear();
+        Map<String, Long> patientKeys = patientKeys();
+        for (int i = 0; i < appointments; i++) {
+            rows.add(new Object[] {"APT" + i, "PAT" + (i % patients), patientKeys.get("PAT" + (i % patients)), "Dr. Bench", Date.valueOf(LocalDate.now().plusDays(1 + i % 90)), "Checkup", "MAIN", now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO appointments (appointment_code, patient_code, patient_id, doctor_name, appointment_date, description, clinic_code, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+
+        System.out.printf("%-16s %-16s %-16s%n", "page", "cached ms/req", "re-rendered ms/req");
+        measure("/patients", DataSet.PATIENTS);
+        measure("/appointments", DataSet.APPOINTMENTS);
+    }
+
+    private void measure(String url, DataSet dataSet) throws Exception {
+        for (int i = 0; i < 5; i++) {
+            dataVersions.changed(dataSet);
+            mockMvc.perform(get(url));
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            mockMvc.perform(get(url));
+        }
+        double cached = (System.nanoTime() - start) / 1e6 / REQUESTS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < REQUESTS / 10; i++) {
+            dataVersions.changed(dataSet);
+            mockMvc.perform(get(url));
+        }
+        double rendered = (System.nanoTime() - start) / 1e6 / (REQUESTS / 10);
+
+        System.out.printf("%-16s %-16.2f %-16.2f%n", url, cached, rendered);
+    }
+
+    // primary keys of the loaded patients by code, appointments reference both
+    private Map<String, Long> patientKeys() {
+        Map<String, Long> keys = new HashMap<>();
+        jdbcTemplate.query("SELECT patient_code, patient_id FROM patients", rs -> {keys.put(rs.getString(1), rs.getLong(2));});
+        return keys;
+    }
+}
@@ -0,0 +1,181 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+import com.capstone.medicalapp.medical_appointment_app.model.Appointment;
+import com.capstone.medicalapp.medical_appointment_app.model.Patient;
+import com.capstone.medicalapp.medical_appointment_app.repository.AppointmentRepository;
+import com.capstone.medicalapp.medical_appointment_app.repository.AppointmentSeriesRepository;
+import com.capstone.medicalapp.medical_appointment_app.repository.PatientRepository;
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentService;
+import com.capstone.medicalapp.medical_appointment_app.service.PatientService;
+import com.capstone.medicalapp.medical_appointment_app.viewcache.FragmentCacheProperties;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@DisplayName("Fragment Cache Tests")
+class FragmentCacheTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private AppointmentSeriesRepository seriesRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private FragmentCacheProperties properties;
+
+    @Autowired
+    private WebApplicationContext context;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        seriesRepository.deleteAll();
+        appointmentRepository.deleteAll();
+        patientRepository.deleteAll();
+        // the deletes above bypass the services, a write through them moves the versions on
+        patientService.deletePatient(patientService.addPatient(new Patient("Setup Patient", "1234567890", "setup@email.com")).getPatientID());
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    @DisplayName("Should serve the patient table without queries until a patient changes")
+    void shouldServeCachedTableBetweenWrites() throws Exception {
+        patientService.addPatient(new Patient("John Doe", "1234567890", "john.doe@email.com"));
+        assertTrue(page("/patients").contains("John Doe"));
+
+        statistics.clear();
+        String cached = page("/patients");
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(cached.contains("John Doe"));
+
+        patientService.addPatient(new Patient("Jane Roe", "0987654321", "jane.roe@email.com"));
+        String refreshed = page("/patients");
+        assertTrue(refreshed.contains("Jane Roe"));
+        assertTrue(refreshed.contains("Total Patients: <span>2</span>"));
+    }
+
+    @Test
+    @DisplayName("Should refresh the appointment table when an appointment or patient changes")
+    void shouldRefreshAppointmentTable() throws Exception {
+        Patient patient = patientService.addPatient(new Patient("John Doe", "1234567890", "john.doe@email.com"));
+        page("/appointments");
+
+        Appointment appointment = appointmentService.addAppointment(new Appointment(patient.getPatientID(), "Dr. Smith", LocalDate.now().plusDays(3), "Checkup"));
+        assertTrue(page("/appointments").contains(appointment.getAppointmentID()));
+
+        patientService.updatePatient(patient.getPatientID(), new Patient("Johnny Doe", "1234567890", "john.doe@email.com"));
+        assertTrue(page("/appointments").contains("Johnny Doe"));
+    }
+
+    @Test
+    @DisplayName("Should render again after the ttl a write this instance did not make")
+    void shouldExpireAfterTtl() throws Exception {
+        patientService.addPatient(new Patient("John Doe", "1234567890", "john.doe@email.com"));
+        assertTrue(page("/patients").contains("John Doe"));
+
+        // saved past the services, as another instance would, so no counter moves
+        patientRepository.save(new Patient("PAT9999", "Jane Roe", "0987654321", "jane.roe@email.com"));
+        assertFalse(page("/patients").contains("Jane Roe"));
+
+        long ttlMs = properties.getTtlMs();
+        properties.setTtlMs(100);
+        try {
+            Thread.sleep(150);
+            assertTrue(page("/patients").contains("Jane Roe"));
+        } finally {
+            properties.setTtlMs(ttlMs);
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep clinics apart")
+    void shouldKeyByClinic() throws Exception {
+        patientService.addPatient(new Patient("John Doe", "1234567890", "john.doe@email.com"));
+        assertTrue(page("/patients").contains("John Doe"));
+
+        String otherClinic = mockMvc.perform(get("/patients").header("X-Clinic-ID", "NORTH")).andReturn().getResponse().getContentAsString();
+        assertFalse(otherClinic.contains("John Doe"));
+
+        // the all-clinics listing renders the same fragment directly
+        assertTrue(page("/admin/patients").contains("John Doe"));
+    }
+
+    @Test
+    @DisplayName("Should mark the appointment's patient in the cached patient options")
+    void shouldMarkSelectedPatient() throws Exception {
+        Patient john = patientService.addPatient(new Patient("John Doe", "1234567890", "john.doe@email.com"));
+        Patient jane = patientService.addPatient(new Patient("Jane Roe", "0987654321", "jane.roe@email.com"));
+        Appointment appointment = appointmentService.addAppointment(new Appointment(jane.getPatientID(), "Dr. Smith", LocalDate.now().plusDays(3), "Checkup"));
+
+        assertFalse(page("/appointments/new").contains("selected"));
+
+        String edit = page("/appointments/edit/" + appointment.getAppointmentID());
+        assertTrue(edit.contains("<option value=\"" + jane.getPatientID() + "\" selected=\"selected\">Jane Roe</option>"));
+        assertTrue(edit.contains("<option value=\"" + john.getPatientID() + "\">John Doe</option>"));
+    }
+
+    @Test
+    @DisplayName("Should not cache the session id of a visitor without cookies in shared links")
+    void shouldNotCacheSessionIds() throws Exception {
+        patientService.addPatient(new Patient("John Doe", "1234567890", "john.doe@email.com"));
+        // a container tracking the session in the url rewrites every link the response encodes
+        MockMvc urlTracked = MockMvcBuilders.webAppContextSetup(context).addFilters((request, response, chain) ->
+                chain.doFilter(request, new HttpServletResponseWrapper((HttpServletResponse) response) {
+                    @Override
+                    public String encodeURL(String url) {
+                        return url + ";jsessionid=SECRET";
+                    }
+                })).build();
+
+        String rendered = urlTracked.perform(get("/patients")).andReturn().getResponse().getContentAsString();
+        assertTrue(rendered.contains("John Doe"));
+
+        statistics.clear();
+        String cached = page("/patients");
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertTrue(cached.contains("/patients/edit/"));
+        assertFalse(cached.contains("jsessionid"), cached);
+    }
+
+    private String page(String url) throws Exception {
+        return mockMvc.perform(get(url)).andReturn().getResponse().getContentAsString();
+    }
+}
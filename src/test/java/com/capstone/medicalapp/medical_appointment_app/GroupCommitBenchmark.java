@@ -0,0 +1,104 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.capstone.medicalapp.medical_appointment_app.groupcommit.AppointmentCommitter;
+import com.capstone.medicalapp.medical_appointment_app.model.Appointment;
+import com.capstone.medicalapp.medical_appointment_app.model.Patient;
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentService;
+import com.capstone.medicalapp.medical_appointment_app.service.PatientService;
+
+// a booking rush: many callers adding appointments at once, each straight through AppointmentService (a transaction
+// per booking) and through the group committer, with throughput and per-booking latency for both. the in-memory
+// H2 has no commit fsync, point spring.datasource.url at MySQL to see that part of the saving too
+// run with: ./mvnw test -Dtest=GroupCommitBenchmark [-Dbench.callers=64 -Dbench.bookings=100]
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:group_commit_bench;DB_CLOSE_DELAY=-1",
+        "medapp.group-commit.enabled=true", "medapp.audit.queue-capacity=1000000"})
+@DisplayName("Group Commit Benchmark")
+class GroupCommitBenchmark {
+
+    @Autowired
+    private AppointmentCommitter committer;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Direct and group committed bookings under concurrency")
+    void bookingRush() throws Exception {
+        int callers = Integer.getInteger("bench.callers", 64);
+        int bookings = Integer.getInteger("bench.bookings", 100);
+        List<String> patients = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            patients.add(patientService.addPatient(new Patient("Patient " + (char) ('a' + i / 26 % 26) + (char) ('a' + i % 26),
+                    String.format("%010d", 5_550_000_000L + i), "patient" + i + "@email.com")).getPatientID());
+        }
+
+        // a warm-up round of each, then the measured ones
+        for (int round = 0; round < 2; round++) {
+            boolean measured = round == 1;
+            run("direct", callers, measured ? bookings : 10, patients, appointmentService::addAppointment, measured);
+            run("group commit", callers, measured ? bookings : 10, patients, committer::add, measured);
+        }
+        assertEquals((long) callers * (bookings + 10) * 2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM appointments", Long.class));
+    }
+
+    private void run(String name, int callers, int bookings, List<String> patients, Function<Appointment, Appointment> add, boolean print)
+            throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        List<Future<long[]>> latencies = new ArrayList<>();
+        try {
+            for (int c = 0; c < callers; c++) {
+                int caller = c;
+                latencies.add(pool.submit(() -> {
+                    start.await();
+                    long[] nanos = new long[bookings];
+                    for (int i = 0; i < bookings; i++) {
+                        Appointment appointment = new Appointment(patients.get((caller * bookings + i) % patients.size()), "Dr. Smith",
+                                LocalDate.now().plusDays(1 + i % 60), "Checkup");
+                        long begin = System.nanoTime();
+                        add.apply(appointment);
+                        nanos[i] = System.nanoTime() - begin;
+                    }
+                    return nanos;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            long[] all = new long[callers * bookings];
+            for (int c = 0; c < callers; c++) {
+                System.arraycopy(latencies.get(c).get(), 0, all, c * bookings, bookings);
+            }
+            long elapsed = System.nanoTime() - begin;
+            if (print) {
+                Arrays.sort(all);
+                System.out.printf("%-12s %d callers x %d bookings: %7.0f bookings/s, latency p50 %.2f ms, p99 %.2f ms, max %.2f ms%n", name, callers,
+                        bookings, all.length / (elapsed / 1e9), all[all.length / 2] / 1e6, all[(int) (all.length * 0.99)] / 1e6, all[all.length - 1] / 1e6);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.capstone.medicalapp.medical_appointment_app.audit.AuditSnapshots;
+import com.capstone.medicalapp.medical_appointment_app.groupcommit.AppointmentCommitter;
+import com.capstone.medicalapp.medical_appointment_app.model.Appointment;
+import com.capstone.medicalapp.medical_appointment_app.model.Patient;
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentService;
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentService.AddResult;
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentService.PendingAdd;
+import com.capstone.medicalapp.medical_appointment_app.service.PatientService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:group_commit_test;DB_CLOSE_DELAY=-1",
+        "medapp.group-commit.enabled=true", "medapp.group-commit.max-delay-ms=50"})
+@Import(SqlRecorder.class)
+@DisplayName("Group Commit Tests")
+class GroupCommitTest {
+
+    @Autowired
+    private AppointmentCommitter committer;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private SqlRecorder sql;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String patientId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM appointments");
+        jdbcTemplate.update("DELETE FROM patients");
+        jdbcTemplate.update("DELETE FROM change_log");
+        patientId = patientService.addPatient(new Patient("John Doe", "1234567890", "john.doe@email.com")).getPatientID();
+    }
+
+    @Test
+    @DisplayName("Concurrent bookings share commits and each caller gets its own appointment or error")
+    void shouldCommitConcurrentBookingsTogether() throws Exception {
+        int callers = 40;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Callable<Appointment>> bookings = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            // every tenth booking is in the past, every tenth after that names an unknown patient
+            String patient = i % 10 == 5 ? "PAT404" : patientId;
+            LocalDate date = i % 10 == 0 ? LocalDate.now().minusDays(1) : LocalDate.now().plusDays(1 + i % 30);
+            bookings.add(() -> {
+                start.await();
+                return committer.add(new Appointment(patient, "Dr. Smith", date, "Checkup"));
+            });
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        List<Future<Appointment>> results = new ArrayList<>();
+        try {
+            bookings.forEach(booking -> results.add(pool.submit(booking)));
+            start.countDown();
+
+            Set<String> appointmentIDs = new HashSet<>();
+            for (int i = 0; i < callers; i++) {
+                if (i % 10 == 0 || i % 10 == 5) {
+                    ExecutionException error = assertThrows(ExecutionException.class, results.get(i)::get);
+                    assertInstanceOf(IllegalArgumentException.class, error.getCause());
+                    assertEquals(i % 10 == 0 ? "Appointment date must be in the future" : "Patient with ID PAT404 does not exist",
+                            error.getCause().getMessage());
+                } else {
+                    Appointment appointment = results.get(i).get();
+                    assertTrue(appointmentIDs.add(appointment.getAppointmentID()));
+                    assertEquals(LocalDate.now().plusDays(1 + i % 30), appointmentService.getAppointmentById(appointment.getAppointmentID()).orElseThrow().getAptDate());
+                }
+            }
+            assertEquals(32, appointmentIDs.size());
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(32L, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM appointments", Long.class));
+        assertEquals(32L, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM change_log WHERE entity_type = ?", Long.class, AuditSnapshots.APPOINTMENT));
+        assertTrue(meterRegistry.get("medapp.groupcommit.batch.size").summary().max() > 1);
+    }
+
+    @Test
+    @DisplayName("A batch costs the same statements for any number of bookings")
+    void shouldAddBatchInOneInsert() throws Exception {
+        List<PendingAdd> adds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            adds.add(new PendingAdd(new Appointment(i == 7 ? "PAT404" : patientId, "Dr. Smith", LocalDate.now().plusDays(1 + i), "Checkup"), "front-desk"));
+        }
+
+        List<AddResult> results = new ArrayList<>();
+        List<String> statements = sql.record(() -> results.addAll(appointmentService.addAppointments(adds)));
+
+        SqlRecorder.assertShapes("addAppointments", statements, "select patients", "insert appointments", "update change_sequences",
+                "select change_sequences", "insert change_log");
+        assertEquals(20, results.size());
+        assertEquals("Patient with ID PAT404 does not exist", results.get(7).error().getMessage());
+        assertNull(results.get(8).error());
+        assertEquals(19L, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM appointments", Long.class));
+    }
+}
@@ -0,0 +1,127 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.capstone.medicalapp.medical_appointment_app.dedup.PatientMergeService;
+import com.capstone.medicalapp.medical_appointment_app.dedup.ScanStatus;
+import com.capstone.medicalapp.medical_appointment_app.model.MergeProposal;
+
+// duplicate scan over a large clinic where a few percent of patients were entered twice with a typo in the name
+// and either the same phone or the same email, reports the scan time and how many planted duplicates it found
+// run with: ./mvnw test -Dtest=PatientMergeBenchmark [-Dbench.patients=1000000 -Dbench.duplicateRate=0.03]
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:merge_bench;DB_CLOSE_DELAY=-1")
+@DisplayName("Patient Merge Benchmark")
+class PatientMergeBenchmark {
+
+    private static final String[] SYLLABLES = {"an", "be", "car", "da", "el", "fa", "ga", "hel", "is", "jo", "ka", "la",
+            "ma", "ne", "or", "pa", "qui", "ra", "sa", "ta", "ul", "va", "wen", "xa", "yo", "za", "mi", "lo", "ri", "son"};
+    private static final String[] DOMAINS = {"gmail.com", "yahoo.com", "outlook.com", "icloud.com", "email.com"};
+
+    @Autowired
+    private PatientMergeService mergeService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Scan time and recall on a large clinic")
+    void scanLargeClinic() {
+        int patients = Integer.getInteger("bench.patients", 200_000);
+        double duplicateRate = Double.parseDouble(System.getProperty("bench.duplicateRate", "0.03"));
+        Random random = new Random(42);
+
+        jdbcTemplate.update("ALTER TABLE patients DROP CONSTRAINT IF EXISTS uk_patients_clinic_phone");
+        jdbcTemplate.update("ALTER TABLE patients DROP CONSTRAINT IF EXISTS uk_patients_clinic_email");
+
+        long loadStart = System.nanoTime();
+        List<Object[]> rows = new ArrayList<>();
+        List<Object[]> duplicates = new ArrayList<>();
+        Set<String> planted = new HashSet<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (int i = 0; i < patients; i++) {
+            String first = name(random, 2);
+            String last = name(random, 2 + random.nextInt(2));
+            String phone = String.format("%010d", 1_000_000_000L + i);
+            String email = first + "." + last + (random.nextBoolean() ? random.nextInt(100) : "") + "@" + DOMAINS[random.nextInt(DOMAINS.length)];
+            rows.add(new Object[] {"PAT" + i, capitalize(first) + " " + capitalize(last), phone, email, "MAIN", now, now});
+
+            if (random.nextDouble() < duplicateRate) {
+                boolean typoInFirst = random.nextBoolean();
+                String dupName = capitalize(typoInFirst ? typo(random, first) : first) + " " + capitalize(typoInFirst ? last : typo(random, last));
+                boolean samePhone = random.nextBoolean();
+                String dupPhone = samePhone ? phone : String.format("%010d", 5_000_000_000L + i);
+                String dupEmail = samePhone ? first + last + random.nextInt(1000) + "@" + DOMAINS[random.nextInt(DOMAINS.length)] : email;
+                duplicates.add(new Object[] {"DUP" + i, dupName, dupPhone, dupEmail, "MAIN", now, now});
+                planted.add("PAT" + i + ">DUP" + i);
+            }
+            if (rows.size() == 5000) {
+                insertRows(rows);
+                rows.clear();
+            }
+        }
+        insertRows(rows);
+        insertRows(duplicates);
+        System.out.printf("loaded %d patients with %d planted duplicates in %d ms%n",
+                patients + duplicates.size(), duplicates.size(), (System.nanoTime() - loadStart) / 1_000_000);
+
+        ScanStatus status = mergeService.scan();
+
+        List<MergeProposal> proposals = mergeService.getPendingProposals();
+        long correct = proposals.stream()
+                .filter(p -> planted.contains(p.getKeepPatientID() + ">" + p.getDuplicatePatientID()))
+                .count();
+
+        System.out.printf("scan: %s in %d ms (%.0f patients/s), %d pairs compared%n", status.state(), status.elapsedMs(),
+                status.patients() * 1000.0 / Math.max(1, status.elapsedMs()), status.comparedPairs());
+        System.out.printf("proposals: %d, planted found: %d of %d (recall %.3f), precision %.3f%n", proposals.size(), correct,
+                planted.size(), (double) correct / planted.size(), proposals.isEmpty() ? 1.0 : (double) correct / proposals.size());
+    }
+
+    private static String name(Random random, int syllables) {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < syllables; i++) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return name.toString();
+    }
+
+    // drops, doubles, swaps or replaces one letter away from the first one
+    private static String typo(Random random, String word) {
+        int at = 1 + random.nextInt(word.length() - 1);
+        StringBuilder changed = new StringBuilder(word);
+        switch (random.nextInt(4)) {
+            case 0 -> changed.deleteCharAt(at);
+            case 1 -> changed.insert(at, word.charAt(at));
+            case 2 -> {
+                if (at < word.length() - 1) {
+                    changed.setCharAt(at, word.charAt(at + 1));
+                    changed.setCharAt(at + 1, word.charAt(at));
+                } else {
+                    changed.deleteCharAt(at);
+                }
+            }
+            default -> changed.setCharAt(at, (char) ('a' + random.nextInt(26)));
+        }
+        return changed.toString();
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    private void insertRows(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO patients (patient_code, name, phone, email, clinic_code, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+}
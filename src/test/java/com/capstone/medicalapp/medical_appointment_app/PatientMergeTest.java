@@ -0,0 +1,197 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.capstone.medicalapp.medical_appointment_app.dedup.NameMatching;
+import com.capstone.medicalapp.medical_appointment_app.dedup.PatientMergeService;
+import com.capstone.medicalapp.medical_appointment_app.dedup.ScanStatus;
+import com.capstone.medicalapp.medical_appointment_app.model.MergeProposal;
+import com.capstone.medicalapp.medical_appointment_app.model.WaitlistEntry;
+import com.capstone.medicalapp.medical_appointment_app.model.WaitlistStatus;
+import com.capstone.medicalapp.medical_appointment_app.repository.AppointmentRepository;
+import com.capstone.medicalapp.medical_appointment_app.repository.WaitlistRepository;
+import com.capstone.medicalapp.medical_appointment_app.service.PatientService;
+import com.capstone.medicalapp.medical_appointment_app.waitlist.Waiter;
+import com.capstone.medicalapp.medical_appointment_app.waitlist.WaitlistRequest;
+import com.capstone.medicalapp.medical_appointment_app.waitlist.WaitlistService;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:merge_test;DB_CLOSE_DELAY=-1")
+@DisplayName("Patient Merge Tests")
+class PatientMergeTest {
+
+    @Autowired
+    private PatientMergeService mergeService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Autowired
+    private WaitlistRepository waitlistRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // rows from before email and phone had to be unique
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM merge_proposals");
+        jdbcTemplate.update("DELETE FROM waitlist_entries");
+        jdbcTemplate.update("DELETE FROM appointments");
+        jdbcTemplate.update("DELETE FROM patients");
+        jdbcTemplate.update("ALTER TABLE patients DROP CONSTRAINT IF EXISTS uk_patients_clinic_phone");
+
+        insertPatient("PAT1", "Jon Smith", "5551234567", "jon.smith@email.com");
+        insertPatient("PAT2", "John Smith", "5551234567", "johnsmith@gmail.com");
+        insertPatient("PAT3", "Mary Smith", "5551234567", "mary@email.com");
+        insertPatient("PAT4", "Rick Roe", "4445556666", "rick@email.com");
+        insertAppointment("APT1", "PAT2");
+        insertAppointment("APT2", "PAT2");
+    }
+
+    private void insertPatient(String code, String name, String phone, String email) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO patients (patient_code, name, phone, email, clinic_code, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                code, name, phone, email, "MAIN", now, now);
+    }
+
+    private void insertAppointment(String code, String patientCode) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO appointments (appointment_code, patient_code, patient_id, doctor_name, appointment_date, description, clinic_code, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                code, patientCode, jdbcTemplate.queryForObject("SELECT patient_id FROM patients WHERE patient_code = ?", Long.class, patientCode), "Dr. Smith", Date.valueOf(LocalDate.now().plusDays(3)), "Checkup", "MAIN", now, now);
+    }
+
+    @Test
+    @DisplayName("Should propose merging a misspelt duplicate into the earlier patient only")
+    void shouldProposeNearDuplicates() {
+        ScanStatus status = mergeService.scan();
+
+        assertEquals(ScanStatus.State.FINISHED, status.state());
+        assertEquals(4, status.patients());
+
+        List<MergeProposal> proposals = mergeService.getPendingProposals();
+        assertEquals(1, proposals.size());
+        assertEquals("PAT1", proposals.get(0).getKeepPatientID());
+        assertEquals("PAT2", proposals.get(0).getDuplicatePatientID());
+        assertTrue(proposals.get(0).getReasons().contains("same phone"));
+    }
+
+    @Test
+    @DisplayName("Should move appointments to the kept patient when a merge is approved")
+    void shouldMergeOnApproval() {
+        mergeService.scan();
+        MergeProposal proposal = mergeService.getPendingProposals().get(0);
+
+        mergeService.approve(proposal.getId());
+
+        assertEquals(List.of("PAT1", "PAT1"), appointmentRepository.findWithPatientByPatientID("PAT1").stream()
+                .map(appointment -> appointment.getPatient().getPatientID()).toList());
+        assertTrue(appointmentRepository.findByPatientID("PAT2").isEmpty());
+        assertFalse(patientService.patientExists("PAT2"));
+        assertTrue(mergeService.getPendingProposals().isEmpty());
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> mergeService.approve(proposal.getId()));
+        assertEquals("Merge proposal " + proposal.getId() + " was already approved", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should keep the duplicate's place on the waitlist when a merge is approved")
+    void shouldMergeWaitlistEntries() {
+        LocalDate from = LocalDate.now().plusDays(1);
+        LocalDate to = LocalDate.now().plusDays(20);
+        WaitlistEntry earlier = waitlistService.join(new WaitlistRequest("PAT2", "Dr. Merged", 4, from, to));
+        WaitlistEntry kept = waitlistService.join(new WaitlistRequest("PAT1", "Dr. Merged", 2, from, to));
+        WaitlistEntry moved = waitlistService.join(new WaitlistRequest("PAT2", "Dr. Moved", 2, from, to));
+        mergeService.scan();
+
+        mergeService.approve(mergeService.getPendingProposals().get(0).getId());
+
+        // both waited for the same doctor: the kept entry stays with the higher urgency and the earlier request
+        Waiter merged = waitlistService.getWaiting("Dr. Merged").get(0);
+        assertEquals(List.of(kept.getId()), waitlistService.getWaiting("Dr. Merged").stream().map(Waiter::entryID).toList());
+        assertEquals("PAT1", merged.patientID());
+        assertEquals(4, merged.urgency());
+        assertEquals(earlier.getRequestedAt(), merged.requestedAt());
+        assertEquals(WaitlistStatus.CANCELLED, waitlistRepository.findEntry(earlier.getId()).orElseThrow().getStatus());
+
+        assertEquals("PAT1", waitlistService.offer("Dr. Moved", from.plusDays(1)).orElseThrow().getPatientID());
+        assertEquals(WaitlistStatus.BOOKED, waitlistRepository.findEntry(moved.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    @DisplayName("Should not propose a rejected pair again")
+    void shouldRememberRejections() {
+        mergeService.scan();
+        mergeService.reject(mergeService.getPendingProposals().get(0).getId());
+
+        mergeService.scan();
+
+        assertTrue(mergeService.getPendingProposals().isEmpty());
+        assertEquals(2, appointmentRepository.findByPatientID("PAT2").size());
+    }
+
+    @Test
+    @DisplayName("Should propose a duplicate whose phone has a typo")
+    void shouldMatchMistypedContacts() {
+        insertPatient("PAT5", "Ann Lee", "5559876543", "ann.lee@email.com");
+        insertPatient("PAT6", "Anne Lee", "5559876534", "anne@work.com");
+
+        mergeService.scan();
+
+        MergeProposal proposal = mergeService.getPendingProposals().stream()
+                .filter(pending -> pending.getKeepPatientID().equals("PAT5")).findFirst().orElseThrow();
+        assertEquals("PAT6", proposal.getDuplicatePatientID());
+        assertTrue(proposal.getReasons().contains("phone 1 edit apart"));
+    }
+
+    @Test
+    @DisplayName("Should not chain a rejected duplicate into the kept patient through another match")
+    void shouldNotChainRejectedPairs() {
+        insertPatient("PAT5", "Jonn Smith", "5551234567", "jonn@email.com");
+        mergeService.scan();
+        assertEquals(List.of("PAT2", "PAT5"), mergeService.getPendingProposals().stream()
+                .map(MergeProposal::getDuplicatePatientID).sorted().toList());
+        mergeService.reject(mergeService.getPendingProposals().stream()
+                .filter(pending -> pending.getDuplicatePatientID().equals("PAT5")).findFirst().orElseThrow().getId());
+
+        mergeService.scan();
+
+        // jonn still matches john, who is proposed into jon; that does not make jonn a duplicate of jon
+        assertEquals(List.of("PAT1>PAT2"), mergeService.getPendingProposals().stream()
+                .map(pending -> pending.getKeepPatientID() + ">" + pending.getDuplicatePatientID()).toList());
+    }
+
+    @Test
+    @DisplayName("Name matching helpers give the textbook values")
+    void nameMatching() {
+        assertEquals(0.961, NameMatching.jaroWinkler("martha", "marhta"), 0.001);
+        assertEquals("r163", NameMatching.soundex("robert"));
+        assertEquals("r163", NameMatching.soundex("rupert"));
+        assertEquals("a261", NameMatching.soundex("ashcraft"));
+        assertEquals("obrien smith", NameMatching.normalizeName("  O'Brien-Smith "));
+        assertEquals("jsmith@email.com", NameMatching.normalizeEmail("J.Smith+clinic@Email.com"));
+        assertEquals(1, NameMatching.editDistance("5551234567", "5551243567", 2));
+        assertEquals(3, NameMatching.editDistance("kitten", "sitting", 3));
+        assertEquals(3, NameMatching.editDistance("5551234567", "4449876543", 2));
+    }
+}
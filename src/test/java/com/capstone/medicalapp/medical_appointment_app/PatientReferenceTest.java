@@ -0,0 +1,117 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.Hibernate;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.capstone.medicalapp.medical_appointment_app.model.Appointment;
+import com.capstone.medicalapp.medical_appointment_app.model.AppointmentSeries;
+import com.capstone.medicalapp.medical_appointment_app.model.Patient;
+import com.capstone.medicalapp.medical_appointment_app.model.RecurrenceFrequency;
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentSeriesService;
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentService;
+import com.capstone.medicalapp.medical_appointment_app.service.PatientService;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:patient_reference_test;DB_CLOSE_DELAY=-1")
+@Import(SqlRecorder.class)
+@DisplayName("Patient Reference Tests")
+class PatientReferenceTest {
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private AppointmentSeriesService seriesService;
+
+    @Autowired
+    private SqlRecorder sql;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Patient patient;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM appointment_series_skips");
+        jdbcTemplate.update("DELETE FROM appointment_series");
+        jdbcTemplate.update("DELETE FROM appointments");
+        jdbcTemplate.update("DELETE FROM patients");
+        patient = patientService.addPatient(new Patient("John Doe", "1234567890", "john.doe@email.com"));
+    }
+
+    @Test
+    @DisplayName("The database refuses an appointment of an unknown patient")
+    void shouldRejectUnknownPatient() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update(
+                "INSERT INTO appointments (appointment_code, patient_code, patient_id, doctor_name, appointment_date, description, clinic_code, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                "APT1", "PAT404", -1L, "Dr. Smith", Date.valueOf(LocalDate.now().plusDays(3)), "Checkup", "MAIN", now, now));
+    }
+
+    @Test
+    @DisplayName("A patient with appointments is only deleted once they are cancelled")
+    void shouldKeepReferencedPatient() {
+        appointmentService.addAppointment(new Appointment(patient.getPatientID(), "Dr. Smith", LocalDate.now().plusDays(3), "Checkup"));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> patientService.deletePatient(patient.getPatientID()));
+        assertEquals("Patient " + patient.getPatientID() + " still has appointments, cancel them first", exception.getMessage());
+        assertTrue(patientService.patientExists(patient.getPatientID()));
+
+        appointmentService.deleteAppointmentsByPatientId(patient.getPatientID());
+        assertTrue(patientService.deletePatient(patient.getPatientID()));
+    }
+
+    @Test
+    @DisplayName("A patient with a recurring series is only deleted once the series is")
+    void shouldKeepPatientWithSeries() {
+        AppointmentSeries series = seriesService.addSeries(new AppointmentSeries(patient.getPatientID(), "Dr. Smith", "Dialysis",
+                LocalDate.now().plusDays(1), LocalDate.now().plusWeeks(10), RecurrenceFrequency.WEEKLY, 1));
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> patientService.deletePatient(patient.getPatientID()));
+        assertEquals("Patient " + patient.getPatientID() + " still has a recurring series, delete it first", exception.getMessage());
+        assertTrue(patientService.patientExists(patient.getPatientID()));
+
+        seriesService.deleteSeries(series.getSeriesID());
+        assertTrue(patientService.deletePatient(patient.getPatientID()));
+    }
+
+    @Test
+    @DisplayName("A patient's appointments come with the patient in one statement")
+    void shouldFetchPatientWithAppointments() throws Exception {
+        for (int i = 1; i <= 3; i++) {
+            appointmentService.addAppointment(new Appointment(patient.getPatientID(), "Dr. Smith", LocalDate.now().plusDays(i), "Checkup"));
+        }
+
+        List<Appointment> appointments = new ArrayList<>();
+        List<String> statements = sql.record(() -> appointments.addAll(appointmentService.getAppointmentsByPatientID(patient.getPatientID())));
+
+        SqlRecorder.assertShapes("getAppointmentsByPatientID", statements,
+                "select appointments join patients", "select appointment_series join appointment_series_skips");
+        assertEquals(3, appointments.size());
+        for (Appointment appointment : appointments) {
+            assertTrue(Hibernate.isInitialized(appointment.getPatient()));
+            assertEquals("John Doe", appointment.getPatient().getName());
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import com.capstone.medicalapp.medical_appointment_app.model.Appointment;
+import com.capstone.medicalapp.medical_appointment_app.model.Patient;
+import com.capstone.medicalapp.medical_appointment_app.push.AppointmentBroadcaster;
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentService;
+import com.capstone.medicalapp.medical_appointment_app.service.PatientService;
+
+// opens many idle appointment event streams, then times how long a committed change takes to reach all of them
+// and how many server threads the idle streams cost
+// run with: ./mvnw test -Dtest=PushFanOutBenchmark [-Dbench.clients=2000 -Dbench.events=20]
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:push_bench;DB_CLOSE_DELAY=-1")
+@DisplayName("Push Fan-Out Benchmark")
+class PushFanOutBenchmark {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private AppointmentBroadcaster broadcaster;
+
+    @Test
+    @DisplayName("Delivery latency to many idle streams")
+    void fanOut() throws Exception {
+        int clients = Integer.getInteger("bench.clients", 2000);
+        int events = Integer.getInteger("bench.events", 20);
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/appointments/events")).build();
+        ExecutorService readers = Executors.newVirtualThreadPerTaskExecutor();
+        ConcurrentLinkedQueue<Long> received = new ConcurrentLinkedQueue<>();
+        CountDownLatch[] delivered = new CountDownLatch[events];
+        for (int i = 0; i < events; i++) {
+            delivered[i] = new CountDownLatch(clients);
+        }
+
+        long connectStart = System.nanoTime();
+        for (int c = 0; c < clients; c++) {
+            readers.submit(() -> {
+                HttpResponse<Stream<String>> response = client.send(request, HttpResponse.BodyHandlers.ofLines());
+                int seen = 0;
+                for (String line : (Iterable<String>) response.body()::iterator) {
+                    if (line.startsWith("data:")) {
+                        received.add(System.nanoTime());
+                        delivered[seen++].countDown();
+                        if (seen == events) {
+                            break;
+                        }
+                    }
+                }
+                response.body().close();
+                return null;
+            });
+        }
+        while (broadcaster.getSubscriberCount() < clients) {
+            Thread.sleep(50);
+        }
+        Thread.sleep(1000);
+        int threadsIdle = ManagementFactory.getThreadMXBean().getThreadCount();
+        System.out.printf("%d streams open in %d ms, server+client threads %d before, %d with idle streams%n", clients,
+                (System.nanoTime() - connectStart) / 1_000_000, threadsBefore, threadsIdle);
+
+        Patient patient = patientService.addPatient(new Patient("John Doe", "1234567890", "john.doe@email.com"));
+        long[] latencies = new long[events];
+        for (int i = 0; i < events; i++) {
+            received.clear();
+            long start = System.nanoTime();
+            appointmentService.addAppointment(new Appointment(patient.getPatientID(), "Dr. Smith", LocalDate.now().plusDays(1 + i), "Checkup"));
+            if (!delivered[i].await(30, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Event " + i + " reached only " + (clients - delivered[i].getCount()) + " streams");
+            }
+            List<Long> times = new ArrayList<>(received);
+            latencies[i] = times.stream().mapToLong(Long::longValue).max().orElse(start) - start;
+        }
+        Arrays.sort(latencies);
+        System.out.printf("event to all %d streams: median %.1f ms, max %.1f ms%n", clients, latencies[events / 2] / 1e6, latencies[events - 1] / 1e6);
+        readers.shutdownNow();
+    }
+}
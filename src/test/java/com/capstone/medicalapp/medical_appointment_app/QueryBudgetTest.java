@@ -0,0 +1,159 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import com.capstone.medicalapp.medical_appointment_app.model.Appointment;
+import com.capstone.medicalapp.medical_appointment_app.model.Patient;
+import com.capstone.medicalapp.medical_appointment_app.repository.AppointmentRepository;
+import com.capstone.medicalapp.medical_appointment_app.repository.AppointmentSeriesRepository;
+import com.capstone.medicalapp.medical_appointment_app.repository.PatientRepository;
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentService;
+import com.capstone.medicalapp.medical_appointment_app.service.PatientService;
+
+// statements each route may issue on the request thread, a change that adds one fails here with a diff of what ran.
+// the expected lists are statement shapes (verb and tables), see SqlRecorder.shape
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:query_budget_test;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+@Import(SqlRecorder.class)
+@DisplayName("Query Budget Tests")
+class QueryBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SqlRecorder sql;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private AppointmentSeriesRepository seriesRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    private String patientId;
+    private String appointmentId;
+
+    @BeforeEach
+    void setUp() {
+        seriesRepository.deleteAll();
+        appointmentRepository.deleteAll();
+        patientRepository.deleteAll();
+
+        patientId = patientService.addPatient(new Patient("John Doe", "1234567890", "john.doe@email.com")).getPatientID();
+        appointmentId = appointmentService.addAppointment(new Appointment(patientId, "Dr. Smith", LocalDate.now().plusDays(3), "Checkup")).getAppointmentID();
+    }
+
+    @Test
+    @DisplayName("List pages read each table once and nothing while their cache is current")
+    void listPages() throws Exception {
+        SqlRecorder.assertShapes("GET /appointments", sql.record(() -> mockMvc.perform(get("/appointments"))),
+                "select appointments join patients", "select appointment_series join patients");
+        SqlRecorder.assertShapes("GET /appointments again", sql.record(() -> mockMvc.perform(get("/appointments"))));
+
+        SqlRecorder.assertShapes("GET /patients", sql.record(() -> mockMvc.perform(get("/patients"))),
+                "select patients");
+        SqlRecorder.assertShapes("GET /appointments/calendar", sql.record(() -> mockMvc.perform(get("/appointments/calendar"))),
+                "select appointments", "select appointment_series join appointment_series_skips");
+    }
+
+    @Test
+    @DisplayName("Forms only read the record being edited")
+    void forms() throws Exception {
+        mockMvc.perform(get("/appointments/new"));
+
+        SqlRecorder.assertShapes("GET /appointments/edit", sql.record(() -> mockMvc.perform(get("/appointments/edit/" + appointmentId))),
+                "select appointments");
+        SqlRecorder.assertShapes("GET /patients/edit", sql.record(() -> mockMvc.perform(get("/patients/edit/" + patientId))),
+                "select patients");
+    }
+
+    @Test
+    @DisplayName("Updating an appointment reads it and its patient once, invalid input reads nothing")
+    void updateAppointment() throws Exception {
+        mockMvc.perform(get("/appointments/new"));
+
+        SqlRecorder.assertShapes("POST /appointments/update", sql.record(() -> mockMvc.perform(update(appointmentId, "Dr. Jones"))),
+                "select appointments", "select patients", "update appointments", "update change_sequences", "select change_sequences",
+                "insert change_log");
+        SqlRecorder.assertShapes("POST /appointments/update invalid", sql.record(() -> mockMvc.perform(update(appointmentId, "Dr. 123"))));
+        SqlRecorder.assertShapes("POST /appointments/update unknown patient",
+                sql.record(() -> mockMvc.perform(update(appointmentId, "Dr. Jones").param("patientID", "PAT404"))),
+                "select appointments", "select patients");
+    }
+
+    @Test
+    @DisplayName("Adding and deleting an appointment stay within their statements")
+    void addAndDeleteAppointment() throws Exception {
+        SqlRecorder.assertShapes("POST /appointments", sql.record(() -> mockMvc.perform(post("/appointments")
+                        .param("patientID", patientId)
+                        .param("doctorName", "Dr. Jones")
+                        .param("aptDate", LocalDate.now().plusDays(5).toString())
+                        .param("description", "Follow up"))),
+                "select patients", "insert appointments", "update change_sequences", "select change_sequences", "insert change_log");
+        SqlRecorder.assertShapes("GET /appointments/delete", sql.record(() -> mockMvc.perform(get("/appointments/delete/" + appointmentId))),
+                "select appointments", "delete appointments", "update change_sequences", "select change_sequences", "insert change_log");
+    }
+
+    @Test
+    @DisplayName("Deleting a patient's appointments uses one delete and one change log insert however many there are")
+    void deleteAppointmentsByPatient() throws Exception {
+        for (int i = 1; i <= 3; i++) {
+            appointmentService.addAppointment(new Appointment(patientId, "Dr. Smith", LocalDate.now().plusDays(3 + i), "Checkup"));
+        }
+
+        List<String> statements = sql.record(() -> assertEquals(4, appointmentService.deleteAppointmentsByPatientId(patientId)));
+
+        SqlRecorder.assertShapes("deleteAppointmentsByPatientId", statements,
+                "select appointments", "delete appointments", "update change_sequences", "select change_sequences", "insert change_log");
+    }
+
+    @Test
+    @DisplayName("A failed budget shows which statements were added")
+    void readableDiff() {
+        AssertionError error = assertThrows(AssertionError.class, () -> SqlRecorder.assertShapes("GET /x",
+                List.of("select * from patients p where p.id = ?", "select * from appointments a", "select * from patients p where p.id = ?"),
+                "select patients", "select appointments"));
+
+        assertEquals("""
+                GET /x expected 2 statements but ran 3:
+                    select patients
+                    select appointments
+                  + select patients
+                sql:
+                  select * from patients p where p.id = ?
+                  select * from appointments a
+                  select * from patients p where p.id = ?""", error.getMessage());
+    }
+
+    private MockHttpServletRequestBuilder update(String id, String doctor) {
+        return post("/appointments/update/" + id)
+                .param("patientID", patientId)
+                .param("doctorName", doctor)
+                .param("aptDate", LocalDate.now().plusDays(4).toString())
+                .param("description", "Checkup");
+    }
+}
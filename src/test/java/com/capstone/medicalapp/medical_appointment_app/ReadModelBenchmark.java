@@ -0,0 +1,147 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.capstone.medicalapp.medical_appointment_app.datagen.DataGenProperties;
+import com.capstone.medicalapp.medical_appointment_app.datagen.DataGenerator;
+import com.capstone.medicalapp.medical_appointment_app.model.Appointment;
+import com.capstone.medicalapp.medical_appointment_app.readmodel.ReadModel;
+import com.capstone.medicalapp.medical_appointment_app.readmodel.ReadModelCheck;
+import com.capstone.medicalapp.medical_appointment_app.readmodel.ReadModelProperties;
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentService;
+import com.capstone.medicalapp.medical_appointment_app.service.PatientService;
+import com.capstone.medicalapp.medical_appointment_app.sharding.ClinicContext;
+
+// a generated clinic in an H2 file database, so the rows the database holds are not on the heap being measured.
+// the service reads are timed with the read model serving them and with it switched off (a read-only transaction
+// and a query each), then a booking with and without the read back after commit, the load and the model's heap
+// run with: ./mvnw test -Dtest=ReadModelBenchmark [-Dbench.patients=100000 -Dbench.appointments=1000000] -DargLine=-Xmx2g
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:file:./target/read-model-bench/db;DB_CLOSE_ON_EXIT=FALSE",
+        "medapp.read-model.enabled=true"})
+@DisplayName("Read Model Benchmark")
+class ReadModelBenchmark {
+
+    @Autowired
+    private ReadModel readModel;
+
+    @Autowired
+    private ReadModelProperties properties;
+
+    @Autowired
+    private DataGenerator dataGenerator;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Reads from memory against reads from the database")
+    void reads() {
+        int patients = Integer.getInteger("bench.patients", 100_000);
+        int appointments = Integer.getInteger("bench.appointments", 1_000_000);
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        for (String table : List.of("change_log", "audit_log", "appointment_series_skips", "appointment_series", "appointments", "patients")) {
+            jdbcTemplate.execute("TRUNCATE TABLE " + table);
+        }
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+        readModel.reload(ClinicContext.DEFAULT_CLINIC);
+        long empty = usedHeap() - h2Cache();
+
+        DataGenProperties settings = new DataGenProperties();
+        settings.setPatients(patients);
+        settings.setAppointments(appointments);
+        settings.setStartDate(LocalDate.now().plusDays(1));
+        dataGenerator.generate(settings);
+
+        long start = System.nanoTime();
+        readModel.reload(ClinicContext.DEFAULT_CLINIC);
+        long loadMs = (System.nanoTime() - start) / 1_000_000;
+        long loaded = usedHeap() - h2Cache();
+        System.out.printf("loaded %d patients and %d appointments in %d ms, %d MB of heap (%d bytes per row)%n", patients,
+                appointments, loadMs, (loaded - empty) >> 20, (loaded - empty) / (patients + (long) appointments));
+
+        List<String> patientCodes = jdbcTemplate.queryForList("SELECT patient_code FROM patients ORDER BY RAND() LIMIT 10000", String.class);
+        List<String> appointmentCodes = jdbcTemplate.queryForList("SELECT appointment_code FROM appointments ORDER BY RAND() LIMIT 10000", String.class);
+        List<LocalDate> days = jdbcTemplate.queryForList("SELECT DISTINCT appointment_date FROM appointments", LocalDate.class);
+
+        compare("appointment by code", 20_000, i -> appointmentService.getAppointmentById(appointmentCodes.get(i % appointmentCodes.size())).orElseThrow());
+        compare("patient by code", 20_000, i -> patientService.getPatientById(patientCodes.get(i % patientCodes.size())).orElseThrow());
+        compare("patient's appointments", 5_000, i -> appointmentService.getAppointmentsByPatientID(patientCodes.get(i % patientCodes.size())));
+        compare("appointments of a day", 200, i -> appointmentService.getAppointmentsByDate(days.get(i % days.size())));
+        compare("calendar month counts", 200, i -> appointmentService.getCalendarCounts(days.get(i % days.size()), days.get(i % days.size()).plusDays(30), null));
+        compare("patient table rows", 5, i -> patientService.getPatientSummaries());
+        compare("appointment table rows", 3, i -> appointmentService.getAppointmentRows());
+
+        // a booking reads its row back after commit while the read model is on
+        Random random = new Random(42);
+        for (boolean enabled : new boolean[] {false, true, false, true}) {
+            properties.setEnabled(enabled);
+            start = System.nanoTime();
+            for (int i = 0; i < 2000; i++) {
+                appointmentService.addAppointment(new Appointment(patientCodes.get(random.nextInt(patientCodes.size())), "Dr. Bench",
+                        LocalDate.now().plusDays(1 + random.nextInt(300)), "Checkup"));
+            }
+            System.out.printf("%-24s %s %9.1f us%n", "booking", enabled ? "read model" : "database  ", (System.nanoTime() - start) / 2000 / 1e3);
+        }
+        properties.setEnabled(true);
+
+        // the bookings made while it was off are the only rows it is missing
+        start = System.nanoTime();
+        ReadModelCheck check = readModel.check().get(0);
+        System.out.printf("check: %d mismatches in %d ms%n", check.mismatches(), (System.nanoTime() - start) / 1_000_000);
+        assertEquals(4000, check.mismatches());
+        assertTrue(readModel.check().get(0).consistent());
+    }
+
+    // mean time per call over at most calls calls or 20 seconds, the first third of them warm up. the database
+    // path of a read that scans the table stops long before it reaches the calls
+    private void compare(String read, int calls, IntConsumer call) {
+        double[] micros = new double[2];
+        for (int path = 0; path < 2; path++) {
+            properties.setEnabled(path == 0);
+            long deadline = System.nanoTime() + 5_000_000_000L;
+            for (int i = 0; i < calls / 3 && System.nanoTime() < deadline; i++) {
+                call.accept(i);
+            }
+            long start = System.nanoTime();
+            deadline = start + 20_000_000_000L;
+            int made = 0;
+            while (made < calls && (made == 0 || System.nanoTime() < deadline)) {
+                call.accept(made++);
+            }
+            micros[path] = (System.nanoTime() - start) / (double) made / 1e3;
+        }
+        properties.setEnabled(true);
+        System.out.printf("%-24s read model %9.1f us, database %9.1f us (%.0fx)%n", read, micros[0], micros[1], micros[1] / micros[0]);
+    }
+
+    // h2's page cache is on the same heap and grows with the data, it is left out of the measurement
+    private long h2Cache() {
+        return jdbcTemplate.queryForObject("SELECT SETTING_VALUE FROM INFORMATION_SCHEMA.SETTINGS WHERE SETTING_NAME = 'info.CACHE_SIZE'",
+                Long.class) << 10;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,139 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.capstone.medicalapp.medical_appointment_app.model.Appointment;
+import com.capstone.medicalapp.medical_appointment_app.model.AppointmentCount;
+import com.capstone.medicalapp.medical_appointment_app.model.Patient;
+import com.capstone.medicalapp.medical_appointment_app.readmodel.ReadModel;
+import com.capstone.medicalapp.medical_appointment_app.readmodel.ReadModelCheck;
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentService;
+import com.capstone.medicalapp.medical_appointment_app.service.PatientService;
+import com.capstone.medicalapp.medical_appointment_app.sharding.ClinicContext;
+
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:read_model_test;DB_CLOSE_DELAY=-1", "medapp.read-model.enabled=true"})
+@Import(SqlRecorder.class)
+@DisplayName("Read Model Tests")
+class ReadModelTest {
+
+    @Autowired
+    private ReadModel readModel;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private SqlRecorder sql;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Patient patient;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM appointment_series_skips");
+        jdbcTemplate.update("DELETE FROM appointment_series");
+        jdbcTemplate.update("DELETE FROM appointments");
+        jdbcTemplate.update("DELETE FROM patients");
+        readModel.reload(ClinicContext.DEFAULT_CLINIC);
+        patient = patientService.addPatient(new Patient("John Doe", "1234567890", "john.doe@email.com"));
+    }
+
+    @Test
+    @DisplayName("Committed writes are read from memory without a statement")
+    void shouldServeCommittedWrites() throws Exception {
+        LocalDate day = LocalDate.now().plusDays(5);
+        String first = appointmentService.addAppointment(new Appointment(patient.getPatientID(), "Dr. Smith", day, "Checkup")).getAppointmentID();
+        String second = appointmentService.addAppointment(new Appointment(patient.getPatientID(), "Dr. Jones", day, "Follow-up")).getAppointmentID();
+        Appointment moved = appointmentService.getAppointmentById(second).orElseThrow();
+        moved.setAptDate(day.plusDays(1));
+        appointmentService.updateAppointment(second, moved);
+        patientService.updatePatient(patient.getPatientID(), new Patient("John Smith", "1234567890", "john.doe@email.com"));
+
+        List<Object> results = new ArrayList<>();
+        List<String> statements = sql.record(() -> {
+            results.add(patientService.getPatientSummaries());
+            results.add(patientService.getPatientById(patient.getPatientID()).orElseThrow());
+            results.add(appointmentService.getAppointmentRows());
+            results.add(appointmentService.getAppointmentById(first).orElseThrow());
+            results.add(appointmentService.getCalendarCounts(day, day.plusDays(1), null));
+            results.add(appointmentService.getAppointmentCount());
+        });
+        SqlRecorder.assertShapes("served reads", statements,
+                "select appointment_series join appointment_series_skips");
+
+        assertEquals("John Smith", patientService.getPatientSummaries().get(0).name());
+        assertEquals("John Smith", ((Patient) results.get(1)).getName());
+        assertEquals(List.of(first, second), appointmentService.getAppointmentRows().stream().map(row -> row.appointmentID()).toList());
+        assertEquals("John Smith", appointmentService.getAppointmentRows().get(1).patientName());
+        assertEquals("John Smith", appointmentService.getAppointmentById(first).orElseThrow().getPatient().getName());
+        assertEquals(List.of(first), appointmentService.getAppointmentsByDate(day).stream().map(Appointment::getAppointmentID).toList());
+        assertEquals(List.of(new AppointmentCount(day, "Dr. Smith", 1)), appointmentService.getCalendarCounts(day, day, null).get(day));
+        assertEquals(2, appointmentService.getAppointmentsByPatientID(patient.getPatientID()).size());
+
+        assertTrue(appointmentService.deleteAppointment(first));
+        assertFalse(appointmentService.appointmentExists(first));
+        assertEquals(1, appointmentService.getAppointmentCount());
+        assertTrue(appointmentService.getAppointmentsByDate(day).isEmpty());
+    }
+
+    @Test
+    @DisplayName("A rolled back write never reaches the read model")
+    void shouldIgnoreRolledBackWrites() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            Patient added = patientService.addPatient(new Patient("Jane Doe", "0987654321", "jane.doe@email.com"));
+            // the write transaction reads its own change from the database
+            assertTrue(patientService.patientExists(added.getPatientID()));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(1, patientService.getPatientCount());
+        assertTrue(readModel.check().get(0).consistent());
+    }
+
+    @Test
+    @DisplayName("The check finds rows changed around the services and repairs them")
+    void shouldRepairDrift() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("UPDATE patients SET name = 'Changed Behind' WHERE patient_code = ?", patient.getPatientID());
+        jdbcTemplate.update("INSERT INTO appointments (appointment_code, patient_code, patient_id, doctor_name, appointment_date, description, clinic_code, created_at, updated_at)"
+                + " SELECT 'APTSQL', patient_code, patient_id, 'Dr. Smith', ?, 'Checkup', 'MAIN', ?, ? FROM patients WHERE patient_code = ?",
+                Date.valueOf(LocalDate.now().plusDays(3)), now, now, patient.getPatientID());
+        assertEquals("John Doe", patientService.getPatientById(patient.getPatientID()).orElseThrow().getName());
+        assertFalse(appointmentService.appointmentExists("APTSQL"));
+
+        ReadModelCheck check = readModel.check().get(0);
+
+        assertEquals(2, check.mismatches());
+        assertEquals(List.of(patient.getPatientID(), "APTSQL"), check.mismatched());
+        assertEquals("Changed Behind", patientService.getPatientById(patient.getPatientID()).orElseThrow().getName());
+        assertTrue(appointmentService.appointmentExists("APTSQL"));
+        assertTrue(readModel.check().get(0).consistent());
+    }
+}
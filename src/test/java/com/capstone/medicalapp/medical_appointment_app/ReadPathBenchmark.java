@@ -0,0 +1,160 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.capstone.medicalapp.medical_appointment_app.repository.AppointmentRepository;
+import com.capstone.medicalapp.medical_appointment_app.repository.PatientRepository;
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentService;
+
+// the appointment table's read on a large clinic: managed entities in a read-write transaction (the old path), the
+// same entities read-only, and the joined row projection. reports latency, bytes allocated per read and the heap
+// still held while the transaction is open (entities, hibernate's dirty checking snapshots and the results)
+// run with: ./mvnw test -Dtest=ReadPathBenchmark [-Dbench.appointments=200000 -Dbench.patients=50000 -Dbench.runs=10]
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:read_path_bench;DB_CLOSE_DELAY=-1")
+@DisplayName("Read Path Benchmark")
+class ReadPathBenchmark {
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Entities read-write, entities read-only and row projections")
+    void readPaths() {
+        int appointments = Integer.getInteger("bench.appointments", 200_000);
+        int patients = Integer.getInteger("bench.patients", 50_000);
+        int runs = Integer.getInteger("bench.runs", 10);
+        load(appointments, patients);
+
+        TransactionTemplate readWrite = new TransactionTemplate(transactionManager);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        measure("entities, read-write", runs, () -> readWrite.execute(tx -> entities()));
+        measure("entities, read-only", runs, () -> readOnly.execute(tx -> entities()));
+        measure("row projection", runs, () -> readOnly.execute(tx -> {
+            List<?> rows = appointmentService.getAppointmentRows();
+            return rows.size() + retainedMb();
+        }));
+    }
+
+    // what the list page used to load, every appointment and every patient to look the names up in
+    private double entities() {
+        List<?> loaded = appointmentRepository.findAll();
+        List<?> names = patientRepository.findAll();
+        return loaded.size() + names.size() + retainedMb();
+    }
+
+    private long baseline;
+    private boolean holding;
+    private double retained;
+
+    // heap used after a gc minus the baseline, only measured on the run that asks for it
+    private double retainedMb() {
+        if (!holding) {
+            return 0;
+        }
+        System.gc();
+        retained = (ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() - baseline) / 1e6;
+        return 0;
+    }
+
+    private void measure(String name, int runs, Supplier<?> read) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < 3; i++) {
+            read.get();
+        }
+
+        long[] nanos = new long[runs];
+        long allocated = 0;
+        for (int i = 0; i < runs; i++) {
+            long bytes = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            read.get();
+            nanos[i] = System.nanoTime() - start;
+            allocated += threads.getCurrentThreadAllocatedBytes() - bytes;
+        }
+        Arrays.sort(nanos);
+
+        System.gc();
+        baseline = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        holding = true;
+        read.get();
+        holding = false;
+
+        System.out.printf("%-22s median %6.1f ms, max %6.1f ms, allocated %6.1f MB/read, held in transaction %6.1f MB%n",
+                name, nanos[runs / 2] / 1e6, nanos[runs - 1] / 1e6, allocated / 1e6 / runs, retained);
+    }
+
+    private void load(int appointments, int patients) {
+        long loadStart = System.nanoTime();
+        Random random = new Random(42);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        LocalDate today = LocalDate.now();
+
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < patients; i++) {
+            rows.add(new Object[] {"PAT" + i, "Patient Number" + i, String.format("%010d", 1_000_000_000L + i), "patient" + i + "@email.com", "MAIN", now, now});
+            if (rows.size() == 5000) {
+                jdbcTemplate.batchUpdate("INSERT INTO patients (patient_code, name, phone, email, clinic_code, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO patients (patient_code, name, phone, email, clinic_code, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+        rows.clear();
+
+        Map<String, Long> patientKeys = patientKeys();
+        for (int i = 0; i < appointments; i++) {
+            String patient = "PAT" + random.nextInt(patients);
+            rows.add(new Object[] {"APT" + i, patient, patientKeys.get(patient), "Dr. Bench" + random.nextInt(20),
+                    Date.valueOf(today.plusDays(random.nextInt(365))), "Checkup", "MAIN", now, now});
+            if (rows.size() == 5000) {
+                insertAppointments(rows);
+                rows.clear();
+            }
+        }
+        insertAppointments(rows);
+        System.out.printf("loaded %d appointments and %d patients in %d ms%n", appointments, patients, (System.nanoTime() - loadStart) / 1_000_000);
+    }
+
+    private void insertAppointments(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO appointments (appointment_code, patient_code, patient_id, doctor_name, appointment_date, description, clinic_code, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    // primary keys of the loaded patients by code, appointments reference both
+    private Map<String, Long> patientKeys() {
+        Map<String, Long> keys = new HashMap<>();
+        jdbcTemplate.query("SELECT patient_code, patient_id FROM patients", rs -> {keys.put(rs.getString(1), rs.getLong(2));});
+        return keys;
+    }
+}
@@ -0,0 +1,123 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.capstone.medicalapp.medical_appointment_app.model.Appointment;
+import com.capstone.medicalapp.medical_appointment_app.reschedule.RescheduleReport;
+import com.capstone.medicalapp.medical_appointment_app.reschedule.RescheduleReport.Move;
+import com.capstone.medicalapp.medical_appointment_app.reschedule.RescheduleRequest;
+import com.capstone.medicalapp.medical_appointment_app.reschedule.RescheduleService;
+import com.capstone.medicalapp.medical_appointment_app.reschedule.SlotPlanner;
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentService;
+
+// a doctor away for two weeks with thousands of appointments to move, against a background of other bookings.
+// the engine (plan, one batched update) is compared with moving the same plan one appointment at a time through
+// AppointmentService.updateAppointment, and the planner alone is timed on a much larger input
+// run with: ./mvnw test -Dtest=RescheduleBenchmark [-Dbench.affected=5000 -Dbench.background=100000]
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:reschedule_bench;DB_CLOSE_DELAY=-1", "medapp.reschedule.max-appointments=100000",
+        "medapp.audit.queue-capacity=100000"})
+@DisplayName("Reschedule Benchmark")
+class RescheduleBenchmark {
+
+    @Autowired
+    private RescheduleService rescheduleService;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Batched rescheduling against one update per appointment")
+    void reschedule() {
+        int affected = Integer.getInteger("bench.affected", 5000);
+        int background = Integer.getInteger("bench.background", 100_000);
+        LocalDate from = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+        LocalDate to = from.plusDays(13);
+        load(affected, background, from, to);
+
+        // one doctor per path so both start from the same bookings
+        RescheduleRequest batched = new RescheduleRequest("Dr. Batched", from, to, 60, 366);
+        RescheduleRequest oneByOne = new RescheduleRequest("Dr. OneByOne", from, to, 60, 366);
+
+        long start = System.nanoTime();
+        RescheduleReport preview = rescheduleService.preview(batched);
+        long previewNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        RescheduleReport applied = rescheduleService.apply(batched);
+        long applyNanos = System.nanoTime() - start;
+        assertEquals(affected, applied.moved().size());
+
+        List<Move> plan = rescheduleService.preview(oneByOne).moved();
+        start = System.nanoTime();
+        for (Move move : plan) {
+            Appointment current = appointmentService.getAppointmentById(move.appointmentID()).orElseThrow();
+            current.setAptDate(move.toDate());
+            appointmentService.updateAppointment(move.appointmentID(), current);
+        }
+        long oneByOneNanos = System.nanoTime() - start;
+
+        System.out.printf("%d appointments, %d background: preview %d ms, apply %d ms (%d placed over %s..%s), one by one %d ms%n",
+                affected, background, previewNanos / 1_000_000, applyNanos / 1_000_000, applied.moved().size(),
+                applied.moved().get(0).toDate(), applied.moved().get(affected - 1).toDate(), oneByOneNanos / 1_000_000);
+        assertEquals(preview.moved(), applied.moved());
+
+        // the planner on its own, a year of days and a million appointments
+        int[] free = new int[366];
+        Random random = new Random(42);
+        for (int day = 0; day < free.length; day++) {
+            free[day] = random.nextInt(5000);
+        }
+        for (int i = 0; i < 5; i++) {
+            SlotPlanner.assign(free, 1_000_000);
+        }
+        start = System.nanoTime();
+        SlotPlanner.assign(free, 1_000_000);
+        System.out.printf("planner: 1000000 appointments over 366 days in %.1f ms%n", (System.nanoTime() - start) / 1e6);
+    }
+
+    private void load(int affected, int background, LocalDate from, LocalDate to) {
+        Random random = new Random(42);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int days = (int) (to.toEpochDay() - from.toEpochDay()) + 1;
+
+        jdbcTemplate.update("INSERT INTO patients (patient_code, name, phone, email, clinic_code, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                "PATB", "Bench Patient", "5550000000", "bench@email.com", "MAIN", now, now);
+        long patientKey = jdbcTemplate.queryForObject("SELECT patient_id FROM patients WHERE patient_code = 'PATB'", Long.class);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < affected; i++) {
+            for (String doctor : List.of("Dr. Batched", "Dr. OneByOne")) {
+                rows.add(new Object[] {"APT" + doctor.charAt(4) + i, doctor, Date.valueOf(from.plusDays(random.nextInt(days)))});
+            }
+        }
+        // the weeks after the absence are already half booked
+        for (int i = 0; i < background; i++) {
+            String doctor = i % 4 == 0 ? (i % 8 == 0 ? "Dr. Batched" : "Dr. OneByOne") : "Dr. Other" + i % 10;
+            rows.add(new Object[] {"APTX" + i, doctor, Date.valueOf(to.plusDays(1 + random.nextInt(365)))});
+        }
+        for (int i = 0; i < rows.size(); i += 5000) {
+            List<Object[]> batch = new ArrayList<>();
+            for (Object[] row : rows.subList(i, Math.min(rows.size(), i + 5000))) {
+                batch.add(new Object[] {row[0], "PATB", patientKey, row[1], row[2], "Checkup", "MAIN", now, now});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO appointments (appointment_code, patient_code, patient_id, doctor_name, appointment_date, description, clinic_code, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", batch);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.capstone.medicalapp.medical_appointment_app.audit.AuditLog;
+import com.capstone.medicalapp.medical_appointment_app.audit.AuditSnapshots;
+import com.capstone.medicalapp.medical_appointment_app.audit.AuditWriter;
+import com.capstone.medicalapp.medical_appointment_app.model.Appointment;
+import com.capstone.medicalapp.medical_appointment_app.model.AppointmentSeries;
+import com.capstone.medicalapp.medical_appointment_app.model.Patient;
+import com.capstone.medicalapp.medical_appointment_app.model.RecurrenceFrequency;
+import com.capstone.medicalapp.medical_appointment_app.reschedule.RescheduleReport;
+import com.capstone.medicalapp.medical_appointment_app.reschedule.RescheduleReport.Move;
+import com.capstone.medicalapp.medical_appointment_app.reschedule.RescheduleRequest;
+import com.capstone.medicalapp.medical_appointment_app.reschedule.RescheduleService;
+import com.capstone.medicalapp.medical_appointment_app.reschedule.SlotPlanner;
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentSeriesService;
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentService;
+import com.capstone.medicalapp.medical_appointment_app.service.PatientService;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:reschedule_test;DB_CLOSE_DELAY=-1")
+@Import(SqlRecorder.class)
+@DisplayName("Reschedule Tests")
+class RescheduleTest {
+
+    @Autowired
+    private RescheduleService rescheduleService;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentSeriesService seriesService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    @Autowired
+    private AuditWriter auditWriter;
+
+    @Autowired
+    private SqlRecorder sql;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String patientId;
+    // the monday the doctor is away from, the whole week
+    private LocalDate monday;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM appointment_series_skips");
+        jdbcTemplate.update("DELETE FROM appointment_series");
+        jdbcTemplate.update("DELETE FROM appointments");
+        jdbcTemplate.update("DELETE FROM patients");
+        jdbcTemplate.update("DELETE FROM change_log");
+        jdbcTemplate.update("DELETE FROM doctor_locks");
+        patientId = patientService.addPatient(new Patient("John Doe", "1234567890", "john.doe@email.com")).getPatientID();
+        monday = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY)).plusWeeks(1);
+    }
+
+    private String book(String doctor, LocalDate date) {
+        return appointmentService.addAppointment(new Appointment(patientId, doctor, date, "Checkup")).getAppointmentID();
+    }
+
+    private RescheduleRequest awayAllWeek(String doctor, int capacity, int horizon) {
+        return new RescheduleRequest(doctor, monday, monday.plusDays(4), capacity, horizon);
+    }
+
+    @Test
+    @DisplayName("Appointments move in order to the first weekdays with capacity left")
+    void shouldMoveIntoFreeCapacity() {
+        List<String> affected = List.of(book("Dr. Away", monday), book("Dr. Away", monday.plusDays(2)), book("Dr. Away", monday.plusDays(2)),
+                book("Dr. Away", monday.plusDays(3)), book("Dr. Away", monday.plusDays(4)));
+        String otherDoctor = book("Dr. Smith", monday.plusDays(1));
+        String outside = book("Dr. Away", monday.plusDays(7));
+        // a weekly series takes one place on the tuesdays after the week and is left alone inside it
+        seriesService.addSeries(new AppointmentSeries(patientId, "Dr. Away", "Dialysis", monday.plusDays(1), monday.plusDays(15), RecurrenceFrequency.WEEKLY, 1));
+
+        RescheduleReport preview = rescheduleService.preview(awayAllWeek("Dr. Away", 2, 14));
+
+        List<LocalDate> expected = List.of(monday.plusDays(7), monday.plusDays(8), monday.plusDays(9), monday.plusDays(9), monday.plusDays(10));
+        assertEquals(affected, preview.moved().stream().map(Move::appointmentID).toList());
+        assertEquals(expected, preview.moved().stream().map(Move::toDate).toList());
+        assertEquals("John Doe", preview.moved().get(0).patientName());
+        assertEquals(1, preview.seriesOccurrences());
+        assertTrue(preview.unplaced().isEmpty());
+        assertEquals(monday, appointmentService.getAppointmentById(affected.get(0)).orElseThrow().getAptDate());
+
+        RescheduleReport applied = rescheduleService.apply(awayAllWeek("Dr. Away", 2, 14));
+
+        assertTrue(applied.applied());
+        assertEquals(preview.moved(), applied.moved());
+        for (int i = 0; i < affected.size(); i++) {
+            assertEquals(expected.get(i), appointmentService.getAppointmentById(affected.get(i)).orElseThrow().getAptDate());
+        }
+        assertEquals(monday.plusDays(1), appointmentService.getAppointmentById(otherDoctor).orElseThrow().getAptDate());
+        assertEquals(monday.plusDays(7), appointmentService.getAppointmentById(outside).orElseThrow().getAptDate());
+
+        assertEquals(2L, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM change_log WHERE entity_code = ?", Long.class, affected.get(4)));
+        // a batch the writer is inserting is neither queued nor committed yet, so wait until it has been written
+        assertTrue(auditWriter.awaitDrained(Duration.ofSeconds(5)));
+        assertEquals("aptDate: " + monday.plusDays(4) + " -> " + monday.plusDays(10),
+                auditLog.getHistory(AuditSnapshots.APPOINTMENT, affected.get(4)).get(1).getDetails());
+        assertTrue(rescheduleService.preview(awayAllWeek("Dr. Away", 2, 14)).moved().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Appointments that do not fit in the horizon stay put and are reported unplaced")
+    void shouldReportUnplaced() {
+        String first = book("Dr. Away", monday);
+        String second = book("Dr. Away", monday.plusDays(1));
+
+        // saturday, sunday and monday, one place on the monday
+        RescheduleReport report = rescheduleService.apply(awayAllWeek("Dr. Away", 1, 3));
+
+        assertEquals(List.of(first), report.moved().stream().map(Move::appointmentID).toList());
+        assertEquals(List.of(second), report.unplaced().stream().map(Move::appointmentID).toList());
+        assertEquals(monday.plusDays(7), appointmentService.getAppointmentById(first).orElseThrow().getAptDate());
+        assertEquals(monday.plusDays(1), appointmentService.getAppointmentById(second).orElseThrow().getAptDate());
+
+        assertThrows(IllegalArgumentException.class, () -> rescheduleService.apply(awayAllWeek(" ", 1, 3)));
+        assertThrows(IllegalArgumentException.class, () -> rescheduleService.apply(awayAllWeek("Dr. Away", 0, 3)));
+        assertThrows(IllegalArgumentException.class, () -> rescheduleService.apply(
+                new RescheduleRequest("Dr. Away", LocalDate.now().minusDays(1), monday, null, null)));
+    }
+
+    @Test
+    @DisplayName("Applying costs the same statements for any number of appointments")
+    void shouldApplyInOneBatch() throws Exception {
+        for (int i = 0; i < 40; i++) {
+            book("Dr. Away", monday.plusDays(i % 5));
+        }
+
+        List<String> statements = sql.record(() -> assertEquals(40, rescheduleService.apply(awayAllWeek("Dr. Away", 20, 30)).moved().size()));
+
+        // the doctor's first reschedule inserts its lock row, the target days are counted again after the move
+        SqlRecorder.assertShapes("apply", statements, "update doctor_locks", "insert doctor_locks", "select appointments join patients",
+                "select appointments", "select appointment_series join appointment_series_skips", "update appointments", "select appointments",
+                "select appointment_series join appointment_series_skips", "update change_sequences", "select change_sequences", "insert change_log");
+    }
+
+    @Test
+    @DisplayName("Free places are handed out in order and run out cleanly")
+    void planner() {
+        assertArrayEquals(new int[] {0, 0, 2, 3, 3}, SlotPlanner.assign(new int[] {2, 0, 1, 3}, 5));
+        assertArrayEquals(new int[] {1, 2, SlotPlanner.UNPLACED}, SlotPlanner.assign(new int[] {-1, 1, 1}, 3));
+        assertArrayEquals(new int[] {SlotPlanner.UNPLACED}, SlotPlanner.assign(new int[0], 1));
+    }
+}
@@ -0,0 +1,158 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.capstone.medicalapp.medical_appointment_app.model.AppointmentSeries;
+import com.capstone.medicalapp.medical_appointment_app.model.RecurrenceFrequency;
+import com.capstone.medicalapp.medical_appointment_app.repository.AppointmentRepository;
+import com.capstone.medicalapp.medical_appointment_app.repository.AppointmentSeriesRepository;
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentSeriesService;
+
+// range queries over a large population of weekly series, compared with storing every occurrence as a row
+// run with: ./mvnw test -Dtest=SeriesRangeQueryBenchmark [-Dbench.series=20000 -Dbench.queries=500]
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:series_bench;DB_CLOSE_DELAY=-1")
+@DisplayName("Series Range Query Benchmark")
+class SeriesRangeQueryBenchmark {
+
+    private static final int WEEKS = 52;
+    private static final int PATIENTS = 2000;
+
+    @Autowired
+    private AppointmentSeriesRepository seriesRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private AppointmentSeriesService seriesService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Date and patient range queries, series vs materialized rows")
+    void rangeQueries() {
+        int seriesCount = Integer.getInteger("bench.series", 10_000);
+        int queries = Integer.getInteger("bench.queries", 200);
+        LocalDate start = LocalDate.now().plusDays(1);
+        Random random = new Random(42);
+
+        // one row per series
+        long loadStart = System.nanoTime();
+        List<AppointmentSeries> batch = new ArrayList<>();
+        for (int i = 0; i < seriesCount; i++) {
+            LocalDate first = start.plusDays(random.nextInt(7 * WEEKS));
+            AppointmentSeries series = new AppointmentSeries("PAT" + random.nextInt(PATIENTS), "Dr. Bench", "Weekly care",
+                    first, first.plusWeeks(WEEKS - 1), RecurrenceFrequency.WEEKLY, 1);
+            series.setSeriesID("SER" + i);
+            batch.add(series);
+            if (batch.size() == 1000) {
+                seriesRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        seriesRepository.saveAll(batch);
+        long seriesLoadMs = (System.nanoTime() - loadStart) / 1_000_000;
+
+        // the same occurrences as one row each
+        loadStart = System.nanoTime();
+        random = new Random(42);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < PATIENTS; i++) {
+            rows.add(new Object[] {"PAT" + i, "Bench Patient", String.format("%010d", i), "bench" + i + "@email.com", "MAIN", now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO patients (patient_code, name, phone, email, clinic_code, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)", rows);
+        rows.clear();
+        Map<String, Long> patientKeys = patientKeys();
+        long code = 0;
+        for (int i = 0; i < seriesCount; i++) {
+            LocalDate first = start.plusDays(random.nextInt(7 * WEEKS));
+            String patient = "PAT" + random.nextInt(PATIENTS);
+            for (int w = 0; w < WEEKS; w++) {
+                rows.add(new Object[] {"APT" + code++, patient, patientKeys.get(patient), "Dr. Bench", Date.valueOf(first.plusWeeks(w)), "Weekly care", "MAIN", now, now});
+                if (rows.size() == 5000) {
+                    insertRows(rows);
+                    rows.clear();
+                }
+            }
+        }
+        insertRows(rows);
+        long rowLoadMs = (System.nanoTime() - loadStart) / 1_000_000;
+
+        System.out.printf("series rows: %d (load %d ms), materialized rows: %d (load %d ms)%n",
+                seriesRepository.count(), seriesLoadMs, appointmentRepository.count(), rowLoadMs);
+
+        // warm up both paths before timing
+        for (int i = 0; i < 20; i++) {
+            seriesService.getOccurrencesOn(start.plusDays(i));
+            appointmentRepository.findByAptDate(start.plusDays(i));
+        }
+
+        random = new Random(7);
+        long seriesNanos = 0;
+        long rowNanos = 0;
+        long seriesHits = 0;
+        long rowHits = 0;
+        for (int i = 0; i < queries; i++) {
+            LocalDate date = start.plusDays(random.nextInt(7 * WEEKS * 2));
+
+            long t0 = System.nanoTime();
+            seriesHits += seriesService.getOccurrencesOn(date).size();
+            long t1 = System.nanoTime();
+            rowHits += appointmentRepository.findByAptDate(date).size();
+            long t2 = System.nanoTime();
+
+            seriesNanos += t1 - t0;
+            rowNanos += t2 - t1;
+        }
+        System.out.printf("by date:          series %.2f ms/query (%d hits), materialized %.2f ms/query (%d hits)%n",
+                seriesNanos / 1e6 / queries, seriesHits, rowNanos / 1e6 / queries, rowHits);
+
+        seriesNanos = 0;
+        rowNanos = 0;
+        seriesHits = 0;
+        rowHits = 0;
+        for (int i = 0; i < queries; i++) {
+            String patient = "PAT" + random.nextInt(PATIENTS);
+            LocalDate from = start.plusDays(random.nextInt(7 * WEEKS));
+            LocalDate to = from.plusDays(30);
+
+            long t0 = System.nanoTime();
+            seriesHits += seriesService.getOccurrencesForPatient(patient, from, to).size();
+            long t1 = System.nanoTime();
+            rowHits += appointmentRepository.findWithPatientByPatientIDAndAptDateBetween(patient, from, to).size();
+            long t2 = System.nanoTime();
+
+            seriesNanos += t1 - t0;
+            rowNanos += t2 - t1;
+        }
+        System.out.printf("patient 30 days:  series %.2f ms/query (%d hits), materialized %.2f ms/query (%d hits)%n",
+                seriesNanos / 1e6 / queries, seriesHits, rowNanos / 1e6 / queries, rowHits);
+    }
+
+    private void insertRows(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("INSERT INTO appointments (appointment_code, patient_code, patient_id, doctor_name, appointment_date, description, clinic_code, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    // primary keys of the loaded patients by code, appointments reference both
+    private Map<String, Long> patientKeys() {
+        Map<String, Long> keys = new HashMap<>();
+        jdbcTemplate.query("SELECT patient_code, patient_id FROM patients", rs -> {keys.put(rs.getString(1), rs.getLong(2));});
+        return keys;
+    }
+}
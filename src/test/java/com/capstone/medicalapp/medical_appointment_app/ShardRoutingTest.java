@@ -0,0 +1,125 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.capstone.medicalapp.medical_appointment_app.model.Appointment;
+import com.capstone.medicalapp.medical_appointment_app.model.Patient;
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentService;
+import com.capstone.medicalapp.medical_appointment_app.service.PatientService;
+import com.capstone.medicalapp.medical_appointment_app.sharding.ClinicContext;
+import com.capstone.medicalapp.medical_appointment_app.sharding.ClinicRoutingDataSource;
+import com.capstone.medicalapp.medical_appointment_app.sharding.ShardRouter;
+
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:shard_default;DB_CLOSE_DELAY=-1",
+    "medapp.sharding.shards.north.url=jdbc:h2:mem:shard_north;DB_CLOSE_DELAY=-1",
+    "medapp.sharding.shards.north.username=sa",
+    "medapp.sharding.shards.south.url=jdbc:h2:mem:shard_south;DB_CLOSE_DELAY=-1",
+    "medapp.sharding.shards.south.username=sa",
+    "medapp.sharding.clinics.NORTH=north",
+    "medapp.sharding.clinics.SOUTH=south"
+})
+@DisplayName("Shard Routing Tests")
+class ShardRoutingTest {
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ClinicRoutingDataSource dataSource;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @BeforeEach
+    void setUp() {
+        for (String shard : shardRouter.getShardNames()) {
+            ClinicContext.allClinicsOn(shard);
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+            jdbc.update("DELETE FROM appointments");
+            jdbc.update("DELETE FROM patients");
+        }
+        ClinicContext.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ClinicContext.clear();
+    }
+
+    private int countOnShard(String shard, String table) {
+        ClinicContext.allClinicsOn(shard);
+        try {
+            return new JdbcTemplate(dataSource).queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+        } finally {
+            ClinicContext.clear();
+        }
+    }
+
+    @Test
+    @DisplayName("Should store records on the shard mapped to their clinic")
+    void shouldStoreRecordsOnClinicShard() {
+        Patient patient = shardRouter.inClinic("north", () -> patientService.addPatient(new Patient("Jane Doe", "1234567890", "jane@email.com")));
+        shardRouter.inClinic("NORTH", () -> appointmentService.addAppointment(
+                new Appointment(patient.getPatientID(), "Dr. Smith", LocalDate.now().plusDays(3), "Checkup")));
+
+        assertEquals("NORTH", patient.getClinicID());
+        assertEquals(1, countOnShard("north", "patients"));
+        assertEquals(1, countOnShard("north", "appointments"));
+        assertEquals(0, countOnShard("south", "patients"));
+        assertEquals(0, countOnShard(ClinicRoutingDataSource.DEFAULT_SHARD, "patients"));
+    }
+
+    @Test
+    @DisplayName("Should not see patients of another clinic")
+    void shouldIsolateClinics() {
+        Patient patient = shardRouter.inClinic("NORTH", () -> patientService.addPatient(new Patient("Jane Doe", "1234567890", "jane@email.com")));
+
+        assertTrue(shardRouter.inClinic("NORTH", () -> patientService.patientExists(patient.getPatientID())));
+        assertFalse(shardRouter.inClinic("SOUTH", () -> patientService.patientExists(patient.getPatientID())));
+
+        Appointment appointment = new Appointment(patient.getPatientID(), "Dr. Smith", LocalDate.now().plusDays(3), "Checkup");
+        assertThrows(IllegalArgumentException.class, () -> shardRouter.inClinic("SOUTH", () -> appointmentService.addAppointment(appointment)));
+    }
+
+    @Test
+    @DisplayName("Should keep clinics that share the default shard apart")
+    void shouldIsolateClinicsOnDefaultShard() {
+        shardRouter.inClinic("EAST", () -> patientService.addPatient(new Patient("Jane Doe", "1234567890", "jane@email.com")));
+        shardRouter.inClinic("WEST", () -> patientService.addPatient(new Patient("John Doe", "0987654321", "john@email.com")));
+
+        assertEquals(2, countOnShard(ClinicRoutingDataSource.DEFAULT_SHARD, "patients"));
+        assertEquals(1, shardRouter.inClinic("EAST", () -> patientService.getAllPatients()).size());
+        assertEquals(1, shardRouter.inClinic("WEST", () -> patientService.getAllPatients()).size());
+    }
+
+    @Test
+    @DisplayName("Should merge every shard in the admin fan-out")
+    void shouldFanOutAcrossShards() {
+        shardRouter.inClinic("NORTH", () -> patientService.addPatient(new Patient("Jane Doe", "1234567890", "jane@email.com")));
+        shardRouter.inClinic("SOUTH", () -> patientService.addPatient(new Patient("John Doe", "0987654321", "john@email.com")));
+        shardRouter.inClinic("EAST", () -> patientService.addPatient(new Patient("Mary Major", "1112223333", "mary@email.com")));
+        shardRouter.inClinic("WEST", () -> patientService.addPatient(new Patient("Rick Roe", "4445556666", "rick@email.com")));
+
+        List<Patient> all = shardRouter.fanOut(patientService::getAllPatients);
+
+        assertEquals(4, all.size());
+        assertEquals(List.of("EAST", "NORTH", "SOUTH", "WEST"), all.stream().map(Patient::getClinicID).sorted().toList());
+    }
+}
@@ -0,0 +1,94 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.capstone.medicalapp.medical_appointment_app.model.Patient;
+import com.capstone.medicalapp.medical_appointment_app.service.PatientService;
+import com.capstone.medicalapp.medical_appointment_app.sharding.ShardRouter;
+
+// throughput of mixed patient writes/lookups as the same clinics are spread over 1..N H2 shards
+// run with: ./mvnw test -Dtest=ShardThroughputBenchmark [-Dbench.maxShards=8 -Dbench.seconds=10]
+@DisplayName("Shard Throughput Benchmark")
+class ShardThroughputBenchmark {
+
+    private static final int CLINICS = 8;
+    private static final int WORKERS = 16;
+
+    @Test
+    @DisplayName("Throughput from 1 to N shards")
+    void throughputByShardCount() throws Exception {
+        int maxShards = Integer.getInteger("bench.maxShards", 4);
+        int seconds = Integer.getInteger("bench.seconds", 5);
+
+        System.out.printf("%-8s %-12s %-12s%n", "shards", "ops/sec", "ops");
+        for (int shards = 1; shards <= maxShards; shards *= 2) {
+            long ops = run(shards, seconds);
+            System.out.printf("%-8d %-12d %-12d%n", shards, ops / seconds, ops);
+        }
+    }
+
+    private long run(int shards, int seconds) throws Exception {
+        List<String> properties = new ArrayList<>();
+        properties.add("spring.datasource.url=jdbc:h2:mem:bench_" + shards + "_0;DB_CLOSE_DELAY=-1");
+        properties.add("spring.datasource.hikari.maximum-pool-size=" + WORKERS);
+        for (int s = 1; s < shards; s++) {
+            properties.add("medapp.sharding.shards.s" + s + ".url=jdbc:h2:mem:bench_" + shards + "_" + s + ";DB_CLOSE_DELAY=-1");
+            properties.add("medapp.sharding.shards.s" + s + ".username=sa");
+        }
+        for (int c = 0; c < CLINICS; c++) {
+            int shard = c % shards;
+            if (shard != 0) {
+                properties.add("medapp.sharding.clinics.C" + c + "=s" + shard);
+            }
+        }
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(MedicalAppApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(properties.toArray(String[]::new))
+                .run()) {
+            PatientService patientService = context.getBean(PatientService.class);
+            ShardRouter shardRouter = context.getBean(ShardRouter.class);
+
+            LongAdder ops = new LongAdder();
+            AtomicLong sequence = new AtomicLong();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+            CountDownLatch done = new CountDownLatch(WORKERS);
+            ExecutorService workers = Executors.newFixedThreadPool(WORKERS);
+
+            for (int w = 0; w < WORKERS; w++) {
+                String clinic = "C" + (w % CLINICS);
+                workers.submit(() -> {
+                    try {
+                        while (System.nanoTime() < deadline) {
+                            long n = sequence.incrementAndGet();
+                            shardRouter.inClinic(clinic, () -> {
+                                Patient added = patientService.addPatient(new Patient("Bench Patient", String.format("%010d", n), "bench" + n + "@email.com"));
+                                return patientService.getPatientById(added.getPatientID());
+                            });
+                            ops.add(2);
+                        }
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+
+            done.await();
+            workers.shutdown();
+            return ops.sum();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentService;
+import com.capstone.medicalapp.medical_appointment_app.singleflight.SingleFlightProperties;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// many callers loading the appointment list at once, each with its own query and with identical concurrent reads
+// coalesced, with throughput and the number of queries that actually ran for both
+// run with: ./mvnw test -Dtest=SingleFlightBenchmark [-Dbench.callers=32 -Dbench.reads=20 -Dbench.appointments=20000]
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:single_flight_bench;DB_CLOSE_DELAY=-1")
+@DisplayName("Single Flight Benchmark")
+class SingleFlightBenchmark {
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private SingleFlightProperties properties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Concurrent list reads with and without coalescing")
+    void readStorm() throws Exception {
+        int callers = Integer.getInteger("bench.callers", 32);
+        int reads = Integer.getInteger("bench.reads", 20);
+        int appointments = Integer.getInteger("bench.appointments", 20_000);
+        load(appointments);
+
+        // a warm-up round of each, then the measured ones
+        for (int round = 0; round < 2; round++) {
+            boolean measured = round == 1;
+            run("one query per call", false, callers, measured ? reads : 3, appointments, measured);
+            run("coalesced", true, callers, measured ? reads : 3, appointments, measured);
+        }
+        properties.setEnabled(true);
+    }
+
+    private void run(String name, boolean enabled, int callers, int reads, int appointments, boolean print) throws Exception {
+        properties.setEnabled(enabled);
+        double executedBefore = meterRegistry.counter("medapp.singleflight.calls", "name", "getAppointmentRows", "result", "executed").count();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (int c = 0; c < callers; c++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < reads; i++) {
+                        assertEquals(appointments, appointmentService.getAppointmentRows().size());
+                    }
+                    return null;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+            long nanos = System.nanoTime() - begin;
+            double executed = meterRegistry.counter("medapp.singleflight.calls", "name", "getAppointmentRows", "result", "executed").count() - executedBefore;
+            if (print) {
+                // with coalescing off the aspect does not count, every call is its own query
+                System.out.printf("%-18s %d callers x %d reads of %d rows: %.0f reads/s, %d queries%n", name, callers, reads, appointments,
+                        callers * reads / (nanos / 1e9), enabled ? (long) executed : (long) callers * reads);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void load(int appointments) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO patients (patient_code, name, phone, email, clinic_code, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                "PATB", "Bench Patient", "5550000000", "bench@email.com", "MAIN", now, now);
+        long patientKey = jdbcTemplate.queryForObject("SELECT patient_id FROM patients WHERE patient_code = 'PATB'", Long.class);
+        for (int i = 0; i < appointments; i += 5000) {
+            List<Object[]> batch = new ArrayList<>();
+            for (int n = i; n < Math.min(appointments, i + 5000); n++) {
+                batch.add(new Object[] {"APTB" + n, "PATB", patientKey, "Dr. Other" + n % 10, Date.valueOf(LocalDate.now().plusDays(1 + n % 365)),
+                        "Checkup", "MAIN", now, now});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO appointments (appointment_code, patient_code, patient_id, doctor_name, appointment_date, description, clinic_code, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", batch);
+        }
+    }
+}
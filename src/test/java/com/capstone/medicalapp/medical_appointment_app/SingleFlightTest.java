@@ -0,0 +1,200 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.capstone.medicalapp.medical_appointment_app.model.Appointment;
+import com.capstone.medicalapp.medical_appointment_app.model.AppointmentRow;
+import com.capstone.medicalapp.medical_appointment_app.model.Patient;
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentService;
+import com.capstone.medicalapp.medical_appointment_app.service.PatientService;
+import com.capstone.medicalapp.medical_appointment_app.singleflight.SingleFlight;
+import com.capstone.medicalapp.medical_appointment_app.viewcache.DataSet;
+import com.capstone.medicalapp.medical_appointment_app.viewcache.DataVersions;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:single_flight_test;DB_CLOSE_DELAY=-1")
+@Import(SingleFlightTest.SlowReads.class)
+@DisplayName("Single Flight Tests")
+class SingleFlightTest {
+
+    // a read that holds every "slow" call until the gate opens and counts how often each key really ran
+    @Component
+    static class SlowReads {
+
+        private final Map<String, AtomicInteger> executions = new ConcurrentHashMap<>();
+        private volatile CountDownLatch gate = new CountDownLatch(0);
+
+        @SingleFlight(value = "test.read", dependsOn = DataSet.APPOINTMENTS)
+        public List<String> read(String key) throws InterruptedException {
+            executions.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+            if (key.startsWith("slow")) {
+                gate.await(10, TimeUnit.SECONDS);
+            }
+            return new ArrayList<>(List.of(key));
+        }
+
+        // the bean is proxied, so its state is only reached through methods
+        public int executions(String key) {
+            return executions.getOrDefault(key, new AtomicInteger()).get();
+        }
+
+        public void close() {
+            executions.clear();
+            gate = new CountDownLatch(1);
+        }
+
+        public void open() {
+            gate.countDown();
+        }
+    }
+
+    @Autowired
+    private SlowReads reads;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private DataVersions dataVersions;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ExecutorService pool = Executors.newCachedThreadPool();
+
+    @BeforeEach
+    void setUp() {
+        reads.close();
+    }
+
+    @AfterEach
+    void tearDown() {
+        reads.open();
+        pool.shutdownNow();
+    }
+
+    private double calls(String name, String result) {
+        return meterRegistry.counter("medapp.singleflight.calls", "name", name, "result", result).count();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 500 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    @Test
+    @DisplayName("Concurrent identical reads share one execution and nothing is kept afterwards")
+    void shouldShareOneExecution() throws Exception {
+        double coalescedBefore = calls("test.read", "coalesced");
+        List<Future<List<String>>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(pool.submit(() -> reads.read("slow")));
+        }
+        await(() -> calls("test.read", "coalesced") - coalescedBefore == 7);
+        reads.open();
+
+        List<String> first = results.get(0).get();
+        for (Future<List<String>> result : results) {
+            assertSame(first, result.get());
+        }
+        assertEquals(1, reads.executions("slow"));
+
+        assertNotSame(first, reads.read("slow"));
+        assertEquals(2, reads.executions("slow"));
+    }
+
+    @Test
+    @DisplayName("Other arguments, calls in a transaction and calls after a write run on their own")
+    void shouldNotShareAcrossKeysTransactionsOrWrites() throws Exception {
+        Future<List<String>> leader = pool.submit(() -> reads.read("slow"));
+        await(() -> reads.executions("slow") == 1);
+
+        assertEquals(List.of("fast"), reads.read("fast"));
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Future<List<String>> inTransaction = pool.submit(() -> transaction.execute(status -> {
+            try {
+                return reads.read("slow");
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        await(() -> reads.executions("slow") == 2);
+
+        dataVersions.changed(DataSet.APPOINTMENTS);
+        Future<List<String>> afterWrite = pool.submit(() -> reads.read("slow"));
+        await(() -> reads.executions("slow") == 3);
+
+        reads.open();
+        assertEquals(List.of("slow"), leader.get());
+        assertEquals(List.of("slow"), inTransaction.get());
+        assertEquals(List.of("slow"), afterWrite.get());
+    }
+
+    @Test
+    @DisplayName("Concurrent list reads return the same rows as a single read")
+    void shouldCoalesceServiceReads() throws Exception {
+        jdbcTemplate.update("DELETE FROM appointments");
+        jdbcTemplate.update("DELETE FROM patients");
+        String patientId = patientService.addPatient(new Patient("John Doe", "1234567890", "john.doe@email.com")).getPatientID();
+        for (int i = 1; i <= 20; i++) {
+            appointmentService.addAppointment(new Appointment(patientId, "Dr. Smith", LocalDate.now().plusDays(i), "Checkup"));
+        }
+        double before = calls("getAppointmentRows", "executed") + calls("getAppointmentRows", "coalesced");
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<AppointmentRow>>> results = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return appointmentService.getAppointmentRows();
+            }));
+        }
+        start.countDown();
+
+        List<AppointmentRow> expected = appointmentService.getAppointmentRows();
+        for (Future<List<AppointmentRow>> result : results) {
+            assertEquals(expected, result.get());
+        }
+        assertEquals(17, calls("getAppointmentRows", "executed") + calls("getAppointmentRows", "coalesced") - before);
+    }
+}
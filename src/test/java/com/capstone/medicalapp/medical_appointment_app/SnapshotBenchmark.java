@@ -0,0 +1,154 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.io.BufferedReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.h2.util.ScriptReader;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.capstone.medicalapp.medical_appointment_app.datagen.DataGenProperties;
+import com.capstone.medicalapp.medical_appointment_app.datagen.DataGenerator;
+import com.capstone.medicalapp.medical_appointment_app.sharding.ClinicContext;
+import com.capstone.medicalapp.medical_appointment_app.snapshot.SnapshotReport;
+import com.capstone.medicalapp.medical_appointment_app.snapshot.SnapshotService;
+
+// a generated clinic in an H2 file database, saved once as a snapshot and once as an H2 sql dump (SCRIPT). the
+// snapshot is read back once without the database, to time the format alone. then both are restored three ways
+// into empty tables, each of which must give back the same rows:
+// - the snapshot, into the live tables
+// - the dump's INSERT statements replayed into the live tables, the way a single clinic's dump is loaded into
+//   tables other clinics share (mysqldump --no-create-info)
+// - the whole dump with RUNSCRIPT, which drops and recreates both tables and only builds their indexes and foreign
+//   key once the rows are in, so it is only open to a database holding nothing else
+// run with: ./mvnw test -Dtest=SnapshotBenchmark [-Dbench.patients=1000000 -Dbench.appointments=9000000] -DargLine=-Xmx2g
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:file:./target/snapshot-bench/db;DB_CLOSE_ON_EXIT=FALSE")
+@DisplayName("Snapshot Benchmark")
+class SnapshotBenchmark {
+
+    private static final String FINGERPRINT = "SELECT CONCAT_WS('/', (SELECT COUNT(*) FROM patients), (SELECT SUM(LENGTH(email)) FROM patients),"
+            + " COUNT(*), SUM(DATEDIFF('DAY', DATE '2000-01-01', a.appointment_date)), COUNT(DISTINCT a.doctor_name), SUM(LENGTH(a.description)),"
+            + " MAX(a.created_at)) FROM appointments a JOIN patients p ON p.patient_id = a.patient_id AND p.patient_code = a.patient_code";
+
+    @Autowired
+    private DataGenerator dataGenerator;
+
+    @Autowired
+    private SnapshotService snapshotService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Snapshot write and restore against a sql dump and reload")
+    void snapshot() throws Exception {
+        int patients = Integer.getInteger("bench.patients", 100_000);
+        int appointments = Integer.getInteger("bench.appointments", 900_000);
+        Path directory = Path.of("target", "snapshot-bench");
+        Path snapshot = directory.resolve("clinic.medsnap");
+        Path dump = directory.resolve("dump.sql");
+
+        DataGenProperties settings = new DataGenProperties();
+        settings.setPatients(patients);
+        settings.setAppointments(appointments);
+        settings.setStartDate(LocalDate.of(2024, 1, 1));
+        emptyTables();
+        long start = System.nanoTime();
+        dataGenerator.generate(settings);
+        System.out.printf("generated %d rows in %d ms%n", patients + (long) appointments, millis(start));
+        String fingerprint = jdbcTemplate.queryForObject(FINGERPRINT, String.class);
+
+        start = System.nanoTime();
+        jdbcTemplate.execute("SCRIPT NOPASSWORDS NOSETTINGS DROP TO '" + dump + "' TABLE patients, appointments");
+        long dumpMs = millis(start);
+
+        SnapshotReport written = snapshotService.write(snapshot, ClinicContext.DEFAULT_CLINIC);
+        SnapshotReport verified = snapshotService.verify(snapshot);
+
+        emptyTables();
+        SnapshotReport restored = snapshotService.restore(snapshot, null);
+        assertEquals(fingerprint, jdbcTemplate.queryForObject(FINGERPRINT, String.class));
+
+        emptyTables();
+        start = System.nanoTime();
+        replayInserts(dump, "\"PATIENTS\"");
+        replayInserts(dump, "\"APPOINTMENTS\"");
+        long replayMs = millis(start);
+        assertEquals(fingerprint, jdbcTemplate.queryForObject(FINGERPRINT, String.class));
+
+        // last, the script drops and recreates both tables
+        emptyTables();
+        start = System.nanoTime();
+        jdbcTemplate.execute("RUNSCRIPT FROM '" + dump + "'");
+        long reloadMs = millis(start);
+        assertEquals(fingerprint, jdbcTemplate.queryForObject(FINGERPRINT, String.class));
+
+        long rows = patients + (long) appointments;
+        System.out.printf("%d rows, %d cpus%n", rows, Runtime.getRuntime().availableProcessors());
+        System.out.printf("snapshot:              %5d MB, write %7d ms, restore %7d ms (%7d rows/s, %d workers)%n", written.bytes() >> 20,
+                written.millis(), restored.millis(), restored.rowsPerSecond(), restored.workers());
+        System.out.printf("snapshot, decode only:               read    %7d ms (%7d rows/s)%n", verified.millis(), verified.rowsPerSecond());
+        System.out.printf("sql dump, inserts:     %5d MB, write %7d ms, restore %7d ms (%7d rows/s)%n", Files.size(dump) >> 20, dumpMs, replayMs,
+                rows * 1000 / Math.max(1, replayMs));
+        System.out.printf("sql dump, whole table: %5d MB, write %7d ms, restore %7d ms (%7d rows/s)%n", Files.size(dump) >> 20, dumpMs, reloadMs,
+                rows * 1000 / Math.max(1, reloadMs));
+        System.out.printf("snapshot is %.1fx smaller, writes %.1fx faster, restores %.1fx faster than the inserts and %.1fx than the whole table%n",
+                (double) Files.size(dump) / written.bytes(), (double) dumpMs / Math.max(1, written.millis()),
+                (double) replayMs / Math.max(1, restored.millis()), (double) reloadMs / Math.max(1, restored.millis()));
+    }
+
+    // the dump's INSERT statements into one table, about 5000 rows per transaction like the snapshot restore
+    private void replayInserts(Path dump, String table) throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        try (BufferedReader in = Files.newBufferedReader(dump, StandardCharsets.UTF_8)) {
+            ScriptReader script = new ScriptReader(in);
+            List<String> batch = new ArrayList<>();
+            int rows = 0;
+            for (String statement = script.readStatement(); statement != null; statement = script.readStatement()) {
+                // the first insert into each table comes after a row count comment
+                int insert = statement.indexOf("INSERT INTO \"PUBLIC\"." + table);
+                if (insert < 0) {
+                    continue;
+                }
+                statement = statement.substring(insert);
+                batch.add(statement);
+                rows += statement.split("\n\\(").length - 1;
+                if (rows >= 5000) {
+                    execute(transaction, batch);
+                    rows = 0;
+                }
+            }
+            execute(transaction, batch);
+        }
+    }
+
+    private void execute(TransactionTemplate transaction, List<String> statements) {
+        transaction.executeWithoutResult(status -> statements.forEach(jdbcTemplate::execute));
+        statements.clear();
+    }
+
+    private void emptyTables() {
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY FALSE");
+        jdbcTemplate.execute("TRUNCATE TABLE appointments");
+        jdbcTemplate.execute("TRUNCATE TABLE patients");
+        jdbcTemplate.execute("SET REFERENTIAL_INTEGRITY TRUE");
+    }
+
+    private static long millis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
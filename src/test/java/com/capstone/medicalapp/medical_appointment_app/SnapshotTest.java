@@ -0,0 +1,166 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.capstone.medicalapp.medical_appointment_app.model.Appointment;
+import com.capstone.medicalapp.medical_appointment_app.model.AppointmentSeries;
+import com.capstone.medicalapp.medical_appointment_app.model.Patient;
+import com.capstone.medicalapp.medical_appointment_app.model.RecurrenceFrequency;
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentService;
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentSeriesService;
+import com.capstone.medicalapp.medical_appointment_app.service.PatientService;
+import com.capstone.medicalapp.medical_appointment_app.sharding.ClinicContext;
+import com.capstone.medicalapp.medical_appointment_app.snapshot.SnapshotReport;
+import com.capstone.medicalapp.medical_appointment_app.snapshot.SnapshotService;
+
+// small segments and batches so a few rows already span several of each
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:snapshot_test;DB_CLOSE_DELAY=-1", "medapp.snapshot.segment-rows=3",
+        "medapp.snapshot.batch-size=2", "medapp.snapshot.workers=2"})
+@DisplayName("Snapshot Tests")
+class SnapshotTest {
+
+    private static final String PATIENTS = "SELECT patient_code, name, phone, email, created_at, updated_at FROM patients ORDER BY patient_code";
+    private static final String APPOINTMENTS = "SELECT a.appointment_code, a.patient_code, p.patient_code AS linked_patient, a.doctor_name,"
+            + " a.appointment_date, a.description, a.series_code, a.created_at, a.updated_at"
+            + " FROM appointments a JOIN patients p ON p.patient_id = a.patient_id ORDER BY a.appointment_code";
+    private static final String SERIES = "SELECT series_code, patient_code, doctor_name, description, start_date, end_date, frequency,"
+            + " repeat_interval, day_of_week, created_at, updated_at FROM appointment_series ORDER BY series_code";
+    private static final String SKIPS = "SELECT s.series_code, k.occurrence_date FROM appointment_series_skips k"
+            + " JOIN appointment_series s ON s.series_id = k.series_id ORDER BY s.series_code, k.occurrence_date";
+
+    @Autowired
+    private SnapshotService snapshotService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentSeriesService seriesService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TempDir
+    private Path directory;
+
+    @BeforeEach
+    void setUp() {
+        clear();
+        String[] doctors = {"Dr. Smith", "Dr. Jones", "Dr. O'Brien"};
+        LocalDate start = LocalDate.now().plusDays(7);
+        String seriesID = null;
+        for (int i = 0; i < 7; i++) {
+            String patientID = patientService.addPatient(new Patient("Patient " + (char) ('A' + i), "555000000" + i, "patient" + i + "@email.com")).getPatientID();
+            for (int j = 0; j <= i % 3; j++) {
+                appointmentService.addAppointment(new Appointment(patientID, doctors[(i + j) % 3], LocalDate.now().plusDays(1 + i * 3 + j), j == 2 ? "Contrôle annuel" : "Checkup " + j));
+            }
+            // every other patient has a series, the first of them with two skipped weeks
+            if (i % 2 == 0) {
+                String code = seriesService.addSeries(new AppointmentSeries(patientID, doctors[i % 3], "Physio " + i, start.plusDays(i),
+                        start.plusDays(i + 70), i == 6 ? RecurrenceFrequency.MONTHLY : RecurrenceFrequency.WEEKLY, 1 + i / 4)).getSeriesID();
+                seriesID = seriesID == null ? code : seriesID;
+            }
+        }
+        seriesService.cancelOccurrence(seriesID, start.plusWeeks(1));
+        seriesService.cancelOccurrence(seriesID, start.plusWeeks(3));
+        jdbcTemplate.update("UPDATE appointments SET series_code = ? WHERE description = 'Checkup 1'", seriesID);
+        jdbcTemplate.update("UPDATE patients SET updated_at = NULL WHERE name = 'Patient C'");
+    }
+
+    private void clear() {
+        jdbcTemplate.update("DELETE FROM appointment_series_skips");
+        jdbcTemplate.update("DELETE FROM appointment_series");
+        jdbcTemplate.update("DELETE FROM appointments");
+        jdbcTemplate.update("DELETE FROM patients");
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+
+    @Test
+    @DisplayName("A restored snapshot gives back the same rows, linked to the same patients")
+    void shouldRoundTrip() {
+        List<Map<String, Object>> patients = jdbcTemplate.queryForList(PATIENTS);
+        List<Map<String, Object>> appointments = jdbcTemplate.queryForList(APPOINTMENTS);
+        List<Map<String, Object>> series = jdbcTemplate.queryForList(SERIES);
+        List<Map<String, Object>> skips = jdbcTemplate.queryForList(SKIPS);
+        Path file = directory.resolve("main.medsnap");
+
+        SnapshotReport written = snapshotService.write(file, ClinicContext.DEFAULT_CLINIC);
+        clear();
+        SnapshotReport restored = snapshotService.restore(file, null);
+
+        assertEquals(7, written.patients());
+        assertEquals(13, written.appointments());
+        assertEquals(4, written.series());
+        assertEquals(2, skips.size());
+        assertEquals(ClinicContext.DEFAULT_CLINIC, restored.clinicID());
+        assertEquals(patients, jdbcTemplate.queryForList(PATIENTS));
+        assertEquals(appointments, jdbcTemplate.queryForList(APPOINTMENTS));
+        assertEquals(series, jdbcTemplate.queryForList(SERIES));
+        assertEquals(skips, jdbcTemplate.queryForList(SKIPS));
+        assertEquals(13L, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM appointments a JOIN patients p"
+                + " ON p.patient_id = a.patient_id AND p.patient_code = a.patient_code", Long.class));
+    }
+
+    @Test
+    @DisplayName("A damaged snapshot is refused before any row is restored")
+    void shouldRejectCorruptSnapshot() throws Exception {
+        Path file = directory.resolve("main.medsnap");
+        snapshotService.write(file, ClinicContext.DEFAULT_CLINIC);
+        clear();
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[20] ^= 0x10;
+        Files.write(file, bytes);
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> snapshotService.restore(file, null));
+
+        assertTrue(exception.getMessage().contains("checksum mismatch"), exception.getMessage());
+        assertEquals(0, count("patients"));
+
+        Path truncated = directory.resolve("truncated.medsnap");
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 5));
+        exception = assertThrows(IllegalStateException.class, () -> snapshotService.restore(truncated, null));
+        assertTrue(exception.getMessage().contains("incomplete or corrupt"), exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("A snapshot is only restored into an empty clinic")
+    void shouldRefuseNonEmptyClinic() {
+        Path file = directory.resolve("main.medsnap");
+        snapshotService.write(file, ClinicContext.DEFAULT_CLINIC);
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> snapshotService.restore(file, null));
+
+        assertEquals("Clinic MAIN already has 7 patients, 13 appointments and 4 series, a snapshot is only restored into an empty clinic", exception.getMessage());
+        assertEquals(7, count("patients"));
+        assertEquals(13, count("appointments"));
+        assertEquals(4, count("appointment_series"));
+
+        // series alone are enough to make a clinic not empty
+        jdbcTemplate.update("DELETE FROM appointments");
+        jdbcTemplate.update("DELETE FROM patients");
+        exception = assertThrows(IllegalStateException.class, () -> snapshotService.restore(file, null));
+        assertEquals("Clinic MAIN already has 0 patients, 0 appointments and 4 series, a snapshot is only restored into an empty clinic", exception.getMessage());
+    }
+}
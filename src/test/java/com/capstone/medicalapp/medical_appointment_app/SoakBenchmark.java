@@ -0,0 +1,371 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ToDoubleFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import javax.management.ObjectName;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+// a soak run: a steady mixed workload of browsing users against the running app for a long time (hours in earnest,
+// minutes to try it out), sampling heap after gc, live threads, http sessions and pool connections. each user is an
+// http client that keeps its cookies like a browser and follows the redirects of the form posts, so flash attributes
+// go through the session as they do in production. the database is an H2 file so its rows are not counted as heap.
+// fails when a sample keeps growing after the warm-up or a connection is still out once the load stops, and writes
+// the samples, the types allocated most (a JFR allocation sample) and a live heap histogram to target/soak
+// run with: ./mvnw test -Dtest=SoakBenchmark -DargLine=-Xmx512m [-Dbench.minutes=240 -Dbench.users=8 -Dbench.rate=40]
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/soak/db", "medapp.admission.client-header=X-Client-ID"})
+@DisplayName("Soak Benchmark")
+class SoakBenchmark {
+
+    private static final Pattern NEW_ID = Pattern.compile("with ID: ?(\\w+)");
+    private static final Path OUTPUT = Path.of("target", "soak");
+    private static final int APPOINTMENTS_PER_USER = 20;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private HikariDataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final List<String> errors = new ArrayList<>();
+
+    private record Sample(double minutes, double heapMb, int threads, int activeConnections, int idleConnections,
+            int awaitingConnections, double sessions, long requests) {}
+
+    @Test
+    @DisplayName("Steady mixed workload without heap, thread, session or connection growth")
+    void soak() throws Exception {
+        double minutes = Double.parseDouble(System.getProperty("bench.minutes", "60"));
+        int users = Integer.getInteger("bench.users", 8);
+        int rate = Integer.getInteger("bench.rate", 40);
+        int sampleSeconds = Integer.getInteger("bench.sampleSeconds", 15);
+        double warmup = Double.parseDouble(System.getProperty("bench.warmup", "0.25"));
+        double maxHeapMbPerHour = Double.parseDouble(System.getProperty("bench.maxHeapMbPerHour", "16"));
+        double heapNoiseMb = Double.parseDouble(System.getProperty("bench.heapNoiseMb", "8"));
+        double maxThreadGrowth = Double.parseDouble(System.getProperty("bench.maxThreadGrowth", "2"));
+        double maxSessionGrowth = Double.parseDouble(System.getProperty("bench.maxSessionGrowth", "2"));
+        Files.createDirectories(OUTPUT);
+
+        // a fixed pool under the http clients, so the client side adds no threads of its own over time
+        ExecutorService clientThreads = Executors.newFixedThreadPool(users);
+        List<User> clients = new ArrayList<>();
+        for (int u = 0; u < users; u++) {
+            User user = new User(u, clientThreads);
+            user.register();
+            clients.add(user);
+        }
+
+        Recording allocations = new Recording();
+        allocations.enable("jdk.ObjectAllocationSample").with("throttle", "100/s");
+        allocations.start();
+
+        // each user acts at a fixed rate, together rate requests per second
+        ScheduledExecutorService load = Executors.newScheduledThreadPool(users);
+        long periodNanos = TimeUnit.SECONDS.toNanos(users) / rate;
+        for (int u = 0; u < users; u++) {
+            load.scheduleAtFixedRate(clients.get(u)::step, u * periodNanos / users, periodNanos, TimeUnit.NANOSECONDS);
+        }
+
+        List<Sample> samples = new ArrayList<>();
+        long start = System.nanoTime();
+        long end = start + (long) (minutes * 60e9);
+        System.out.printf("soak: %d users, %d requests/s for %.1f minutes, a sample every %d s%n", users, rate, minutes, sampleSeconds);
+        while (System.nanoTime() < end) {
+            Thread.sleep(Math.min(TimeUnit.SECONDS.toMillis(sampleSeconds), Math.max(1, (end - System.nanoTime()) / 1_000_000)));
+            Sample sample = sample((System.nanoTime() - start) / 60e9);
+            samples.add(sample);
+            System.out.printf("soak: %6.1f min heap %6.1f MB threads %3d connections %d active %d idle %d waiting sessions %.0f requests %d%n",
+                    sample.minutes(), sample.heapMb(), sample.threads(), sample.activeConnections(), sample.idleConnections(),
+                    sample.awaitingConnections(), sample.sessions(), sample.requests());
+        }
+        load.shutdown();
+        assertTrue(load.awaitTermination(1, TimeUnit.MINUTES));
+        allocations.stop();
+        clientThreads.shutdown();
+
+        // once the load stops every connection must go back to the pool
+        Thread.sleep(2000);
+        Sample atRest = sample((System.nanoTime() - start) / 60e9);
+
+        List<Sample> measured = samples.subList((int) (samples.size() * warmup), samples.size());
+        List<String> failures = new ArrayList<>();
+        double heapGrowth = growth(measured, Sample::heapMb);
+        double heapPerHour = heapGrowth / span(measured) * 60;
+        if (heapGrowth > heapNoiseMb && heapPerHour > maxHeapMbPerHour) {
+            failures.add(String.format("heap after gc grows %.1f MB/hour (%.1f MB over the run)", heapPerHour, heapGrowth));
+        }
+        double threadGrowth = growth(measured, Sample::threads);
+        if (threadGrowth > maxThreadGrowth) {
+            failures.add(String.format("live threads grow by %.1f over the run", threadGrowth));
+        }
+        double sessionGrowth = growth(measured, Sample::sessions);
+        if (sessionGrowth > maxSessionGrowth) {
+            failures.add(String.format("http sessions grow by %.1f over the run", sessionGrowth));
+        }
+        if (atRest.activeConnections() > 0) {
+            failures.add(atRest.activeConnections() + " connections still in use after the load stopped");
+        }
+
+        writeSamples(samples);
+        Path jfr = OUTPUT.resolve("allocations.jfr");
+        allocations.dump(jfr);
+        allocations.close();
+        String allocated = topAllocations(jfr, 20);
+        Files.writeString(OUTPUT.resolve("allocations.txt"), allocated);
+        String histogram = (String) ManagementFactory.getPlatformMBeanServer().invoke(new ObjectName("com.sun.management:type=DiagnosticCommand"),
+                "gcClassHistogram", new Object[] {null}, new String[] {String[].class.getName()});
+        Files.writeString(OUTPUT.resolve("histogram.txt"), histogram);
+
+        System.out.printf("soak: %d requests, %d refused by admission control, heap %+.1f MB/hour, threads %+.1f, sessions %+.1f, "
+                + "%d connections out at rest%n", requests.get(), rejected.get(), heapPerHour, threadGrowth, sessionGrowth, atRest.activeConnections());
+        System.out.println("soak: top allocating types (sampled bytes)\n" + allocated);
+        System.out.println("soak: live heap histogram\n" + histogram.lines().limit(23).collect(Collectors.joining("\n")));
+        synchronized (errors) {
+            assertEquals(List.of(), errors.stream().limit(10).toList(), errors.size() + " requests failed");
+        }
+        assertTrue(failures.isEmpty(), String.join("; ", failures));
+    }
+
+    // heap as the full gc left it (the pools' collection usage), requests allocating meanwhile do not count
+    private Sample sample(double minutes) {
+        System.gc();
+        long heap = 0;
+        for (MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (memoryPool.getType() == MemoryType.HEAP && memoryPool.getCollectionUsage() != null) {
+                heap += memoryPool.getCollectionUsage().getUsed();
+            }
+        }
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        Gauge sessions = meterRegistry.find("tomcat.sessions.active.current").gauge();
+        return new Sample(minutes, heap / (1024.0 * 1024),
+                ManagementFactory.getThreadMXBean().getThreadCount(), pool.getActiveConnections(), pool.getIdleConnections(),
+                pool.getThreadsAwaitingConnection(), sessions != null ? sessions.value() : -1, requests.get());
+    }
+
+    // least squares line through the samples, its rise from the first sample to the last
+    private static double growth(List<Sample> samples, ToDoubleFunction<Sample> value) {
+        if (samples.size() < 3) {
+            return 0;
+        }
+        double n = samples.size();
+        double sumX = 0, sumY = 0, sumXY = 0, sumXX = 0;
+        for (Sample sample : samples) {
+            double x = sample.minutes();
+            double y = value.applyAsDouble(sample);
+            sumX += x;
+            sumY += y;
+            sumXY += x * y;
+            sumXX += x * x;
+        }
+        double slope = (n * sumXY - sumX * sumY) / (n * sumXX - sumX * sumX);
+        return slope * span(samples);
+    }
+
+    private static double span(List<Sample> samples) {
+        return samples.isEmpty() ? 0 : samples.get(samples.size() - 1).minutes() - samples.get(0).minutes();
+    }
+
+    private static void writeSamples(List<Sample> samples) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(OUTPUT.resolve("samples.csv")))) {
+            out.println("minutes,heap_mb,threads,active_connections,idle_connections,awaiting_connections,sessions,requests");
+            for (Sample s : samples) {
+                out.printf("%.2f,%.1f,%d,%d,%d,%d,%.0f,%d%n", s.minutes(), s.heapMb(), s.threads(), s.activeConnections(),
+                        s.idleConnections(), s.awaitingConnections(), s.sessions(), s.requests());
+            }
+        }
+    }
+
+    // the sampled allocation weight per type, an estimate of the bytes each type allocated over the run. the first
+    // sample of a thread also carries what it allocated before the recording, so this (sampling) thread is left out:
+    // it started the whole context
+    private static String topAllocations(Path jfr, int top) throws IOException {
+        long sampler = Thread.currentThread().threadId();
+        Map<String, Long> bytes = new HashMap<>();
+        try (RecordingFile file = new RecordingFile(jfr)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                if (event.getEventType().getName().equals("jdk.ObjectAllocationSample") && event.getThread("eventThread").getJavaThreadId() != sampler) {
+                    bytes.merge(event.getClass("objectClass").getName(), event.getLong("weight"), Long::sum);
+                }
+            }
+        }
+        long total = bytes.values().stream().mapToLong(Long::longValue).sum();
+        return bytes.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(top)
+                .map(entry -> String.format("%10.1f MB %5.1f%%  %s", entry.getValue() / (1024.0 * 1024), 100.0 * entry.getValue() / total, entry.getKey()))
+                .collect(Collectors.joining("\n"));
+    }
+
+    // one browsing user: reads the lists and the calendar, books, moves and cancels its own appointments (at most
+    // APPOINTMENTS_PER_USER at a time, so the data stays the same size) and edits its patients
+    private final class User {
+
+        private final int number;
+        private final String clientID;
+        private final HttpClient client;
+        private final SplittableRandom random;
+        private final List<String> patients = new ArrayList<>();
+        private final Deque<String> appointments = new ArrayDeque<>();
+        private int edits;
+
+        User(int number, ExecutorService executor) {
+            this.number = number;
+            this.clientID = "soak-" + number;
+            this.client = HttpClient.newBuilder().cookieHandler(new CookieManager()).followRedirects(HttpClient.Redirect.NORMAL)
+                    .executor(executor).build();
+            this.random = new SplittableRandom(42 + number);
+        }
+
+        void register() {
+            for (int p = 0; p < 3; p++) {
+                String page = post("/patients", "name", name(p), "phone", String.format("555%03d%04d", number, p), "email", clientID + "-" + p + "@email.com");
+                Matcher id = NEW_ID.matcher(page);
+                assertTrue(id.find(), "no patient id in the page after adding one");
+                patients.add(id.group(1));
+            }
+        }
+
+        void step() {
+            try {
+                int roll = random.nextInt(100);
+                if (roll < 30) {
+                    get("/appointments");
+                } else if (roll < 45) {
+                    get("/patients");
+                } else if (roll < 55) {
+                    get("/appointments/calendar?view=" + (random.nextBoolean() ? "week" : "month"));
+                } else if (roll < 60) {
+                    get("/api/changes/head");
+                } else if (roll < 75 || appointments.isEmpty()) {
+                    if (appointments.size() >= APPOINTMENTS_PER_USER) {
+                        cancel();
+                    }
+                    book();
+                } else if (roll < 85) {
+                    String appointmentID = appointments.peekLast();
+                    post("/appointments/update/" + appointmentID, appointment(patients.get(random.nextInt(patients.size()))));
+                } else if (roll < 95) {
+                    cancel();
+                } else {
+                    int p = random.nextInt(patients.size());
+                    post("/patients/update/" + patients.get(p), "name", name(p) + (++edits % 2 == 0 ? "" : " Jr"),
+                            "phone", String.format("555%03d%04d", number, p), "email", clientID + "-" + p + "@email.com");
+                }
+            } catch (RuntimeException e) {
+                error(e.toString());
+            }
+        }
+
+        private void book() {
+            Matcher id = NEW_ID.matcher(post("/appointments", appointment(patients.get(random.nextInt(patients.size())))));
+            if (id.find()) {
+                appointments.addLast(id.group(1));
+            }
+        }
+
+        private void cancel() {
+            if (!appointments.isEmpty()) {
+                get("/appointments/delete/" + appointments.pollFirst());
+            }
+        }
+
+        private String[] appointment(String patientID) {
+            return new String[] {"patientID", patientID, "doctorName", "Dr. Soak " + (char) ('A' + random.nextInt(10)),
+                    "aptDate", LocalDate.now().plusDays(1 + random.nextInt(90)).toString(), "description", "Checkup"};
+        }
+
+        private String name(int p) {
+            return "Soak " + (char) ('A' + number % 26) + (char) ('a' + number / 26 % 26) + " " + (char) ('A' + p);
+        }
+
+        private String get(String path) {
+            return send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET());
+        }
+
+        private String post(String path, String... form) {
+            StringBuilder body = new StringBuilder();
+            for (int i = 0; i < form.length; i += 2) {
+                body.append(i == 0 ? "" : "&").append(form[i]).append('=').append(URLEncoder.encode(form[i + 1], StandardCharsets.UTF_8));
+            }
+            return send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                    .header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString(body.toString())));
+        }
+
+        private String send(HttpRequest.Builder request) {
+            try {
+                HttpResponse<String> response = client.send(request.header("X-Client-ID", clientID).build(), HttpResponse.BodyHandlers.ofString());
+                requests.incrementAndGet();
+                if (response.statusCode() == 429 || response.statusCode() == 503) {
+                    rejected.incrementAndGet();
+                } else if (response.statusCode() != 200) {
+                    error(response.request().method() + " " + response.uri().getPath() + " answered " + response.statusCode());
+                }
+                return response.body();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private void error(String message) {
+        synchronized (errors) {
+            errors.add(message);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.fail;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+// test-side datasource proxy that keeps the sql statements a thread sends to any shard while recording, so a test can
+// pin down what a route costs. import it into a @SpringBootTest and wrap the request in record(), statements of
+// background writers such as the audit log are left out
+class SqlRecorder implements BeanPostProcessor {
+
+    private static final Pattern TABLE = Pattern.compile("\\b(?:from|into|update)\\s+(\\w+)");
+    private static final Pattern JOIN = Pattern.compile("\\bjoin\\s+(\\w+)");
+
+    @FunctionalInterface
+    interface Action {
+        void run() throws Exception;
+    }
+
+    private final List<String> statements = new ArrayList<>();
+    private volatile Thread recording;
+
+    // the statements the action executed on this thread, in order
+    public synchronized List<String> record(Action action) throws Exception {
+        statements.clear();
+        recording = Thread.currentThread();
+        try {
+            action.run();
+        } finally {
+            recording = null;
+        }
+        return new ArrayList<>(statements);
+    }
+
+    // fails with a line diff of statement shapes (verb and tables, see shape()) and the full sql that ran
+    public static void assertShapes(String route, List<String> statements, String... expected) {
+        List<String> actual = statements.stream().map(SqlRecorder::shape).toList();
+        if (actual.equals(List.of(expected))) {
+            return;
+        }
+        fail(route + " expected " + expected.length + " statements but ran " + actual.size() + ":\n"
+                + diff(List.of(expected), actual)
+                + "sql:\n" + statements.stream().map(sql -> "  " + sql).collect(Collectors.joining("\n")));
+    }
+
+    // "select a1_0.name from appointments a1_0 join patients p1_0 on ..." becomes "select appointments join patients"
+    public static String shape(String sql) {
+        String lower = sql.trim().toLowerCase(Locale.ROOT);
+        StringBuilder shape = new StringBuilder(lower.split("\\s+", 2)[0]);
+        Matcher table = TABLE.matcher(lower);
+        if (table.find()) {
+            shape.append(' ').append(table.group(1));
+        }
+        Matcher join = JOIN.matcher(lower);
+        while (join.find()) {
+            shape.append(" join ").append(join.group(1));
+        }
+        return shape.toString();
+    }
+
+    // longest common subsequence diff, "- " lines were expected but did not run and "+ " lines are new
+    static String diff(List<String> expected, List<String> actual) {
+        int[][] common = new int[expected.size() + 1][actual.size() + 1];
+        for (int i = expected.size() - 1; i >= 0; i--) {
+            for (int j = actual.size() - 1; j >= 0; j--) {
+                common[i][j] = expected.get(i).equals(actual.get(j)) ? common[i + 1][j + 1] + 1
+                        : Math.max(common[i + 1][j], common[i][j + 1]);
+            }
+        }
+
+        StringBuilder diff = new StringBuilder();
+        int i = 0;
+        int j = 0;
+        while (i < expected.size() || j < actual.size()) {
+            if (i < expected.size() && j < actual.size() && expected.get(i).equals(actual.get(j))) {
+                diff.append("    ").append(expected.get(i++)).append('\n');
+                j++;
+            } else if (j < actual.size() && (i == expected.size() || common[i][j + 1] >= common[i + 1][j])) {
+                diff.append("  + ").append(actual.get(j++)).append('\n');
+            } else {
+                diff.append("  - ").append(expected.get(i++)).append('\n');
+            }
+        }
+        return diff.toString();
+    }
+
+    // the routing datasource keeps its bean type, only the shard pools behind it are wrapped
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof AbstractRoutingDataSource routing) {
+            Map<Object, Object> targets = new HashMap<>();
+            routing.getResolvedDataSources().forEach((key, target) -> targets.put(key, wrap(target)));
+            routing.setTargetDataSources(targets);
+            routing.setDefaultTargetDataSource(wrap(routing.getResolvedDefaultDataSource()));
+            routing.initialize();
+        }
+        return bean;
+    }
+
+    private DataSource wrap(DataSource target) {
+        return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {DataSource.class}, (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            return result instanceof Connection connection ? wrap(connection) : result;
+        });
+    }
+
+    private Connection wrap(Connection target) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (result instanceof CallableStatement statement) {
+                return wrap(statement, CallableStatement.class, (String) args[0]);
+            }
+            if (result instanceof PreparedStatement statement) {
+                return wrap(statement, PreparedStatement.class, (String) args[0]);
+            }
+            if (result instanceof Statement statement) {
+                return wrap(statement, Statement.class, null);
+            }
+            return result;
+        });
+    }
+
+    // a prepared statement is recorded each time it executes, a batch counts as one round trip
+    private Statement wrap(Statement target, Class<? extends Statement> type, String preparedSql) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (recording == Thread.currentThread() && method.getName().startsWith("execute")) {
+                statements.add(args != null && args.length > 0 && args[0] instanceof String sql ? sql : preparedSql);
+            }
+            return invoke(target, method, args);
+        };
+        return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@DisplayName("Static Asset Tests")
+class StaticAssetTest {
+
+    private static final Pattern BOOTSTRAP_CSS = Pattern.compile("/vendor/bootstrap-5\\.3\\.0/css/bootstrap\\.min-[0-9a-f]{32}\\.css");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Should link self-hosted fingerprinted assets instead of the CDN")
+    void shouldLinkFingerprintedAssets() throws Exception {
+        String page = mockMvc.perform(get("/patients")).andReturn().getResponse().getContentAsString();
+
+        assertFalse(page.contains("cdn.jsdelivr.net"));
+        assertTrue(BOOTSTRAP_CSS.matcher(page).find());
+        assertTrue(Pattern.compile("/styles-[0-9a-f]{32}\\.css").matcher(page).find());
+        assertTrue(Pattern.compile("/vendor/bootstrap-5\\.3\\.0/js/bootstrap\\.bundle\\.min-[0-9a-f]{32}\\.js").matcher(page).find());
+    }
+
+    @Test
+    @DisplayName("Should serve the precompressed variant the browser accepts with an immutable cache policy")
+    void shouldServePrecompressedVariants() throws Exception {
+        String url = fingerprintedBootstrapUrl();
+
+        MockHttpServletResponse brotli = mockMvc.perform(get(url).header("Accept-Encoding", "gzip, deflate, br")).andReturn().getResponse();
+        assertEquals(200, brotli.getStatus());
+        assertEquals("br", brotli.getHeader("Content-Encoding"));
+        assertTrue(brotli.getHeader("Cache-Control").contains("max-age=31536000"));
+        assertTrue(brotli.getHeader("Cache-Control").contains("immutable"));
+        assertTrue(brotli.getHeaders("Vary").contains("Accept-Encoding"));
+
+        MockHttpServletResponse gzip = mockMvc.perform(get(url).header("Accept-Encoding", "gzip")).andReturn().getResponse();
+        assertEquals("gzip", gzip.getHeader("Content-Encoding"));
+
+        MockHttpServletResponse plain = mockMvc.perform(get(url)).andReturn().getResponse();
+        assertNull(plain.getHeader("Content-Encoding"));
+        assertTrue(plain.getContentAsString().startsWith("@charset \"UTF-8\";/*!\n * Bootstrap  v5.3.0"));
+
+        assertTrue(brotli.getContentAsByteArray().length < gzip.getContentAsByteArray().length);
+        assertTrue(gzip.getContentAsByteArray().length < plain.getContentAsByteArray().length / 5);
+    }
+
+    @Test
+    @DisplayName("Should revalidate an asset asked for by its plain url")
+    void shouldRevalidatePlainUrls() throws Exception {
+        MockHttpServletResponse plain = mockMvc.perform(get("/styles.css")).andReturn().getResponse();
+
+        assertEquals(200, plain.getStatus());
+        assertTrue(plain.getHeader("Cache-Control").contains("no-cache"));
+        assertFalse(plain.getHeader("Cache-Control").contains("immutable"));
+        assertEquals(304, mockMvc.perform(get("/styles.css").header("If-Modified-Since", plain.getHeader("Last-Modified")))
+                .andReturn().getResponse().getStatus());
+    }
+
+    @Test
+    @DisplayName("Should not serve an asset under a stale fingerprint")
+    void shouldRejectStaleFingerprint() throws Exception {
+        assertEquals(404, mockMvc.perform(get("/vendor/bootstrap-5.3.0/css/bootstrap.min-00000000000000000000000000000000.css"))
+                .andReturn().getResponse().getStatus());
+    }
+
+    private String fingerprintedBootstrapUrl() throws Exception {
+        Matcher matcher = BOOTSTRAP_CSS.matcher(mockMvc.perform(get("/")).andReturn().getResponse().getContentAsString());
+        assertTrue(matcher.find());
+        return matcher.group();
+    }
+}
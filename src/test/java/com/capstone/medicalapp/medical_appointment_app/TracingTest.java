@@ -0,0 +1,130 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.capstone.medicalapp.medical_appointment_app.model.Appointment;
+import com.capstone.medicalapp.medical_appointment_app.model.Patient;
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentService;
+import com.capstone.medicalapp.medical_appointment_app.service.PatientService;
+import com.capstone.medicalapp.medical_appointment_app.tracing.SlowTraceExporter;
+import com.capstone.medicalapp.medical_appointment_app.tracing.TraceSpan;
+import com.capstone.medicalapp.medical_appointment_app.tracing.TraceSummary;
+import com.capstone.medicalapp.medical_appointment_app.tracing.TracingFilter;
+
+@SpringBootTest(properties = {"spring.datasource.url=jdbc:h2:mem:tracing_test;DB_CLOSE_DELAY=-1", "medapp.tracing.slowest=1000",
+        "management.endpoints.web.exposure.include=slowtraces"})
+@AutoConfigureMockMvc
+@DisplayName("Tracing Tests")
+class TracingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SlowTraceExporter exporter;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String patientId;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM appointments");
+        jdbcTemplate.update("DELETE FROM patients");
+        exporter.clear();
+        patientId = patientService.addPatient(new Patient("John Doe", "1234567890", "john.doe@email.com")).getPatientID();
+        appointmentService.addAppointment(new Appointment(patientId, "Dr. Smith", LocalDate.now().plusDays(3), "Checkup"));
+    }
+
+    private TraceSummary traced(String url) throws Exception {
+        String traceId = mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn().getResponse().getHeader(TracingFilter.TRACE_HEADER);
+        assertNotNull(traceId);
+        return exporter.find(traceId).orElseThrow();
+    }
+
+    private static TraceSpan span(TraceSummary trace, String layer) {
+        return trace.spans().stream().filter(span -> span.layer().equals(layer)).findFirst().orElseThrow(() -> new AssertionError(
+                "no " + layer + " span in " + trace.spans()));
+    }
+
+    @Test
+    @DisplayName("A page request is broken down into controller, transaction, connection, queries and view")
+    void shouldBreakDownPageRequest() throws Exception {
+        TraceSummary trace = traced("/appointments");
+
+        assertEquals("GET /appointments", trace.request());
+        assertEquals(200, trace.status());
+        TraceSpan controller = span(trace, "controller");
+        TraceSpan transaction = span(trace, "transaction");
+        TraceSpan connection = span(trace, "connection");
+        TraceSpan view = span(trace, "view");
+        assertEquals("AppointmentController.listAppointments", controller.name());
+        assertEquals(0, controller.parent());
+        assertEquals(controller.id(), transaction.parent());
+        assertEquals(transaction.id(), connection.parent());
+        assertEquals(0, view.parent());
+        assertEquals("appointments", view.name());
+        assertTrue(trace.spans().stream().anyMatch(span -> span.layer().equals("repository") || span.layer().equals("jdbc")));
+
+        // each layer's own time, together they are the request
+        double total = trace.selfTimeMs().values().stream().mapToDouble(Double::doubleValue).sum();
+        assertEquals(trace.durationMs(), total, 0.01);
+        assertTrue(view.startMs() >= controller.startMs() + controller.durationMs());
+    }
+
+    @Test
+    @DisplayName("Repository and jdbc calls are named after the repository and the statement, without values")
+    void shouldNameQueries() throws Exception {
+        TraceSummary patient = traced("/patients/edit/" + patientId);
+        assertTrue(patient.spans().stream().anyMatch(span -> span.layer().equals("repository") || span.layer().equals("jdbc")));
+        for (TraceSpan span : patient.spans().subList(1, patient.spans().size())) {
+            assertTrue(!span.name().contains(patientId), span.name());
+        }
+
+        mockMvc.perform(get("/actuator/slowtraces/" + patient.traceId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.request").value("GET /patients/edit/" + patientId));
+        mockMvc.perform(get("/actuator/slowtraces"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.traceId == '" + patient.traceId() + "')]").exists());
+        mockMvc.perform(get("/actuator/slowtraces/0000000000000000")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Only the slowest traces are kept, slowest first")
+    void shouldKeepSlowest() {
+        SlowTraceExporter slowest = new SlowTraceExporter(2);
+        for (double durationMs : List.of(5.0, 50.0, 1.0, 20.0)) {
+            slowest.export(new TraceSummary(String.valueOf(durationMs), "GET /", 200, LocalDateTime.now(), durationMs, Map.of(), List.of(), 0));
+        }
+
+        assertEquals(List.of(50.0, 20.0), slowest.getSlowest().stream().map(TraceSummary::durationMs).toList());
+        assertTrue(!slowest.accepts(20.0));
+        assertTrue(slowest.accepts(21.0));
+    }
+}
@@ -0,0 +1,254 @@
+package com.capstone.medicalapp.medical_appointment_app;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.capstone.medicalapp.medical_appointment_app.model.Appointment;
+import com.capstone.medicalapp.medical_appointment_app.model.AppointmentSeries;
+import com.capstone.medicalapp.medical_appointment_app.model.Patient;
+import com.capstone.medicalapp.medical_appointment_app.model.RecurrenceFrequency;
+import com.capstone.medicalapp.medical_appointment_app.model.WaitlistEntry;
+import com.capstone.medicalapp.medical_appointment_app.model.WaitlistStatus;
+import com.capstone.medicalapp.medical_appointment_app.repository.WaitlistRepository;
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentSeriesService;
+import com.capstone.medicalapp.medical_appointment_app.service.AppointmentService;
+import com.capstone.medicalapp.medical_appointment_app.service.PatientService;
+import com.capstone.medicalapp.medical_appointment_app.waitlist.Waiter;
+import com.capstone.medicalapp.medical_appointment_app.waitlist.WaitlistRequest;
+import com.capstone.medicalapp.medical_appointment_app.waitlist.WaitlistService;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:waitlist_test;DB_CLOSE_DELAY=-1")
+@DisplayName("Waitlist Tests")
+class WaitlistTest {
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentSeriesService seriesService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private WaitlistRepository waitlistRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private LocalDate inTwoWeeks;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM waitlist_entries");
+        jdbcTemplate.update("DELETE FROM appointments");
+        jdbcTemplate.update("DELETE FROM appointment_series_skips");
+        jdbcTemplate.update("DELETE FROM appointment_series");
+        jdbcTemplate.update("DELETE FROM patients");
+        inTwoWeeks = LocalDate.now().plusWeeks(2);
+    }
+
+    private String patient(int n) {
+        return patientService.addPatient(new Patient("Patient " + (char) ('a' + n / 26 % 26) + (char) ('a' + n % 26),
+                String.format("%010d", 5_550_000_000L + n), "patient" + n + "@email.com")).getPatientID();
+    }
+
+    // each test has its own doctor, the queues outlive the rows cleared between tests
+    private WaitlistEntry join(String doctor, String patientID, int urgency, LocalDate earliest, LocalDate latest) {
+        return waitlistService.join(new WaitlistRequest(patientID, doctor, urgency, earliest, latest));
+    }
+
+    private void awaitOffers() throws InterruptedException {
+        for (int i = 0; i < 500 && waitlistService.getPendingOffers() > 0; i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, waitlistService.getPendingOffers());
+    }
+
+    @Test
+    @DisplayName("A cancelled slot goes to the most urgent waiter who can come that day")
+    void shouldOfferByUrgencyThenRequestTime() throws Exception {
+        String doctor = "Dr. Smith";
+        String owner = patient(0);
+        WaitlistEntry routine = join(doctor, patient(1), 2, LocalDate.now().plusDays(1), inTwoWeeks.plusDays(7));
+        WaitlistEntry urgent = join(doctor, patient(2), 4, LocalDate.now().plusDays(1), inTwoWeeks.plusDays(7));
+        WaitlistEntry urgentLater = join(doctor, patient(3), 4, LocalDate.now().plusDays(1), inTwoWeeks.plusDays(7));
+        WaitlistEntry tooLate = join(doctor, patient(4), 5, inTwoWeeks.plusDays(1), inTwoWeeks.plusDays(7));
+
+        assertEquals(List.of(tooLate.getId(), urgent.getId(), urgentLater.getId(), routine.getId()),
+                waitlistService.getWaiting(doctor).stream().map(Waiter::entryID).toList());
+
+        Appointment cancelled = appointmentService.addAppointment(new Appointment(owner, doctor, inTwoWeeks, "Checkup"));
+        appointmentService.deleteAppointment(cancelled.getAppointmentID());
+        awaitOffers();
+
+        WaitlistEntry booked = waitlistRepository.findEntry(urgent.getId()).orElseThrow();
+        assertEquals(WaitlistStatus.BOOKED, booked.getStatus());
+        Appointment replacement = appointmentService.getAppointmentById(booked.getAppointmentID()).orElseThrow();
+        assertEquals(booked.getPatientID(), replacement.getPatientID());
+        assertEquals(inTwoWeeks, replacement.getAptDate());
+        assertEquals(doctor, replacement.getDoctorName());
+
+        assertEquals(urgentLater.getPatientID(), waitlistService.offer(doctor, inTwoWeeks).orElseThrow().getPatientID());
+        assertEquals(List.of(tooLate.getId(), routine.getId()), waitlistService.getWaiting(doctor).stream().map(Waiter::entryID).toList());
+    }
+
+    @Test
+    @DisplayName("A patient who left the waitlist is not booked")
+    void shouldSkipEntriesThatLeft() {
+        String doctor = "Dr. Jones";
+        WaitlistEntry entry = join(doctor, patient(1), 3, LocalDate.now().plusDays(1), inTwoWeeks);
+
+        waitlistService.leave(entry.getId());
+
+        assertTrue(waitlistService.offer(doctor, inTwoWeeks).isEmpty());
+        assertEquals(WaitlistStatus.CANCELLED, waitlistRepository.findEntry(entry.getId()).orElseThrow().getStatus());
+        assertThrows(IllegalArgumentException.class, () -> waitlistService.leave(entry.getId()));
+        assertThrows(IllegalArgumentException.class, () -> join(doctor, patient(2), 9, LocalDate.now().plusDays(1), inTwoWeeks));
+    }
+
+    @Test
+    @DisplayName("An entry whose window has passed expires and the patient can join again")
+    void shouldExpirePassedEntries() {
+        String doctor = "Dr. Expired";
+        String patientID = patient(1);
+        String otherID = patient(2);
+        // joining refuses past windows, so the entries are written as if they had waited since last month
+        for (String waiting : List.of(patientID, otherID)) {
+            jdbcTemplate.update("INSERT INTO waitlist_entries (patient_code, doctor_name, urgency, earliest_date, latest_date, status, clinic_code, requested_at)"
+                    + " VALUES (?, ?, 3, ?, ?, 'WAITING', 'MAIN', CURRENT_TIMESTAMP)", waiting, doctor, LocalDate.now().minusMonths(1), LocalDate.now().minusDays(1));
+        }
+        assertTrue(waitlistService.getWaiting(doctor).isEmpty());
+
+        WaitlistEntry rejoined = join(doctor, patientID, 3, LocalDate.now().plusDays(1), inTwoWeeks);
+        assertTrue(waitlistService.offer(doctor, inTwoWeeks).isPresent());
+
+        assertEquals(List.of("BOOKED", "EXPIRED", "EXPIRED"), jdbcTemplate.queryForList(
+                "SELECT status FROM waitlist_entries WHERE doctor_name = ? ORDER BY status", String.class, doctor));
+        assertEquals(WaitlistStatus.BOOKED, waitlistRepository.findEntry(rejoined.getId()).orElseThrow().getStatus());
+        assertTrue(waitlistService.getWaiting(doctor).isEmpty());
+    }
+
+    @Test
+    @DisplayName("A patient who joined on another instance is offered a slot")
+    void shouldOfferWaitersJoinedElsewhere() {
+        String doctor = "Dr. Elsewhere";
+        String patientID = patient(1);
+        // the queue is loaded while nobody waits, then another instance writes the entry
+        assertTrue(waitlistService.offer(doctor, inTwoWeeks).isEmpty());
+        jdbcTemplate.update("INSERT INTO waitlist_entries (patient_code, doctor_name, urgency, earliest_date, latest_date, status, clinic_code, requested_at)"
+                + " VALUES (?, ?, 3, ?, ?, 'WAITING', 'MAIN', CURRENT_TIMESTAMP)", patientID, doctor, LocalDate.now().plusDays(1), inTwoWeeks);
+
+        assertEquals(patientID, waitlistService.offer(doctor, inTwoWeeks).orElseThrow().getPatientID());
+        assertTrue(waitlistService.getWaiting(doctor).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Moving an appointment or cancelling a series occurrence offers the freed slot")
+    void shouldOfferSlotsFreedByMovesAndSkips() throws Exception {
+        String doctor = "Dr. Moved";
+        String owner = patient(0);
+        WaitlistEntry first = join(doctor, patient(1), 3, LocalDate.now().plusDays(1), inTwoWeeks.plusDays(7));
+        WaitlistEntry second = join(doctor, patient(2), 2, LocalDate.now().plusDays(1), inTwoWeeks.plusDays(7));
+
+        Appointment moved = appointmentService.addAppointment(new Appointment(owner, doctor, inTwoWeeks, "Checkup"));
+        appointmentService.updateAppointment(moved.getAppointmentID(), new Appointment(owner, doctor, inTwoWeeks.plusDays(1), "Checkup"));
+        awaitOffers();
+        WaitlistEntry booked = waitlistRepository.findEntry(first.getId()).orElseThrow();
+        assertEquals(WaitlistStatus.BOOKED, booked.getStatus());
+        assertEquals(inTwoWeeks, appointmentService.getAppointmentById(booked.getAppointmentID()).orElseThrow().getAptDate());
+
+        LocalDate start = LocalDate.now().plusDays(1);
+        AppointmentSeries series = seriesService.addSeries(new AppointmentSeries(owner, doctor, "Dialysis", start, start.plusWeeks(4), RecurrenceFrequency.WEEKLY, 1));
+        assertTrue(seriesService.cancelOccurrence(series.getSeriesID(), start.plusWeeks(1)));
+        awaitOffers();
+        booked = waitlistRepository.findEntry(second.getId()).orElseThrow();
+        assertEquals(WaitlistStatus.BOOKED, booked.getStatus());
+        assertEquals(start.plusWeeks(1), appointmentService.getAppointmentById(booked.getAppointmentID()).orElseThrow().getAptDate());
+    }
+
+    @Test
+    @DisplayName("Concurrent cancellations and joins book every waiter at most once into a real freed slot")
+    void stressCancellationsAndJoins() throws Exception {
+        String doctor = "Dr. Stress";
+        int slots = 300;
+        int waiters = 200;
+        Random random = new Random(42);
+
+        String owner = patient(0);
+        List<String> cancellations = new ArrayList<>();
+        for (int i = 0; i < slots; i++) {
+            cancellations.add(appointmentService.addAppointment(
+                    new Appointment(owner, doctor, LocalDate.now().plusDays(1 + random.nextInt(30)), "Checkup")).getAppointmentID());
+        }
+        List<String> patients = new ArrayList<>();
+        for (int i = 1; i <= waiters; i++) {
+            patients.add(patient(i));
+        }
+
+        List<Callable<Object>> tasks = new ArrayList<>();
+        for (String appointmentID : cancellations) {
+            tasks.add(() -> appointmentService.deleteAppointment(appointmentID));
+        }
+        for (String patientID : patients) {
+            LocalDate earliest = LocalDate.now().plusDays(1 + random.nextInt(20));
+            int urgency = 1 + random.nextInt(5);
+            LocalDate latest = earliest.plusDays(random.nextInt(15));
+            tasks.add(() -> join(doctor, patientID, urgency, earliest, latest));
+        }
+        Collections.shuffle(tasks, random);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            for (Future<Object> result : pool.invokeAll(tasks)) {
+                result.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        awaitOffers();
+
+        List<WaitlistEntry> entries = waitlistRepository.findAll();
+        List<WaitlistEntry> booked = entries.stream().filter(e -> e.getStatus() == WaitlistStatus.BOOKED).toList();
+        List<WaitlistEntry> waiting = entries.stream().filter(e -> e.getStatus() == WaitlistStatus.WAITING).toList();
+        assertEquals(waiters, booked.size() + waiting.size());
+        assertTrue(booked.size() > 0 && booked.size() <= slots);
+
+        // each booking is its own appointment inside the waiter's window, and nothing else was booked
+        Set<String> appointmentIDs = new HashSet<>();
+        for (WaitlistEntry entry : booked) {
+            Appointment appointment = appointmentService.getAppointmentById(entry.getAppointmentID()).orElseThrow();
+            assertTrue(appointmentIDs.add(appointment.getAppointmentID()));
+            assertEquals(entry.getPatientID(), appointment.getPatientID());
+            assertTrue(!appointment.getAptDate().isBefore(entry.getEarliestDate()) && !appointment.getAptDate().isAfter(entry.getLatestDate()));
+        }
+        assertEquals((long) booked.size(), jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM appointments WHERE description = ?", Long.class, WaitlistService.DESCRIPTION));
+
+        // the in-memory queue holds exactly the rows that are still waiting
+        assertEquals(waiting.stream().map(WaitlistEntry::getId).sorted().toList(),
+                waitlistService.getWaiting(doctor).stream().map(Waiter::entryID).sorted().toList());
+    }
+}